@@ -2,6 +2,9 @@ package com.bibliosedaos.desktop;
 
 import com.bibliosedaos.desktop.api.ApiClient;
 import com.bibliosedaos.desktop.api.ApiFactory;
+import com.bibliosedaos.desktop.api.ApiMetrics;
+import com.bibliosedaos.desktop.api.UserApi;
+import com.bibliosedaos.desktop.api.Warmup;
 import com.bibliosedaos.desktop.config.AppConfig;
 import com.bibliosedaos.desktop.config.ControllerRegistry;
 import com.bibliosedaos.desktop.config.StyleManager;
@@ -37,7 +40,8 @@ public class MainApp extends Application {
 
     /**
      * Inicialitza la configuracio de l'aplicacio abans de mostrar la interficie.
-     * Llegeix la configuracio des d'un fitxer extern.
+     * Llegeix la configuracio des d'un fitxer extern i, en mode real, comenca
+     * l'escalfament del client HTTP mentre es mostra el login.
      *
      * @throws Exception en cas d'errors
      */
@@ -46,6 +50,9 @@ public class MainApp extends Application {
         super.init();
         AppConfig appConfig = new AppConfig();
         ApiFactory.setUseMock(appConfig.isUseMock());
+        if (!appConfig.isUseMock()) {
+            Warmup.start();
+        }
     }
 
     /**
@@ -67,12 +74,13 @@ public class MainApp extends Application {
 
         // Composition root: creacio de dependencies compartides
         AuthService authService = new AuthService(ApiFactory.createAuthApi());
-        UserService userService = new UserService(ApiFactory.createUserApi());
+        UserApi userApi = ApiFactory.createUserApi();
+        UserService userService = new UserService(userApi);
         LlibreService llibreService = new LlibreService(ApiFactory.createLlibreApi());
         AutorService autorService = new AutorService(ApiFactory.createAutorApi());
         ExemplarService exemplarService = new ExemplarService(ApiFactory.createExemplarApi());
         PrestecService prestecService = new PrestecService(ApiFactory.createPrestecApi());
-        GrupService grupService = new GrupService(ApiFactory.createGrupApi());
+        GrupService grupService = new GrupService(ApiFactory.createGrupApi(), userApi);
         HorariService horariService = new HorariService(ApiFactory.createHorariApi());
 
         // ControllerFactory per a injeccio de dependencies en controladors
@@ -118,6 +126,8 @@ public class MainApp extends Application {
     @Override
     public void stop() throws Exception {
         try {
+            Warmup.stop();
+            ApiMetrics.dumpIfConfigured();
             ApiClient.shutdownExecutor();
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error tancant executor", e);
@@ -0,0 +1,254 @@
+package com.bibliosedaos.desktop.api;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Temps d'espera de cada endpoint calculat a partir de la latència observada.
+ *
+ * Una consulta puntual com {@code trobarUsuariPerId} respon en pocs mil·lisegons i
+ * {@code llistarPrestecs} pot trigar segons; amb un temps d'espera fix, o bé un servidor
+ * penjat triga massa a detectar-se, o bé una llista gran es talla. Per a cada clau
+ * "METODE /ruta" es desen els temps de xarxa dels últims intents i el temps d'espera
+ * de cada intent nou és:
+ * <pre>
+ *   percentil(api.timeout.percentile) × api.timeout.multiplier, dins de [floorMs, ceilingMs]
+ * </pre>
+ * Fins que l'endpoint té api.timeout.minSamples mostres s'usa api.timeout.defaultMs.
+ * Un intent que esgota el temps compta com una mostra d'aquella durada, de manera que
+ * un endpoint que s'alenteix de debò va guanyant marge fins al sostre.
+ *
+ * Les mostres es guarden en dues finestres de {@value #WINDOW} intents: quan la vigent
+ * s'omple, passa a ser l'anterior i se'n comença una de nova. Així el càlcul segueix
+ * els canvis del servidor sense oblidar-ho tot de cop.
+ *
+ * Només s'ajusten les peticions amb el temps d'espera per defecte ({@link Endpoint#TIMEOUT}
+ * o cap); una petició amb un temps d'espera propi es respecta.
+ *
+ * Només s'adapten les consultes (GET i HEAD). Una escriptura (POST, PUT, DELETE...) que
+ * esgota el temps potser ja s'ha aplicat al servidor, i un terme ajustat a consultes
+ * ràpides la tallaria abans d'hora; les escriptures fan servir sempre el valor fix de la
+ * ruta o api.timeout.defaultMs.
+ *
+ * Propietats JVM (llegides a cada petició):
+ * -Dapi.timeout.adaptive=false (per defecte true)
+ * -Dapi.timeout.defaultMs=10000, -Dapi.timeout.floorMs=1000, -Dapi.timeout.ceilingMs=30000
+ * -Dapi.timeout.percentile=99, -Dapi.timeout.multiplier=4, -Dapi.timeout.minSamples=20
+ * -Dapi.timeout./biblioteca/prestecs/llistarPrestecs=20000 (valor fix per a una ruta, en ms)
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class AdaptiveTimeout {
+
+    /** Intents per finestra de mostres. */
+    static final int WINDOW = 512;
+
+    private static final Map<String, Samples> SAMPLES = new ConcurrentHashMap<>();
+
+    private AdaptiveTimeout() {
+        // utilitat: no instanciar
+    }
+
+    /**
+     * Mostres d'un endpoint: finestra vigent i anterior.
+     */
+    private static final class Samples {
+        private volatile ApiMetrics.Histogram current = new ApiMetrics.Histogram();
+        private volatile ApiMetrics.Histogram previous;
+        private volatile long lastTimeoutMs = -1;
+
+        void record(long nanos) {
+            ApiMetrics.Histogram h = current;
+            h.record(nanos);
+            if (h.getCount() >= WINDOW) {
+                synchronized (this) {
+                    if (current == h) {
+                        previous = h;
+                        current = new ApiMetrics.Histogram();
+                    }
+                }
+            }
+        }
+
+        /** Percentil de la finestra amb prou mostres, o -1 si encara no n'hi ha. */
+        double percentileMillis(double percentile, int minSamples) {
+            ApiMetrics.Histogram h = current;
+            if (h.getCount() >= minSamples) return h.getPercentileMillis(percentile);
+            ApiMetrics.Histogram p = previous;
+            if (p != null && p.getCount() >= minSamples) {
+                // amb poques mostres noves, el pitjor de les dues finestres
+                return Math.max(p.getPercentileMillis(percentile),
+                        h.getCount() == 0 ? 0 : h.getMaxMillis());
+            }
+            return -1;
+        }
+
+        long count() {
+            ApiMetrics.Histogram p = previous;
+            return current.getCount() + (p == null ? 0 : p.getCount());
+        }
+    }
+
+    /**
+     * Indica si els temps d'espera s'ajusten (propietat api.timeout.adaptive).
+     *
+     * @return true per defecte
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("api.timeout.adaptive", "true"));
+    }
+
+    /**
+     * Temps d'espera que correspon ara a una petició.
+     *
+     * @param request petició
+     * @return temps d'espera calculat, el valor fix configurat per a la ruta o el per defecte
+     */
+    public static Duration timeoutFor(HttpRequest request) {
+        String path = ApiClient.endpointKey(request.uri());
+        String override = System.getProperty("api.timeout." + path);
+        if (override != null) {
+            try {
+                return Duration.ofMillis(Math.max(1, Long.parseLong(override.trim())));
+            } catch (NumberFormatException ignored) {
+                // valor mal format: es calcula com la resta
+            }
+        }
+        long defaultMs = longProperty("api.timeout.defaultMs", 10_000);
+        if (!isEnabled() || !isIdempotent(request)) return Duration.ofMillis(defaultMs);
+        Samples s = SAMPLES.get(key(request.method(), path));
+        double p = (s == null) ? -1
+                : s.percentileMillis(doubleProperty("api.timeout.percentile", 99),
+                (int) longProperty("api.timeout.minSamples", 20));
+        long ms;
+        if (p < 0) {
+            ms = defaultMs;
+        } else {
+            long floor = longProperty("api.timeout.floorMs", 1_000);
+            long ceiling = Math.max(floor, longProperty("api.timeout.ceilingMs", 30_000));
+            ms = Math.min(ceiling, Math.max(floor, (long) Math.ceil(p * doubleProperty("api.timeout.multiplier", 4))));
+        }
+        if (s != null) s.lastTimeoutMs = ms;
+        return Duration.ofMillis(ms);
+    }
+
+    /**
+     * Percentil de latència observat per a l'endpoint d'una petició (l'usa {@link Hedging}).
+     *
+     * @param request petició
+     * @param percentile percentil (0-100)
+     * @return mil·lisegons, o -1 si l'endpoint encara no té prou mostres
+     */
+    static double percentileMillis(HttpRequest request, double percentile) {
+        Samples s = SAMPLES.get(key(request.method(), ApiClient.endpointKey(request.uri())));
+        return s == null ? -1 : s.percentileMillis(percentile, (int) longProperty("api.timeout.minSamples", 20));
+    }
+
+    /**
+     * Aplica el temps d'espera adaptat a una petició que porta el temps per defecte.
+     *
+     * @param request petició a enviar
+     * @return la mateixa petició o una còpia amb el temps d'espera calculat
+     */
+    static HttpRequest apply(HttpRequest request) {
+        Duration own = request.timeout().orElse(null);
+        if (own != null && !own.equals(Endpoint.TIMEOUT)) return request;
+        Duration timeout = timeoutFor(request);
+        if (timeout.equals(own)) return request;
+        return HttpRequest.newBuilder(request, (name, value) -> true).timeout(timeout).build();
+    }
+
+    /**
+     * Registra el temps de xarxa d'un intent amb resposta.
+     *
+     * @param request petició enviada
+     * @param nanos temps fins a la resposta
+     */
+    static void record(HttpRequest request, long nanos) {
+        samples(request).record(nanos);
+    }
+
+    /**
+     * Registra un intent fallit: si ha esgotat el temps, compta com una mostra d'aquella durada.
+     *
+     * @param request petició enviada
+     * @param error error de l'intent
+     */
+    static void recordFailure(HttpRequest request, Throwable error) {
+        if (ApiClient.unwrap(error) instanceof HttpTimeoutException) {
+            request.timeout().ifPresent(t -> samples(request).record(t.toNanos()));
+        }
+    }
+
+    /**
+     * Temps d'espera actual de cada endpoint amb mostres.
+     *
+     * @return mapa ordenat i immutable "METODE /ruta" -&gt; últim temps d'espera aplicat en ms
+     */
+    public static Map<String, Long> getTimeouts() {
+        Map<String, Long> copy = new TreeMap<>();
+        SAMPLES.forEach((k, v) -> {
+            if (v.lastTimeoutMs >= 0) copy.put(k, v.lastTimeoutMs);
+        });
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Oblida totes les mostres.
+     */
+    public static void reset() {
+        SAMPLES.clear();
+    }
+
+    /**
+     * Línies d'informe per a {@link ApiMetrics#report()}.
+     *
+     * @return una línia per endpoint, o text buit si no n'hi ha
+     */
+    static String report() {
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(SAMPLES).forEach((k, v) -> {
+            if (v.lastTimeoutMs >= 0) {
+                sb.append(String.format(Locale.ROOT, "Temps d'espera %s: %d ms (%d mostres)%n", k, v.lastTimeoutMs, v.count()));
+            }
+        });
+        return sb.toString();
+    }
+
+    private static boolean isIdempotent(HttpRequest request) {
+        String method = request.method();
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    private static Samples samples(HttpRequest request) {
+        return SAMPLES.computeIfAbsent(key(request.method(), ApiClient.endpointKey(request.uri())), k -> new Samples());
+    }
+
+    private static String key(String method, String path) {
+        return method + " " + path;
+    }
+
+    private static long longProperty(String name, long def) {
+        try {
+            return Long.parseLong(System.getProperty(name, String.valueOf(def)).trim());
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    private static double doubleProperty(String name, double def) {
+        try {
+            return Double.parseDouble(System.getProperty(name, String.valueOf(def)).trim());
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+}
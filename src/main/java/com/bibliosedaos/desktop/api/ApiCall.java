@@ -0,0 +1,298 @@
+package com.bibliosedaos.desktop.api;
+
+import java.io.Closeable;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Descripció d'una crida a l'API REST.
+ *
+ * Agrupa com es construeix la petició, com es llegeix el cos de la resposta i com
+ * es converteix la resposta en el resultat. La mateixa crida es pot executar de
+ * forma bloquejant ({@link #execute()}) o no bloquejant ({@link #executeAsync()})
+ * sense duplicar la lògica de cada endpoint.
+ *
+ * Els errors es tradueixen sempre a {@link ApiException}: en mode asíncron el
+ * futur es completa amb una {@link CompletionException} que l'embolcalla.
+ *
+ * Les crides GET idèntiques en curs s'agrupen amb {@link SingleFlight}, les marcades
+ * amb {@link #cached()} es revaliden amb {@link HttpCache} i les marcades amb
+ * {@link #hedged()} es dupliquen si tarden ({@link Hedging}).
+ *
+ * És el motor comú de totes les implementacions Http*Api. Cada execució segueix el mateix camí:
+ * <ol>
+ *   <li>construcció de la petició (normalment amb un {@link Endpoint});</li>
+ *   <li>{@link ApiInterceptor#onRequest} dels interceptors de {@link ApiClient} (autenticació...);</li>
+ *   <li>agrupació ({@link SingleFlight}) i revalidació ({@link HttpCache});</li>
+ *   <li>enviament amb reintents ({@link Resilience}) i compressió;</li>
+ *   <li>conversió de la resposta i {@link ApiInterceptor#onComplete} (mètriques...).</li>
+ * </ol>
+ * Si el {@link TaskScope} de qui fa una crida GET es cancel·la mentre s'espera el servidor, la
+ * resposta es descarta abans de convertir-la; les escriptures no depenen de l'àmbit.
+ *
+ * @param <B> tipus del cos HTTP (String, InputStream...)
+ * @param <T> tipus del resultat de la crida
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class ApiCall<B, T> {
+
+    /**
+     * Construeix la petició HTTP d'una crida.
+     */
+    @FunctionalInterface
+    public interface RequestFactory {
+        /**
+         * Crea la petició.
+         *
+         * @return petició HTTP a enviar
+         * @throws Exception si la petició no es pot construir (p. ex. error de serialització)
+         */
+        HttpRequest create() throws Exception;
+    }
+
+    /**
+     * Converteix una resposta HTTP en el resultat de la crida.
+     *
+     * @param <B> tipus del cos HTTP
+     * @param <T> tipus del resultat
+     */
+    @FunctionalInterface
+    public interface ResponseMapper<B, T> {
+        /**
+         * Interpreta la resposta.
+         *
+         * @param response resposta rebuda del servidor
+         * @return resultat de la crida
+         * @throws Exception si la resposta és un error o no es pot deserialitzar
+         */
+        T map(HttpResponse<B> response) throws Exception;
+    }
+
+    private final RequestFactory requestFactory;
+    private final HttpResponse.BodyHandler<B> bodyHandler;
+    private final ResponseMapper<B, T> mapper;
+    private final HttpCache cache;
+    private final boolean hedged;
+
+    private ApiCall(RequestFactory requestFactory, HttpResponse.BodyHandler<B> bodyHandler,
+                    ResponseMapper<B, T> mapper, HttpCache cache, boolean hedged) {
+        this.requestFactory = Objects.requireNonNull(requestFactory, "RequestFactory no pot ser null");
+        this.bodyHandler = Objects.requireNonNull(bodyHandler, "BodyHandler no pot ser null");
+        this.mapper = Objects.requireNonNull(mapper, "ResponseMapper no pot ser null");
+        this.cache = cache;
+        this.hedged = hedged;
+    }
+
+    /**
+     * Crea una nova crida.
+     *
+     * @param requestFactory constructor de la petició
+     * @param bodyHandler gestor del cos de la resposta
+     * @param mapper conversor de la resposta al resultat
+     * @param <B> tipus del cos HTTP
+     * @param <T> tipus del resultat
+     * @return crida preparada per executar
+     */
+    public static <B, T> ApiCall<B, T> of(RequestFactory requestFactory,
+                                          HttpResponse.BodyHandler<B> bodyHandler,
+                                          ResponseMapper<B, T> mapper) {
+        return new ApiCall<>(requestFactory, bodyHandler, mapper, null, false);
+    }
+
+    /**
+     * Retorna la mateixa crida revalidada amb la memòria cau compartida
+     * ({@link ApiClient#HTTP_CACHE}). Només afecta les peticions GET.
+     *
+     * @return crida amb revalidació ETag / Last-Modified
+     */
+    public ApiCall<B, T> cached() {
+        return cached(ApiClient.HTTP_CACHE);
+    }
+
+    /**
+     * Retorna la mateixa crida revalidada amb la memòria cau indicada.
+     *
+     * @param httpCache memòria cau a utilitzar
+     * @return crida amb revalidació ETag / Last-Modified
+     */
+    public ApiCall<B, T> cached(HttpCache httpCache) {
+        return new ApiCall<>(requestFactory, bodyHandler, mapper, Objects.requireNonNull(httpCache), hedged);
+    }
+
+    /**
+     * Retorna la mateixa crida amb duplicació de cua ({@link Hedging}): si la resposta tarda
+     * més que el p95 de l'endpoint, s'envia una segona petició i guanya la primera que arriba.
+     * Pensat per a consultes puntuals GET del camí interactiu.
+     *
+     * @return crida amb duplicació
+     */
+    public ApiCall<B, T> hedged() {
+        return new ApiCall<>(requestFactory, bodyHandler, mapper, cache, true);
+    }
+
+    /**
+     * Executa la crida bloquejant el fil actual fins a tenir la resposta.
+     *
+     * @return resultat de la crida
+     * @throws ApiException si hi ha errors de comunicació o el servidor retorna un error
+     */
+    public T execute() throws ApiException {
+        HttpRequest request;
+        try {
+            request = ApiClient.intercept(requestFactory.create());
+        } catch (Exception e) {
+            throw ApiClient.toApiException(e);
+        }
+        TaskScope scope = TaskScope.forRequest(request);
+        long start = System.nanoTime();
+        T value = null;
+        ApiException error = null;
+        try {
+            value = SingleFlight.execute(request, () -> {
+                Exchange exchange = prepare(request);
+                HttpResponse<B> response = hedged
+                        ? Hedging.send(exchange.request, exchange.handler)
+                        : ApiClient.send(exchange.request, exchange.handler);
+                TaskScope.discardIfCancelled(scope, response.body());
+                return exchange.complete(response);
+            });
+            return value;
+        } catch (Exception e) {
+            TaskScope.recordFailure(scope, e);
+            error = ApiClient.toApiException(e);
+            throw error;
+        } finally {
+            ApiClient.completed(request, value, error, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Executa la crida sense bloquejar: cap fil queda retingut mentre s'espera el servidor.
+     *
+     * La conversió de la resposta s'executa al fil que completa la petició.
+     *
+     * @return futur amb el resultat o completat excepcionalment amb una ApiException
+     */
+    public CompletableFuture<T> executeAsync() {
+        HttpRequest request;
+        try {
+            request = ApiClient.intercept(requestFactory.create());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(ApiClient.toApiException(e));
+        }
+        TaskScope scope = TaskScope.forRequest(request);
+        long start = System.nanoTime();
+        // una escriptura s'envia sense àmbit perquè tancar la vista no l'avorti
+        AtomicReference<CompletableFuture<T>> sent = new AtomicReference<>();
+        TaskScope.runIn(scope, () -> sent.set(SingleFlight.executeAsync(request, () -> send(prepare(request), scope))));
+        return sent.get()
+                .whenComplete((value, error) -> ApiClient.completed(request, value,
+                        error == null ? null : ApiClient.unwrap(error), System.nanoTime() - start));
+    }
+
+    /**
+     * Envia l'intercanvi de forma asíncrona i en converteix la resposta.
+     *
+     * @param exchange intercanvi preparat
+     * @param scope àmbit de qui fa la crida (pot ser null)
+     * @return futur amb el resultat
+     */
+    private CompletableFuture<T> send(Exchange exchange, TaskScope scope) {
+        CompletableFuture<HttpResponse<B>> sent = hedged
+                ? Hedging.sendAsync(exchange.request, exchange.handler)
+                : ApiClient.sendAsync(exchange.request, exchange.handler);
+        return sent.handle((response, error) -> {
+            if (error != null) {
+                throw new CompletionException(ApiClient.toApiException(ApiClient.unwrap(error)));
+            }
+            try {
+                TaskScope.discardIfCancelled(scope, response.body());
+                return exchange.complete(response);
+            } catch (Exception e) {
+                throw new CompletionException(ApiClient.toApiException(e));
+            }
+        });
+    }
+
+    /**
+     * Prepara l'intercanvi: si la crida és revalidable, afegeix els validadors desats
+     * i captura el cos per poder-lo desar.
+     *
+     * @param request petició original
+     * @return intercanvi a enviar
+     */
+    private Exchange prepare(HttpRequest request) {
+        if (cache == null || !cache.isEnabled() || !"GET".equals(request.method())) {
+            return new Exchange(request, bodyHandler, null, null, null);
+        }
+        String key = HttpCache.key(request);
+        HttpCache.Entry entry = cache.lookup(key);
+        HttpRequest effective = (entry == null) ? request : cache.conditional(request, entry);
+        HttpCache.Capture<B> capture = cache.capture(bodyHandler);
+        return new Exchange(effective, capture, key, entry, capture);
+    }
+
+    /**
+     * Petició efectiva d'una execució i estat de revalidació associat.
+     */
+    private final class Exchange {
+        private final HttpRequest request;
+        private final HttpResponse.BodyHandler<B> handler;
+        private final String key;
+        private final HttpCache.Entry entry;
+        private final HttpCache.Capture<B> capture;
+
+        private Exchange(HttpRequest request, HttpResponse.BodyHandler<B> handler, String key,
+                         HttpCache.Entry entry, HttpCache.Capture<B> capture) {
+            this.request = request;
+            this.handler = handler;
+            this.key = key;
+            this.entry = entry;
+            this.capture = capture;
+        }
+
+        /**
+         * Converteix la resposta: un 304 es resol amb el resultat desat i una
+         * resposta completa es desa per a la propera revalidació.
+         *
+         * @param response resposta rebuda
+         * @return resultat de la crida
+         * @throws Exception si la resposta és un error o no es pot deserialitzar
+         */
+        @SuppressWarnings("unchecked")
+        private T complete(HttpResponse<B> response) throws Exception {
+            if (key == null) {
+                return decode(response);
+            }
+            if (response.statusCode() == 304 && entry != null) {
+                if (response.body() instanceof Closeable closeable) closeable.close();
+                return (T) cache.hit(entry, body -> decode(HttpCache.replay(request, body, bodyHandler)));
+            }
+            T value = decode(response);
+            cache.store(key, response, capture, value);
+            return value;
+        }
+
+        /**
+         * Converteix la resposta i en registra el temps de descodificació.
+         *
+         * @param response resposta a convertir
+         * @return resultat de la crida
+         * @throws Exception si la resposta és un error o no es pot deserialitzar
+         */
+        private T decode(HttpResponse<B> response) throws Exception {
+            long start = ApiMetrics.decodeClock();
+            try {
+                return mapper.map(response);
+            } finally {
+                ApiMetrics.recordDecode(request, ApiMetrics.decodeClock() - start);
+            }
+        }
+    }
+}
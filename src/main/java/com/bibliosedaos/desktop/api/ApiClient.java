@@ -1,22 +1,43 @@
 package com.bibliosedaos.desktop.api;
 
 import com.bibliosedaos.desktop.security.SessionStore;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.security.KeyStore;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
 /**
  * Client compartit per a comunicacions HTTP/HTTPS amb l'API REST.
@@ -26,9 +47,24 @@ import java.util.logging.Logger;
  * de fils en segon pla.
  *
  * Llegiu les propietats JVM suportades:
- * -Dapi.base.url=https://localhost:8443
+ * -Dapi.base.url=https://localhost:8443 (o una llista de rèpliques; veure {@link Replicas})
  * -Dapi.ssl.trustStore=/ruta/a/truststore.jks
  * -Dapi.ssl.trustStorePassword=changeit
+ * -Dapi.http.version=HTTP_2 (per defecte HTTP_1_1)
+ * -Dapi.http.compression=true (per defecte false; gzip/deflate negociat)
+ * -Dapi.cache.enabled=false (per defecte true)
+ * -Dapi.retry.* / -Dapi.breaker.* (veure {@link Resilience})
+ * -Dapi.cache.dir=/ruta/cache (capa a disc opcional de {@link HttpCache})
+ * -Dapi.metrics.enabled / -Dapi.metrics.file (veure {@link ApiMetrics})
+ * -Dapi.json.codecs=false (per defecte true; veure {@link ModelCodecs})
+ * -Dapi.executor=virtual (per defecte pool; veure {@link ExecutorStrategy})
+ * -Dapi.executor.queue.interactive|normal|background (cues per prioritat; veure {@link PriorityExecutor})
+ * -Dapi.multiget.concurrency=8 (consultes per ID en paral·lel; veure {@link MultiGet})
+ * -Dapi.warmup.enabled / -Dapi.warmup.keepAliveMs (escalfament a la pantalla de login; veure {@link Warmup})
+ * -Dapi.timeout.* (temps d'espera per endpoint segons la latència; veure {@link AdaptiveTimeout})
+ * -Dapi.hedge.* (duplicació de consultes puntuals lentes; veure {@link Hedging})
+ * -Dapi.limit.* (límit adaptatiu de peticions simultànies per servidor; veure {@link ConcurrencyLimiter})
+ * -Dapi.ratelimit.* (ritme de les feines massives i de fons; veure {@link RateLimiter})
  *
  * Si no es passa trustStore, s'usarà l'SSLContext per defecte de la JVM
  *
@@ -45,22 +81,48 @@ public class ApiClient {
 
     /**
      * Retorna la URL base de la API (configurable mitjançant la propietat del sistema).
-     * Per defecte HTTPS i port 8443.
+     * Per defecte HTTPS i port 8443. Si api.base.url porta una llista de rèpliques, és la
+     * primera; en enviar, {@link Replicas} la canvia per la rèplica escollida.
      *
      * @return la URL base en forma de cadena
      */
     public static String getBaseUrl() {
-        return System.getProperty("api.base.url", "https://localhost:8443");
+        return Replicas.getReplicas().get(0).getBaseUrl();
     }
 
+    /** Segments numèrics d'una ruta (ids) que s'agrupen en una sola clau d'endpoint. */
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    /** Versió HTTP preferida segons la propietat api.http.version. */
+    private static final HttpClient.Version PREFERRED_VERSION = resolveHttpVersion();
+
+    /** Protocol negociat per a cada endpoint (clau: "METODE /ruta"). */
+    private static final Map<String, HttpClient.Version> NEGOTIATED_VERSIONS = new ConcurrentHashMap<>();
+
     /** HttpClient reutilitzable configurat amb SSLContext segons propietats. */
     public static final HttpClient HTTP_CLIENT = createHttpClient();
 
     /** ObjectMapper compartit per serialització i deserialització JSON. */
     public static final ObjectMapper MAPPER = createMapper();
 
-    /** Executor per a tasques en segon pla amb fils dimoni. */
-    public static final ExecutorService BG_EXEC = createExecutor();
+    /** ObjectReaders per tipus, resolts una sola vegada i reutilitzats a cada resposta. */
+    private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+
+    /** ObjectWriters per tipus, resolts una sola vegada i reutilitzats a cada petició. */
+    private static final Map<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
+    /** Rutes públiques o que porten el seu propi token (login, registre, logout). */
+    private static final String PUBLIC_PREFIX = "/biblioteca/auth/";
+
+    /** Interceptors aplicats a cada {@link ApiCall}, en ordre: autenticació i mètriques. */
+    private static final List<ApiInterceptor> INTERCEPTORS =
+            new CopyOnWriteArrayList<>(List.of(authInterceptor(), ApiMetrics.CALL_INTERCEPTOR));
+
+    /** Executor per a tasques en segon pla, amb classes de prioritat ({@link TaskPriority}). */
+    public static final PriorityExecutor BG_EXEC = createExecutor();
+
+    /** Memòria cau de revalidació (ETag / Last-Modified) per a les crides marcades com a cached. */
+    public static final HttpCache HTTP_CACHE = HttpCache.fromSystemProperties();
 
     /**
      * Constructor privat per a classe d'utilitats.
@@ -79,37 +141,22 @@ public class ApiClient {
         ObjectMapper m = new ObjectMapper();
         m.registerModule(new JavaTimeModule());
         m.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (ModelCodecs.isEnabled()) {
+            m.registerModule(ModelCodecs.module());
+        }
         return m;
     }
 
     /**
-     * Crea l'ExecutorService per a tasques en segon pla.
+     * Crea l'ExecutorService per a tasques en segon pla segons {@code api.executor}.
      *
-     * @return ExecutorService configurat
+     * @return executor configurat
      */
-    private static ExecutorService createExecutor() {
-        int core = Math.max(2, Runtime.getRuntime().availableProcessors());
-        int max = Math.max(core, 50);
-        long keepAlive = 60L;
-
-        BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>(200);
-        ThreadFactory tf = r -> {
-            Thread t = new Thread(r);
-            t.setDaemon(true);
-            t.setName("biblio-bg-" + t.getId());
-            return t;
-        };
-
-        ThreadPoolExecutor exec = new ThreadPoolExecutor(
-                core,
-                max,
-                keepAlive, TimeUnit.SECONDS,
-                queue,
-                tf,
-                new ThreadPoolExecutor.AbortPolicy()
-        );
-        exec.allowCoreThreadTimeOut(false);
-        return exec;
+    private static PriorityExecutor createExecutor() {
+        ExecutorStrategy strategy = ExecutorStrategy.fromSystemProperties();
+        LOGGER.info(() -> "Executor en segon pla: " + strategy
+                + (strategy == ExecutorStrategy.VIRTUAL && !ExecutorStrategy.isVirtualSupported() ? " (no disponible, POOL)" : ""));
+        return strategy.create();
     }
 
     /**
@@ -139,18 +186,333 @@ public class ApiClient {
                 LOGGER.info("Usant SSLContext per defecte de la JVM");
             }
 
+            LOGGER.info(() -> "Versió HTTP preferida: " + PREFERRED_VERSION);
             return HttpClient.newBuilder()
                     .sslContext(sslContext)
-                    .connectTimeout(Duration.ofSeconds(10))
-                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(connectTimeout())
+                    .version(PREFERRED_VERSION)
                     .build();
 
         } catch (Exception e) {
             LOGGER.log(Level.WARNING, "No s'ha pogut inicialitzar SSLContext personalitzat; s'usa HttpClient per defecte.", e);
-            return HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+            return HttpClient.newBuilder()
+                    .connectTimeout(connectTimeout())
+                    .version(PREFERRED_VERSION)
+                    .build();
+        }
+    }
+
+    /**
+     * Temps màxim per establir una connexió (propietat api.timeout.connectMs, per defecte 10 s).
+     * El temps d'espera de cada petició el calcula {@link AdaptiveTimeout}.
+     *
+     * @return temps d'espera de connexió
+     */
+    static Duration connectTimeout() {
+        try {
+            return Duration.ofMillis(Math.max(1, Long.parseLong(System.getProperty("api.timeout.connectMs", "10000").trim())));
+        } catch (NumberFormatException e) {
+            return Duration.ofSeconds(10);
+        }
+    }
+
+    /**
+     * Llegeix la versió HTTP preferida de la propietat api.http.version.
+     *
+     * Amb HTTP_2 el protocol es negocia per ALPN durant l'handshake TLS: totes les
+     * peticions a un mateix servidor comparteixen una única connexió multiplexada i,
+     * si el servidor no suporta HTTP/2, el client torna a HTTP/1.1 automàticament.
+     * Valors admesos: HTTP_2 (o "2") i HTTP_1_1 (o "1.1"); qualsevol altre valor es
+     * tracta com HTTP_1_1.
+     *
+     * @return versió HTTP configurada
+     */
+    static HttpClient.Version resolveHttpVersion() {
+        String v = System.getProperty("api.http.version", "HTTP_1_1").trim().toUpperCase(Locale.ROOT);
+        return switch (v) {
+            case "HTTP_2", "HTTP/2", "2" -> HttpClient.Version.HTTP_2;
+            default -> HttpClient.Version.HTTP_1_1;
+        };
+    }
+
+    /**
+     * Envia una petició amb el client compartit.
+     *
+     * És el punt d'enviament comú de totes les implementacions Http*Api. En mode HTTP/2
+     * les peticions en clar (http://) es forcen a HTTP/1.1 per evitar l'upgrade h2c, que
+     * molts servidors no admeten; HTTP/2 només s'usa sobre TLS. Desa el protocol
+     * finalment negociat per a cada endpoint (veure {@link #getNegotiatedVersions()}).
+     * Negocia i descomprimeix gzip/deflate segons {@link HttpCompression}, i aplica
+     * els reintents i interruptors de circuit de {@link Resilience} i, amb més d'una
+     * rèplica, l'encaminament i el canvi de rèplica de {@link Replicas}. Abans, la petició
+     * espera el seu torn al {@link RateLimiter} de la seva classe de trànsit.
+     *
+     * @param request petició a enviar
+     * @param handler gestor del cos de la resposta
+     * @param <T> tipus del cos de la resposta
+     * @return resposta HTTP
+     * @throws IOException si hi ha errors d'entrada/sortida
+     * @throws InterruptedException si el fil s'interromp durant l'espera
+     */
+    public static <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        RateLimiter.acquire(request);
+        return Resilience.send(request, r -> Replicas.send(r, x -> transmit(x, handler)));
+    }
+
+    /**
+     * Envia un sol intent: adapta la versió i el temps d'espera ({@link AdaptiveTimeout}),
+     * espera torn al {@link ConcurrencyLimiter} del servidor, negocia la compressió i registra el protocol i les mètriques de xarxa ({@link ApiMetrics}).
+     *
+     * @param request petició a enviar
+     * @param handler gestor del cos de la resposta
+     * @param <T> tipus del cos de la resposta
+     * @return resposta HTTP
+     * @throws IOException si hi ha errors d'entrada/sortida
+     * @throws InterruptedException si el fil s'interromp durant l'espera
+     */
+    private static <T> HttpResponse<T> transmit(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        HttpRequest effective = AdaptiveTimeout.apply(adaptVersion(HttpCompression.negotiate(request)));
+        ConcurrencyLimiter.Permit permit = ConcurrencyLimiter.acquire(effective);
+        long start = System.nanoTime();
+        HttpResponse<T> resp;
+        try {
+            resp = HTTP_CLIENT.send(effective, HttpCompression.decoding(effective, handler));
+        } catch (IOException e) {
+            permit.failure(e);
+            ApiMetrics.recordNetworkError(effective, System.nanoTime() - start);
+            AdaptiveTimeout.recordFailure(effective, e);
+            throw e;
+        } catch (InterruptedException | RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+        permit.success(System.nanoTime() - start, resp.statusCode());
+        AdaptiveTimeout.record(effective, System.nanoTime() - start);
+        ApiMetrics.recordExchange(effective, System.nanoTime() - start, resp.statusCode());
+        recordVersion(effective, resp);
+        return resp;
+    }
+
+    /**
+     * Envia una petició de forma asíncrona amb el client compartit.
+     * Aplica la mateixa adaptació de protocol i el mateix registre que {@link #send}; l'espera
+     * del {@link RateLimiter} no ocupa cap fil.
+     *
+     * @param request petició a enviar
+     * @param handler gestor del cos de la resposta
+     * @param <T> tipus del cos de la resposta
+     * @return futur amb la resposta HTTP
+     */
+    public static <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        CompletableFuture<Void> turn = RateLimiter.acquireAsync(request);
+        if (turn.isDone() && !turn.isCompletedExceptionally()) {
+            return Resilience.sendAsync(request, r -> Replicas.sendAsync(r, x -> transmitAsync(x, handler)));
+        }
+        TaskScope scope = TaskScope.current();
+        TaskScope.trackExchange(turn);
+        return turn.thenCompose(v -> {
+            AtomicReference<CompletableFuture<HttpResponse<T>>> sent = new AtomicReference<>();
+            TaskScope.runIn(scope, () -> sent.set(
+                    Resilience.sendAsync(request, r -> Replicas.sendAsync(r, x -> transmitAsync(x, handler)))));
+            return sent.get();
+        });
+    }
+
+    /**
+     * Versió asíncrona de {@link #transmit}.
+     *
+     * @param request petició a enviar
+     * @param handler gestor del cos de la resposta
+     * @param <T> tipus del cos de la resposta
+     * @return futur amb la resposta HTTP
+     */
+    private static <T> CompletableFuture<HttpResponse<T>> transmitAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        HttpRequest effective = AdaptiveTimeout.apply(adaptVersion(HttpCompression.negotiate(request)));
+        TaskScope scope = TaskScope.current();
+        CompletableFuture<ConcurrencyLimiter.Permit> permit = ConcurrencyLimiter.acquireAsync(effective);
+        // una pantalla tancada també treu de la cua les peticions que encara no han sortit
+        TaskScope.trackExchange(permit);
+        return permit.thenCompose(p -> {
+            long start = System.nanoTime();
+            CompletableFuture<HttpResponse<T>> exchange;
+            try {
+                exchange = HTTP_CLIENT.sendAsync(effective, HttpCompression.decoding(effective, handler));
+            } catch (RuntimeException e) {
+                p.release();
+                throw e;
+            }
+            TaskScope.runIn(scope, () -> TaskScope.trackExchange(exchange));
+            return exchange
+                    .whenComplete((resp, err) -> {
+                        if (resp != null) {
+                            p.success(System.nanoTime() - start, resp.statusCode());
+                            AdaptiveTimeout.record(effective, System.nanoTime() - start);
+                            ApiMetrics.recordExchange(effective, System.nanoTime() - start, resp.statusCode());
+                            recordVersion(effective, resp);
+                        } else if (unwrap(err) instanceof IOException) {
+                            p.failure(err);
+                            ApiMetrics.recordNetworkError(effective, System.nanoTime() - start);
+                            AdaptiveTimeout.recordFailure(effective, err);
+                        } else {
+                            p.release();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Operació bloquejant de l'API que es pot executar en segon pla.
+     *
+     * @param <T> tipus del resultat
+     */
+    @FunctionalInterface
+    public interface ApiSupplier<T> {
+        /**
+         * Executa l'operació.
+         *
+         * @return resultat de l'operació
+         * @throws ApiException si l'operació falla
+         */
+        T get() throws ApiException;
+    }
+
+    /**
+     * Executa una operació bloquejant a BG_EXEC i retorna un futur amb el resultat.
+     * L'usen les implementacions d'API que no disposen d'una versió no bloquejant pròpia.
+     * Si es tanca la vista que l'ha demanada ({@link TaskScope}), el futur falla amb una
+     * cancel·lació en lloc de quedar pendent.
+     *
+     * @param supplier operació a executar
+     * @param <T> tipus del resultat
+     * @return futur completat amb el resultat o amb l'excepció de l'operació
+     */
+    public static <T> CompletableFuture<T> supplyAsync(ApiSupplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        TaskScope scope = TaskScope.current();
+        FutureTask<T> task = new FutureTask<>(supplier::get) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    // la vista s'ha tancat (a la cua o en execució): qui espera el futur no es queda penjat
+                    future.completeExceptionally(scope != null
+                            ? TaskScope.cancelledException(scope)
+                            : new ApiException("Operacio cancel·lada", new CancellationException()));
+                    return;
+                }
+                try {
+                    future.complete(get());
+                } catch (ExecutionException e) {
+                    future.completeExceptionally(toApiException(e.getCause()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    future.completeExceptionally(toApiException(e));
+                }
+            }
+        };
+        try {
+            BG_EXEC.execute(task);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new ApiException("Massa operacions pendents; torna-ho a provar", e));
+        }
+        return future;
+    }
+
+    /**
+     * Tradueix qualsevol error d'una crida a ApiException amb els missatges habituals.
+     * Si l'error és una interrupció, es restaura l'indicador d'interrupció del fil.
+     *
+     * @param e error original
+     * @return ApiException equivalent (la mateixa si ja ho és)
+     */
+    public static ApiException toApiException(Throwable e) {
+        if (e instanceof ApiException a) return a;
+        if (e instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+            return new ApiException("Operacio interrompuda", e);
+        }
+        return new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
+    }
+
+    /**
+     * Desembolcalla les excepcions de CompletableFuture per obtenir la causa real.
+     *
+     * @param e excepció rebuda d'un futur
+     * @return causa original
+     */
+    public static Throwable unwrap(Throwable e) {
+        Throwable t = e;
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    /**
+     * Força HTTP/1.1 en peticions en clar quan el client prefereix HTTP/2.
+     *
+     * @param request petició original
+     * @return la mateixa petició o una còpia amb versió HTTP/1.1
+     */
+    static HttpRequest adaptVersion(HttpRequest request) {
+        if (PREFERRED_VERSION != HttpClient.Version.HTTP_2 || request.version().isPresent()) {
+            return request;
+        }
+        if (!"http".equalsIgnoreCase(request.uri().getScheme())) {
+            return request;
+        }
+        return HttpRequest.newBuilder(request, (name, value) -> true)
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    /**
+     * Registra el protocol negociat per l'endpoint i informa dels canvis.
+     *
+     * @param request petició enviada
+     * @param resp resposta rebuda
+     */
+    private static void recordVersion(HttpRequest request, HttpResponse<?> resp) {
+        String key = request.method() + " " + endpointKey(request.uri());
+        HttpClient.Version previous = NEGOTIATED_VERSIONS.put(key, resp.version());
+        if (previous != resp.version()) {
+            LOGGER.fine(() -> "Protocol negociat per " + key + ": " + resp.version());
         }
     }
 
+    /**
+     * Normalitza la ruta d'una URI en una clau d'endpoint estable:
+     * sense query i amb els segments numèrics substituïts per {id}.
+     *
+     * @param uri URI de la petició
+     * @return ruta normalitzada, p. ex. /biblioteca/llibres/trobarLlibrePerId/{id}
+     */
+    public static String endpointKey(URI uri) {
+        String path = uri.getPath();
+        if (path == null || path.isEmpty()) return "/";
+        path = path.replaceFirst("^/+", "/");
+        return ID_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+
+    /**
+     * Retorna la versió HTTP preferida pel client.
+     *
+     * @return HTTP_2 o HTTP_1_1
+     */
+    public static HttpClient.Version getPreferredVersion() {
+        return PREFERRED_VERSION;
+    }
+
+    /**
+     * Retorna el protocol negociat per a cada endpoint utilitzat fins ara.
+     *
+     * @return mapa ordenat i immutable "METODE /ruta" -&gt; versió HTTP
+     */
+    public static Map<String, HttpClient.Version> getNegotiatedVersions() {
+        return Collections.unmodifiableMap(new TreeMap<>(NEGOTIATED_VERSIONS));
+    }
+
     /**
      * Construeix un SSLContext carregant el truststore JKS des de la ruta indicada.
      *
@@ -174,6 +536,142 @@ public class ApiClient {
         return sslContext;
     }
 
+    /**
+     * Registra un interceptor al final de la cadena.
+     *
+     * @param interceptor interceptor a afegir
+     */
+    public static void addInterceptor(ApiInterceptor interceptor) {
+        INTERCEPTORS.add(Objects.requireNonNull(interceptor, "L'interceptor no pot ser null"));
+    }
+
+    /**
+     * Treu un interceptor de la cadena.
+     *
+     * @param interceptor interceptor a treure
+     * @return true si hi era
+     */
+    public static boolean removeInterceptor(ApiInterceptor interceptor) {
+        return INTERCEPTORS.remove(interceptor);
+    }
+
+    /**
+     * Interceptors actius, en ordre d'aplicació.
+     *
+     * @return llista immutable
+     */
+    public static List<ApiInterceptor> getInterceptors() {
+        return List.copyOf(INTERCEPTORS);
+    }
+
+    /**
+     * Aplica {@link ApiInterceptor#onRequest} de tots els interceptors.
+     *
+     * @param request petició construïda
+     * @return petició interceptada
+     */
+    static HttpRequest intercept(HttpRequest request) {
+        HttpRequest r = request;
+        for (ApiInterceptor interceptor : INTERCEPTORS) {
+            r = Objects.requireNonNull(interceptor.onRequest(r), "onRequest no pot retornar null");
+        }
+        return r;
+    }
+
+    /**
+     * Notifica el final d'una crida a tots els interceptors. Un interceptor que falla
+     * només es registra al log: no pot fer fallar la crida.
+     *
+     * @param request petició enviada
+     * @param result resultat o null
+     * @param error error o null
+     * @param nanos durada de la crida
+     */
+    static void completed(HttpRequest request, Object result, Throwable error, long nanos) {
+        for (ApiInterceptor interceptor : INTERCEPTORS) {
+            try {
+                interceptor.onComplete(request, result, error, nanos);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Error en un interceptor de l'API", e);
+            }
+        }
+    }
+
+    /**
+     * Interceptor d'autenticació: afegeix el token de la sessió a les peticions que
+     * no porten capçalera d'autorització, excepte a les rutes /biblioteca/auth/.
+     *
+     * @return interceptor
+     */
+    private static ApiInterceptor authInterceptor() {
+        return new ApiInterceptor() {
+            @Override
+            public HttpRequest onRequest(HttpRequest request) {
+                if (request.headers().firstValue("Authorization").isPresent()
+                        || endpointKey(request.uri()).startsWith(PUBLIC_PREFIX)) {
+                    return request;
+                }
+                String token = SessionStore.getInstance().getToken();
+                if (token == null || token.isBlank()) {
+                    return request;
+                }
+                return HttpRequest.newBuilder(request, (name, value) -> true)
+                        .header("Authorization", "Bearer " + token)
+                        .build();
+            }
+
+            @Override
+            public String toString() {
+                return "auth";
+            }
+        };
+    }
+
+    /**
+     * ObjectReader del tipus, creat la primera vegada i reutilitzat després.
+     *
+     * @param type classe a llegir
+     * @return lector precompilat
+     */
+    public static ObjectReader readerFor(Class<?> type) {
+        return READERS.computeIfAbsent(type, MAPPER::readerFor);
+    }
+
+    /**
+     * ObjectWriter del tipus, creat la primera vegada i reutilitzat després.
+     *
+     * @param type classe a escriure
+     * @return escriptor precompilat
+     */
+    public static ObjectWriter writerFor(Class<?> type) {
+        return WRITERS.computeIfAbsent(type, MAPPER::writerFor);
+    }
+
+    /**
+     * Deserialitza un cos JSON amb el lector en memòria cau del tipus.
+     *
+     * @param body cos JSON
+     * @param type classe del resultat
+     * @param <T> tipus del resultat
+     * @return valor llegit
+     * @throws IOException si el JSON no és vàlid
+     */
+    public static <T> T readValue(String body, Class<T> type) throws IOException {
+        return readerFor(type).readValue(body);
+    }
+
+    /**
+     * Serialitza un valor a JSON UTF-8 amb l'escriptor en memòria cau del seu tipus.
+     *
+     * @param value valor a serialitzar (pot ser null)
+     * @return bytes JSON
+     * @throws JsonProcessingException si el valor no es pot serialitzar
+     */
+    public static byte[] writeJson(Object value) throws JsonProcessingException {
+        if (value == null) return "null".getBytes(StandardCharsets.UTF_8);
+        return writerFor(value.getClass()).writeValueAsBytes(value);
+    }
+
     /**
      * Afegeix la capçalera d'autorització amb el token JWT si està disponible.
      *
@@ -188,6 +686,72 @@ public class ApiClient {
         return builder;
     }
 
+    /**
+     * Llegeix un array JSON en streaming i lliura cada element al consumidor a mesura
+     * que es deserialitza, sense materialitzar el cos sencer com a String ni com a array.
+     *
+     * Un cos buit o "null" es tracta com un array buit. El flux es consumeix fins al final
+     * (perquè la connexió es pugui reutilitzar) i es tanca en acabar.
+     *
+     * @param in flux del cos de la resposta
+     * @param type classe dels elements de l'array
+     * @param consumer receptor de cada element
+     * @param <T> tipus dels elements
+     * @return nombre d'elements llegits
+     * @throws IOException si el JSON no és un array vàlid o hi ha errors de lectura
+     */
+    public static <T> int forEachElement(InputStream in, Class<T> type, Consumer<? super T> consumer) throws IOException {
+        ObjectReader reader = readerFor(type);
+        int count = 0;
+        try (JsonParser parser = MAPPER.getFactory().createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token != null && token != JsonToken.VALUE_NULL) {
+                if (token != JsonToken.START_ARRAY) {
+                    throw new JsonParseException(parser, "S'esperava un array JSON de " + type.getSimpleName());
+                }
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == null) {
+                        throw new JsonParseException(parser, "Array JSON incomplet");
+                    }
+                    T value = reader.readValue(parser);
+                    consumer.accept(value);
+                    count++;
+                }
+            }
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return count;
+    }
+
+    /**
+     * Llegeix un array JSON en streaming cap a una llista.
+     * Els elements s'afegeixen directament a la llista resultat, de manera que el
+     * consum de memòria és proporcional als objectes i no al cos de la resposta.
+     *
+     * @param in flux del cos de la resposta
+     * @param type classe dels elements
+     * @param <T> tipus dels elements
+     * @return llista modificable amb els elements en l'ordre rebut
+     * @throws IOException si el JSON no és un array vàlid o hi ha errors de lectura
+     */
+    public static <T> List<T> readList(InputStream in, Class<T> type) throws IOException {
+        List<T> result = new ArrayList<>();
+        forEachElement(in, type, result::add);
+        return result;
+    }
+
+    /**
+     * Llegeix el cos complet com a text UTF-8 (per a respostes d'error).
+     *
+     * @param in flux del cos de la resposta (pot ser null)
+     * @return cos en text, o cadena buida
+     * @throws IOException si hi ha errors de lectura
+     */
+    public static String readBody(InputStream in) throws IOException {
+        if (in == null) return "";
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
     /**
      * Classe interna per a la deserialització de respostes d'error del servidor.
      */
@@ -0,0 +1,44 @@
+package com.bibliosedaos.desktop.api;
+
+import java.net.http.HttpRequest;
+
+/**
+ * Punt d'extensió comú de totes les crides {@link ApiCall}.
+ *
+ * Els interceptors registrats a {@link ApiClient#addInterceptor(ApiInterceptor)} s'apliquen,
+ * en ordre de registre, a cada crida: {@link #onRequest} abans d'enviar-la (pot afegir
+ * capçaleres o reescriure la petició) i {@link #onComplete} quan ha acabat, amb el
+ * resultat o l'error. Per defecte hi ha l'interceptor d'autenticació i el de mètriques.
+ *
+ * L'agrupació ({@link SingleFlight}), la revalidació ({@link HttpCache}) i els reintents
+ * ({@link Resilience}) són etapes fixes de l'execució perquè han d'embolcallar l'enviament
+ * tant en mode bloquejant com asíncron; la petició que veuen ja és la interceptada.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public interface ApiInterceptor {
+
+    /**
+     * Transforma la petició abans d'enviar-la.
+     *
+     * @param request petició construïda per la crida
+     * @return la mateixa petició o una de nova
+     */
+    default HttpRequest onRequest(HttpRequest request) {
+        return request;
+    }
+
+    /**
+     * Notifica el final d'una crida.
+     *
+     * @param request petició enviada (ja interceptada)
+     * @param result resultat de la crida, o null si ha fallat
+     * @param error error de la crida, o null si ha anat bé
+     * @param nanos durada total de la crida
+     */
+    default void onComplete(HttpRequest request, Object result, Throwable error, long nanos) {
+        // res per defecte
+    }
+}
@@ -0,0 +1,451 @@
+package com.bibliosedaos.desktop.api;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Mètriques de rendiment de l'API per endpoint i mètode HTTP.
+ *
+ * Per a cada clau "METODE /ruta" es registra:
+ * <ul>
+ *   <li>latència de la crida completa (reintents, agrupació i memòria cau inclosos);</li>
+ *   <li>temps de xarxa de cada intent HTTP: fins que HttpClient lliura la resposta
+ *       (cos sencer per a String, capçaleres per a InputStream);</li>
+ *   <li>temps de descodificació: temps de CPU del fil que converteix la resposta,
+ *       de manera que l'espera de bytes d'un cos en streaming no hi compta;</li>
+ *   <li>bytes enviats i rebuts (els rebuts són els del cable que compta {@link HttpCompression});</li>
+ *   <li>recompte de codis d'estat i d'errors de xarxa.</li>
+ * </ul>
+ *
+ * Les dades es consulten amb {@link #getEndpoints()} o {@link #report()} i es poden
+ * bolcar a un fitxer amb {@link #dump(Path)}. Si es defineix api.metrics.file, el
+ * bolcat es fa també en tancar l'aplicació. L'informe inclou les cues per prioritat
+ * de {@link ApiClient#BG_EXEC} i la feina cancel·lada en tancar vistes ({@link TaskScope}).
+ *
+ * Propietats JVM:
+ * -Dapi.metrics.enabled=false (per defecte true)
+ * -Dapi.metrics.file=/ruta/metriques.txt
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class ApiMetrics {
+
+    private static final Logger LOGGER = Logger.getLogger(ApiMetrics.class.getName());
+
+    private static final Map<String, EndpointStats> ENDPOINTS = new ConcurrentHashMap<>();
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+
+    /** Interceptor que registra la latència i el resultat de cada crida. */
+    static final ApiInterceptor CALL_INTERCEPTOR = new ApiInterceptor() {
+        @Override
+        public void onComplete(HttpRequest request, Object result, Throwable error, long nanos) {
+            recordCall(request, nanos, error == null);
+        }
+
+        @Override
+        public String toString() {
+            return "metrics";
+        }
+    };
+
+    private ApiMetrics() {
+        // utilitat: no instanciar
+    }
+
+    /**
+     * Histograma de durades amb cubetes logarítmiques (error relatiu màxim del 12,5%).
+     *
+     * Els valors es desen en microsegons: per sota de 16 µs cada valor té la seva cubeta;
+     * a partir d'aquí cada potència de dos es divideix en 8 cubetes. El registre és
+     * lliure de bloquejos i de memòria constant.
+     */
+    public static final class Histogram {
+        private static final int LINEAR = 16;
+        private static final int SUB_BUCKETS = 8;
+        private static final int BUCKETS = LINEAR + (63 - 4) * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMicros = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        /**
+         * Registra una durada.
+         *
+         * @param nanos durada en nanosegons
+         */
+        void record(long nanos) {
+            long micros = Math.max(0, nanos / 1_000);
+            counts.incrementAndGet(index(micros));
+            count.incrementAndGet();
+            totalMicros.addAndGet(micros);
+            maxMicros.accumulateAndGet(micros, Math::max);
+        }
+
+        /**
+         * Nombre de mostres.
+         *
+         * @return mostres registrades
+         */
+        public long getCount() {
+            return count.get();
+        }
+
+        /**
+         * Mitjana en mil·lisegons.
+         *
+         * @return mitjana, o 0 sense mostres
+         */
+        public double getMeanMillis() {
+            long n = count.get();
+            return n == 0 ? 0 : totalMicros.get() / 1000.0 / n;
+        }
+
+        /**
+         * Màxim en mil·lisegons.
+         *
+         * @return durada màxima registrada
+         */
+        public double getMaxMillis() {
+            return maxMicros.get() / 1000.0;
+        }
+
+        /**
+         * Percentil aproximat (límit superior de la cubeta, acotat pel màxim).
+         *
+         * @param percentile percentil entre 0 i 100
+         * @return durada en mil·lisegons, o 0 sense mostres
+         */
+        public double getPercentileMillis(double percentile) {
+            long n = count.get();
+            if (n == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), maxMicros.get()) / 1000.0;
+                }
+            }
+            return getMaxMillis();
+        }
+
+        /**
+         * Percentil 50 (mediana).
+         *
+         * @return p50 en mil·lisegons
+         */
+        public double getP50() {
+            return getPercentileMillis(50);
+        }
+
+        /**
+         * Percentil 95.
+         *
+         * @return p95 en mil·lisegons
+         */
+        public double getP95() {
+            return getPercentileMillis(95);
+        }
+
+        /**
+         * Percentil 99.
+         *
+         * @return p99 en mil·lisegons
+         */
+        public double getP99() {
+            return getPercentileMillis(99);
+        }
+
+        static int index(long micros) {
+            if (micros < LINEAR) return (int) micros;
+            int exp = 63 - Long.numberOfLeadingZeros(micros);
+            int sub = (int) ((micros >>> (exp - 3)) & (SUB_BUCKETS - 1));
+            return LINEAR + (exp - 4) * SUB_BUCKETS + sub;
+        }
+
+        static long upperBound(int index) {
+            if (index < LINEAR) return index;
+            int exp = (index - LINEAR) / SUB_BUCKETS + 4;
+            int sub = (index - LINEAR) % SUB_BUCKETS;
+            return ((long) (SUB_BUCKETS + sub + 1) << (exp - 3)) - 1;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "n=%d p50=%.1f p95=%.1f p99=%.1f max=%.1f ms",
+                    getCount(), getP50(), getP95(), getP99(), getMaxMillis());
+        }
+    }
+
+    /**
+     * Mètriques acumulades d'un endpoint.
+     */
+    public static final class EndpointStats {
+        private final String key;
+        private final Histogram latency = new Histogram();
+        private final Histogram network = new Histogram();
+        private final Histogram decode = new Histogram();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong networkErrors = new AtomicLong();
+        private final AtomicLong bytesOut = new AtomicLong();
+        private final Map<Integer, AtomicLong> statusCounts = new ConcurrentHashMap<>();
+
+        private EndpointStats(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Latència de les crides completes.
+         *
+         * @return histograma de latència
+         */
+        public Histogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * Temps de xarxa de cada intent HTTP.
+         *
+         * @return histograma del temps de xarxa
+         */
+        public Histogram getNetworkTime() {
+            return network;
+        }
+
+        /**
+         * Temps de CPU dedicat a convertir les respostes (JSON) en objectes.
+         *
+         * @return histograma del temps de descodificació
+         */
+        public Histogram getDecodeTime() {
+            return decode;
+        }
+
+        /**
+         * Crides que han acabat amb error (HTTP o de xarxa).
+         *
+         * @return crides fallides
+         */
+        public long getErrors() {
+            return errors.get();
+        }
+
+        /**
+         * Intents HTTP sense resposta (connexió refusada, temps esgotat...).
+         *
+         * @return errors de xarxa
+         */
+        public long getNetworkErrors() {
+            return networkErrors.get();
+        }
+
+        /**
+         * Bytes de cos enviats (els de longitud coneguda).
+         *
+         * @return bytes enviats
+         */
+        public long getBytesOut() {
+            return bytesOut.get();
+        }
+
+        /**
+         * Bytes de cos rebuts pel cable.
+         *
+         * @return bytes rebuts
+         */
+        public long getBytesIn() {
+            HttpCompression.ByteCount count = HttpCompression.getByteCounts().get(key);
+            return count == null ? 0 : count.getWireBytes();
+        }
+
+        /**
+         * Respostes rebudes per codi d'estat.
+         *
+         * @return mapa ordenat i immutable codi -&gt; respostes
+         */
+        public Map<Integer, Long> getStatusCounts() {
+            Map<Integer, Long> copy = new TreeMap<>();
+            statusCounts.forEach((k, v) -> copy.put(k, v.get()));
+            return Collections.unmodifiableMap(copy);
+        }
+
+        @Override
+        public String toString() {
+            return key + System.lineSeparator()
+                    + "  latencia:       " + latency + System.lineSeparator()
+                    + "  xarxa:          " + network + System.lineSeparator()
+                    + "  descodificacio: " + decode + System.lineSeparator()
+                    + "  bytes: in=" + getBytesIn() + " out=" + getBytesOut()
+                    + "  estats=" + getStatusCounts()
+                    + "  errors=" + getErrors() + " errorsXarxa=" + getNetworkErrors();
+        }
+    }
+
+    /**
+     * Indica si es registren mètriques (propietat api.metrics.enabled).
+     *
+     * @return true per defecte
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("api.metrics.enabled", "true"));
+    }
+
+    /**
+     * Registra una crida completa.
+     *
+     * @param request petició de la crida
+     * @param nanos durada total
+     * @param ok false si la crida ha acabat amb error
+     */
+    static void recordCall(HttpRequest request, long nanos, boolean ok) {
+        if (!isEnabled()) return;
+        EndpointStats stats = stats(request);
+        stats.latency.record(nanos);
+        if (!ok) stats.errors.incrementAndGet();
+    }
+
+    /**
+     * Registra un intent HTTP amb resposta.
+     *
+     * @param request petició enviada
+     * @param nanos temps fins a rebre la resposta
+     * @param statusCode codi d'estat rebut
+     */
+    static void recordExchange(HttpRequest request, long nanos, int statusCode) {
+        if (!isEnabled()) return;
+        EndpointStats stats = stats(request);
+        stats.network.record(nanos);
+        stats.statusCounts.computeIfAbsent(statusCode, k -> new AtomicLong()).incrementAndGet();
+        recordBytesOut(stats, request);
+    }
+
+    /**
+     * Registra un intent HTTP que no ha obtingut resposta.
+     *
+     * @param request petició enviada
+     * @param nanos temps fins a l'error
+     */
+    static void recordNetworkError(HttpRequest request, long nanos) {
+        if (!isEnabled()) return;
+        EndpointStats stats = stats(request);
+        stats.network.record(nanos);
+        stats.networkErrors.incrementAndGet();
+        recordBytesOut(stats, request);
+    }
+
+    /**
+     * Registra el temps de descodificació d'una resposta.
+     *
+     * @param request petició de la crida
+     * @param cpuNanos temps de CPU (o de rellotge) de la conversió
+     */
+    static void recordDecode(HttpRequest request, long cpuNanos) {
+        if (!isEnabled()) return;
+        stats(request).decode.record(cpuNanos);
+    }
+
+    /**
+     * Marca de temps per mesurar la descodificació: temps de CPU del fil actual si la
+     * JVM ho permet, o temps de rellotge si no.
+     *
+     * @return nanosegons
+     */
+    static long decodeClock() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /**
+     * Mètriques de cada endpoint utilitzat.
+     *
+     * @return mapa ordenat i immutable "METODE /ruta" -&gt; mètriques
+     */
+    public static Map<String, EndpointStats> getEndpoints() {
+        return Collections.unmodifiableMap(new TreeMap<>(ENDPOINTS));
+    }
+
+    /**
+     * Informe de text amb totes les mètriques.
+     *
+     * @return informe llegible, un bloc per endpoint
+     */
+    public static String report() {
+        StringBuilder sb = new StringBuilder("Metriques API ").append(Instant.now()).append(System.lineSeparator());
+        getEndpoints().values().forEach(s -> sb.append(s).append(System.lineSeparator()));
+        sb.append(AdaptiveTimeout.report());
+        sb.append(Hedging.report());
+        sb.append(ConcurrencyLimiter.report());
+        sb.append(RateLimiter.report());
+        sb.append(Replicas.report());
+        sb.append(ApiClient.BG_EXEC.report());
+        sb.append(TaskScope.report()).append(System.lineSeparator());
+        String warmup = Warmup.report();
+        if (warmup != null) sb.append(warmup).append(System.lineSeparator());
+        return sb.toString();
+    }
+
+    /**
+     * Bolca l'informe a un fitxer (el sobreescriu).
+     *
+     * @param file fitxer de destí
+     * @throws IOException si no es pot escriure
+     */
+    public static void dump(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Files.writeString(file, report(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Bolca l'informe al fitxer de la propietat api.metrics.file, si està definida.
+     * Els errors només es registren al log.
+     */
+    public static void dumpIfConfigured() {
+        String file = System.getProperty("api.metrics.file");
+        if (file == null || file.isBlank()) return;
+        try {
+            dump(Paths.get(file));
+            LOGGER.info(() -> "Metriques API bolcades a " + file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "No s'han pogut bolcar les metriques API a " + file, e);
+        }
+    }
+
+    /**
+     * Esborra totes les mètriques (també els comptadors de bytes rebuts).
+     */
+    public static void reset() {
+        ENDPOINTS.clear();
+        HttpCompression.resetByteCounts();
+        TaskScope.resetCounters();
+    }
+
+    private static EndpointStats stats(HttpRequest request) {
+        return ENDPOINTS.computeIfAbsent(request.method() + " " + ApiClient.endpointKey(request.uri()), EndpointStats::new);
+    }
+
+    private static void recordBytesOut(EndpointStats stats, HttpRequest request) {
+        long length = request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L);
+        if (length > 0) stats.bytesOut.addAndGet(length);
+    }
+}
@@ -3,6 +3,8 @@ package com.bibliosedaos.desktop.api;
 import com.bibliosedaos.desktop.model.dto.LoginRequest;
 import com.bibliosedaos.desktop.model.dto.LoginResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interfície que defineix les operacions d'autenticació.
  *
@@ -27,6 +29,16 @@ public interface AuthApi {
      */
     LoginResponse login(LoginRequest req) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #login(LoginRequest)}.
+     *
+     * @param req objecte amb les credencials d'autenticació
+     * @return futur amb resposta amb el token i les dades de l'usuari
+     */
+    default CompletableFuture<LoginResponse> loginAsync(LoginRequest req) {
+        return ApiClient.supplyAsync(() -> login(req));
+    }
+
     /**
      * Tanca la sessió de l'usuari actual.
      *
@@ -36,4 +48,17 @@ public interface AuthApi {
      * @throws ApiException si hi ha errors en el procés de tancament
      */
     void logout(String token) throws ApiException;
+
+    /**
+     * Versio no bloquejant de {@link #logout(String)}.
+     *
+     * @param token token JWT previ (pot ser null/empty)
+     * @return futur completat quan acaba l'operacio
+     */
+    default CompletableFuture<Void> logoutAsync(String token) {
+        return ApiClient.supplyAsync(() -> {
+            logout(token);
+            return null;
+        });
+    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.bibliosedaos.desktop.api;
 
 import com.bibliosedaos.desktop.model.Autor;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interficie per a les operacions d'autors.
@@ -20,6 +21,15 @@ public interface AutorApi {
      */
     List<Autor> getAllAutors() throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #getAllAutors()}.
+     *
+     * @return futur amb llista de tots els autors
+     */
+    default CompletableFuture<List<Autor>> getAllAutorsAsync() {
+        return ApiClient.supplyAsync(() -> getAllAutors());
+    }
+
     /**
      * Crea un nou autor al sistema.
      *
@@ -29,6 +39,16 @@ public interface AutorApi {
      */
     Autor createAutor(Autor autor) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #createAutor(Autor)}.
+     *
+     * @param autor dades del nou autor
+     * @return futur amb autor creat amb el ID assignat
+     */
+    default CompletableFuture<Autor> createAutorAsync(Autor autor) {
+        return ApiClient.supplyAsync(() -> createAutor(autor));
+    }
+
     /**
      * Elimina un autor del sistema.
      *
@@ -37,6 +57,19 @@ public interface AutorApi {
      */
     void deleteAutor(Long id) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #deleteAutor(Long)}.
+     *
+     * @param id ID de l'autor a eliminar
+     * @return futur completat quan acaba l'operacio
+     */
+    default CompletableFuture<Void> deleteAutorAsync(Long id) {
+        return ApiClient.supplyAsync(() -> {
+            deleteAutor(id);
+            return null;
+        });
+    }
+
     /**
      * Obte un autor pel seu ID.
      *
@@ -45,4 +78,14 @@ public interface AutorApi {
      * @throws ApiException si hi ha errors de comunicacio o l'autor no es troba
      */
     Autor findAutorById(Long id) throws ApiException;
+
+    /**
+     * Versio no bloquejant de {@link #findAutorById(Long)}.
+     *
+     * @param id ID de l'autor a obtenir
+     * @return futur amb autor amb totes les seves dades
+     */
+    default CompletableFuture<Autor> findAutorByIdAsync(Long id) {
+        return ApiClient.supplyAsync(() -> findAutorById(id));
+    }
 }
\ No newline at end of file
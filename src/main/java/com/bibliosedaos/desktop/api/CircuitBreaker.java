@@ -0,0 +1,161 @@
+package com.bibliosedaos.desktop.api;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interruptor de circuit d'un endpoint.
+ *
+ * <ul>
+ *   <li>CLOSED: les peticions passen; es compten les fallades consecutives.</li>
+ *   <li>OPEN: després de massa fallades seguides, les peticions fallen immediatament
+ *       sense contactar el servidor durant un temps.</li>
+ *   <li>HALF_OPEN: passat aquest temps, es deixa passar una sola petició de prova;
+ *       si va bé el circuit es tanca i, si falla, es torna a obrir.</li>
+ * </ul>
+ *
+ * Es considera fallada un error de xarxa o una resposta 502/503/504.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class CircuitBreaker {
+
+    /** Estat de l'interruptor. */
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Error llançat quan el circuit és obert i la petició no s'envia.
+     */
+    public static final class OpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Crea l'error.
+         *
+         * @param endpoint endpoint afectat
+         */
+        public OpenException(String endpoint) {
+            super("Servidor no disponible (" + endpoint + "); es reintentarà en uns segons");
+        }
+    }
+
+    private final String endpoint;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntil;
+    private boolean probeInFlight;
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Crea un interruptor tancat.
+     *
+     * @param endpoint endpoint que protegeix
+     */
+    CircuitBreaker(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Demana permís per enviar una petició.
+     *
+     * @throws OpenException si el circuit és obert o ja hi ha una prova en curs
+     */
+    synchronized void acquire() throws OpenException {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() < openUntil) {
+                rejected.incrementAndGet();
+                throw new OpenException(endpoint);
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                rejected.incrementAndGet();
+                throw new OpenException(endpoint);
+            }
+            probeInFlight = true;
+        }
+    }
+
+    /**
+     * Allibera el permís d'una petició abandonada (p. ex. interrompuda) sense resultat,
+     * perquè una prova en curs no bloquegi l'interruptor.
+     */
+    synchronized void release() {
+        probeInFlight = false;
+    }
+
+    /**
+     * Registra una petició correcta: tanca el circuit.
+     */
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Registra una fallada: obre el circuit si és la prova o si s'arriba al llindar.
+     *
+     * @param threshold fallades consecutives que obren el circuit
+     * @param openMillis temps que el circuit resta obert
+     */
+    synchronized void onFailure(int threshold, long openMillis) {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= threshold) {
+            if (state != State.OPEN) opened.incrementAndGet();
+            state = State.OPEN;
+            openUntil = System.currentTimeMillis() + openMillis;
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * Estat actual. Un circuit obert amb el temps esgotat es mostra com a HALF_OPEN.
+     *
+     * @return estat de l'interruptor
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && System.currentTimeMillis() >= openUntil) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Fallades consecutives des de l'última petició correcta.
+     *
+     * @return fallades consecutives
+     */
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * Vegades que s'ha obert el circuit.
+     *
+     * @return obertures
+     */
+    public long getOpenedCount() {
+        return opened.get();
+    }
+
+    /**
+     * Peticions rebutjades sense contactar el servidor.
+     *
+     * @return peticions rebutjades
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public String toString() {
+        return getState() + " (fallades=" + getConsecutiveFailures() + ", obertures=" + getOpenedCount()
+                + ", rebutjades=" + getRejectedCount() + ")";
+    }
+}
@@ -0,0 +1,409 @@
+package com.bibliosedaos.desktop.api;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Límit adaptatiu de peticions simultànies per servidor (AIMD).
+ *
+ * Sense límit, una acció massiva (o una dotzena de terminals alhora) pot tenir desenes
+ * de peticions en curs contra un backend petit. Cada intent d'enviament demana primer un
+ * {@link Permit} al limitador del seu servidor; si ja n'hi ha tants en curs com el límit,
+ * espera en una cua FIFO fins que se n'allibera un.
+ *
+ * El límit s'ajusta amb cada resposta:
+ * <ul>
+ *   <li>augment additiu: una resposta normal amb el limitador almenys a mig ús suma
+ *       1/límit (un sencer per cada "ronda" de peticions);</li>
+ *   <li>reducció multiplicativa: si la resposta triga més de api.limit.tolerance vegades
+ *       la latència mínima recent del seu endpoint, si esgota el temps o si el servidor
+ *       respon 429/503, el límit es multiplica per api.limit.backoff. Només una reducció
+ *       per ronda: la petició ha d'haver començat després de l'última reducció.</li>
+ * </ul>
+ * La latència de referència és per endpoint (una llista és més lenta que una consulta per
+ * ID sense que això vulgui dir que el servidor estigui saturat) i es renova cada
+ * {@value #BASELINE_WINDOW} mostres.
+ *
+ * Una petició que espera més de api.limit.maxWaitMs a la cua falla amb
+ * {@link QueueTimeoutException}, que no es reintenta ni compta per a l'interruptor de
+ * circuit. El límit actual de cada servidor surt a {@link ApiMetrics#report()}.
+ *
+ * Propietats JVM:
+ * -Dapi.limit.enabled=false (per defecte true)
+ * -Dapi.limit.initial=20, -Dapi.limit.min=2, -Dapi.limit.max=100
+ * -Dapi.limit.backoff=0.9, -Dapi.limit.tolerance=2.0, -Dapi.limit.maxWaitMs=30000
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class ConcurrencyLimiter {
+
+    /** Mostres per finestra de la latència de referència de cada endpoint. */
+    static final int BASELINE_WINDOW = 100;
+
+    /** Mostres mínimes abans de jutjar la latència d'un endpoint. */
+    static final int BASELINE_MIN_SAMPLES = 10;
+
+    /** Marge absolut sobre la referència, perquè les consultes d'1-2 ms no semblin saturació pel soroll. */
+    private static final long SLACK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final Map<String, ConcurrencyLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+    /** Permís buit quan el limitador està desactivat. */
+    private static final Permit NONE = new Permit(null, null);
+
+    private final String server;
+    private final Map<String, Baseline> baselines = new ConcurrentHashMap<>();
+    private final Deque<Waiter> queue = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private int peakQueued;
+    private long lastDropNanos;
+    private boolean dropped;
+    private long drops;
+    private long rejected;
+
+    /**
+     * Crea un limitador amb el límit inicial configurat.
+     *
+     * @param server servidor que protegeix ("esquema://host:port")
+     */
+    ConcurrencyLimiter(String server) {
+        this.server = server;
+        this.limit = Math.max(minLimit(), Math.min(maxLimit(), intProperty("api.limit.initial", 20)));
+    }
+
+    /**
+     * Error quan una petició ha esperat massa a la cua del limitador.
+     */
+    public static final class QueueTimeoutException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Crea l'error.
+         *
+         * @param server servidor
+         * @param waitMs temps esperat
+         */
+        public QueueTimeoutException(String server, long waitMs) {
+            super("Massa peticions en curs cap a " + server + " (" + waitMs + " ms en cua); torna-ho a provar");
+        }
+    }
+
+    /**
+     * Dret a tenir una petició en curs. S'ha d'alliberar exactament una vegada amb
+     * {@link #success}, {@link #failure} o {@link #release}.
+     */
+    public static final class Permit {
+        private final ConcurrencyLimiter limiter;
+        private final String endpoint;
+        private final long grantedNanos = System.nanoTime();
+
+        private Permit(ConcurrencyLimiter limiter, String endpoint) {
+            this.limiter = limiter;
+            this.endpoint = endpoint;
+        }
+
+        /**
+         * Allibera el permís amb una resposta rebuda.
+         *
+         * @param rttNanos temps de xarxa de l'intent
+         * @param status codi HTTP
+         */
+        void success(long rttNanos, int status) {
+            if (limiter == null) return;
+            boolean overload = status == 429 || status == 503;
+            limiter.onComplete(this, overload ? -1 : rttNanos, overload);
+        }
+
+        /**
+         * Allibera el permís amb un intent fallit: un temps esgotat compta com a saturació.
+         *
+         * @param error error de l'intent
+         */
+        void failure(Throwable error) {
+            if (limiter == null) return;
+            limiter.onComplete(this, -1, ApiClient.unwrap(error) instanceof HttpTimeoutException);
+        }
+
+        /**
+         * Allibera el permís sense ajustar el límit (intent cancel·lat o error local).
+         */
+        void release() {
+            if (limiter == null) return;
+            limiter.onComplete(this, -1, false);
+        }
+    }
+
+    /** Petició en espera d'un permís. */
+    private record Waiter(String endpoint, CompletableFuture<Permit> future) { }
+
+    /**
+     * Latència mínima recent d'un endpoint, en dues finestres.
+     */
+    private static final class Baseline {
+        private long currentMin = Long.MAX_VALUE;
+        private long previousMin = Long.MAX_VALUE;
+        private int count;
+        private long total;
+
+        synchronized long min() {
+            return total < BASELINE_MIN_SAMPLES ? -1 : Math.min(currentMin, previousMin);
+        }
+
+        synchronized void record(long nanos) {
+            currentMin = Math.min(currentMin, nanos);
+            total++;
+            if (++count >= BASELINE_WINDOW) {
+                previousMin = currentMin;
+                currentMin = Long.MAX_VALUE;
+                count = 0;
+            }
+        }
+    }
+
+    /**
+     * Indica si el limitador està actiu (propietat api.limit.enabled).
+     *
+     * @return true per defecte
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("api.limit.enabled", "true"));
+    }
+
+    /**
+     * Demana un permís per a una petició i espera el torn si cal.
+     *
+     * @param request petició a enviar
+     * @return permís a alliberar quan acabi l'intent
+     * @throws IOException si s'esgota api.limit.maxWaitMs a la cua
+     * @throws InterruptedException si el fil s'interromp esperant
+     */
+    static Permit acquire(HttpRequest request) throws IOException, InterruptedException {
+        CompletableFuture<Permit> future = acquireAsync(request);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            if (!future.cancel(true)) {
+                // el permís ha arribat just ara: es torna
+                future.getNow(NONE).release();
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = ApiClient.unwrap(e);
+            if (cause instanceof IOException io) throw io;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Versió asíncrona de {@link #acquire}: cap fil no espera el torn.
+     * Cancel·lar el futur treu la petició de la cua.
+     *
+     * @param request petició a enviar
+     * @return futur amb el permís
+     */
+    static CompletableFuture<Permit> acquireAsync(HttpRequest request) {
+        if (!isEnabled()) return CompletableFuture.completedFuture(NONE);
+        URI uri = request.uri();
+        ConcurrencyLimiter limiter = LIMITERS.computeIfAbsent(
+                uri.getScheme() + "://" + uri.getRawAuthority(), ConcurrencyLimiter::new);
+        return limiter.acquireAsync(request.method() + " " + ApiClient.endpointKey(uri));
+    }
+
+    /**
+     * Demana un permís d'aquest limitador.
+     *
+     * @param endpoint clau "METODE /ruta" de la petició
+     * @return futur amb el permís; ja completat si hi ha lloc
+     */
+    CompletableFuture<Permit> acquireAsync(String endpoint) {
+        Waiter waiter;
+        synchronized (this) {
+            if (queue.isEmpty() && inFlight < currentLimit()) {
+                inFlight++;
+                return CompletableFuture.completedFuture(new Permit(this, endpoint));
+            }
+            waiter = new Waiter(endpoint, new CompletableFuture<>());
+            queue.addLast(waiter);
+            peakQueued = Math.max(peakQueued, queue.size());
+        }
+        waiter.future.whenComplete((p, e) -> {
+            if (e != null) {
+                synchronized (this) {
+                    queue.remove(waiter);
+                }
+            }
+        });
+        long maxWait = Math.max(1, intProperty("api.limit.maxWaitMs", 30_000));
+        CompletableFuture.delayedExecutor(maxWait, TimeUnit.MILLISECONDS).execute(() -> {
+            synchronized (this) {
+                // fora de la cua vol dir que ja té permís o s'ha cancel·lat
+                if (!queue.remove(waiter)) return;
+                rejected++;
+            }
+            waiter.future.completeExceptionally(new QueueTimeoutException(server, maxWait));
+        });
+        return waiter.future;
+    }
+
+    private void onComplete(Permit permit, long rttNanos, boolean overload) {
+        boolean congested = overload;
+        if (rttNanos >= 0) {
+            Baseline baseline = baselines.computeIfAbsent(permit.endpoint, k -> new Baseline());
+            long base = baseline.min();
+            baseline.record(rttNanos);
+            congested = base >= 0 && rttNanos > base * doubleProperty("api.limit.tolerance", 2.0) + SLACK_NANOS;
+        }
+        synchronized (this) {
+            int busy = inFlight--;
+            if (congested) {
+                if (!dropped || permit.grantedNanos - lastDropNanos > 0) {
+                    limit = Math.max(minLimit(), limit * doubleProperty("api.limit.backoff", 0.9));
+                    lastDropNanos = System.nanoTime();
+                    dropped = true;
+                    drops++;
+                }
+            } else if (rttNanos >= 0 && busy * 2 >= currentLimit()) {
+                limit = Math.min(maxLimit(), limit + 1.0 / limit);
+            }
+        }
+        dispatch();
+    }
+
+    /**
+     * Dona permisos als primers de la cua mentre hi hagi lloc. Els futurs es completen
+     * fora del bloqueig perquè poden enviar la petició en aquest mateix fil.
+     */
+    private void dispatch() {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            while (inFlight < currentLimit() && !queue.isEmpty()) {
+                Waiter w = queue.pollFirst();
+                if (w.future.isDone()) continue;
+                inFlight++;
+                granted.add(w);
+            }
+        }
+        for (Waiter w : granted) {
+            if (!w.future.complete(new Permit(this, w.endpoint))) {
+                // cancel·lat entre la cua i ara: el lloc passa al següent
+                synchronized (this) {
+                    inFlight--;
+                }
+                dispatch();
+            }
+        }
+    }
+
+    private int currentLimit() {
+        return Math.max(1, (int) limit);
+    }
+
+    /** @return servidor ("esquema://host:port") */
+    public String getServer() {
+        return server;
+    }
+
+    /** @return peticions simultànies permeses ara */
+    public synchronized int getLimit() {
+        return currentLimit();
+    }
+
+    /** @return peticions en curs */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /** @return peticions esperant a la cua */
+    public synchronized int getQueued() {
+        return queue.size();
+    }
+
+    /** @return màxim de peticions que han esperat alhora */
+    public synchronized int getPeakQueued() {
+        return peakQueued;
+    }
+
+    /** @return reduccions del límit */
+    public synchronized long getDrops() {
+        return drops;
+    }
+
+    /** @return peticions rebutjades per esperar massa a la cua */
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.ROOT, "Limit %s: limit=%d enCurs=%d enCua=%d (max %d) reduccions=%d rebutjades=%d",
+                server, currentLimit(), inFlight, queue.size(), peakQueued, drops, rejected);
+    }
+
+    /**
+     * Limitadors de cada servidor contactat.
+     *
+     * @return mapa ordenat i immutable servidor -&gt; limitador
+     */
+    public static Map<String, ConcurrencyLimiter> getLimiters() {
+        return Collections.unmodifiableMap(new TreeMap<>(LIMITERS));
+    }
+
+    /**
+     * Oblida tots els limitadors (i els seus límits apresos).
+     */
+    public static void reset() {
+        LIMITERS.clear();
+    }
+
+    /**
+     * Línies d'informe per a {@link ApiMetrics#report()}.
+     *
+     * @return una línia per servidor, o text buit si no n'hi ha
+     */
+    static String report() {
+        StringBuilder sb = new StringBuilder();
+        getLimiters().values().forEach(l -> sb.append(l).append(System.lineSeparator()));
+        return sb.toString();
+    }
+
+    private static int minLimit() {
+        return Math.max(1, intProperty("api.limit.min", 2));
+    }
+
+    private static int maxLimit() {
+        return Math.max(minLimit(), intProperty("api.limit.max", 100));
+    }
+
+    private static int intProperty(String name, int def) {
+        try {
+            return Integer.parseInt(System.getProperty(name, String.valueOf(def)).trim());
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    private static double doubleProperty(String name, double def) {
+        try {
+            return Double.parseDouble(System.getProperty(name, String.valueOf(def)).trim());
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+}
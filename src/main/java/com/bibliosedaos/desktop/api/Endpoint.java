@@ -0,0 +1,216 @@
+package com.bibliosedaos.desktop.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Plantilla precompilada d'un endpoint de l'API.
+ *
+ * La ruta es declara una sola vegada amb marcadors, p. ex.
+ * {@code Endpoint.get("/biblioteca/llibres/trobarLlibrePerId/{id}")} o
+ * {@code Endpoint.get("/biblioteca/prestecs/llistarPrestecs?usuariId={usuariId}")}, i es
+ * descompon en trossos fixos i marcadors en crear-la. A cada crida només cal
+ * substituir els valors, en l'ordre dels marcadors:
+ * <ul>
+ *   <li>els valors de la ruta i de la query es codifiquen per a URL;</li>
+ *   <li>un paràmetre de query amb valor null s'omet.</li>
+ * </ul>
+ *
+ * Les peticions porten el temps d'espera per defecte, que {@link AdaptiveTimeout} substitueix
+ * en enviar-les pel de l'endpoint, i, excepte les DELETE, Content-Type JSON.
+ * L'autorització l'afegeix l'interceptor d'autenticació ({@link ApiInterceptor}).
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class Endpoint {
+
+    /** Temps d'espera per defecte; en enviar es canvia pel de {@link AdaptiveTimeout}. */
+    static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{[^/{}]+}");
+
+    private final String method;
+    private final String template;
+    /** Trossos de la ruta: String fix o null per a cada marcador. */
+    private final List<String> pathParts = new ArrayList<>();
+    /** Noms dels paràmetres de query, en ordre. */
+    private final List<String> queryNames = new ArrayList<>();
+    private final int placeholders;
+
+    private Endpoint(String method, String template) {
+        this.method = method;
+        this.template = template;
+        int q = template.indexOf('?');
+        String path = (q < 0) ? template : template.substring(0, q);
+        Matcher m = PLACEHOLDER.matcher(path);
+        int last = 0;
+        int count = 0;
+        while (m.find()) {
+            if (m.start() > last) pathParts.add(path.substring(last, m.start()));
+            pathParts.add(null);
+            last = m.end();
+            count++;
+        }
+        if (last < path.length()) pathParts.add(path.substring(last));
+        if (q >= 0) {
+            for (String param : template.substring(q + 1).split("&")) {
+                int eq = param.indexOf('=');
+                if (eq < 0 || !PLACEHOLDER.matcher(param.substring(eq + 1)).matches()) {
+                    throw new IllegalArgumentException("Paràmetre de query sense marcador: " + param);
+                }
+                queryNames.add(param.substring(0, eq));
+                count++;
+            }
+        }
+        this.placeholders = count;
+    }
+
+    /**
+     * Endpoint GET.
+     *
+     * @param template ruta amb marcadors
+     * @return endpoint precompilat
+     */
+    public static Endpoint get(String template) {
+        return new Endpoint("GET", template);
+    }
+
+    /**
+     * Endpoint POST.
+     *
+     * @param template ruta amb marcadors
+     * @return endpoint precompilat
+     */
+    public static Endpoint post(String template) {
+        return new Endpoint("POST", template);
+    }
+
+    /**
+     * Endpoint PUT.
+     *
+     * @param template ruta amb marcadors
+     * @return endpoint precompilat
+     */
+    public static Endpoint put(String template) {
+        return new Endpoint("PUT", template);
+    }
+
+    /**
+     * Endpoint DELETE.
+     *
+     * @param template ruta amb marcadors
+     * @return endpoint precompilat
+     */
+    public static Endpoint delete(String template) {
+        return new Endpoint("DELETE", template);
+    }
+
+    /**
+     * Mètode HTTP.
+     *
+     * @return GET, POST, PUT o DELETE
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Plantilla original.
+     *
+     * @return ruta amb marcadors
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * Construeix la URI completa sobre {@link ApiClient#getBaseUrl()}.
+     *
+     * @param args valors dels marcadors, en ordre
+     * @return URI de la petició
+     */
+    public URI uri(Object... args) {
+        if (args.length != placeholders) {
+            throw new IllegalArgumentException(template + " espera " + placeholders + " valors i n'ha rebut " + args.length);
+        }
+        String base = ApiClient.getBaseUrl();
+        StringBuilder sb = new StringBuilder(base.length() + template.length() + 16);
+        sb.append(base, 0, base.endsWith("/") ? base.length() - 1 : base.length());
+        int arg = 0;
+        for (String part : pathParts) {
+            if (part != null) {
+                sb.append(part);
+            } else {
+                sb.append(encode(args[arg++]).replace("+", "%20"));
+            }
+        }
+        char sep = '?';
+        for (String name : queryNames) {
+            Object value = args[arg++];
+            if (value == null) continue;
+            sb.append(sep).append(name).append('=').append(encode(value));
+            sep = '&';
+        }
+        return URI.create(sb.toString());
+    }
+
+    /**
+     * Constructor de petició sense cos, per afegir-hi capçaleres pròpies.
+     *
+     * @param args valors dels marcadors
+     * @return builder amb URI, temps d'espera, capçaleres comunes i mètode
+     */
+    public HttpRequest.Builder builder(Object... args) {
+        return builder(HttpRequest.BodyPublishers.noBody(), args);
+    }
+
+    /**
+     * Petició sense cos.
+     *
+     * @param args valors dels marcadors
+     * @return petició preparada
+     */
+    public HttpRequest request(Object... args) {
+        return builder(args).build();
+    }
+
+    /**
+     * Petició amb el valor serialitzat com a JSON (amb l'ObjectWriter en memòria cau del tipus).
+     *
+     * @param body valor a enviar
+     * @param args valors dels marcadors
+     * @return petició preparada
+     * @throws JsonProcessingException si el valor no es pot serialitzar
+     */
+    public HttpRequest json(Object body, Object... args) throws JsonProcessingException {
+        return builder(HttpRequest.BodyPublishers.ofByteArray(ApiClient.writeJson(body)), args).build();
+    }
+
+    private HttpRequest.Builder builder(HttpRequest.BodyPublisher publisher, Object... args) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(uri(args)).timeout(TIMEOUT);
+        if (!"DELETE".equals(method)) {
+            b.header("Content-Type", "application/json");
+        }
+        return b.method(method, publisher);
+    }
+
+    private static String encode(Object value) {
+        return URLEncoder.encode(value == null ? "" : String.valueOf(value), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + template;
+    }
+}
@@ -0,0 +1,122 @@
+package com.bibliosedaos.desktop.api;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Estratègia de l'executor de tasques en segon pla ({@link ApiClient#BG_EXEC}).
+ *
+ * Totes dues creen un {@link PriorityExecutor}; només canvia la mena de fils de treball.
+ * Es tria amb {@code -Dapi.executor}:
+ * <ul>
+ *   <li>{@code pool} (per defecte): fils de plataforma dimoni, amb nucli = CPUs i màxim 50;</li>
+ *   <li>{@code virtual}: fils virtuals, fins a 256 alhora (més la reserva interactiva del
+ *       {@link PriorityExecutor}). Cada tasca que es bloqueja esperant l'API deixa lliure el
+ *       fil portador. Es detecta en temps d'execució (JDK 21 o superior) i, si la JVM no en
+ *       té, es torna al pool amb un avís.</li>
+ * </ul>
+ * Cap de les dues és un fil per tasca: les tasques de més enllà del màxim esperen a les cues
+ * per prioritat, que són les que donen l'ordre, la contrapressió i la cancel·lació per
+ * {@link TaskScope}. El mode virtual només canvia el cost de cada fil bloquejat; si compensa
+ * respecte al pool s'ha de mesurar a JDK 21 (ExecutorStrategyBenchmark als tests).
+ * El màxim de fils es pot canviar amb {@code -Dapi.executor.maxWorkers}.
+ * La detecció va per reflexió perquè el projecte es compila per a Java 17.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public enum ExecutorStrategy {
+
+    /** Fils de plataforma dimoni: nucli = CPUs, màxim 50. */
+    POOL {
+        @Override
+        public PriorityExecutor create() {
+            int core = Math.max(2, Runtime.getRuntime().availableProcessors());
+            int max = Math.max(core, maxWorkers(50));
+            ThreadFactory tf = r -> {
+                Thread t = new Thread(r);
+                t.setDaemon(true);
+                t.setName("biblio-bg-" + t.getId());
+                return t;
+            };
+            return new PriorityExecutor(tf, core, max, 60L, TimeUnit.SECONDS);
+        }
+    },
+
+    /**
+     * Fils virtuals, fins a 256 alhora (no un per tasca: la resta espera a la cua); si la JVM
+     * no en té, equival a {@link #POOL}.
+     */
+    VIRTUAL {
+        @Override
+        public PriorityExecutor create() {
+            if (VIRTUAL_FACTORY == null) {
+                LOGGER.warning("Aquesta JVM no té fils virtuals (cal JDK 21): s'usa el pool de fils");
+                return POOL.create();
+            }
+            return new PriorityExecutor(VIRTUAL_FACTORY, 0, maxWorkers(256), 1L, TimeUnit.SECONDS);
+        }
+    };
+
+    private static final Logger LOGGER = Logger.getLogger(ExecutorStrategy.class.getName());
+
+    /** Fàbrica de fils virtuals amb nom, o null si la JVM no en té. */
+    private static final ThreadFactory VIRTUAL_FACTORY = virtualThreadFactory();
+
+    /**
+     * Crea un executor nou amb aquesta estratègia.
+     *
+     * @return executor amb classes de prioritat per a tasques en segon pla
+     */
+    public abstract PriorityExecutor create();
+
+    private static int maxWorkers(int defaultValue) {
+        try {
+            return Math.max(1, Integer.parseInt(System.getProperty("api.executor.maxWorkers", String.valueOf(defaultValue)).trim()));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Estratègia configurada amb {@code api.executor}.
+     *
+     * @return {@link #VIRTUAL} si s'ha demanat {@code virtual}; altrament {@link #POOL}
+     */
+    public static ExecutorStrategy fromSystemProperties() {
+        String value = System.getProperty("api.executor", "pool").trim().toUpperCase(Locale.ROOT);
+        try {
+            return valueOf(value);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warning(() -> "Valor d'api.executor desconegut: " + value + "; s'usa POOL");
+            return POOL;
+        }
+    }
+
+    /**
+     * Indica si la JVM actual pot crear fils virtuals.
+     *
+     * @return true a partir de JDK 21
+     */
+    public static boolean isVirtualSupported() {
+        return VIRTUAL_FACTORY != null;
+    }
+
+    /**
+     * {@code Thread.ofVirtual().name("biblio-vt-", 0).factory()} per reflexió.
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "biblio-vt-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // JDK 17: no existeix; JDK 19/20 sense --enable-preview: UnsupportedOperationException
+            return null;
+        }
+    }
+}
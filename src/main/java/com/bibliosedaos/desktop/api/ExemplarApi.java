@@ -1,7 +1,9 @@
 package com.bibliosedaos.desktop.api;
 
 import com.bibliosedaos.desktop.model.Exemplar;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interficie per a les operacions d'exemplars.
@@ -20,6 +22,15 @@ public interface ExemplarApi {
      */
     List<Exemplar> getAllExemplars() throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #getAllExemplars()}.
+     *
+     * @return futur amb llista de tots els exemplars
+     */
+    default CompletableFuture<List<Exemplar>> getAllExemplarsAsync() {
+        return ApiClient.supplyAsync(() -> getAllExemplars());
+    }
+
     /**
      * Obte tots els exemplars lliures del sistema.
      *
@@ -28,6 +39,15 @@ public interface ExemplarApi {
      */
     List<Exemplar> getExemplarsLliures() throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #getExemplarsLliures()}.
+     *
+     * @return futur amb llista d'exemplars disponibles
+     */
+    default CompletableFuture<List<Exemplar>> getExemplarsLliuresAsync() {
+        return ApiClient.supplyAsync(() -> getExemplarsLliures());
+    }
+
     /**
      * Cerca exemplars lliures pel titol del llibre.
      *
@@ -37,6 +57,16 @@ public interface ExemplarApi {
      */
     List<Exemplar> findExemplarsLliuresByTitol(String titol) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #findExemplarsLliuresByTitol(String)}.
+     *
+     * @param titol titol del llibre a buscar
+     * @return futur amb llista d'exemplars lliures que coincideixen amb el titol
+     */
+    default CompletableFuture<List<Exemplar>> findExemplarsLliuresByTitolAsync(String titol) {
+        return ApiClient.supplyAsync(() -> findExemplarsLliuresByTitol(titol));
+    }
+
     /**
      * Cerca exemplars lliures pel nom de l'autor.
      *
@@ -46,6 +76,16 @@ public interface ExemplarApi {
      */
     List<Exemplar> findExemplarsLliuresByAutorNom(String autorNom) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #findExemplarsLliuresByAutorNom(String)}.
+     *
+     * @param autorNom nom de l'autor a buscar
+     * @return futur amb llista d'exemplars lliures que coincideixen amb l'autor
+     */
+    default CompletableFuture<List<Exemplar>> findExemplarsLliuresByAutorNomAsync(String autorNom) {
+        return ApiClient.supplyAsync(() -> findExemplarsLliuresByAutorNom(autorNom));
+    }
+
     /**
      * Crea un nou exemplar al sistema.
      *
@@ -55,6 +95,16 @@ public interface ExemplarApi {
      */
     Exemplar createExemplar(Exemplar exemplar) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #createExemplar(Exemplar)}.
+     *
+     * @param exemplar dades del nou exemplar
+     * @return futur amb exemplar creat amb el ID assignat
+     */
+    default CompletableFuture<Exemplar> createExemplarAsync(Exemplar exemplar) {
+        return ApiClient.supplyAsync(() -> createExemplar(exemplar));
+    }
+
     /**
      * Actualitza les dades d'un exemplar.
      *
@@ -65,6 +115,17 @@ public interface ExemplarApi {
      */
     Exemplar updateExemplar(Long id, Exemplar exemplar) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #updateExemplar(Long, Exemplar)}.
+     *
+     * @param id ID de l'exemplar a actualitzar
+     * @param exemplar dades actualitzades de l'exemplar
+     * @return futur amb exemplar actualitzat
+     */
+    default CompletableFuture<Exemplar> updateExemplarAsync(Long id, Exemplar exemplar) {
+        return ApiClient.supplyAsync(() -> updateExemplar(id, exemplar));
+    }
+
     /**
      * Elimina un exemplar del sistema.
      *
@@ -73,6 +134,19 @@ public interface ExemplarApi {
      */
     void deleteExemplar(Long id) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #deleteExemplar(Long)}.
+     *
+     * @param id ID de l'exemplar a eliminar
+     * @return futur completat quan acaba l'operacio
+     */
+    default CompletableFuture<Void> deleteExemplarAsync(Long id) {
+        return ApiClient.supplyAsync(() -> {
+            deleteExemplar(id);
+            return null;
+        });
+    }
+
     /**
      * Obte un exemplar pel seu ID.
      *
@@ -81,4 +155,36 @@ public interface ExemplarApi {
      * @throws ApiException si hi ha errors de comunicacio o l'exemplar no es troba
      */
     Exemplar findExemplarById(Long id) throws ApiException;
+
+    /**
+     * Versio no bloquejant de {@link #findExemplarById(Long)}.
+     *
+     * @param id ID de l'exemplar a obtenir
+     * @return futur amb exemplar amb totes les seves dades
+     */
+    default CompletableFuture<Exemplar> findExemplarByIdAsync(Long id) {
+        return ApiClient.supplyAsync(() -> findExemplarById(id));
+    }
+
+    /**
+     * Obte diversos exemplars pel seu ID amb consultes en paral·lel limitades
+     * (veure {@link MultiGet}). Els ID repetits es consulten una sola vegada.
+     *
+     * @param ids IDs dels exemplars
+     * @return exemplars trobats en l'ordre dels IDs i errors dels que han fallat
+     * @throws ApiException si el fil s'interromp mentre espera
+     */
+    default MultiGet.Result<Exemplar> findExemplarsByIds(Collection<Long> ids) throws ApiException {
+        return MultiGet.fetch(ids, this::findExemplarByIdAsync);
+    }
+
+    /**
+     * Versio no bloquejant de {@link #findExemplarsByIds(Collection)}.
+     *
+     * @param ids IDs dels exemplars
+     * @return futur amb els exemplars trobats i els errors; no falla per l'error d'un sol ID
+     */
+    default CompletableFuture<MultiGet.Result<Exemplar>> findExemplarsByIdsAsync(Collection<Long> ids) {
+        return MultiGet.fetchAsync(ids, this::findExemplarByIdAsync);
+    }
 }
\ No newline at end of file
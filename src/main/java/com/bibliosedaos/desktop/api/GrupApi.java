@@ -3,6 +3,7 @@ package com.bibliosedaos.desktop.api;
 import com.bibliosedaos.desktop.model.Grup;
 import com.bibliosedaos.desktop.model.User;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interfície per a les operacions remotes relacionades amb Grups.
@@ -24,6 +25,15 @@ public interface GrupApi {
      */
     List<Grup> getAllGrups() throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #getAllGrups()}.
+     *
+     * @return futur amb llista de grups
+     */
+    default CompletableFuture<List<Grup>> getAllGrupsAsync() {
+        return ApiClient.supplyAsync(() -> getAllGrups());
+    }
+
     /**
      * Crea un nou grup al servidor.
      *
@@ -33,6 +43,16 @@ public interface GrupApi {
      */
     Grup createGrup(Grup grup) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #createGrup(Grup)}.
+     *
+     * @param grup dades del grup (nom, tematica, administrador.id, horari.id)
+     * @return futur amb grup creat amb l'id assignat
+     */
+    default CompletableFuture<Grup> createGrupAsync(Grup grup) {
+        return ApiClient.supplyAsync(() -> createGrup(grup));
+    }
+
     /**
      * Elimina un grup pel seu id.
      *
@@ -41,6 +61,19 @@ public interface GrupApi {
      */
     void deleteGrup(Long grupId) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #deleteGrup(Long)}.
+     *
+     * @param grupId id del grup a eliminar
+     * @return futur completat quan acaba l'operacio
+     */
+    default CompletableFuture<Void> deleteGrupAsync(Long grupId) {
+        return ApiClient.supplyAsync(() -> {
+            deleteGrup(grupId);
+            return null;
+        });
+    }
+
     /**
      * Afegeix (inscriu) l'usuari identificat per membreId al grup grupId.
      *
@@ -51,6 +84,17 @@ public interface GrupApi {
      */
     Grup afegirUsuariGrup(Long grupId, Long membreId) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #afegirUsuariGrup(Long, Long)}.
+     *
+     * @param grupId id del grup
+     * @param membreId id de l'usuari que s'afegeix (ha de coincidir amb l'usuari autenticat)
+     * @return futur amb grup actualitzat
+     */
+    default CompletableFuture<Grup> afegirUsuariGrupAsync(Long grupId, Long membreId) {
+        return ApiClient.supplyAsync(() -> afegirUsuariGrup(grupId, membreId));
+    }
+
     /**
      * Obté la llista de membres d'un grup.
      *
@@ -60,6 +104,16 @@ public interface GrupApi {
      */
     List<User> getMembresGrup(Long grupId) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #getMembresGrup(Long)}.
+     *
+     * @param grupId id del grup
+     * @return futur amb llista d'usuaris membres
+     */
+    default CompletableFuture<List<User>> getMembresGrupAsync(Long grupId) {
+        return ApiClient.supplyAsync(() -> getMembresGrup(grupId));
+    }
+
     /**
      * Elimina (fa sortir o expulsa) l'usuari membreId del grup grupId.
      *
@@ -68,5 +122,19 @@ public interface GrupApi {
      * @throws ApiException si hi ha errors (no trobat o sense permisos)
      */
     void sortirUsuari(Long grupId, Long membreId) throws ApiException;
+
+    /**
+     * Versio no bloquejant de {@link #sortirUsuari(Long, Long)}.
+     *
+     * @param grupId id del grup
+     * @param membreId id de l'usuari a eliminar
+     * @return futur completat quan acaba l'operacio
+     */
+    default CompletableFuture<Void> sortirUsuariAsync(Long grupId, Long membreId) {
+        return ApiClient.supplyAsync(() -> {
+            sortirUsuari(grupId, membreId);
+            return null;
+        });
+    }
 }
 
@@ -0,0 +1,307 @@
+package com.bibliosedaos.desktop.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Duplicació de peticions lentes ("hedging") per a consultes puntuals.
+ *
+ * Les consultes per ID del camí interactiu (cercar un llibre per ID, el formulari de
+ * préstec) solen respondre en pocs mil·lisegons, però de tant en tant una es queda enrere
+ * (pausa del servidor, paquet perdut). Si una petició GET marcada amb {@link ApiCall#hedged()}
+ * no ha respost quan passa el p95 de l'endpoint, s'envia una segona petició idèntica i es
+ * queda la primera resposta que arriba; l'altra es descarta.
+ *
+ * Perquè el remei no carregui el servidor, hi ha un pressupost global: cada petició
+ * elegible aporta api.hedge.budgetPercent/100 fitxes (fins a {@value #MAX_TOKENS}) i cada
+ * duplicat en gasta una. Amb el 5% per defecte, els duplicats no passen mai gaire del 5%
+ * del trànsit, tampoc quan el servidor va lent per a tothom. Fins que l'endpoint té prou
+ * mostres ({@link AdaptiveTimeout}) no es duplica res.
+ *
+ * Per endpoint es compten les peticions elegibles, els duplicats enviats, els que han
+ * guanyat i els que el pressupost ha impedit; surten a {@link ApiMetrics#report()}.
+ *
+ * Propietats JVM (llegides a cada petició):
+ * -Dapi.hedge.enabled=true (per defecte false)
+ * -Dapi.hedge.percentile=95
+ * -Dapi.hedge.budgetPercent=5
+ * -Dapi.hedge.minDelayMs=5
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class Hedging {
+
+    /** Fitxes màximes acumulades: els duplicats que es poden enviar de cop després d'una estona tranquil·la. */
+    static final int MAX_TOKENS = 10;
+
+    /** Fitxes en mil·lèsimes, per poder sumar fraccions de manera atòmica. */
+    private static final AtomicLong TOKENS_MILLI = new AtomicLong(MAX_TOKENS * 1000L);
+
+    private static final Map<String, Stats> STATS = new ConcurrentHashMap<>();
+
+    private Hedging() {
+        // utilitat: no instanciar
+    }
+
+    /**
+     * Comptadors de duplicació d'un endpoint.
+     */
+    public static final class Stats {
+        private final String key;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong hedges = new AtomicLong();
+        private final AtomicLong wins = new AtomicLong();
+        private final AtomicLong denied = new AtomicLong();
+
+        private Stats(String key) {
+            this.key = key;
+        }
+
+        /** @return peticions elegibles per duplicar */
+        public long getRequests() {
+            return requests.get();
+        }
+
+        /** @return duplicats enviats */
+        public long getHedges() {
+            return hedges.get();
+        }
+
+        /** @return duplicats que han respost abans que l'original */
+        public long getWins() {
+            return wins.get();
+        }
+
+        /** @return duplicats no enviats per manca de pressupost */
+        public long getDenied() {
+            return denied.get();
+        }
+
+        /** @return percentatge de peticions que s'han duplicat */
+        public double getHedgeRate() {
+            long n = requests.get();
+            return n == 0 ? 0 : 100.0 * hedges.get() / n;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "Duplicacio %s: peticions=%d duplicats=%d (%.1f%%) guanyats=%d sensePressupost=%d",
+                    key, getRequests(), getHedges(), getHedgeRate(), getWins(), getDenied());
+        }
+    }
+
+    /**
+     * Indica si la duplicació està activa (propietat api.hedge.enabled).
+     *
+     * @return false per defecte
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("api.hedge.enabled", "false"));
+    }
+
+    /**
+     * Enviament bloquejant amb duplicació.
+     *
+     * @param request petició
+     * @param handler gestor del cos
+     * @param <T> tipus del cos
+     * @return la primera resposta que arriba
+     * @throws IOException si fallen l'original i el duplicat
+     * @throws InterruptedException si el fil s'interromp
+     */
+    static <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        if (!eligible(request)) {
+            return ApiClient.send(request, handler);
+        }
+        CompletableFuture<HttpResponse<T>> future = sendAsync(request, handler);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = ApiClient.unwrap(e);
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Enviament asíncron amb duplicació.
+     *
+     * @param request petició
+     * @param handler gestor del cos
+     * @param <T> tipus del cos
+     * @return futur amb la primera resposta que arriba
+     */
+    static <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        if (!eligible(request)) {
+            return ApiClient.sendAsync(request, handler);
+        }
+        Stats stats = STATS.computeIfAbsent(request.method() + " " + ApiClient.endpointKey(request.uri()), Stats::new);
+        stats.requests.incrementAndGet();
+        addTokens();
+        double p = AdaptiveTimeout.percentileMillis(request, doubleProperty("api.hedge.percentile", 95));
+        if (p < 0) {
+            return ApiClient.sendAsync(request, handler);
+        }
+
+        // cada còpia té el seu àmbit: cancel·lar el futur compost no arriba a l'intercanvi HTTP
+        // ni a l'espera del permís, però avortar l'àmbit sí
+        TaskScope scope = TaskScope.current();
+        TaskScope primaryScope = TaskScope.child(scope, "hedge-primary");
+        AtomicReference<CompletableFuture<HttpResponse<T>>> sent = new AtomicReference<>();
+        TaskScope.runIn(primaryScope, () -> sent.set(ApiClient.sendAsync(request, handler)));
+        CompletableFuture<HttpResponse<T>> primary = sent.get();
+
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        AtomicBoolean winner = new AtomicBoolean();
+        AtomicReference<Throwable> firstError = new AtomicReference<>();
+        AtomicReference<CompletableFuture<HttpResponse<T>>> hedge = new AtomicReference<>();
+        AtomicReference<TaskScope> hedgeScope = new AtomicReference<>();
+        primary.whenComplete((resp, error) -> settle(result, resp, error, false, stats, outstanding, winner, firstError));
+
+        long delay = Math.max((long) doubleProperty("api.hedge.minDelayMs", 5), (long) Math.ceil(p));
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> {
+            if (result.isDone() || primary.isDone() || !TaskScope.isActive(scope)) return;
+            if (!tryAcquireToken()) {
+                stats.denied.incrementAndGet();
+                return;
+            }
+            outstanding.incrementAndGet();
+            stats.hedges.incrementAndGet();
+            // el duplicat surt d'un fil del temporitzador: penja de l'àmbit de qui ha fet la crida
+            TaskScope own = TaskScope.child(scope, "hedge");
+            TaskScope.runIn(own, () -> hedge.set(ApiClient.sendAsync(request, handler)));
+            hedgeScope.set(own);
+            hedge.get().whenComplete((resp, error) -> settle(result, resp, error, true, stats, outstanding, winner, firstError));
+            if (result.isDone()) finish(hedge.get(), own);
+        });
+
+        // en completar-se (o cancel·lar-se) el resultat, la còpia que encara corre s'avorta
+        // i torna el permís del limitador
+        result.whenComplete((resp, error) -> {
+            finish(primary, primaryScope);
+            TaskScope own = hedgeScope.get();
+            if (own != null) finish(hedge.get(), own);
+        });
+        return result;
+    }
+
+    private static <T> void settle(CompletableFuture<HttpResponse<T>> result, HttpResponse<T> resp, Throwable error,
+                                   boolean isHedge, Stats stats, AtomicInteger outstanding,
+                                   AtomicBoolean winner, AtomicReference<Throwable> firstError) {
+        if (resp != null) {
+            // el guany es compta abans de completar: qui espera el resultat ja el veu a les estadístiques
+            if (!result.isDone() && winner.compareAndSet(false, true)) {
+                if (isHedge) stats.wins.incrementAndGet();
+                if (!result.complete(resp)) discard(resp);
+            } else {
+                discard(resp);
+            }
+        } else {
+            firstError.compareAndSet(null, error);
+        }
+        if (outstanding.decrementAndGet() == 0 && !result.isDone()) {
+            result.completeExceptionally(ApiClient.unwrap(firstError.get()));
+        }
+    }
+
+    /**
+     * Avorta una còpia que encara no ha acabat i deslliga el seu àmbit.
+     *
+     * @param copy futur de la còpia
+     * @param scope àmbit de la còpia
+     */
+    private static void finish(CompletableFuture<?> copy, TaskScope scope) {
+        if (copy.isDone()) {
+            scope.close();
+        } else {
+            scope.abort();
+            copy.cancel(true);
+        }
+    }
+
+    private static boolean eligible(HttpRequest request) {
+        return isEnabled() && "GET".equals(request.method());
+    }
+
+    private static void addTokens() {
+        long add = Math.round(doubleProperty("api.hedge.budgetPercent", 5) * 10);
+        TOKENS_MILLI.accumulateAndGet(add, (cur, a) -> Math.min(MAX_TOKENS * 1000L, cur + a));
+    }
+
+    private static boolean tryAcquireToken() {
+        long cur;
+        do {
+            cur = TOKENS_MILLI.get();
+            if (cur < 1000) return false;
+        } while (!TOKENS_MILLI.compareAndSet(cur, cur - 1000));
+        return true;
+    }
+
+    private static void discard(HttpResponse<?> resp) {
+        if (resp.body() instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+                // resposta perdedora: el cos no interessa
+            }
+        }
+    }
+
+    /**
+     * Comptadors de cada endpoint amb duplicació.
+     *
+     * @return mapa ordenat i immutable "METODE /ruta" -&gt; comptadors
+     */
+    public static Map<String, Stats> getStats() {
+        return Collections.unmodifiableMap(new TreeMap<>(STATS));
+    }
+
+    /**
+     * Reinicia els comptadors i omple el pressupost.
+     */
+    public static void reset() {
+        STATS.clear();
+        TOKENS_MILLI.set(MAX_TOKENS * 1000L);
+    }
+
+    /**
+     * Línies d'informe per a {@link ApiMetrics#report()}.
+     *
+     * @return una línia per endpoint, o text buit si no n'hi ha
+     */
+    static String report() {
+        StringBuilder sb = new StringBuilder();
+        getStats().values().forEach(s -> sb.append(s).append(System.lineSeparator()));
+        return sb.toString();
+    }
+
+    private static double doubleProperty(String name, double def) {
+        try {
+            return Double.parseDouble(System.getProperty(name, String.valueOf(def)).trim());
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.bibliosedaos.desktop.api;
 
 import com.bibliosedaos.desktop.model.Horari;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interfície per a les operacions d'Horaris (sales/dia/hora).
@@ -20,6 +21,15 @@ public interface HorariApi {
      */
     List<Horari> getAllHoraris() throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #getAllHoraris()}.
+     *
+     * @return futur amb llista d'horaris
+     */
+    default CompletableFuture<List<Horari>> getAllHorarisAsync() {
+        return ApiClient.supplyAsync(() -> getAllHoraris());
+    }
+
     /**
      * Crea un nou horari (ADMIN només).
      *
@@ -28,5 +38,15 @@ public interface HorariApi {
      * @throws ApiException si hi ha errors (duplicats, permisos, etc.)
      */
     Horari createHorari(Horari horari) throws ApiException;
+
+    /**
+     * Versio no bloquejant de {@link #createHorari(Horari)}.
+     *
+     * @param horari dades de l'horari (sala, dia, hora, estat)
+     * @return futur amb horari creat
+     */
+    default CompletableFuture<Horari> createHorariAsync(Horari horari) {
+        return ApiClient.supplyAsync(() -> createHorari(horari));
+    }
 }
 
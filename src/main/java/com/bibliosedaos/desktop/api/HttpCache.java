@@ -0,0 +1,518 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.security.SessionStore;
+
+import javax.net.ssl.SSLSession;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Memòria cau de revalidació HTTP (ETag / Last-Modified) per a peticions GET.
+ *
+ * Desa, per a cada URL, els validadors retornats pel servidor i el resultat ja
+ * deserialitzat. Les peticions següents s'envien amb If-None-Match /
+ * If-Modified-Since i, si el servidor respon 304, es retorna el resultat desat
+ * sense tornar a descarregar ni deserialitzar el cos.
+ *
+ * Opcionalment manté una segona capa a disc amb el cos original, de manera que
+ * la revalidació funciona també després de reiniciar l'aplicació.
+ *
+ * Les entrades són de l'usuari de la sessió ({@link SessionStore}): el servidor filtra les
+ * respostes segons qui les demana, i un 304 no ha de lliurar a un usuari el resultat desat
+ * d'un altre. Es fa servir l'ID d'usuari i no el token perquè la capa a disc continuï
+ * servint després de tornar a iniciar sessió.
+ *
+ * Propietats JVM:
+ * -Dapi.cache.enabled=false (per defecte true)
+ * -Dapi.cache.dir=/ruta/directori (per defecte només memòria)
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class HttpCache {
+
+    private static final Logger LOGGER = Logger.getLogger(HttpCache.class.getName());
+
+    private final boolean enabled;
+    private final Path dir;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    /**
+     * Converteix el cos desat en el resultat de la crida.
+     */
+    @FunctionalInterface
+    interface Decoder {
+        /**
+         * Deserialitza el cos.
+         *
+         * @param body bytes del cos original
+         * @return resultat deserialitzat
+         * @throws Exception si el cos no es pot interpretar
+         */
+        Object decode(byte[] body) throws Exception;
+    }
+
+    /**
+     * Entrada de la memòria cau: validadors, mida del cos i resultat.
+     */
+    static final class Entry {
+        private final String etag;
+        private final String lastModified;
+        private final long size;
+        private volatile Object value;
+        private volatile byte[] body;
+
+        private Entry(String etag, String lastModified, long size, Object value, byte[] body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.value = value;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Crea una memòria cau activa.
+     *
+     * @param dir directori de la capa a disc, o null per treballar només en memòria
+     */
+    public HttpCache(Path dir) {
+        this(true, dir);
+    }
+
+    private HttpCache(boolean enabled, Path dir) {
+        this.enabled = enabled;
+        this.dir = dir;
+        if (dir != null) {
+            try {
+                Files.createDirectories(dir);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "No s''ha pogut crear el directori de cache {0}: {1}",
+                        new Object[]{dir, e.getMessage()});
+            }
+        }
+    }
+
+    /**
+     * Crea la memòria cau segons les propietats api.cache.enabled i api.cache.dir.
+     *
+     * @return memòria cau configurada
+     */
+    public static HttpCache fromSystemProperties() {
+        boolean enabled = Boolean.parseBoolean(System.getProperty("api.cache.enabled", "true"));
+        String dir = System.getProperty("api.cache.dir");
+        Path path = (dir == null || dir.isBlank()) ? null : Paths.get(dir.trim());
+        return new HttpCache(enabled, path);
+    }
+
+    /**
+     * Indica si la memòria cau està activa.
+     *
+     * @return true si s'han d'enviar peticions condicionals
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Clau d'una petició: mètode, URL completa (amb query) i usuari de la sessió, si n'hi ha.
+     *
+     * @param request petició
+     * @return clau de la memòria cau
+     */
+    static String key(HttpRequest request) {
+        String key = request.method() + " " + request.uri();
+        Long userId = SessionStore.getInstance().getUserId();
+        return userId == null ? key : key + " #" + userId;
+    }
+
+    /**
+     * Cerca l'entrada d'una clau a memòria i, si no hi és, a disc.
+     *
+     * @param key clau de la petició
+     * @return entrada trobada o null
+     */
+    Entry lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null && dir != null) {
+            entry = readFromDisk(key);
+            if (entry != null) {
+                Entry previous = entries.putIfAbsent(key, entry);
+                if (previous != null) entry = previous;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Afegeix a la petició els validadors de l'entrada.
+     *
+     * @param request petició original
+     * @param entry entrada desada
+     * @return petició condicional
+     */
+    HttpRequest conditional(HttpRequest request, Entry entry) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> true);
+        if (entry.etag != null) builder.header("If-None-Match", entry.etag);
+        if (entry.lastModified != null) builder.header("If-Modified-Since", entry.lastModified);
+        return builder.build();
+    }
+
+    /**
+     * Retorna el resultat desat d'una entrada revalidada (304).
+     * Si l'entrada s'ha carregat de disc, el cos es deserialitza una sola vegada.
+     *
+     * @param entry entrada revalidada
+     * @param decoder conversor del cos desat
+     * @return resultat desat (les llistes es retornen com a còpia)
+     * @throws Exception si el cos desat no es pot deserialitzar
+     */
+    Object hit(Entry entry, Decoder decoder) throws Exception {
+        Object value = entry.value;
+        if (value == null) {
+            synchronized (entry) {
+                value = entry.value;
+                if (value == null) {
+                    value = decoder.decode(entry.body);
+                    entry.value = value;
+                    entry.body = null;
+                }
+            }
+        }
+        hits.incrementAndGet();
+        bytesSaved.addAndGet(entry.size);
+        return (value instanceof List<?> list) ? new ArrayList<>(list) : value;
+    }
+
+    /**
+     * Registra una resposta completa. Si porta validadors, es desa; si no, s'esborra
+     * qualsevol entrada anterior de la mateixa clau.
+     *
+     * @param key clau de la petició
+     * @param response resposta rebuda
+     * @param capture gestor que ha capturat els cossos dels intents
+     * @param value resultat deserialitzat
+     */
+    void store(String key, HttpResponse<?> response, Capture<?> capture, Object value) {
+        if (response.statusCode() != 200) return;
+        misses.incrementAndGet();
+
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        if ((etag == null && lastModified == null) || value == null) {
+            entries.remove(key);
+            deleteFromDisk(key);
+            return;
+        }
+
+        Object kept = (value instanceof List<?> list) ? new ArrayList<>(list) : value;
+        Attempt attempt = capture.attemptOf(response.body());
+        entries.put(key, new Entry(etag, lastModified, attempt != null ? attempt.size() : 0, kept, null));
+        if (dir != null && attempt != null && attempt.isComplete()) {
+            writeToDisk(key, etag, lastModified, attempt.bytes());
+        }
+    }
+
+    /**
+     * Crea un gestor de cos que compta (i, si hi ha capa a disc, copia) els bytes rebuts.
+     *
+     * @param handler gestor original
+     * @param <B> tipus del cos
+     * @return gestor amb captura
+     */
+    <B> Capture<B> capture(HttpResponse.BodyHandler<B> handler) {
+        return new Capture<>(handler, dir != null);
+    }
+
+    /**
+     * Buida la memòria cau (memòria i disc) i reinicia els comptadors.
+     */
+    public void clear() {
+        entries.clear();
+        hits.set(0);
+        misses.set(0);
+        bytesSaved.set(0);
+        if (dir == null) return;
+        try (var files = Files.list(dir)) {
+            files.filter(p -> p.getFileName().toString().endsWith(".cache")).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, "No s''ha pogut esborrar {0}", p);
+                }
+            });
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "No s''ha pogut buidar la cache a disc: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Nombre de respostes servides des de la memòria cau (304).
+     *
+     * @return encerts
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Nombre de respostes 200 descarregades completes (amb validadors o sense); els errors
+     * no hi compten.
+     *
+     * @return errades
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Bytes de cos que no s'han hagut de descarregar gràcies als 304.
+     *
+     * @return bytes estalviats
+     */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    @Override
+    public String toString() {
+        return "HttpCache[hits=" + getHits() + ", misses=" + getMisses() + ", bytesSaved=" + getBytesSaved()
+                + ", entries=" + entries.size() + ", disk=" + (dir != null) + "]";
+    }
+
+    /**
+     * Reprodueix un cos desat com una resposta 200 a través del gestor de cos original,
+     * perquè el mateix mapper de la crida el pugui interpretar.
+     *
+     * @param request petició original
+     * @param body cos desat
+     * @param handler gestor de cos de la crida
+     * @param <B> tipus del cos
+     * @return resposta sintètica
+     */
+    static <B> HttpResponse<B> replay(HttpRequest request, byte[] body, HttpResponse.BodyHandler<B> handler) {
+        HttpHeaders headers = HttpHeaders.of(Map.of(), (name, value) -> true);
+        HttpResponse.ResponseInfo info = new HttpResponse.ResponseInfo() {
+            @Override public int statusCode() { return 200; }
+            @Override public HttpHeaders headers() { return headers; }
+            @Override public HttpClient.Version version() { return HttpClient.Version.HTTP_1_1; }
+        };
+        HttpResponse.BodySubscriber<B> subscriber = handler.apply(info);
+        subscriber.onSubscribe(new Flow.Subscription() {
+            private boolean done;
+
+            @Override
+            public synchronized void request(long n) {
+                if (done || n <= 0) return;
+                done = true;
+                subscriber.onNext(List.of(ByteBuffer.wrap(body)));
+                subscriber.onComplete();
+            }
+
+            @Override
+            public synchronized void cancel() {
+                done = true;
+            }
+        });
+        B value = subscriber.getBody().toCompletableFuture().join();
+        return new HttpResponse<>() {
+            @Override public int statusCode() { return 200; }
+            @Override public HttpRequest request() { return request; }
+            @Override public Optional<HttpResponse<B>> previousResponse() { return Optional.empty(); }
+            @Override public HttpHeaders headers() { return headers; }
+            @Override public B body() { return value; }
+            @Override public Optional<SSLSession> sslSession() { return Optional.empty(); }
+            @Override public URI uri() { return request.uri(); }
+            @Override public HttpClient.Version version() { return HttpClient.Version.HTTP_1_1; }
+        };
+    }
+
+    private Path fileFor(String key) {
+        return dir.resolve(UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)) + ".cache");
+    }
+
+    private Entry readFromDisk(String key) {
+        Path file = fileFor(key);
+        if (!Files.isRegularFile(file)) return null;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            if (!key.equals(in.readUTF())) return null;
+            String etag = emptyToNull(in.readUTF());
+            String lastModified = emptyToNull(in.readUTF());
+            byte[] body = in.readNBytes(in.readInt());
+            return new Entry(etag, lastModified, body.length, null, body);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Entrada de cache il·legible {0}: {1}", new Object[]{file, e.getMessage()});
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, String etag, String lastModified, byte[] body) {
+        Path file = fileFor(key);
+        try {
+            Path tmp = Files.createTempFile(dir, "entry", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+                out.writeUTF(key);
+                out.writeUTF(etag == null ? "" : etag);
+                out.writeUTF(lastModified == null ? "" : lastModified);
+                out.writeInt(body.length);
+                out.write(body);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "No s''ha pogut desar la cache {0}: {1}", new Object[]{file, e.getMessage()});
+        }
+    }
+
+    private void deleteFromDisk(String key) {
+        if (dir == null) return;
+        try {
+            Files.deleteIfExists(fileFor(key));
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "No s''ha pogut esborrar la cache de {0}", key);
+        }
+    }
+
+    private static String emptyToNull(String s) {
+        return (s == null || s.isEmpty()) ? null : s;
+    }
+
+    /**
+     * Gestor de cos que deixa passar els bytes al gestor original i alhora els compta
+     * i, opcionalment, en guarda una còpia.
+     *
+     * El mateix gestor serveix per a tots els intents d'una crida (reintents, canvi de
+     * rèplica, còpies de hedging), fins i tot en paral·lel: cada intent té la seva còpia i el
+     * seu estat, i el cos que produeix queda associat a l'intent. Així només es desa el que ha
+     * arribat a la resposta lliurada, no els bytes d'un 503 descartat.
+     *
+     * @param <B> tipus del cos
+     */
+    static final class Capture<B> implements HttpResponse.BodyHandler<B> {
+        private final HttpResponse.BodyHandler<B> delegate;
+        private final boolean keepBytes;
+        private final Map<Object, Attempt> attempts = Collections.synchronizedMap(new IdentityHashMap<>());
+
+        private Capture(HttpResponse.BodyHandler<B> delegate, boolean keepBytes) {
+            this.delegate = delegate;
+            this.keepBytes = keepBytes;
+        }
+
+        /**
+         * Intent que ha produït un cos.
+         *
+         * @param body cos de la resposta lliurada
+         * @return intent, o null si el cos no és d'aquest gestor
+         */
+        Attempt attemptOf(Object body) {
+            return body == null ? null : attempts.get(body);
+        }
+
+        @Override
+        public HttpResponse.BodySubscriber<B> apply(HttpResponse.ResponseInfo info) {
+            HttpResponse.BodySubscriber<B> target = delegate.apply(info);
+            Attempt attempt = new Attempt(keepBytes);
+            return new HttpResponse.BodySubscriber<>() {
+                @Override
+                public CompletionStage<B> getBody() {
+                    return target.getBody().thenApply(body -> {
+                        if (body != null) attempts.put(body, attempt);
+                        return body;
+                    });
+                }
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    target.onSubscribe(subscription);
+                }
+
+                @Override
+                public void onNext(List<ByteBuffer> items) {
+                    attempt.append(items);
+                    target.onNext(items);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    target.onError(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    attempt.complete = true;
+                    target.onComplete();
+                }
+            };
+        }
+    }
+
+    /**
+     * Bytes rebuts per un intent.
+     */
+    static final class Attempt {
+        private final ByteArrayOutputStream copy;
+        private final AtomicLong size = new AtomicLong();
+        private volatile boolean complete;
+
+        private Attempt(boolean keepBytes) {
+            this.copy = keepBytes ? new ByteArrayOutputStream() : null;
+        }
+
+        private void append(List<ByteBuffer> items) {
+            for (ByteBuffer item : items) {
+                size.addAndGet(item.remaining());
+                if (copy != null) {
+                    ByteBuffer view = item.duplicate();
+                    byte[] chunk = new byte[view.remaining()];
+                    view.get(chunk);
+                    synchronized (copy) {
+                        copy.write(chunk, 0, chunk.length);
+                    }
+                }
+            }
+        }
+
+        long size() {
+            return size.get();
+        }
+
+        boolean isComplete() {
+            return complete;
+        }
+
+        byte[] bytes() {
+            synchronized (copy) {
+                return copy.toByteArray();
+            }
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.bibliosedaos.desktop.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Compressió negociada (gzip / deflate) de les respostes de l'API.
+ *
+ * El HttpClient de Java no descomprimeix les respostes. Quan la compressió està activada
+ * (-Dapi.http.compression=true) s'envia Accept-Encoding i, si el servidor respon amb
+ * Content-Encoding gzip o deflate, el cos es descomprimeix a mesura que arriba, abans
+ * d'entregar-lo al gestor de cos original (String, InputStream...).
+ *
+ * Per a cada endpoint es compten els bytes rebuts pel cable i els bytes descomprimits.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class HttpCompression {
+
+    /** Valor d'Accept-Encoding enviat quan la compressió està activada. */
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final int CHUNK = 16 * 1024;
+
+    private static final Map<String, ByteCount> BYTE_COUNTS = new ConcurrentHashMap<>();
+
+    private HttpCompression() {
+        // utilitat: no instanciar
+    }
+
+    /**
+     * Bytes transferits per un endpoint.
+     */
+    public static final class ByteCount {
+        private final AtomicLong wireBytes = new AtomicLong();
+        private final AtomicLong decodedBytes = new AtomicLong();
+
+        /**
+         * Bytes rebuts pel cable (comprimits si el servidor ha comprimit).
+         *
+         * @return bytes rebuts
+         */
+        public long getWireBytes() {
+            return wireBytes.get();
+        }
+
+        /**
+         * Bytes del cos un cop descomprimit.
+         *
+         * @return bytes descomprimits
+         */
+        public long getDecodedBytes() {
+            return decodedBytes.get();
+        }
+
+        @Override
+        public String toString() {
+            return "wire=" + getWireBytes() + ", decoded=" + getDecodedBytes();
+        }
+    }
+
+    /**
+     * Indica si s'ha de negociar la compressió (propietat api.http.compression).
+     *
+     * @return true si s'envia Accept-Encoding
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("api.http.compression", "false"));
+    }
+
+    /**
+     * Afegeix Accept-Encoding a la petició si la compressió està activada i la petició
+     * no n'especifica cap.
+     *
+     * @param request petició original
+     * @return la mateixa petició o una còpia amb Accept-Encoding
+     */
+    static HttpRequest negotiate(HttpRequest request) {
+        if (!isEnabled() || request.headers().firstValue("Accept-Encoding").isPresent()) {
+            return request;
+        }
+        return HttpRequest.newBuilder(request, (name, value) -> true)
+                .header("Accept-Encoding", ACCEPT_ENCODING)
+                .build();
+    }
+
+    /**
+     * Embolcalla un gestor de cos perquè descomprimeixi segons Content-Encoding
+     * i comptabilitzi els bytes de l'endpoint.
+     *
+     * @param request petició enviada (per identificar l'endpoint)
+     * @param handler gestor de cos original
+     * @param <T> tipus del cos
+     * @return gestor amb descompressió
+     */
+    static <T> HttpResponse.BodyHandler<T> decoding(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        ByteCount count = BYTE_COUNTS.computeIfAbsent(
+                request.method() + " " + ApiClient.endpointKey(request.uri()), k -> new ByteCount());
+        return info -> {
+            HttpResponse.BodySubscriber<T> target = handler.apply(info);
+            String encoding = info.headers().firstValue("Content-Encoding")
+                    .map(v -> v.trim().toLowerCase(Locale.ROOT))
+                    .orElse("identity");
+            return switch (encoding) {
+                case "gzip", "x-gzip" -> new InflatingSubscriber<>(target, count, true);
+                case "deflate" -> new InflatingSubscriber<>(target, count, false);
+                default -> new CountingSubscriber<>(target, count);
+            };
+        };
+    }
+
+    /**
+     * Retorna els comptadors de bytes de cada endpoint.
+     *
+     * @return mapa ordenat i immutable "METODE /ruta" -&gt; bytes
+     */
+    public static Map<String, ByteCount> getByteCounts() {
+        return Collections.unmodifiableMap(new TreeMap<>(BYTE_COUNTS));
+    }
+
+    /**
+     * Reinicia els comptadors de bytes.
+     */
+    public static void resetByteCounts() {
+        BYTE_COUNTS.clear();
+    }
+
+    /**
+     * Subscriptor sense codificació: només compta els bytes.
+     */
+    private static final class CountingSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+        private final HttpResponse.BodySubscriber<T> target;
+        private final ByteCount count;
+
+        private CountingSubscriber(HttpResponse.BodySubscriber<T> target, ByteCount count) {
+            this.target = target;
+            this.count = count;
+        }
+
+        @Override public CompletionStage<T> getBody() { return target.getBody(); }
+        @Override public void onSubscribe(Flow.Subscription subscription) { target.onSubscribe(subscription); }
+        @Override public void onError(Throwable throwable) { target.onError(throwable); }
+        @Override public void onComplete() { target.onComplete(); }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            long n = 0;
+            for (ByteBuffer b : items) n += b.remaining();
+            count.wireBytes.addAndGet(n);
+            count.decodedBytes.addAndGet(n);
+            target.onNext(items);
+        }
+    }
+
+    /**
+     * Subscriptor que descomprimeix gzip o deflate en streaming.
+     *
+     * Cada llista rebuda del servidor es converteix en una llista de buffers
+     * descomprimits; si no en produeix cap, es demana una llista més al servidor
+     * perquè la demanda del subscriptor final quedi sempre coberta.
+     */
+    private static final class InflatingSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+        private final HttpResponse.BodySubscriber<T> target;
+        private final ByteCount count;
+        private final boolean gzip;
+        private final CRC32 crc = new CRC32();
+        private final ByteArrayOutputStream header = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream trailer = new ByteArrayOutputStream();
+        private Inflater inflater;
+        private boolean headerDone;
+        private boolean producedOutput;
+        private boolean rawRetried;
+        private boolean receivedAny;
+        private boolean failed;
+        private long outputSize;
+        private Flow.Subscription subscription;
+
+        private InflatingSubscriber(HttpResponse.BodySubscriber<T> target, ByteCount count, boolean gzip) {
+            this.target = target;
+            this.count = count;
+            this.gzip = gzip;
+            this.headerDone = !gzip;
+            // gzip porta deflate "cru"; Content-Encoding: deflate és deflate amb capçalera zlib
+            this.inflater = new Inflater(gzip);
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return target.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            target.onSubscribe(subscription);
+        }
+
+        @Override
+        public synchronized void onNext(List<ByteBuffer> items) {
+            if (failed) return;
+            try {
+                List<ByteBuffer> out = new ArrayList<>();
+                for (ByteBuffer item : items) {
+                    if (!item.hasRemaining()) continue;
+                    receivedAny = true;
+                    count.wireBytes.addAndGet(item.remaining());
+                    byte[] input = new byte[item.remaining()];
+                    item.duplicate().get(input);
+                    inflate(input, out);
+                }
+                if (out.isEmpty()) {
+                    subscription.request(1);
+                } else {
+                    target.onNext(out);
+                }
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        private void inflate(byte[] input, List<ByteBuffer> out) throws IOException {
+            if (!headerDone) {
+                header.write(input, 0, input.length);
+                byte[] buf = header.toByteArray();
+                int length = gzipHeaderLength(buf);
+                if (length < 0) return;
+                headerDone = true;
+                input = Arrays.copyOfRange(buf, length, buf.length);
+            }
+            if (inflater.finished()) {
+                trailer.write(input, 0, input.length);
+                return;
+            }
+            inflater.setInput(input);
+            byte[] chunk = new byte[CHUNK];
+            while (!inflater.finished()) {
+                int n;
+                try {
+                    n = inflater.inflate(chunk);
+                } catch (DataFormatException e) {
+                    if (!gzip && !producedOutput && !rawRetried) {
+                        // Alguns servidors envien deflate sense capçalera zlib
+                        rawRetried = true;
+                        inflater.end();
+                        inflater = new Inflater(true);
+                        inflater.setInput(input);
+                        continue;
+                    }
+                    throw new ZipException("Cos comprimit invàlid: " + e.getMessage());
+                }
+                if (n > 0) {
+                    producedOutput = true;
+                    crc.update(chunk, 0, n);
+                    outputSize += n;
+                    count.decodedBytes.addAndGet(n);
+                    out.add(ByteBuffer.wrap(Arrays.copyOf(chunk, n)));
+                } else if (inflater.needsInput()) {
+                    return;
+                } else if (inflater.needsDictionary()) {
+                    throw new ZipException("Cos deflate amb diccionari no suportat");
+                }
+            }
+            int remaining = inflater.getRemaining();
+            if (remaining > 0) {
+                trailer.write(input, input.length - remaining, remaining);
+            }
+        }
+
+        @Override
+        public synchronized void onError(Throwable throwable) {
+            if (failed) return;
+            failed = true;
+            inflater.end();
+            target.onError(throwable);
+        }
+
+        @Override
+        public synchronized void onComplete() {
+            if (failed) return;
+            try {
+                if (!receivedAny) {
+                    // cos buit (p. ex. 304 o 204): no hi ha res a descomprimir
+                    inflater.end();
+                    target.onComplete();
+                    return;
+                }
+                if (!headerDone || !inflater.finished()) {
+                    throw new ZipException("Cos comprimit truncat");
+                }
+                if (gzip) {
+                    verifyTrailer();
+                }
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+            inflater.end();
+            target.onComplete();
+        }
+
+        private void verifyTrailer() throws IOException {
+            byte[] t = trailer.toByteArray();
+            if (t.length < 8) throw new ZipException("Cos gzip sense tràiler");
+            long expectedCrc = readIntLE(t, 0) & 0xffffffffL;
+            long expectedSize = readIntLE(t, 4) & 0xffffffffL;
+            if (expectedCrc != crc.getValue() || expectedSize != (outputSize & 0xffffffffL)) {
+                throw new ZipException("Cos gzip corrupte (CRC o mida incorrectes)");
+            }
+        }
+
+        private void fail(IOException e) {
+            failed = true;
+            inflater.end();
+            if (subscription != null) subscription.cancel();
+            target.onError(e);
+        }
+    }
+
+    /**
+     * Calcula la mida de la capçalera gzip (RFC 1952).
+     *
+     * @param b bytes rebuts fins ara
+     * @return mida de la capçalera o -1 si encara no s'ha rebut sencera
+     * @throws ZipException si no és una capçalera gzip
+     */
+    static int gzipHeaderLength(byte[] b) throws ZipException {
+        if (b.length < 10) return -1;
+        if ((b[0] & 0xff) != 0x1f || (b[1] & 0xff) != 0x8b || b[2] != 8) {
+            throw new ZipException("Capçalera gzip invàlida");
+        }
+        int flags = b[3] & 0xff;
+        int pos = 10;
+        if ((flags & 0x04) != 0) {
+            if (b.length < pos + 2) return -1;
+            pos += 2 + ((b[pos] & 0xff) | ((b[pos + 1] & 0xff) << 8));
+        }
+        if ((flags & 0x08) != 0) {
+            pos = skipZeroTerminated(b, pos);
+            if (pos < 0) return -1;
+        }
+        if ((flags & 0x10) != 0) {
+            pos = skipZeroTerminated(b, pos);
+            if (pos < 0) return -1;
+        }
+        if ((flags & 0x02) != 0) pos += 2;
+        return pos <= b.length ? pos : -1;
+    }
+
+    private static int skipZeroTerminated(byte[] b, int pos) {
+        for (int i = pos; i < b.length; i++) {
+            if (b[i] == 0) return i + 1;
+        }
+        return -1;
+    }
+
+    private static int readIntLE(byte[] b, int off) {
+        return (b[off] & 0xff) | ((b[off + 1] & 0xff) << 8) | ((b[off + 2] & 0xff) << 16) | ((b[off + 3] & 0xff) << 24);
+    }
+}
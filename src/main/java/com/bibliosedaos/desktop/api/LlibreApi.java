@@ -2,7 +2,9 @@ package com.bibliosedaos.desktop.api;
 
 import com.bibliosedaos.desktop.model.Llibre;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interficie per a les operacions de llibres.
@@ -22,6 +24,15 @@ public interface LlibreApi {
      */
     List<Llibre> getAllLlibres() throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #getAllLlibres()}.
+     *
+     * @return futur amb llista de tots els llibres
+     */
+    default CompletableFuture<List<Llibre>> getAllLlibresAsync() {
+        return ApiClient.supplyAsync(() -> getAllLlibres());
+    }
+
     /**
      * Crea un nou llibre al sistema.
      *
@@ -31,6 +42,16 @@ public interface LlibreApi {
      */
     Llibre createLlibre(Llibre llibre) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #createLlibre(Llibre)}.
+     *
+     * @param llibre dades del nou llibre
+     * @return futur amb llibre creat amb el ID assignat
+     */
+    default CompletableFuture<Llibre> createLlibreAsync(Llibre llibre) {
+        return ApiClient.supplyAsync(() -> createLlibre(llibre));
+    }
+
     /**
      * Actualitza les dades d'un llibre.
      *
@@ -41,6 +62,17 @@ public interface LlibreApi {
      */
     Llibre updateLlibre(Long id, Llibre llibre) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #updateLlibre(Long, Llibre)}.
+     *
+     * @param id     ID del llibre a actualitzar
+     * @param llibre dades actualitzades del llibre
+     * @return futur amb llibre actualitzat
+     */
+    default CompletableFuture<Llibre> updateLlibreAsync(Long id, Llibre llibre) {
+        return ApiClient.supplyAsync(() -> updateLlibre(id, llibre));
+    }
+
     /**
      * Elimina un llibre del sistema.
      *
@@ -49,6 +81,19 @@ public interface LlibreApi {
      */
     void deleteLlibre(Long id) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #deleteLlibre(Long)}.
+     *
+     * @param id ID del llibre a eliminar
+     * @return futur completat quan acaba l'operacio
+     */
+    default CompletableFuture<Void> deleteLlibreAsync(Long id) {
+        return ApiClient.supplyAsync(() -> {
+            deleteLlibre(id);
+            return null;
+        });
+    }
+
     /**
      * Obte un llibre pel seu ID.
      *
@@ -57,4 +102,36 @@ public interface LlibreApi {
      * @throws ApiException si hi ha errors de comunicacio o el llibre no es troba
      */
     Llibre findLlibreById(Long id) throws ApiException;
+
+    /**
+     * Versio no bloquejant de {@link #findLlibreById(Long)}.
+     *
+     * @param id ID del llibre a obtenir
+     * @return futur amb llibre amb totes les seves dades
+     */
+    default CompletableFuture<Llibre> findLlibreByIdAsync(Long id) {
+        return ApiClient.supplyAsync(() -> findLlibreById(id));
+    }
+
+    /**
+     * Obte diversos llibres pel seu ID amb consultes en paral·lel limitades
+     * (veure {@link MultiGet}). Els ID repetits es consulten una sola vegada.
+     *
+     * @param ids IDs dels llibres
+     * @return llibres trobats en l'ordre dels IDs i errors dels que han fallat
+     * @throws ApiException si el fil s'interromp mentre espera
+     */
+    default MultiGet.Result<Llibre> findLlibresByIds(Collection<Long> ids) throws ApiException {
+        return MultiGet.fetch(ids, this::findLlibreByIdAsync);
+    }
+
+    /**
+     * Versio no bloquejant de {@link #findLlibresByIds(Collection)}.
+     *
+     * @param ids IDs dels llibres
+     * @return futur amb els llibres trobats i els errors; no falla per l'error d'un sol ID
+     */
+    default CompletableFuture<MultiGet.Result<Llibre>> findLlibresByIdsAsync(Collection<Long> ids) {
+        return MultiGet.fetchAsync(ids, this::findLlibreByIdAsync);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,546 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.model.Autor;
+import com.bibliosedaos.desktop.model.Exemplar;
+import com.bibliosedaos.desktop.model.Grup;
+import com.bibliosedaos.desktop.model.Horari;
+import com.bibliosedaos.desktop.model.Llibre;
+import com.bibliosedaos.desktop.model.Prestec;
+import com.bibliosedaos.desktop.model.User;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codificadors JSON escrits a mà per als tipus de model més llegits.
+ *
+ * Substitueixen el binding reflectiu de Jackson per a {@link Prestec}, {@link Exemplar},
+ * {@link Llibre}, {@link Autor}, {@link User}, {@link Grup} i {@link Horari}: cada objecte es
+ * llegeix token a token amb un {@code switch} sobre el nom del camp i cridant directament el
+ * codificador dels objectes niats, sense passar pels setters per reflexió ni tornar a buscar
+ * el deserialitzador a cada fila. El resultat ha de ser el mateix que el camí reflectiu:
+ * <ul>
+ *   <li>els camps desconeguts s'ignoren (com {@code @JsonIgnoreProperties(ignoreUnknown = true)});</li>
+ *   <li>qualsevol token no habitual (número en text, data en format de vector...) es delega
+ *       al deserialitzador estàndard del tipus, amb les mateixes coercions;</li>
+ *   <li>en escriure s'emeten els mateixos camps, inclosos els null i {@code rolLabel} d'User.</li>
+ * </ul>
+ *
+ * Es registren a {@link ApiClient#MAPPER} si {@code -Dapi.json.codecs} no és {@code false}.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class ModelCodecs {
+
+    private static final AutorCodec AUTOR = new AutorCodec();
+    private static final LlibreCodec LLIBRE = new LlibreCodec();
+    private static final ExemplarCodec EXEMPLAR = new ExemplarCodec();
+    private static final UserCodec USER = new UserCodec();
+    private static final HorariCodec HORARI = new HorariCodec();
+    private static final GrupCodec GRUP = new GrupCodec();
+    private static final PrestecCodec PRESTEC = new PrestecCodec();
+
+    private static final AutorWriter AUTOR_WRITER = new AutorWriter();
+    private static final LlibreWriter LLIBRE_WRITER = new LlibreWriter();
+    private static final ExemplarWriter EXEMPLAR_WRITER = new ExemplarWriter();
+    private static final UserWriter USER_WRITER = new UserWriter();
+    private static final HorariWriter HORARI_WRITER = new HorariWriter();
+    private static final GrupWriter GRUP_WRITER = new GrupWriter();
+    private static final PrestecWriter PRESTEC_WRITER = new PrestecWriter();
+
+    private ModelCodecs() {
+    }
+
+    /**
+     * Indica si els codificadors s'han de registrar.
+     *
+     * @return false només si {@code api.json.codecs=false}
+     */
+    public static boolean isEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty("api.json.codecs", "true"));
+    }
+
+    /**
+     * Mòdul de Jackson amb tots els codificadors.
+     *
+     * @return mòdul nou per registrar en un ObjectMapper
+     */
+    public static Module module() {
+        SimpleModule m = new SimpleModule("BiblioModelCodecs");
+        m.addDeserializer(Autor.class, AUTOR);
+        m.addDeserializer(Llibre.class, LLIBRE);
+        m.addDeserializer(Exemplar.class, EXEMPLAR);
+        m.addDeserializer(User.class, USER);
+        m.addDeserializer(Horari.class, HORARI);
+        m.addDeserializer(Grup.class, GRUP);
+        m.addDeserializer(Prestec.class, PRESTEC);
+        m.addSerializer(Autor.class, AUTOR_WRITER);
+        m.addSerializer(Llibre.class, LLIBRE_WRITER);
+        m.addSerializer(Exemplar.class, EXEMPLAR_WRITER);
+        m.addSerializer(User.class, USER_WRITER);
+        m.addSerializer(Horari.class, HORARI_WRITER);
+        m.addSerializer(Grup.class, GRUP_WRITER);
+        m.addSerializer(Prestec.class, PRESTEC_WRITER);
+        return m;
+    }
+
+    // ---------------------------------------------------------------- lectura
+
+    /**
+     * Bucle comú de lectura d'un objecte: crea el bean i passa cada camp a {@link #field}.
+     *
+     * @param <T> tipus de model
+     */
+    private abstract static class Codec<T> extends StdDeserializer<T> {
+
+        Codec(Class<T> type) {
+            super(type);
+        }
+
+        abstract T create();
+
+        /**
+         * Llegeix el valor del camp (el parser és sobre el primer token del valor).
+         */
+        abstract void field(T bean, String name, JsonParser p, DeserializationContext ctxt) throws IOException;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken t = p.currentToken();
+            if (t == JsonToken.START_OBJECT) {
+                t = p.nextToken();
+            } else if (t != JsonToken.FIELD_NAME && t != JsonToken.END_OBJECT) {
+                return (T) ctxt.handleUnexpectedToken(handledType(), p);
+            }
+            T bean = create();
+            for (; t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+                String name = p.currentName();
+                p.nextToken();
+                field(bean, name, p, ctxt);
+            }
+            return bean;
+        }
+
+        /** Llegeix un objecte niat amb el seu codificador, o null. */
+        @SuppressWarnings("unchecked")
+        static <N> N nested(Codec<N> codec, JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken t = p.currentToken();
+            if (t == JsonToken.VALUE_NULL) return null;
+            if (t == JsonToken.START_OBJECT) return codec.deserialize(p, ctxt);
+            return ctxt.readValue(p, (Class<N>) codec.handledType());
+        }
+    }
+
+    private static String text(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.VALUE_STRING) return p.getText();
+        if (t == JsonToken.VALUE_NULL) return null;
+        return ctxt.readValue(p, String.class);
+    }
+
+    private static Long longValue(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.VALUE_NUMBER_INT) return p.getLongValue();
+        if (t == JsonToken.VALUE_NULL) return null;
+        return ctxt.readValue(p, Long.class);
+    }
+
+    private static int intValue(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.VALUE_NUMBER_INT) return p.getIntValue();
+        if (t == JsonToken.VALUE_NULL) return 0;
+        Integer v = ctxt.readValue(p, Integer.class);
+        return v == null ? 0 : v;
+    }
+
+    private static LocalDate date(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.VALUE_NULL) return null;
+        if (t == JsonToken.VALUE_STRING) {
+            String s = p.getText();
+            // format ISO (yyyy-MM-dd): el de l'API i el que escriu el mapper
+            if (s.length() == 10 && s.charAt(4) == '-' && s.charAt(7) == '-') {
+                try {
+                    return LocalDate.of(digits(s, 0, 4), digits(s, 5, 7), digits(s, 8, 10));
+                } catch (RuntimeException e) {
+                    // data invàlida: que la rebutgi el deserialitzador estàndard
+                }
+            }
+        }
+        return ctxt.readValue(p, LocalDate.class);
+    }
+
+    private static int digits(String s, int from, int to) {
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) throw new NumberFormatException(s);
+            v = v * 10 + d;
+        }
+        return v;
+    }
+
+    private static final class AutorCodec extends Codec<Autor> {
+        AutorCodec() {
+            super(Autor.class);
+        }
+
+        @Override
+        Autor create() {
+            return new Autor();
+        }
+
+        @Override
+        void field(Autor a, String name, JsonParser p, DeserializationContext ctxt) throws IOException {
+            switch (name) {
+                case "id" -> a.setId(longValue(p, ctxt));
+                case "nom" -> a.setNom(text(p, ctxt));
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private static final class LlibreCodec extends Codec<Llibre> {
+        LlibreCodec() {
+            super(Llibre.class);
+        }
+
+        @Override
+        Llibre create() {
+            return new Llibre();
+        }
+
+        @Override
+        void field(Llibre l, String name, JsonParser p, DeserializationContext ctxt) throws IOException {
+            switch (name) {
+                case "id" -> l.setId(longValue(p, ctxt));
+                case "isbn" -> l.setIsbn(text(p, ctxt));
+                case "titol" -> l.setTitol(text(p, ctxt));
+                case "pagines" -> l.setPagines(intValue(p, ctxt));
+                case "editorial" -> l.setEditorial(text(p, ctxt));
+                case "autor" -> l.setAutor(nested(AUTOR, p, ctxt));
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private static final class ExemplarCodec extends Codec<Exemplar> {
+        ExemplarCodec() {
+            super(Exemplar.class);
+        }
+
+        @Override
+        Exemplar create() {
+            return new Exemplar();
+        }
+
+        @Override
+        void field(Exemplar e, String name, JsonParser p, DeserializationContext ctxt) throws IOException {
+            switch (name) {
+                case "id" -> e.setId(longValue(p, ctxt));
+                case "lloc" -> e.setLloc(text(p, ctxt));
+                case "reservat" -> e.setReservat(text(p, ctxt));
+                case "llibre" -> e.setLlibre(nested(LLIBRE, p, ctxt));
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private static final class UserCodec extends Codec<User> {
+        UserCodec() {
+            super(User.class);
+        }
+
+        @Override
+        User create() {
+            return new User();
+        }
+
+        @Override
+        void field(User u, String name, JsonParser p, DeserializationContext ctxt) throws IOException {
+            switch (name) {
+                case "id" -> u.setId(longValue(p, ctxt));
+                case "nick" -> u.setNick(text(p, ctxt));
+                case "nif" -> u.setNif(text(p, ctxt));
+                case "nom" -> u.setNom(text(p, ctxt));
+                case "cognom1" -> u.setCognom1(text(p, ctxt));
+                case "cognom2" -> u.setCognom2(text(p, ctxt));
+                case "localitat" -> u.setLocalitat(text(p, ctxt));
+                case "provincia" -> u.setProvincia(text(p, ctxt));
+                case "carrer" -> u.setCarrer(text(p, ctxt));
+                case "cp" -> u.setCp(text(p, ctxt));
+                case "tlf" -> u.setTlf(text(p, ctxt));
+                case "email" -> u.setEmail(text(p, ctxt));
+                case "rol" -> u.setRol(intValue(p, ctxt));
+                case "password" -> u.setPassword(text(p, ctxt));
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private static final class HorariCodec extends Codec<Horari> {
+        HorariCodec() {
+            super(Horari.class);
+        }
+
+        @Override
+        Horari create() {
+            return new Horari();
+        }
+
+        @Override
+        void field(Horari h, String name, JsonParser p, DeserializationContext ctxt) throws IOException {
+            switch (name) {
+                case "id" -> h.setId(longValue(p, ctxt));
+                case "sala" -> h.setSala(text(p, ctxt));
+                case "dia" -> h.setDia(text(p, ctxt));
+                case "hora" -> h.setHora(text(p, ctxt));
+                case "estat" -> h.setEstat(text(p, ctxt));
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    private static final class GrupCodec extends Codec<Grup> {
+        GrupCodec() {
+            super(Grup.class);
+        }
+
+        @Override
+        Grup create() {
+            return new Grup();
+        }
+
+        @Override
+        void field(Grup g, String name, JsonParser p, DeserializationContext ctxt) throws IOException {
+            switch (name) {
+                case "id" -> g.setId(longValue(p, ctxt));
+                case "nom" -> g.setNom(text(p, ctxt));
+                case "tematica" -> g.setTematica(text(p, ctxt));
+                case "administrador" -> g.setAdministrador(nested(USER, p, ctxt));
+                case "horari" -> g.setHorari(nested(HORARI, p, ctxt));
+                case "membres" -> g.setMembres(users(p, ctxt));
+                default -> p.skipChildren();
+            }
+        }
+
+        private static List<User> users(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken t = p.currentToken();
+            if (t == JsonToken.VALUE_NULL) return null;
+            if (t != JsonToken.START_ARRAY) {
+                return ctxt.readValue(p, ctxt.getTypeFactory().constructCollectionType(List.class, User.class));
+            }
+            List<User> users = new ArrayList<>();
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                users.add(nested(USER, p, ctxt));
+            }
+            return users;
+        }
+    }
+
+    private static final class PrestecCodec extends Codec<Prestec> {
+        PrestecCodec() {
+            super(Prestec.class);
+        }
+
+        @Override
+        Prestec create() {
+            return new Prestec();
+        }
+
+        @Override
+        void field(Prestec pr, String name, JsonParser p, DeserializationContext ctxt) throws IOException {
+            switch (name) {
+                case "id" -> pr.setId(longValue(p, ctxt));
+                case "dataPrestec" -> pr.setDataPrestec(date(p, ctxt));
+                case "dataDevolucio" -> pr.setDataDevolucio(date(p, ctxt));
+                case "usuari" -> pr.setUsuari(nested(USER, p, ctxt));
+                case "exemplar" -> pr.setExemplar(nested(EXEMPLAR, p, ctxt));
+                default -> p.skipChildren();
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- escriptura
+
+    private static void writeId(JsonGenerator g, Long id) throws IOException {
+        if (id == null) {
+            g.writeNullField("id");
+        } else {
+            g.writeNumberField("id", id);
+        }
+    }
+
+    private static void writeDate(JsonGenerator g, String name, LocalDate date) throws IOException {
+        if (date == null) {
+            g.writeNullField(name);
+        } else {
+            g.writeStringField(name, date.toString());
+        }
+    }
+
+    private static <N> void writeNested(JsonGenerator g, String name, N value, StdSerializer<N> writer,
+                                        SerializerProvider provider) throws IOException {
+        g.writeFieldName(name);
+        if (value == null) {
+            g.writeNull();
+        } else {
+            writer.serialize(value, g, provider);
+        }
+    }
+
+    private static final class AutorWriter extends StdSerializer<Autor> {
+        AutorWriter() {
+            super(Autor.class);
+        }
+
+        @Override
+        public void serialize(Autor a, JsonGenerator g, SerializerProvider provider) throws IOException {
+            g.writeStartObject(a);
+            writeId(g, a.getId());
+            g.writeStringField("nom", a.getNom());
+            g.writeEndObject();
+        }
+    }
+
+    private static final class LlibreWriter extends StdSerializer<Llibre> {
+        LlibreWriter() {
+            super(Llibre.class);
+        }
+
+        @Override
+        public void serialize(Llibre l, JsonGenerator g, SerializerProvider provider) throws IOException {
+            g.writeStartObject(l);
+            writeId(g, l.getId());
+            g.writeStringField("isbn", l.getIsbn());
+            g.writeStringField("titol", l.getTitol());
+            g.writeNumberField("pagines", l.getPagines());
+            g.writeStringField("editorial", l.getEditorial());
+            writeNested(g, "autor", l.getAutor(), AUTOR_WRITER, provider);
+            g.writeEndObject();
+        }
+    }
+
+    private static final class ExemplarWriter extends StdSerializer<Exemplar> {
+        ExemplarWriter() {
+            super(Exemplar.class);
+        }
+
+        @Override
+        public void serialize(Exemplar e, JsonGenerator g, SerializerProvider provider) throws IOException {
+            g.writeStartObject(e);
+            writeId(g, e.getId());
+            g.writeStringField("lloc", e.getLloc());
+            g.writeStringField("reservat", e.getReservat());
+            writeNested(g, "llibre", e.getLlibre(), LLIBRE_WRITER, provider);
+            g.writeEndObject();
+        }
+    }
+
+    private static final class UserWriter extends StdSerializer<User> {
+        UserWriter() {
+            super(User.class);
+        }
+
+        @Override
+        public void serialize(User u, JsonGenerator g, SerializerProvider provider) throws IOException {
+            g.writeStartObject(u);
+            writeId(g, u.getId());
+            g.writeStringField("nick", u.getNick());
+            g.writeStringField("nif", u.getNif());
+            g.writeStringField("nom", u.getNom());
+            g.writeStringField("cognom1", u.getCognom1());
+            g.writeStringField("cognom2", u.getCognom2());
+            g.writeStringField("localitat", u.getLocalitat());
+            g.writeStringField("provincia", u.getProvincia());
+            g.writeStringField("carrer", u.getCarrer());
+            g.writeStringField("cp", u.getCp());
+            g.writeStringField("tlf", u.getTlf());
+            g.writeStringField("email", u.getEmail());
+            g.writeNumberField("rol", u.getRol());
+            g.writeStringField("password", u.getPassword());
+            g.writeStringField("rolLabel", u.getRolLabel());
+            g.writeEndObject();
+        }
+    }
+
+    private static final class HorariWriter extends StdSerializer<Horari> {
+        HorariWriter() {
+            super(Horari.class);
+        }
+
+        @Override
+        public void serialize(Horari h, JsonGenerator g, SerializerProvider provider) throws IOException {
+            g.writeStartObject(h);
+            writeId(g, h.getId());
+            g.writeStringField("sala", h.getSala());
+            g.writeStringField("dia", h.getDia());
+            g.writeStringField("hora", h.getHora());
+            g.writeStringField("estat", h.getEstat());
+            g.writeEndObject();
+        }
+    }
+
+    private static final class GrupWriter extends StdSerializer<Grup> {
+        GrupWriter() {
+            super(Grup.class);
+        }
+
+        @Override
+        public void serialize(Grup gr, JsonGenerator g, SerializerProvider provider) throws IOException {
+            g.writeStartObject(gr);
+            writeId(g, gr.getId());
+            g.writeStringField("nom", gr.getNom());
+            g.writeStringField("tematica", gr.getTematica());
+            writeNested(g, "administrador", gr.getAdministrador(), USER_WRITER, provider);
+            writeNested(g, "horari", gr.getHorari(), HORARI_WRITER, provider);
+            g.writeFieldName("membres");
+            List<User> membres = gr.getMembres();
+            if (membres == null) {
+                g.writeNull();
+            } else {
+                g.writeStartArray(membres, membres.size());
+                for (User u : membres) {
+                    if (u == null) {
+                        g.writeNull();
+                    } else {
+                        USER_WRITER.serialize(u, g, provider);
+                    }
+                }
+                g.writeEndArray();
+            }
+            g.writeEndObject();
+        }
+    }
+
+    private static final class PrestecWriter extends StdSerializer<Prestec> {
+        PrestecWriter() {
+            super(Prestec.class);
+        }
+
+        @Override
+        public void serialize(Prestec pr, JsonGenerator g, SerializerProvider provider) throws IOException {
+            g.writeStartObject(pr);
+            writeId(g, pr.getId());
+            writeDate(g, "dataPrestec", pr.getDataPrestec());
+            writeDate(g, "dataDevolucio", pr.getDataDevolucio());
+            writeNested(g, "usuari", pr.getUsuari(), USER_WRITER, provider);
+            writeNested(g, "exemplar", pr.getExemplar(), EXEMPLAR_WRITER, provider);
+            g.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.bibliosedaos.desktop.api;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Obtenció de moltes entitats pel seu ID amb paral·lelisme limitat.
+ *
+ * El servidor només ofereix consultes d'una en una (p. ex. {@code trobarLlibrePerId}).
+ * En lloc d'enviar-les de manera seqüencial, se'n mantenen com a molt N en curs alhora
+ * amb les versions no bloquejants de l'API: quan n'acaba una, s'envia la següent.
+ * Així 200 entitats costen unes quantes anades i tornades en lloc de 200.
+ *
+ * Els ID repetits es consulten una sola vegada (i els null s'ignoren), el resultat conserva l'ordre de
+ * la petició i una consulta que falla no atura les altres: queda a {@link Result#getFailures()}.
+ *
+ * El límit es configura amb -Dapi.multiget.concurrency (per defecte 8).
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class MultiGet {
+
+    /** Consultes en curs alhora per defecte. */
+    public static final int DEFAULT_CONCURRENCY = 8;
+
+    private MultiGet() {
+        // utilitat: no instanciar
+    }
+
+    /**
+     * Límit de consultes en curs alhora (propietat api.multiget.concurrency).
+     *
+     * @return valor configurat, com a mínim 1
+     */
+    public static int concurrency() {
+        try {
+            return Math.max(1, Integer.parseInt(System.getProperty("api.multiget.concurrency",
+                    String.valueOf(DEFAULT_CONCURRENCY)).trim()));
+        } catch (NumberFormatException e) {
+            return DEFAULT_CONCURRENCY;
+        }
+    }
+
+    /**
+     * Obté totes les entitats i espera el resultat.
+     *
+     * @param ids ID a consultar (els repetits es consulten una vegada)
+     * @param fetcher consulta no bloquejant d'un ID
+     * @param <T> tipus de l'entitat
+     * @return entitats trobades i errors per ID
+     * @throws ApiException si el fil s'interromp mentre espera
+     */
+    public static <T> Result<T> fetch(Collection<Long> ids, Function<Long, CompletableFuture<T>> fetcher)
+            throws ApiException {
+        try {
+            return fetchAsync(ids, fetcher, concurrency()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException("Consulta interrompuda", e);
+        } catch (ExecutionException e) {
+            throw ApiClient.toApiException(ApiClient.unwrap(e));
+        }
+    }
+
+    /**
+     * Versió no bloquejant de {@link #fetch(Collection, Function)}.
+     *
+     * @param ids ID a consultar (els repetits es consulten una vegada)
+     * @param fetcher consulta no bloquejant d'un ID
+     * @param <T> tipus de l'entitat
+     * @return futur amb les entitats trobades i els errors per ID; no falla per errors d'un ID
+     */
+    public static <T> CompletableFuture<Result<T>> fetchAsync(Collection<Long> ids,
+                                                             Function<Long, CompletableFuture<T>> fetcher) {
+        return fetchAsync(ids, fetcher, concurrency());
+    }
+
+    /**
+     * Versió no bloquejant amb un límit de paral·lelisme explícit.
+     *
+     * @param ids ID a consultar (els repetits es consulten una vegada)
+     * @param fetcher consulta no bloquejant d'un ID
+     * @param concurrency consultes en curs alhora
+     * @param <T> tipus de l'entitat
+     * @return futur amb les entitats trobades i els errors per ID
+     */
+    public static <T> CompletableFuture<Result<T>> fetchAsync(Collection<Long> ids,
+                                                             Function<Long, CompletableFuture<T>> fetcher,
+                                                             int concurrency) {
+        Set<Long> unique = new LinkedHashSet<>();
+        if (ids != null) {
+            for (Long id : ids) {
+                if (id != null) unique.add(id);
+            }
+        }
+        CompletableFuture<Result<T>> done = new CompletableFuture<>();
+        if (unique.isEmpty()) {
+            done.complete(new Result<>(List.of(), Map.of(), Map.of()));
+            return done;
+        }
+        new Fan<>(new ArrayList<>(unique), fetcher, done, Math.max(1, concurrency)).drain();
+        return done;
+    }
+
+    /**
+     * Estat d'una obtenció en curs: finestra lliscant de consultes.
+     *
+     * Només un fil alhora envia consultes noves ({@link #drain()}); una consulta que acaba
+     * de seguida (error immediat, àmbit tancat) no encadena crides recursives.
+     */
+    private static final class Fan<T> {
+        private final List<Long> ids;
+        private final Function<Long, CompletableFuture<T>> fetcher;
+        private final CompletableFuture<Result<T>> done;
+        private final TaskScope scope = TaskScope.current();
+        private final TaskPriority priority = TaskPriority.current();
+        private final Map<Long, T> found = new ConcurrentHashMap<>();
+        private final Map<Long, ApiException> failures = new ConcurrentHashMap<>();
+        private final AtomicInteger pending;
+        private final AtomicInteger slots;
+        private final AtomicInteger draining = new AtomicInteger();
+        private int next;
+
+        Fan(List<Long> ids, Function<Long, CompletableFuture<T>> fetcher, CompletableFuture<Result<T>> done,
+            int concurrency) {
+            this.ids = ids;
+            this.fetcher = fetcher;
+            this.done = done;
+            this.pending = new AtomicInteger(ids.size());
+            this.slots = new AtomicInteger(concurrency);
+        }
+
+        void drain() {
+            if (draining.getAndIncrement() != 0) return;
+            do {
+                while (next < ids.size() && slots.get() > 0) {
+                    slots.decrementAndGet();
+                    launch(ids.get(next++));
+                }
+            } while (draining.decrementAndGet() != 0);
+        }
+
+        private void launch(Long id) {
+            if (!TaskScope.isActive(scope)) {
+                finish(id, null, TaskScope.cancelledException(scope));
+                return;
+            }
+            // les consultes següents surten dels fils de HttpClient: conserven l'àmbit i la classe de qui ha demanat
+            TaskPriority.runAs(priority, () -> TaskScope.runIn(scope, () -> {
+                CompletableFuture<T> call;
+                try {
+                    call = fetcher.apply(id);
+                } catch (RuntimeException e) {
+                    call = CompletableFuture.failedFuture(e);
+                }
+                call.whenComplete((value, error) -> finish(id, value, error));
+            }));
+        }
+
+        private void finish(Long id, T value, Throwable error) {
+            if (error != null) {
+                failures.put(id, ApiClient.toApiException(ApiClient.unwrap(error)));
+            } else if (value != null) {
+                found.put(id, value);
+            }
+            slots.incrementAndGet();
+            if (pending.decrementAndGet() == 0) {
+                done.complete(result());
+            } else {
+                drain();
+            }
+        }
+
+        private Result<T> result() {
+            Map<Long, T> orderedFound = new LinkedHashMap<>();
+            Map<Long, ApiException> orderedFailures = new LinkedHashMap<>();
+            for (Long id : ids) {
+                T value = found.get(id);
+                if (value != null) orderedFound.put(id, value);
+                ApiException e = failures.get(id);
+                if (e != null) orderedFailures.put(id, e);
+            }
+            return new Result<>(ids, orderedFound, orderedFailures);
+        }
+    }
+
+    /**
+     * Resultat d'una obtenció múltiple: entitats trobades i errors, en l'ordre dels ID demanats.
+     *
+     * @param <T> tipus de l'entitat
+     */
+    public static final class Result<T> implements Iterable<T> {
+        private final List<Long> ids;
+        private final Map<Long, T> found;
+        private final Map<Long, ApiException> failures;
+
+        Result(List<Long> ids, Map<Long, T> found, Map<Long, ApiException> failures) {
+            this.ids = Collections.unmodifiableList(ids);
+            this.found = Collections.unmodifiableMap(found);
+            this.failures = Collections.unmodifiableMap(failures);
+        }
+
+        /** @return ID demanats, sense duplicats ni null, en l'ordre original */
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        /** @return entitats trobades per ID, en l'ordre dels ID demanats */
+        public Map<Long, T> getFound() {
+            return found;
+        }
+
+        /** @return entitats trobades, en l'ordre dels ID demanats */
+        public List<T> getValues() {
+            return List.copyOf(found.values());
+        }
+
+        /** @return error de cada ID que no s'ha pogut obtenir */
+        public Map<Long, ApiException> getFailures() {
+            return failures;
+        }
+
+        /**
+         * Entitat d'un ID.
+         *
+         * @param id ID demanat
+         * @return entitat, o null si no s'ha trobat
+         */
+        public T get(Long id) {
+            return found.get(id);
+        }
+
+        /** @return true si no hi ha cap error */
+        public boolean isComplete() {
+            return failures.isEmpty();
+        }
+
+        /**
+         * Retorna les entitats o llança el primer error si alguna consulta ha fallat.
+         *
+         * @return entitats en l'ordre dels ID demanats
+         * @throws ApiException el primer error, amb la resta com a suprimits
+         */
+        public List<T> getValuesOrThrow() throws ApiException {
+            if (failures.isEmpty()) return getValues();
+            Iterator<Map.Entry<Long, ApiException>> it = failures.entrySet().iterator();
+            Map.Entry<Long, ApiException> first = it.next();
+            ApiException e = new ApiException("No s'han pogut obtenir " + failures.size() + " de "
+                    + ids.size() + " elements (ID " + first.getKey() + "): " + first.getValue().getMessage(),
+                    first.getValue().getStatusCode());
+            e.initCause(first.getValue());
+            it.forEachRemaining(other -> e.addSuppressed(other.getValue()));
+            throw e;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return found.values().iterator();
+        }
+
+        @Override
+        public String toString() {
+            return "MultiGet.Result[trobats=" + found.size() + ", errors=" + failures.size() + " de " + ids.size() + "]";
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.bibliosedaos.desktop.api;
 
 import com.bibliosedaos.desktop.model.Prestec;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interficie per a les operacions de prestecs.
@@ -22,6 +23,16 @@ public interface PrestecApi {
      */
     List<Prestec> getAllPrestecs(Long usuariId) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #getAllPrestecs(Long)}.
+     *
+     * @param usuariId ID de l'usuari per filtrar (opcional, pot ser null)
+     * @return futur amb llista de tots els prestecs
+     */
+    default CompletableFuture<List<Prestec>> getAllPrestecsAsync(Long usuariId) {
+        return ApiClient.supplyAsync(() -> getAllPrestecs(usuariId));
+    }
+
     /**
      * Obte els prestecs actius (sense data de devolucio).
      *
@@ -31,6 +42,16 @@ public interface PrestecApi {
      */
     List<Prestec> getPrestecsActius(Long usuariId) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #getPrestecsActius(Long)}.
+     *
+     * @param usuariId ID de l'usuari per filtrar (opcional, pot ser null)
+     * @return futur amb llista de prestecs actius
+     */
+    default CompletableFuture<List<Prestec>> getPrestecsActiusAsync(Long usuariId) {
+        return ApiClient.supplyAsync(() -> getPrestecsActius(usuariId));
+    }
+
     /**
      * Crea un nou prestec al sistema.
      *
@@ -40,6 +61,16 @@ public interface PrestecApi {
      */
     Prestec createPrestec(Prestec prestec) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #createPrestec(Prestec)}.
+     *
+     * @param prestec dades del nou prestec (amb exemplar.id i usuari.id)
+     * @return futur amb prestec creat amb el ID assignat
+     */
+    default CompletableFuture<Prestec> createPrestecAsync(Prestec prestec) {
+        return ApiClient.supplyAsync(() -> createPrestec(prestec));
+    }
+
     /**
      * Marca un prestec com retornat.
      *
@@ -48,6 +79,19 @@ public interface PrestecApi {
      */
     void retornarPrestec(Long prestecId) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #retornarPrestec(Long)}.
+     *
+     * @param prestecId ID del prestec a retornar
+     * @return futur completat quan acaba l'operacio
+     */
+    default CompletableFuture<Void> retornarPrestecAsync(Long prestecId) {
+        return ApiClient.supplyAsync(() -> {
+            retornarPrestec(prestecId);
+            return null;
+        });
+    }
+
     /**
      * Obte un prestec pel seu ID.
      *
@@ -56,4 +100,14 @@ public interface PrestecApi {
      * @throws ApiException si hi ha errors de comunicacio o el prestec no es troba
      */
     Prestec getPrestecById(Long id) throws ApiException;
+
+    /**
+     * Versio no bloquejant de {@link #getPrestecById(Long)}.
+     *
+     * @param id ID del prestec a obtenir
+     * @return futur amb prestec amb totes les seves dades
+     */
+    default CompletableFuture<Prestec> getPrestecByIdAsync(Long id) {
+        return ApiClient.supplyAsync(() -> getPrestecById(id));
+    }
 }
\ No newline at end of file
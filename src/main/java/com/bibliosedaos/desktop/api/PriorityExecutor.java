@@ -0,0 +1,611 @@
+package com.bibliosedaos.desktop.api;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Executor de tasques en segon pla amb classes de prioritat ({@link TaskPriority}).
+ *
+ * Cada classe té la seva cua acotada. Els fils agafen sempre la tasca més prioritària:
+ * <ul>
+ *   <li>les tasques {@link TaskPriority#INTERACTIVE} poden obrir fins a {@value #INTERACTIVE_RESERVE}
+ *       fils per sobre del màxim, de manera que una acció de l'usuari comença encara que tots
+ *       els fils estiguin ocupats amb feina massiva. Mentre hi ha més fils que el màxim, els
+ *       que queden lliures només agafen tasques interactives i, si no n'hi ha, acaben: la
+ *       reserva no fa mai feina normal ni de fons;</li>
+ *   <li>les de {@link TaskPriority#BACKGROUND} no ocupen mai més de la meitat dels fils.</li>
+ * </ul>
+ *
+ * Una cua plena no avorta l'aplicació ni afecta les altres classes; és un senyal de
+ * contrapressió que veu qui envia: {@link #offer} retorna false (o espera lloc amb temps
+ * d'espera) i {@link #execute(TaskPriority, Runnable)} llança {@link SaturatedException}.
+ * Els productors massius poden consultar {@link #remainingCapacity} abans d'enviar.
+ *
+ * Cada tasca hereta el {@link TaskScope} actual de qui l'envia: si l'àmbit es cancel·la,
+ * la tasca es cancel·la (a la cua o en execució) i, mentre s'executa, l'àmbit és l'actual
+ * del fil de treball. Les escriptures s'envien amb {@link #submitDetached}, que no hereta
+ * l'àmbit: tancar la vista no les interromp. La classe de la tasca també és l'actual
+ * ({@link TaskPriority#current()}).
+ *
+ * Per classe es compten les tasques enviades, completades i rebutjades, la profunditat
+ * actual i màxima de la cua i el temps d'espera fins que comencen ({@link #getStats}).
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public class PriorityExecutor extends AbstractExecutorService {
+
+    private static final Logger LOGGER = Logger.getLogger(PriorityExecutor.class.getName());
+
+    /** Fils addicionals que només poden obrir les tasques interactives. */
+    static final int INTERACTIVE_RESERVE = 4;
+
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+
+    private final ThreadFactory threadFactory;
+    private final int coreWorkers;
+    private final int maxWorkers;
+    private final int maxBackground;
+    private final long keepAliveNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Condition spaceAvailable = lock.newCondition();
+    private final Condition terminated = lock.newCondition();
+
+    private final Map<TaskPriority, ArrayDeque<Entry>> queues = new EnumMap<>(TaskPriority.class);
+    private final Map<TaskPriority, Integer> capacities = new EnumMap<>(TaskPriority.class);
+    private final Map<TaskPriority, LaneStats> stats = new EnumMap<>(TaskPriority.class);
+    private final Set<Thread> threads = new HashSet<>();
+    private int workers;
+    private int idle;
+    private int queued;
+    private int runningBackground;
+    private volatile boolean shutdown;
+
+    /**
+     * Crea l'executor.
+     *
+     * @param threadFactory fàbrica dels fils de treball (de plataforma o virtuals)
+     * @param coreWorkers fils que es mantenen vius encara que no hi hagi feina
+     * @param maxWorkers màxim de fils (sense comptar la reserva interactiva)
+     * @param keepAlive temps d'inactivitat abans que un fil no essencial acabi
+     * @param unit unitat de keepAlive
+     */
+    public PriorityExecutor(ThreadFactory threadFactory, int coreWorkers, int maxWorkers, long keepAlive, TimeUnit unit) {
+        if (maxWorkers < 1 || coreWorkers < 0 || coreWorkers > maxWorkers) {
+            throw new IllegalArgumentException("Fils incorrectes: core=" + coreWorkers + " max=" + maxWorkers);
+        }
+        this.threadFactory = threadFactory;
+        this.coreWorkers = coreWorkers;
+        this.maxWorkers = maxWorkers;
+        this.maxBackground = Math.max(1, maxWorkers / 2);
+        this.keepAliveNanos = unit.toNanos(keepAlive);
+        for (TaskPriority p : PRIORITIES) {
+            queues.put(p, new ArrayDeque<>());
+            capacities.put(p, p.queueCapacity());
+            stats.put(p, new LaneStats(p));
+        }
+    }
+
+    /**
+     * Cua plena d'una classe de prioritat: senyal de contrapressió per a qui envia.
+     */
+    public static final class SaturatedException extends RejectedExecutionException {
+        private static final long serialVersionUID = 1L;
+
+        private final transient TaskPriority priority;
+
+        SaturatedException(TaskPriority priority, int capacity) {
+            super("Cua " + priority + " plena (" + capacity + " tasques en espera); torneu-ho a provar en uns segons");
+            this.priority = priority;
+        }
+
+        /**
+         * Classe de prioritat saturada.
+         *
+         * @return prioritat de la cua plena
+         */
+        public TaskPriority getPriority() {
+            return priority;
+        }
+    }
+
+    /**
+     * Mètriques d'una classe de prioritat.
+     */
+    public static final class LaneStats {
+        private final TaskPriority priority;
+        private final ApiMetrics.Histogram wait = new ApiMetrics.Histogram();
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong peakDepth = new AtomicLong();
+        private volatile int depth;
+
+        private LaneStats(TaskPriority priority) {
+            this.priority = priority;
+        }
+
+        /** @return temps des que s'envia una tasca fins que comença */
+        public ApiMetrics.Histogram getWait() {
+            return wait;
+        }
+
+        /** @return tasques acceptades */
+        public long getSubmitted() {
+            return submitted.get();
+        }
+
+        /** @return tasques acabades (bé o amb error) */
+        public long getCompleted() {
+            return completed.get();
+        }
+
+        /** @return tasques no acceptades per cua plena */
+        public long getRejected() {
+            return rejected.get();
+        }
+
+        /** @return tasques en espera ara mateix */
+        public int getDepth() {
+            return depth;
+        }
+
+        /** @return màxim de tasques en espera alhora */
+        public long getPeakDepth() {
+            return peakDepth.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "BG %-11s cua=%d pic=%d enviades=%d completades=%d rebutjades=%d | espera %s",
+                    priority, depth, getPeakDepth(), getSubmitted(), getCompleted(), getRejected(), wait);
+        }
+    }
+
+    private static final class Entry {
+        final Runnable task;
+        final TaskPriority priority;
+        final TaskScope scope;
+        /** Future que es cancel·la amb l'àmbit (la tasca original si ja és un Future). */
+        final Future<?> handle;
+        final long enqueued = System.nanoTime();
+
+        Entry(Runnable task, TaskPriority priority, TaskScope scope, Future<?> handle) {
+            this.task = task;
+            this.priority = priority;
+            this.scope = scope;
+            this.handle = handle;
+        }
+    }
+
+    /**
+     * Ordre enviada amb {@link #execute} des d'un àmbit. Com a Future, l'àmbit la cancel·la
+     * (a la cua o en execució) igual que les tasques enviades amb submit; els errors es
+     * registren com els de les ordres sense àmbit.
+     */
+    private static final class ScopedCommand extends FutureTask<Void> {
+        ScopedCommand(Runnable command) {
+            super(command, null);
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) return;
+            try {
+                get();
+            } catch (ExecutionException e) {
+                LOGGER.log(Level.WARNING, "Tasca en segon pla acabada amb error", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Executa una tasca de prioritat {@link TaskPriority#NORMAL}.
+     *
+     * @param command tasca
+     * @throws SaturatedException si la cua normal és plena
+     */
+    @Override
+    public void execute(Runnable command) {
+        execute(TaskPriority.NORMAL, command);
+    }
+
+    /**
+     * Executa una tasca amb la prioritat indicada.
+     *
+     * @param priority classe de prioritat
+     * @param command tasca
+     * @throws SaturatedException si la cua de la classe és plena
+     * @throws RejectedExecutionException si l'executor està aturat
+     */
+    public void execute(TaskPriority priority, Runnable command) {
+        if (!enqueue(priority, command, command instanceof Future<?> f ? f : null)) {
+            throw new SaturatedException(priority, capacities.get(priority));
+        }
+    }
+
+    /**
+     * Envia una tasca amb la prioritat indicada.
+     *
+     * @param priority classe de prioritat
+     * @param task tasca (p. ex. un {@code javafx.concurrent.Task})
+     * @return Future de la tasca (la mateixa tasca si ja n'és un)
+     * @throws SaturatedException si la cua de la classe és plena
+     */
+    public Future<?> submit(TaskPriority priority, Runnable task) {
+        if (task == null) throw new NullPointerException();
+        // un javafx.concurrent.Task ja és un Future: cancel·lar-lo evita que arribi a onSucceeded
+        RunnableFuture<?> f = task instanceof RunnableFuture<?> own ? own : newTaskFor(task, null);
+        if (!enqueue(priority, f, f)) {
+            throw new SaturatedException(priority, capacities.get(priority));
+        }
+        return f;
+    }
+
+    /**
+     * Envia una tasca sense lligar-la al {@link TaskScope} actual: si l'usuari canvia de vista,
+     * la tasca acaba igualment. És per a les escriptures (crear, modificar, eliminar), que no
+     * es poden deixar a mitges; els seus callbacks de JavaFX s'executen encara que la vista
+     * ja no hi sigui.
+     *
+     * @param priority classe de prioritat
+     * @param task tasca (p. ex. un {@code javafx.concurrent.Task})
+     * @return Future de la tasca (la mateixa tasca si ja n'és un)
+     * @throws SaturatedException si la cua de la classe és plena
+     */
+    public Future<?> submitDetached(TaskPriority priority, Runnable task) {
+        AtomicReference<Future<?>> f = new AtomicReference<>();
+        TaskScope.runIn(null, () -> f.set(submit(priority, task)));
+        return f.get();
+    }
+
+    /**
+     * Envia una tasca de prioritat {@link TaskPriority#NORMAL}.
+     *
+     * @param task tasca
+     * @return Future de la tasca
+     */
+    @Override
+    public Future<?> submit(Runnable task) {
+        return submit(TaskPriority.NORMAL, task);
+    }
+
+    /**
+     * Intenta encuar una tasca sense llançar excepció si la cua és plena.
+     *
+     * @param priority classe de prioritat
+     * @param command tasca
+     * @return false si la cua de la classe és plena
+     */
+    public boolean offer(TaskPriority priority, Runnable command) {
+        return enqueue(priority, command, command instanceof Future<?> f ? f : null);
+    }
+
+    /**
+     * Encua una tasca esperant, si cal, que hi hagi lloc a la seva cua.
+     * No s'ha de cridar des del fil de JavaFX.
+     *
+     * @param priority classe de prioritat
+     * @param command tasca
+     * @param timeout temps màxim d'espera
+     * @param unit unitat de timeout
+     * @return false si no hi ha hagut lloc dins el temps d'espera
+     * @throws InterruptedException si s'interromp l'espera
+     */
+    public boolean offer(TaskPriority priority, Runnable command, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (!shutdown && queues.get(priority).size() >= capacities.get(priority)) {
+                if (nanos <= 0L) break;
+                nanos = spaceAvailable.awaitNanos(nanos);
+            }
+            return enqueue(priority, command, command instanceof Future<?> f ? f : null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lloc lliure a la cua d'una classe.
+     *
+     * @param priority classe de prioritat
+     * @return tasques que encara s'hi poden encuar
+     */
+    public int remainingCapacity(TaskPriority priority) {
+        lock.lock();
+        try {
+            return capacities.get(priority) - queues.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Mètriques d'una classe de prioritat.
+     *
+     * @param priority classe de prioritat
+     * @return mètriques acumulades
+     */
+    public LaneStats getStats(TaskPriority priority) {
+        return stats.get(priority);
+    }
+
+    /**
+     * Fils de treball vius.
+     *
+     * @return nombre de fils
+     */
+    public int getPoolSize() {
+        lock.lock();
+        try {
+            return workers;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean enqueue(TaskPriority priority, Runnable command, Future<?> handle) {
+        if (command == null || priority == null) throw new NullPointerException();
+        LaneStats lane = stats.get(priority);
+        TaskScope scope = TaskScope.current();
+        if (scope != null && handle == null) {
+            // una ordre d'execute() sense Future: s'embolcalla perquè l'àmbit la pugui cancel·lar
+            ScopedCommand wrapped = new ScopedCommand(command);
+            command = wrapped;
+            handle = wrapped;
+        }
+        if (scope != null && !scope.track(handle)) {
+            return true; // la vista ja s'ha tancat: la tasca queda cancel·lada
+        }
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("L'executor en segon pla està aturat");
+            }
+            ArrayDeque<Entry> queue = queues.get(priority);
+            if (queue.size() >= capacities.get(priority)) {
+                lane.rejected.incrementAndGet();
+                return false;
+            }
+            queue.addLast(new Entry(command, priority, scope, handle));
+            queued++;
+            lane.submitted.incrementAndGet();
+            lane.depth = queue.size();
+            lane.peakDepth.accumulateAndGet(queue.size(), Math::max);
+
+            int limit = priority == TaskPriority.INTERACTIVE ? maxWorkers + INTERACTIVE_RESERVE : maxWorkers;
+            if (idle > 0) {
+                workAvailable.signal();
+            }
+            if (queued > idle && workers < limit) {
+                startWorker();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Crida amb el bloqueig agafat. */
+    private void startWorker() {
+        Thread t = threadFactory.newThread(this::workerLoop);
+        if (t == null) {
+            if (workers == 0) throw new RejectedExecutionException("No s'ha pogut crear cap fil en segon pla");
+            return;
+        }
+        workers++;
+        threads.add(t);
+        t.start();
+    }
+
+    /**
+     * Treu la tasca més prioritària que es pot començar ara. Crida amb el bloqueig agafat.
+     *
+     * @param interactiveOnly només la cua interactiva (fil de la reserva)
+     */
+    private Entry poll(boolean interactiveOnly) {
+        for (TaskPriority p : PRIORITIES) {
+            if (interactiveOnly && p != TaskPriority.INTERACTIVE) break;
+            if (p == TaskPriority.BACKGROUND && runningBackground >= maxBackground) continue;
+            Entry e = queues.get(p).pollFirst();
+            if (e != null) {
+                queued--;
+                stats.get(p).depth = queues.get(p).size();
+                if (p == TaskPriority.BACKGROUND) runningBackground++;
+                spaceAvailable.signalAll();
+                return e;
+            }
+        }
+        return null;
+    }
+
+    private void workerLoop() {
+        try {
+            Entry e;
+            while ((e = take()) != null) {
+                LaneStats lane = stats.get(e.priority);
+                lane.wait.record(System.nanoTime() - e.enqueued);
+                if (!shutdown) {
+                    // una cancel·lació tardana de la tasca anterior no ha d'arribar a aquesta
+                    Thread.interrupted();
+                }
+                try {
+                    if (e.scope == null) {
+                        TaskPriority.runAs(e.priority, e.task);
+                    } else if (!e.scope.isCancelled()) {
+                        Entry current = e;
+                        TaskPriority.runAs(current.priority, () -> TaskScope.runIn(current.scope, current.task));
+                    } else {
+                        // l'àmbit ja l'ha cancel·lada; ho assegura perquè qui l'espera no es quedi penjat
+                        e.handle.cancel(false);
+                    }
+                } catch (RuntimeException | Error ex) {
+                    LOGGER.log(Level.WARNING, "Tasca en segon pla acabada amb error", ex);
+                } finally {
+                    if (e.scope != null && e.handle != null) e.scope.untrack(e.handle);
+                    lane.completed.incrementAndGet();
+                    if (e.priority == TaskPriority.BACKGROUND) {
+                        lock.lock();
+                        try {
+                            runningBackground--;
+                            if (!queues.get(TaskPriority.BACKGROUND).isEmpty()) workAvailable.signal();
+                        } finally {
+                            lock.unlock();
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.lock();
+            try {
+                workers--;
+                threads.remove(Thread.currentThread());
+                if (shutdown && workers == 0) terminated.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Espera la següent tasca; null si el fil ha d'acabar. */
+    private Entry take() {
+        lock.lock();
+        try {
+            for (;;) {
+                // per sobre del màxim, el fil és de la reserva interactiva
+                boolean reserve = workers > maxWorkers;
+                Entry e = poll(reserve);
+                if (e != null) return e;
+                if (shutdown && queued == 0) return null;
+                if (reserve) {
+                    // la reserva no espera feina: si queda feina d'altres classes, la fa un altre fil
+                    if (queued > 0) workAvailable.signal();
+                    return null;
+                }
+                idle++;
+                try {
+                    if (workers > coreWorkers) {
+                        if (workAvailable.awaitNanos(keepAliveNanos) <= 0L && queued == 0) return null;
+                    } else {
+                        workAvailable.await();
+                    }
+                } catch (InterruptedException ie) {
+                    if (shutdown) return null;
+                } finally {
+                    idle--;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            workAvailable.signalAll();
+            spaceAvailable.signalAll();
+            if (workers == 0) terminated.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        lock.lock();
+        try {
+            shutdown = true;
+            List<Runnable> pending = new ArrayList<>(queued);
+            for (TaskPriority p : PRIORITIES) {
+                for (Entry e : queues.get(p)) pending.add(e.task);
+                queues.get(p).clear();
+                stats.get(p).depth = 0;
+            }
+            queued = 0;
+            threads.forEach(Thread::interrupt);
+            workAvailable.signalAll();
+            spaceAvailable.signalAll();
+            if (workers == 0) terminated.signalAll();
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isShutdown() {
+        lock.lock();
+        try {
+            return shutdown;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isTerminated() {
+        lock.lock();
+        try {
+            return shutdown && workers == 0 && queued == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (!(shutdown && workers == 0 && queued == 0)) {
+                if (nanos <= 0L) return false;
+                nanos = terminated.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Informe d'una línia per classe de prioritat.
+     *
+     * @return línies de {@link LaneStats}
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (TaskPriority p : PRIORITIES) {
+            sb.append(stats.get(p)).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,341 @@
+package com.bibliosedaos.desktop.api;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitador de ritme (token bucket) per classe de trànsit i família d'endpoints.
+ *
+ * Les feines massives (retornar molts préstecs, precarregar dades, refrescos periòdics)
+ * no han de competir amb l'usuari ni disparar les proteccions del servidor. Cada petició
+ * es compta al cubell de la seva classe ({@link TaskPriority#current()}) i de la seva
+ * família, els dos primers segments de la ruta ("/biblioteca/prestecs", "/biblioteca/usuaris"...).
+ * Un cubell s'omple a api.ratelimit.&lt;classe&gt;.rate fitxes per segon fins a
+ * api.ratelimit.&lt;classe&gt;.burst; cada petició en gasta una i, si no n'hi ha, espera
+ * el temps que falta per a la seva. Les reserves es fan en ordre d'arribada.
+ *
+ * Les peticions interactives no esperen mai: gasten una fitxa del cubell de fons de la seva
+ * família (que pot quedar en deute fins a -burst), de manera que la feina massiva sobre
+ * la mateixa família s'aparta mentre l'usuari hi treballa.
+ *
+ * Una petició que hauria d'esperar més de api.ratelimit.maxWaitMs falla amb
+ * {@link RateLimitedException} sense reservar res; una que s'interromp o es cancel·la mentre
+ * espera torna la fitxa reservada. Per cubell es compten les peticions, les
+ * que han esperat i el temps d'espera total i màxim; surten a {@link ApiMetrics#report()}.
+ *
+ * La classe normal (càrregues de llistes, consultes fora de l'executor, multi-get) també té
+ * límit: el ràfec de 40 cobreix la càrrega d'una vista sense esperes i només la feina
+ * sostinguda passa a 20 peticions per segon.
+ *
+ * Propietats JVM (llegides a cada petició; rate=0 vol dir sense límit):
+ * -Dapi.ratelimit.enabled=false (per defecte true)
+ * -Dapi.ratelimit.background.rate=10, -Dapi.ratelimit.background.burst=20
+ * -Dapi.ratelimit.normal.rate=20, -Dapi.ratelimit.normal.burst=40
+ * -Dapi.ratelimit.background./biblioteca/prestecs.rate=5 (valor per a una família)
+ * -Dapi.ratelimit.maxWaitMs=60000
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class RateLimiter {
+
+    private static final Map<String, Bucket> BUCKETS = new ConcurrentHashMap<>();
+
+    private RateLimiter() {
+        // utilitat: no instanciar
+    }
+
+    /**
+     * Error quan una petició hauria d'esperar massa per al seu torn.
+     */
+    public static final class RateLimitedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Crea l'error.
+         *
+         * @param bucket cubell saturat
+         * @param waitMs espera que hauria calgut
+         */
+        public RateLimitedException(String bucket, long waitMs) {
+            super("Massa peticions (" + bucket + "); caldria esperar " + waitMs + " ms");
+        }
+    }
+
+    /**
+     * Cubell de fitxes d'una classe i una família.
+     */
+    public static final class Bucket {
+        private final String key;
+        private double tokens = Double.NaN;
+        private double capacity;
+        private long lastRefill;
+        private long requests;
+        private long delayed;
+        private long preempted;
+        private long rejected;
+        private long totalWaitNanos;
+        private long maxWaitNanos;
+
+        private Bucket(String key) {
+            this.key = key;
+        }
+
+        private void refill(double rate, double burst, long now) {
+            capacity = burst;
+            if (Double.isNaN(tokens)) {
+                tokens = burst;
+            } else {
+                tokens = Math.min(burst, tokens + (now - lastRefill) * rate / 1e9);
+            }
+            lastRefill = now;
+        }
+
+        /**
+         * Reserva una fitxa.
+         *
+         * @return nanosegons que cal esperar; 0 si n'hi havia
+         */
+        synchronized long reserve(double rate, double burst, long limitNanos, long now) throws RateLimitedException {
+            refill(rate, burst, now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                requests++;
+                return 0;
+            }
+            long wait = (long) Math.ceil((1 - tokens) / rate * 1e9);
+            if (wait > limitNanos) {
+                rejected++;
+                throw new RateLimitedException(key, TimeUnit.NANOSECONDS.toMillis(wait));
+            }
+            tokens -= 1;
+            requests++;
+            delayed++;
+            totalWaitNanos += wait;
+            maxWaitNanos = Math.max(maxWaitNanos, wait);
+            return wait;
+        }
+
+        /**
+         * Torna una fitxa reservada que no s'ha fet servir.
+         */
+        synchronized void refund() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+
+        /**
+         * Gasta una fitxa sense esperar, amb un deute màxim de -burst.
+         */
+        synchronized void debit(double rate, double burst, long now) {
+            refill(rate, burst, now);
+            tokens = Math.max(-burst, tokens - 1);
+            preempted++;
+        }
+
+        /** @return "classe /familia" */
+        public String getKey() {
+            return key;
+        }
+
+        /** @return peticions que han passat pel cubell */
+        public synchronized long getRequests() {
+            return requests;
+        }
+
+        /** @return peticions que han hagut d'esperar */
+        public synchronized long getDelayed() {
+            return delayed;
+        }
+
+        /** @return fitxes gastades per peticions interactives */
+        public synchronized long getPreempted() {
+            return preempted;
+        }
+
+        /** @return peticions rebutjades per espera massa llarga */
+        public synchronized long getRejected() {
+            return rejected;
+        }
+
+        /** @return temps d'espera total en mil·lisegons */
+        public synchronized double getTotalWaitMillis() {
+            return totalWaitNanos / 1e6;
+        }
+
+        /** @return espera més llarga en mil·lisegons */
+        public synchronized double getMaxWaitMillis() {
+            return maxWaitNanos / 1e6;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format(Locale.ROOT,
+                    "Ritme %s: peticions=%d esperes=%d (total %.0fms, max %.0fms) interactives=%d rebutjades=%d",
+                    key, requests, delayed, totalWaitNanos / 1e6, maxWaitNanos / 1e6, preempted, rejected);
+        }
+    }
+
+    /**
+     * Indica si el limitador està actiu (propietat api.ratelimit.enabled).
+     *
+     * @return true per defecte
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("api.ratelimit.enabled", "true"));
+    }
+
+    /**
+     * Família d'una ruta: els dos primers segments.
+     *
+     * @param path ruta normalitzada
+     * @return p. ex. /biblioteca/prestecs
+     */
+    static String family(String path) {
+        int first = path.indexOf('/', 1);
+        if (first < 0) return path;
+        int second = path.indexOf('/', first + 1);
+        return second < 0 ? path : path.substring(0, second);
+    }
+
+    /**
+     * Torn reservat: cubell i temps que cal esperar.
+     */
+    private record Turn(Bucket bucket, long waitNanos) {
+        static final Turn NOW = new Turn(null, 0);
+    }
+
+    /**
+     * Reserva el torn d'una petició de la classe actual.
+     *
+     * @param request petició
+     * @return torn reservat, amb els nanosegons que cal esperar abans d'enviar-la
+     * @throws RateLimitedException si caldria esperar més de api.ratelimit.maxWaitMs
+     */
+    private static Turn reserve(HttpRequest request) throws RateLimitedException {
+        if (!isEnabled()) return Turn.NOW;
+        String family = family(ApiClient.endpointKey(request.uri()));
+        TaskPriority priority = TaskPriority.current();
+        long now = System.nanoTime();
+        if (priority == TaskPriority.INTERACTIVE) {
+            double rate = rate(TaskPriority.BACKGROUND, family);
+            if (rate > 0) bucket(TaskPriority.BACKGROUND, family).debit(rate, burst(TaskPriority.BACKGROUND, family), now);
+            return Turn.NOW;
+        }
+        double rate = rate(priority, family);
+        if (rate <= 0) return Turn.NOW;
+        long maxWait = TimeUnit.MILLISECONDS.toNanos(longProperty("api.ratelimit.maxWaitMs", 60_000));
+        Bucket bucket = bucket(priority, family);
+        return new Turn(bucket, bucket.reserve(rate, burst(priority, family), maxWait, now));
+    }
+
+    /**
+     * Espera el torn d'una petició en el fil actual.
+     *
+     * @param request petició
+     * @throws IOException si caldria esperar massa
+     * @throws InterruptedException si el fil s'interromp esperant (la fitxa es torna)
+     */
+    static void acquire(HttpRequest request) throws IOException, InterruptedException {
+        Turn turn = reserve(request);
+        if (turn.waitNanos() <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(turn.waitNanos());
+        } catch (InterruptedException e) {
+            turn.bucket().refund();
+            throw e;
+        }
+    }
+
+    /**
+     * Versió asíncrona de {@link #acquire}: cap fil no espera el torn.
+     *
+     * @param request petició
+     * @return futur que es completa quan la petició pot sortir
+     */
+    static CompletableFuture<Void> acquireAsync(HttpRequest request) {
+        Turn turn;
+        try {
+            turn = reserve(request);
+        } catch (RateLimitedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (turn.waitNanos() <= 0) return CompletableFuture.completedFuture(null);
+        CompletableFuture<Void> wait = CompletableFuture.runAsync(() -> { },
+                CompletableFuture.delayedExecutor(turn.waitNanos(), TimeUnit.NANOSECONDS));
+        // una vista tancada cancel·la l'espera: la fitxa queda per a la següent petició
+        wait.whenComplete((v, e) -> {
+            if (wait.isCancelled()) turn.bucket().refund();
+        });
+        return wait;
+    }
+
+    private static Bucket bucket(TaskPriority priority, String family) {
+        String key = priority.name().toLowerCase(Locale.ROOT) + " " + family;
+        return BUCKETS.computeIfAbsent(key, Bucket::new);
+    }
+
+    private static double rate(TaskPriority priority, String family) {
+        String cls = priority.name().toLowerCase(Locale.ROOT);
+        double def = priority == TaskPriority.BACKGROUND ? 10 : 20;
+        return doubleProperty("api.ratelimit." + cls + "." + family + ".rate",
+                doubleProperty("api.ratelimit." + cls + ".rate", def));
+    }
+
+    private static double burst(TaskPriority priority, String family) {
+        String cls = priority.name().toLowerCase(Locale.ROOT);
+        double def = priority == TaskPriority.BACKGROUND ? 20 : 40;
+        return Math.max(1, doubleProperty("api.ratelimit." + cls + "." + family + ".burst",
+                doubleProperty("api.ratelimit." + cls + ".burst", def)));
+    }
+
+    /**
+     * Cubells amb trànsit.
+     *
+     * @return mapa ordenat i immutable "classe /familia" -&gt; cubell
+     */
+    public static Map<String, Bucket> getBuckets() {
+        return Collections.unmodifiableMap(new TreeMap<>(BUCKETS));
+    }
+
+    /**
+     * Oblida tots els cubells.
+     */
+    public static void reset() {
+        BUCKETS.clear();
+    }
+
+    /**
+     * Línies d'informe per a {@link ApiMetrics#report()}.
+     *
+     * @return una línia per cubell, o text buit si no n'hi ha
+     */
+    static String report() {
+        StringBuilder sb = new StringBuilder();
+        getBuckets().values().forEach(b -> sb.append(b).append(System.lineSeparator()));
+        return sb.toString();
+    }
+
+    private static long longProperty(String name, long def) {
+        try {
+            return Long.parseLong(System.getProperty(name, String.valueOf(def)).trim());
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    private static double doubleProperty(String name, double def) {
+        try {
+            return Double.parseDouble(System.getProperty(name, String.valueOf(def)).trim());
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+}
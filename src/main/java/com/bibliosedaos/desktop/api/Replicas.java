@@ -0,0 +1,487 @@
+package com.bibliosedaos.desktop.api;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Encaminament entre rèpliques del backend.
+ *
+ * api.base.url admet una llista separada per comes; la primera és la URL lògica amb què
+ * es construeixen les peticions ({@link ApiClient#getBaseUrl()}) i, a cada intent,
+ * es canvia per la rèplica escollida:
+ * <ul>
+ *   <li>selecció per latència: la rèplica activa amb menys latència mitjana (EWMA)
+ *       multiplicada per les peticions en curs + 1;</li>
+ *   <li>una rèplica que no connecta, esgota el temps o respon 502/503/504 es marca com a
+ *       caiguda i la petició passa a la següent: les GET sempre, la resta només si no
+ *       ha arribat a sortir (connexió refusada), perquè no s'executin dues vegades;</li>
+ *   <li>un fil de fons fa una petició HEAD a cada rèplica cada api.base.probeMs i
+ *       torna a activar les que responen.</li>
+ * </ul>
+ * Si el token de sessió només és vàlid a la rèplica que l'ha emès, amb api.base.sticky=true
+ * les peticions després del login van a aquella rèplica mentre estigui activa.
+ *
+ * Amb una sola URL no es fa res de tot això: les peticions surten tal com s'han construït.
+ *
+ * Propietats JVM:
+ * -Dapi.base.url=https://bib1:8443,https://bib2:8443
+ * -Dapi.base.probeMs=5000 (0 = sense comprovacions de fons)
+ * -Dapi.base.sticky=true (per defecte false)
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class Replicas {
+
+    private static final Logger LOGGER = Logger.getLogger(Replicas.class.getName());
+
+    /** Pes de cada mostra nova a la latència mitjana. */
+    private static final double EWMA_ALPHA = 0.3;
+
+    /** Temps d'espera de les comprovacions de fons. */
+    private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(2);
+
+    private static volatile State state = new State("", List.of());
+    private static ScheduledExecutorService prober;
+
+    private Replicas() {
+        // utilitat: no instanciar
+    }
+
+    /**
+     * Rèplica configurada i el seu estat.
+     */
+    public static final class Replica {
+        private final String baseUrl;
+        private volatile boolean up = true;
+        private volatile double ewmaNanos;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong failovers = new AtomicLong();
+
+        private Replica(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        /** @return URL base de la rèplica */
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        /** @return true si es considera activa */
+        public boolean isUp() {
+            return up;
+        }
+
+        /** @return latència mitjana (EWMA) en mil·lisegons */
+        public double getLatencyMillis() {
+            return ewmaNanos / 1e6;
+        }
+
+        /** @return peticions en curs */
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        /** @return intents enviats */
+        public long getRequests() {
+            return requests.get();
+        }
+
+        /** @return intents fallits */
+        public long getFailures() {
+            return failures.get();
+        }
+
+        /** @return peticions que han hagut de passar a una altra rèplica des d'aquesta */
+        public long getFailovers() {
+            return failovers.get();
+        }
+
+        private double score() {
+            return ewmaNanos * (outstanding.get() + 1);
+        }
+
+        private void recordLatency(long nanos) {
+            double prev = ewmaNanos;
+            ewmaNanos = prev == 0 ? nanos : prev + EWMA_ALPHA * (nanos - prev);
+        }
+
+        private void markDown(String reason) {
+            if (up) {
+                up = false;
+                LOGGER.warning(() -> "Replica " + baseUrl + " caiguda: " + reason);
+            }
+        }
+
+        private void markUp() {
+            if (!up) {
+                up = true;
+                LOGGER.info(() -> "Replica " + baseUrl + " activa de nou");
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "Replica %s: %s latencia=%.1fms enCurs=%d peticions=%d errors=%d failovers=%d",
+                    baseUrl, up ? "activa" : "caiguda", getLatencyMillis(), getOutstanding(),
+                    getRequests(), getFailures(), getFailovers());
+        }
+    }
+
+    /** Rèpliques d'un valor concret d'api.base.url. */
+    private static final class State {
+        private final String raw;
+        private final List<Replica> replicas;
+        private volatile Replica session;
+
+        private State(String raw, List<Replica> replicas) {
+            this.raw = raw;
+            this.replicas = replicas;
+        }
+    }
+
+    /**
+     * Valor d'api.base.url.
+     *
+     * @return text de la propietat, amb la URL per defecte si no hi és
+     */
+    static String rawProperty() {
+        return System.getProperty("api.base.url", "https://localhost:8443");
+    }
+
+    /**
+     * URLs base configurades, en ordre.
+     *
+     * @param raw valor d'api.base.url
+     * @return llista no buida
+     */
+    static List<String> parse(String raw) {
+        List<String> urls = new ArrayList<>();
+        for (String part : raw.split(",")) {
+            String url = part.trim();
+            if (url.isEmpty()) continue;
+            urls.add(url.endsWith("/") ? url.substring(0, url.length() - 1) : url);
+        }
+        if (urls.isEmpty()) urls.add(raw.trim());
+        return urls;
+    }
+
+    /**
+     * Estat de les rèpliques de l'api.base.url actual; es refà si la propietat canvia.
+     */
+    private static State state() {
+        String raw = rawProperty();
+        State s = state;
+        if (s.raw.equals(raw)) return s;
+        synchronized (Replicas.class) {
+            s = state;
+            if (s.raw.equals(raw)) return s;
+            List<Replica> list = new ArrayList<>();
+            for (String url : parse(raw)) list.add(new Replica(url));
+            s = new State(raw, Collections.unmodifiableList(list));
+            state = s;
+            if (list.size() > 1) startProber();
+            return s;
+        }
+    }
+
+    /**
+     * Envia un intent a la millor rèplica i passa a la següent si cal.
+     *
+     * @param request petició construïda sobre la URL lògica
+     * @param exchange enviament d'un intent
+     * @param <T> tipus del cos
+     * @return resposta
+     * @throws IOException si falla a totes les rèpliques provades
+     * @throws InterruptedException si el fil s'interromp
+     */
+    static <T> HttpResponse<T> send(HttpRequest request, Resilience.Exchange<T> exchange)
+            throws IOException, InterruptedException {
+        State s = state();
+        if (s.replicas.size() < 2) return exchange.send(request);
+        Set<Replica> tried = new HashSet<>();
+        while (true) {
+            Replica r = choose(s, request, tried);
+            tried.add(r);
+            boolean last = tried.size() >= s.replicas.size();
+            long start = begin(r);
+            HttpResponse<T> resp;
+            try {
+                resp = exchange.send(rewrite(s, request, r));
+            } catch (IOException e) {
+                fail(r, e);
+                if (last || !canFailover(request, e)) throw e;
+                r.failovers.incrementAndGet();
+                continue;
+            } catch (InterruptedException | RuntimeException e) {
+                r.outstanding.decrementAndGet();
+                throw e;
+            }
+            if (succeed(s, r, request, resp, start) || last || !isIdempotent(request)) return resp;
+            r.failovers.incrementAndGet();
+            Resilience.discard(resp);
+        }
+    }
+
+    /**
+     * Versió asíncrona de {@link #send}.
+     *
+     * @param request petició construïda sobre la URL lògica
+     * @param exchange enviament asíncron d'un intent
+     * @param <T> tipus del cos
+     * @return futur amb la resposta
+     */
+    static <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, Resilience.AsyncExchange<T> exchange) {
+        State s = state();
+        if (s.replicas.size() < 2) return exchange.send(request);
+        return attemptAsync(s, request, exchange, new HashSet<>());
+    }
+
+    private static <T> CompletableFuture<HttpResponse<T>> attemptAsync(State s, HttpRequest request,
+                                                                      Resilience.AsyncExchange<T> exchange,
+                                                                      Set<Replica> tried) {
+        Replica r = choose(s, request, tried);
+        tried.add(r);
+        boolean last = tried.size() >= s.replicas.size();
+        long start = begin(r);
+        CompletableFuture<HttpResponse<T>> sent;
+        try {
+            sent = exchange.send(rewrite(s, request, r));
+        } catch (RuntimeException e) {
+            r.outstanding.decrementAndGet();
+            return CompletableFuture.failedFuture(e);
+        }
+        return sent.handle((resp, error) -> {
+            if (error == null) {
+                if (succeed(s, r, request, resp, start) || last || !isIdempotent(request)) {
+                    return CompletableFuture.completedFuture(resp);
+                }
+                Resilience.discard(resp);
+            } else {
+                Throwable cause = ApiClient.unwrap(error);
+                if (!(cause instanceof IOException io)) {
+                    r.outstanding.decrementAndGet();
+                    return CompletableFuture.<HttpResponse<T>>failedFuture(cause);
+                }
+                fail(r, io);
+                if (last || !canFailover(request, io)) {
+                    return CompletableFuture.<HttpResponse<T>>failedFuture(io);
+                }
+            }
+            r.failovers.incrementAndGet();
+            return attemptAsync(s, request, exchange, tried);
+        }).thenCompose(f -> f);
+    }
+
+    /**
+     * Rèplica per a l'intent: la de la sessió si cal, si no la de menys puntuació entre les
+     * actives no provades; si totes estan caigudes, la primera no provada.
+     */
+    private static Replica choose(State s, HttpRequest request, Set<Replica> tried) {
+        Replica session = s.session;
+        if (session != null && session.up && !tried.contains(session) && isSticky()
+                && request.headers().firstValue("Authorization").isPresent()) {
+            return session;
+        }
+        Replica best = null;
+        for (Replica r : s.replicas) {
+            if (!r.up || tried.contains(r)) continue;
+            if (best == null || r.score() < best.score()) best = r;
+        }
+        if (best != null) return best;
+        for (Replica r : s.replicas) {
+            if (!tried.contains(r)) return r;
+        }
+        throw new IllegalStateException("Cap rèplica per provar");
+    }
+
+    private static long begin(Replica r) {
+        r.outstanding.incrementAndGet();
+        r.requests.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Registra una resposta; fixa o deixa la rèplica de la sessió en el login i el logout.
+     *
+     * @return false si la rèplica ha respost que no està disponible
+     */
+    private static boolean succeed(State s, Replica r, HttpRequest request, HttpResponse<?> resp, long start) {
+        r.outstanding.decrementAndGet();
+        if (Resilience.isUnavailable(resp)) {
+            r.failures.incrementAndGet();
+            r.markDown("HTTP " + resp.statusCode());
+            return false;
+        }
+        r.recordLatency(System.nanoTime() - start);
+        r.markUp();
+        String path = ApiClient.endpointKey(request.uri());
+        if (path.endsWith("/auth/login") && resp.statusCode() == 200) {
+            s.session = r;
+        } else if (path.endsWith("/auth/logout")) {
+            s.session = null;
+        }
+        return true;
+    }
+
+    private static void fail(Replica r, IOException e) {
+        r.outstanding.decrementAndGet();
+        r.failures.incrementAndGet();
+        if (Resilience.isTransient(e)) r.markDown(e.toString());
+    }
+
+    /**
+     * Una GET es pot repetir a una altra rèplica davant de qualsevol error transitori;
+     * la resta, només si la petició no ha arribat a sortir.
+     */
+    private static boolean canFailover(HttpRequest request, IOException e) {
+        if (!Resilience.isTransient(e)) return false;
+        if (isIdempotent(request)) return true;
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConnectException || t instanceof HttpConnectTimeoutException) return true;
+        }
+        return false;
+    }
+
+    private static boolean isIdempotent(HttpRequest request) {
+        return "GET".equals(request.method()) || "HEAD".equals(request.method());
+    }
+
+    /**
+     * Canvia la URL lògica del principi de la petició per la de la rèplica.
+     */
+    private static HttpRequest rewrite(State s, HttpRequest request, Replica r) {
+        String primary = s.replicas.get(0).baseUrl;
+        if (r.baseUrl.equals(primary)) return request;
+        String uri = request.uri().toString();
+        if (!uri.startsWith(primary)) return request;
+        return HttpRequest.newBuilder(request, (name, value) -> true)
+                .uri(URI.create(r.baseUrl + uri.substring(primary.length())))
+                .build();
+    }
+
+    private static boolean isSticky() {
+        return Boolean.parseBoolean(System.getProperty("api.base.sticky", "false"));
+    }
+
+    private static long probeMillis() {
+        try {
+            return Math.max(0, Long.parseLong(System.getProperty("api.base.probeMs", "5000").trim()));
+        } catch (NumberFormatException e) {
+            return 5000;
+        }
+    }
+
+    private static void startProber() {
+        long interval = probeMillis();
+        if (prober != null || interval == 0) return;
+        prober = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "biblio-replicas");
+            t.setDaemon(true);
+            return t;
+        });
+        prober.scheduleWithFixedDelay(Replicas::probeNow, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Comprova totes les rèpliques amb una petició HEAD: les que responen sense 5xx queden
+     * actives i les que no, caigudes. Les peticions van directes al client HTTP, sense
+     * mètriques ni limitador.
+     */
+    static void probeNow() {
+        State s = state;
+        if (s.replicas.size() < 2) return;
+        List<CompletableFuture<?>> probes = new ArrayList<>();
+        for (Replica r : s.replicas) {
+            HttpRequest ping = ApiClient.adaptVersion(HttpRequest.newBuilder(URI.create(r.baseUrl + "/"))
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .timeout(PROBE_TIMEOUT)
+                    .build());
+            probes.add(ApiClient.HTTP_CLIENT.sendAsync(ping, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((resp, error) -> {
+                        if (resp != null && resp.statusCode() < 500) {
+                            r.markUp();
+                        } else if (resp != null) {
+                            r.markDown("comprovacio HTTP " + resp.statusCode());
+                        } else {
+                            r.markDown("comprovacio: " + ApiClient.unwrap(error));
+                        }
+                    }));
+        }
+        try {
+            CompletableFuture.allOf(probes.toArray(new CompletableFuture<?>[0]))
+                    .get(PROBE_TIMEOUT.toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "Comprovacio de repliques incompleta", e);
+        }
+    }
+
+    /**
+     * Rèpliques configurades i el seu estat.
+     *
+     * @return llista immutable en l'ordre d'api.base.url
+     */
+    public static List<Replica> getReplicas() {
+        return state().replicas;
+    }
+
+    /**
+     * Rèplica que ha servit l'últim login; amb api.base.sticky=true hi van les peticions de la sessió.
+     *
+     * @return rèplica, o null si no n'hi ha cap
+     */
+    public static Replica getSessionReplica() {
+        return state().session;
+    }
+
+    /**
+     * Oblida l'estat de les rèpliques (latències, caigudes i sessió) i atura el fil de
+     * comprovació; es torna a engegar quan es configuren rèpliques de nou.
+     */
+    public static void reset() {
+        synchronized (Replicas.class) {
+            state = new State("", List.of());
+            if (prober != null) {
+                prober.shutdownNow();
+                prober = null;
+            }
+        }
+    }
+
+    /**
+     * Línies d'informe per a {@link ApiMetrics#report()}.
+     *
+     * @return una línia per rèplica si n'hi ha més d'una; si no, text buit
+     */
+    static String report() {
+        List<Replica> list = state().replicas;
+        if (list.size() < 2) return "";
+        StringBuilder sb = new StringBuilder();
+        list.forEach(r -> sb.append(r).append(System.lineSeparator()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,286 @@
+package com.bibliosedaos.desktop.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipException;
+
+/**
+ * Capa de resiliència al voltant de l'enviament HTTP.
+ *
+ * <ul>
+ *   <li>Reintents amb espera exponencial i jitter, només per a peticions GET
+ *       (idempotents), davant d'errors de xarxa i respostes 502/503/504.</li>
+ *   <li>Un {@link CircuitBreaker} per endpoint i servidor que fa fallar ràpid
+ *       mentre el servidor no respon, amb una petició de prova (half-open).</li>
+ * </ul>
+ *
+ * El jitter evita que, quan el servidor torna, totes les pantalles reintentin al mateix moment.
+ *
+ * Propietats JVM (llegides a cada petició):
+ * -Dapi.retry.maxAttempts=3 (intents totals per GET)
+ * -Dapi.retry.baseDelayMs=200
+ * -Dapi.retry.maxDelayMs=3000
+ * -Dapi.breaker.failureThreshold=5
+ * -Dapi.breaker.openMs=15000
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class Resilience {
+
+    private static final Logger LOGGER = Logger.getLogger(Resilience.class.getName());
+
+    private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicLong> RETRIES = new ConcurrentHashMap<>();
+
+    private Resilience() {
+        // utilitat: no instanciar
+    }
+
+    /**
+     * Enviament bloquejant d'un sol intent.
+     *
+     * @param <T> tipus del cos
+     */
+    @FunctionalInterface
+    interface Exchange<T> {
+        /**
+         * Envia la petició una vegada.
+         *
+         * @param request petició
+         * @return resposta
+         * @throws IOException si falla la xarxa
+         * @throws InterruptedException si el fil s'interromp
+         */
+        HttpResponse<T> send(HttpRequest request) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Enviament asíncron d'un sol intent.
+     *
+     * @param <T> tipus del cos
+     */
+    @FunctionalInterface
+    interface AsyncExchange<T> {
+        /**
+         * Envia la petició una vegada.
+         *
+         * @param request petició
+         * @return futur amb la resposta
+         */
+        CompletableFuture<HttpResponse<T>> send(HttpRequest request);
+    }
+
+    /**
+     * Envia amb interruptor de circuit i, per a GET, reintents.
+     *
+     * @param request petició
+     * @param exchange enviament d'un intent
+     * @param <T> tipus del cos
+     * @return resposta (l'última rebuda si tots els intents han retornat 502/503/504)
+     * @throws IOException si falla la xarxa en tots els intents o el circuit és obert
+     * @throws InterruptedException si el fil s'interromp
+     */
+    static <T> HttpResponse<T> send(HttpRequest request, Exchange<T> exchange) throws IOException, InterruptedException {
+        CircuitBreaker breaker = breakerFor(request);
+        int maxAttempts = maxAttempts(request);
+        for (int attempt = 1; ; attempt++) {
+            breaker.acquire();
+            HttpResponse<T> resp;
+            try {
+                resp = exchange.send(request);
+            } catch (IOException e) {
+                if (!isTransient(e)) {
+                    breaker.release();
+                    throw e;
+                }
+                breaker.onFailure(failureThreshold(), openMillis());
+                if (attempt >= maxAttempts) throw e;
+                pause(request, attempt, e.toString());
+                continue;
+            } catch (InterruptedException | RuntimeException e) {
+                breaker.release();
+                throw e;
+            }
+            if (!isUnavailable(resp)) {
+                breaker.onSuccess();
+                return resp;
+            }
+            breaker.onFailure(failureThreshold(), openMillis());
+            if (attempt >= maxAttempts) return resp;
+            discard(resp);
+            pause(request, attempt, "HTTP " + resp.statusCode());
+        }
+    }
+
+    /**
+     * Versió asíncrona de {@link #send(HttpRequest, Exchange)}: les esperes entre intents
+     * no ocupen cap fil.
+     *
+     * @param request petició
+     * @param exchange enviament asíncron d'un intent
+     * @param <T> tipus del cos
+     * @return futur amb la resposta
+     */
+    static <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, AsyncExchange<T> exchange) {
+        return attemptAsync(request, exchange, breakerFor(request), 1, maxAttempts(request));
+    }
+
+    private static <T> CompletableFuture<HttpResponse<T>> attemptAsync(HttpRequest request, AsyncExchange<T> exchange,
+                                                                      CircuitBreaker breaker, int attempt, int maxAttempts) {
+        try {
+            breaker.acquire();
+        } catch (CircuitBreaker.OpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<HttpResponse<T>> sent;
+        try {
+            sent = exchange.send(request);
+        } catch (RuntimeException e) {
+            breaker.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        return sent.handle((resp, error) -> {
+            Throwable cause = (error == null) ? null : ApiClient.unwrap(error);
+            if (cause == null && !isUnavailable(resp)) {
+                breaker.onSuccess();
+                return CompletableFuture.completedFuture(resp);
+            }
+            if (cause != null && !(cause instanceof IOException io && isTransient(io))) {
+                breaker.release();
+                return CompletableFuture.<HttpResponse<T>>failedFuture(cause);
+            }
+            breaker.onFailure(failureThreshold(), openMillis());
+            if (attempt >= maxAttempts) {
+                return (cause == null)
+                        ? CompletableFuture.completedFuture(resp)
+                        : CompletableFuture.<HttpResponse<T>>failedFuture(cause);
+            }
+            if (resp != null) discard(resp);
+            long delay = backoff(attempt);
+            recordRetry(request, attempt, delay, cause == null ? "HTTP " + resp.statusCode() : cause.toString());
+            return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                    .thenCompose(x -> attemptAsync(request, exchange, breaker, attempt + 1, maxAttempts));
+        }).thenCompose(f -> f);
+    }
+
+    /**
+     * Estat dels interruptors de cada endpoint.
+     *
+     * @return mapa ordenat i immutable "METODE esquema://servidor/ruta" -&gt; interruptor
+     */
+    public static Map<String, CircuitBreaker> getBreakers() {
+        return Collections.unmodifiableMap(new TreeMap<>(BREAKERS));
+    }
+
+    /**
+     * Reintents fets per endpoint.
+     *
+     * @return mapa ordenat i immutable "METODE /ruta" -&gt; reintents
+     */
+    public static Map<String, Long> getRetryCounts() {
+        Map<String, Long> copy = new TreeMap<>();
+        RETRIES.forEach((k, v) -> copy.put(k, v.get()));
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Tanca tots els interruptors i reinicia els comptadors.
+     */
+    public static void reset() {
+        BREAKERS.clear();
+        RETRIES.clear();
+    }
+
+    /**
+     * Interruptor de l'endpoint; inclou el servidor perquè la caiguda d'un no afecti els altres.
+     */
+    private static CircuitBreaker breakerFor(HttpRequest request) {
+        URI uri = request.uri();
+        String key = request.method() + " " + uri.getScheme() + "://" + uri.getRawAuthority() + ApiClient.endpointKey(uri);
+        return BREAKERS.computeIfAbsent(key, CircuitBreaker::new);
+    }
+
+    /**
+     * Un cos comprimit corrupte no millora reintentant, ni una petició que ha esperat massa
+     * a la cua del {@link ConcurrencyLimiter} o al {@link RateLimiter} (el servidor no l'ha vista); la resta d'errors d'E/S
+     * (connexió refusada, tallada, temps esgotat...) es consideren transitoris.
+     * HttpClient.send embolcalla l'error original, per això es recorre la cadena de causes.
+     */
+    static boolean isTransient(IOException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ZipException) return false;
+            if (t instanceof ConcurrencyLimiter.QueueTimeoutException) return false;
+            if (t instanceof RateLimiter.RateLimitedException) return false;
+        }
+        return true;
+    }
+
+    static boolean isUnavailable(HttpResponse<?> resp) {
+        int code = resp.statusCode();
+        return code == 502 || code == 503 || code == 504;
+    }
+
+    static void discard(HttpResponse<?> resp) {
+        if (resp.body() instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+                // el cos d'un intent descartat no interessa
+            }
+        }
+    }
+
+    private static void pause(HttpRequest request, int attempt, String reason) throws InterruptedException {
+        long delay = backoff(attempt);
+        recordRetry(request, attempt, delay, reason);
+        Thread.sleep(delay);
+    }
+
+    private static void recordRetry(HttpRequest request, int attempt, long delay, String reason) {
+        String key = request.method() + " " + ApiClient.endpointKey(request.uri());
+        RETRIES.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        LOGGER.log(Level.FINE, "Reintent {0} de {1} en {2} ms ({3})", new Object[]{attempt, key, delay, reason});
+    }
+
+    /**
+     * Espera exponencial amb "equal jitter": la meitat fixa i la meitat aleatòria.
+     *
+     * @param attempt intent que acaba de fallar (1..n)
+     * @return mil·lisegons d'espera
+     */
+    static long backoff(int attempt) {
+        long base = Math.max(1, Long.getLong("api.retry.baseDelayMs", 200));
+        long max = Math.max(base, Long.getLong("api.retry.maxDelayMs", 3000));
+        long exp = Math.min(max, base << Math.min(attempt - 1, 20));
+        long half = exp / 2;
+        return half + ThreadLocalRandom.current().nextLong(exp - half + 1);
+    }
+
+    private static int maxAttempts(HttpRequest request) {
+        if (!"GET".equals(request.method())) return 1;
+        return Math.max(1, Integer.getInteger("api.retry.maxAttempts", 3));
+    }
+
+    private static int failureThreshold() {
+        return Math.max(1, Integer.getInteger("api.breaker.failureThreshold", 5));
+    }
+
+    private static long openMillis() {
+        return Math.max(0, Long.getLong("api.breaker.openMs", 15000));
+    }
+}
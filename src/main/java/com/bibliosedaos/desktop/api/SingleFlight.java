@@ -0,0 +1,189 @@
+package com.bibliosedaos.desktop.api;
+
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Agrupació de peticions GET idèntiques en curs ("single-flight").
+ *
+ * Si arriba una crida GET amb la mateixa URL i el mateix token que una altra que
+ * encara no ha acabat, no s'envia de nou: espera el resultat de la primera i en
+ * rep una còpia. Així, per exemple, dues pantalles que demanen alhora tots els
+ * exemplars comparteixen una sola descàrrega i una sola deserialització.
+ * Si la primera crida es cancel·la perquè la seva vista s'ha tancat ({@link TaskScope}),
+ * les que l'esperaven i segueixen vives la repeteixen pel seu compte.
+ *
+ * Es pot desactivar amb -Dapi.singleflight.enabled=false.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class SingleFlight {
+
+    private static final Map<String, CompletableFuture<Object>> IN_FLIGHT = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicLong> DEDUPLICATED = new ConcurrentHashMap<>();
+
+    private SingleFlight() {
+        // utilitat: no instanciar
+    }
+
+    /**
+     * Indica si l'agrupació està activa (propietat api.singleflight.enabled).
+     *
+     * @return true per defecte
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("api.singleflight.enabled", "true"));
+    }
+
+    /**
+     * Executa una crida bloquejant agrupant-la amb qualsevol altra d'idèntica en curs.
+     *
+     * @param request petició que identifica la crida
+     * @param call execució real de la crida
+     * @param <T> tipus del resultat
+     * @return resultat propi o compartit
+     * @throws Exception l'error de la crida (propi o compartit)
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T execute(HttpRequest request, Callable<T> call) throws Exception {
+        if (!eligible(request)) {
+            return call.call();
+        }
+        String key = key(request);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = IN_FLIGHT.putIfAbsent(key, mine);
+        if (leader != null) {
+            recordDeduplicated(request);
+            try {
+                return (T) share(leader.get());
+            } catch (ExecutionException e) {
+                Throwable cause = ApiClient.unwrap(e);
+                // el líder era d'una vista tancada: aquesta crida segueix viva i la fa ella mateixa
+                if (TaskScope.isCancellation(cause) && TaskScope.isActive(TaskScope.current())) {
+                    return call.call();
+                }
+                if (cause instanceof Exception ex) throw ex;
+                throw e;
+            }
+        }
+
+        T value;
+        try {
+            value = call.call();
+        } catch (Exception e) {
+            IN_FLIGHT.remove(key, mine);
+            mine.completeExceptionally(ApiClient.toApiException(e));
+            throw e;
+        } catch (Error e) {
+            IN_FLIGHT.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        IN_FLIGHT.remove(key, mine);
+        mine.complete(share(value));
+        return value;
+    }
+
+    /**
+     * Executa una crida no bloquejant agrupant-la amb qualsevol altra d'idèntica en curs.
+     *
+     * @param request petició que identifica la crida
+     * @param call inici de la crida real
+     * @param <T> tipus del resultat
+     * @return futur propi o futur derivat del de la crida en curs
+     */
+    @SuppressWarnings("unchecked")
+    static <T> CompletableFuture<T> executeAsync(HttpRequest request, Supplier<CompletableFuture<T>> call) {
+        if (!eligible(request)) {
+            return call.get();
+        }
+        String key = key(request);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = IN_FLIGHT.putIfAbsent(key, mine);
+        if (leader != null) {
+            recordDeduplicated(request);
+            TaskScope scope = TaskScope.current();
+            return leader.thenApply(v -> (T) share(v))
+                    .exceptionallyCompose(e -> TaskScope.isCancellation(e) && TaskScope.isActive(scope)
+                            ? call.get()
+                            : CompletableFuture.failedFuture(ApiClient.unwrap(e)));
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, error) -> {
+            IN_FLIGHT.remove(key, mine);
+            if (error != null) {
+                mine.completeExceptionally(ApiClient.unwrap(error));
+            } else {
+                mine.complete(share(value));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Nombre total de crides que s'han resolt amb el resultat d'una altra en curs.
+     *
+     * @return crides deduplicades
+     */
+    public static long getDeduplicatedCount() {
+        return DEDUPLICATED.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    /**
+     * Crides deduplicades per endpoint.
+     *
+     * @return mapa ordenat i immutable "METODE /ruta" -&gt; crides estalviades
+     */
+    public static Map<String, Long> getDeduplicatedByEndpoint() {
+        Map<String, Long> copy = new TreeMap<>();
+        DEDUPLICATED.forEach((k, v) -> copy.put(k, v.get()));
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Reinicia els comptadors de deduplicació.
+     */
+    public static void resetCounters() {
+        DEDUPLICATED.clear();
+    }
+
+    private static boolean eligible(HttpRequest request) {
+        return "GET".equals(request.method()) && isEnabled();
+    }
+
+    /**
+     * Clau de la crida: mètode, URL completa i capçalera d'autorització, perquè dues
+     * sessions diferents no comparteixin mai resultats.
+     */
+    private static String key(HttpRequest request) {
+        return request.method() + " " + request.uri() + " " + request.headers().firstValue("Authorization").orElse("");
+    }
+
+    private static void recordDeduplicated(HttpRequest request) {
+        DEDUPLICATED.computeIfAbsent(request.method() + " " + ApiClient.endpointKey(request.uri()),
+                k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /** Les llistes compartides es lliuren com a còpia perquè cada pantalla pugui ordenar-les o filtrar-les. */
+    private static Object share(Object value) {
+        return (value instanceof List<?> list) ? new ArrayList<>(list) : value;
+    }
+}
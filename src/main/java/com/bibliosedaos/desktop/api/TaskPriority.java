@@ -0,0 +1,78 @@
+package com.bibliosedaos.desktop.api;
+
+import java.util.Locale;
+
+/**
+ * Classe de prioritat d'una tasca en segon pla ({@link PriorityExecutor}).
+ *
+ * L'ordre de declaració és l'ordre de servei: un fil lliure sempre agafa primer
+ * les tasques interactives, després les normals i per últim les de fons.
+ *
+ * Mentre una tasca s'executa, la seva classe és la classe actual del fil ({@link #current()});
+ * {@link RateLimiter} la fa servir per decidir quant pot esperar cada petició. Una feina
+ * massiva que no passa per l'executor es pot marcar amb {@link #runAs}.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public enum TaskPriority {
+
+    /** Acció directa de l'usuari (veure, cercar, desar, eliminar): ha de començar de seguida. */
+    INTERACTIVE(64),
+
+    /** Càrrega ordinària d'una vista. És la prioritat per defecte. */
+    NORMAL(200),
+
+    /** Precàrrega, escalfament o feina massiva: pot esperar i es limita en paral·lel. */
+    BACKGROUND(200);
+
+    private static final ThreadLocal<TaskPriority> CURRENT = new ThreadLocal<>();
+
+    private final int defaultCapacity;
+
+    TaskPriority(int defaultCapacity) {
+        this.defaultCapacity = defaultCapacity;
+    }
+
+    /**
+     * Classe de la feina que s'executa en el fil actual.
+     *
+     * @return la de la tasca en curs, o {@link #NORMAL} fora de l'executor
+     */
+    public static TaskPriority current() {
+        TaskPriority p = CURRENT.get();
+        return p == null ? NORMAL : p;
+    }
+
+    /**
+     * Executa una acció amb aquesta classe com a actual i restaura l'anterior.
+     *
+     * @param priority classe de la feina
+     * @param action acció a executar
+     */
+    public static void runAs(TaskPriority priority, Runnable action) {
+        TaskPriority previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) CURRENT.remove(); else CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Capacitat de la cua d'aquesta classe, configurable amb
+     * {@code -Dapi.executor.queue.interactive|normal|background}.
+     *
+     * @return nombre màxim de tasques en espera
+     */
+    public int queueCapacity() {
+        String key = "api.executor.queue." + name().toLowerCase(Locale.ROOT);
+        try {
+            return Math.max(1, Integer.parseInt(System.getProperty(key, String.valueOf(defaultCapacity)).trim()));
+        } catch (NumberFormatException e) {
+            return defaultCapacity;
+        }
+    }
+}
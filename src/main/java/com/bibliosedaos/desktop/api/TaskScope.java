@@ -0,0 +1,355 @@
+package com.bibliosedaos.desktop.api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.http.HttpRequest;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Àmbit de vida de la feina en segon pla d'una vista.
+ *
+ * El {@code Navigator} obre un àmbit cada vegada que carrega una vista i cancel·la
+ * l'anterior. L'àmbit actiu queda lligat al fil que l'obre (el de JavaFX); tot el que
+ * s'hi llança hereta l'àmbit:
+ * <ul>
+ *   <li>les tasques enviades a {@link ApiClient#BG_EXEC} es cancel·len, tant si són a la
+ *       cua com si s'estan executant (el fil s'interromp i la petició HTTP en curs s'avorta);</li>
+ *   <li>els intercanvis asíncrons en curs es cancel·len;</li>
+ *   <li>una resposta que arriba després de tancar la vista es descarta sense descodificar-la
+ *       i mai arriba al fil de JavaFX.</li>
+ * </ul>
+ *
+ * Només les crides idempotents (GET, HEAD) en depenen: una escriptura que ja s'ha
+ * enviat no s'avorta ni se'n descarta la resposta ({@link #forRequest}), i les tasques que
+ * fan escriptures s'envien amb {@link PriorityExecutor#submitDetached}.
+ *
+ * Es compten les tasques cancel·lades, les peticions avortades a mig camí i les
+ * peticions malbaratades (resposta descarregada i descartada); surten a {@link ApiMetrics#report()}.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class TaskScope {
+
+    private static final ThreadLocal<TaskScope> CURRENT = new ThreadLocal<>();
+
+    private static final AtomicLong CANCELLED_TASKS = new AtomicLong();
+    private static final AtomicLong ABORTED_REQUESTS = new AtomicLong();
+    private static final AtomicLong WASTED_REQUESTS = new AtomicLong();
+
+    private final String name;
+    private final TaskScope parent;
+    private final Set<Future<?>> tasks = ConcurrentHashMap.newKeySet();
+    private final Set<Future<?>> exchanges = ConcurrentHashMap.newKeySet();
+    private final Set<TaskScope> children = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+    /** Un àmbit avortat per la crida mateixa (no per tancar la vista) no compta a les mètriques. */
+    private volatile boolean counted = true;
+
+    private TaskScope(String name, TaskScope parent) {
+        this.name = name;
+        this.parent = parent;
+    }
+
+    /**
+     * Obre un àmbit nou i el fa actual per al fil que crida.
+     *
+     * @param name nom de l'àmbit (p. ex. el FXML de la vista)
+     * @return àmbit obert
+     */
+    public static TaskScope enter(String name) {
+        TaskScope scope = new TaskScope(name, null);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Obre un àmbit fill, sense fer-lo actual. Es cancel·la amb el pare (si en té) i es pot
+     * avortar tot sol amb {@link #abort()}: serveix per aturar una part de la feina d'una crida,
+     * com la còpia perdedora d'una petició duplicada ({@link Hedging}).
+     *
+     * @param parent àmbit pare (pot ser null)
+     * @param name nom de l'àmbit
+     * @return àmbit fill; s'ha de tancar amb {@link #close()} quan ja no calgui
+     */
+    static TaskScope child(TaskScope parent, String name) {
+        TaskScope child = new TaskScope(name, parent);
+        if (parent != null) {
+            parent.children.add(child);
+            if (parent.cancelled && parent.children.remove(child)) child.cancel();
+        }
+        return child;
+    }
+
+    /**
+     * Àmbit del fil actual: el de la vista al fil de JavaFX o el de la tasca que s'executa.
+     *
+     * @return àmbit actual, o null si no n'hi ha
+     */
+    public static TaskScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Àmbit que s'aplica a una petició: l'actual si la petició és idempotent, o cap si és
+     * una escriptura, que ha d'arribar al servidor i acabar encara que es tanqui la vista.
+     *
+     * @param request petició HTTP
+     * @return àmbit actual per a GET i HEAD; null per a la resta
+     */
+    static TaskScope forRequest(HttpRequest request) {
+        String method = request.method();
+        return "GET".equals(method) || "HEAD".equals(method) ? CURRENT.get() : null;
+    }
+
+    /**
+     * Lliga una acció a l'àmbit actual per executar-la més tard des d'un altre fil, com un
+     * temporitzador: quan s'executa, l'àmbit capturat és l'actual i les tasques que envia
+     * hi queden lligades (i es cancel·len amb la vista).
+     *
+     * @param action acció a executar més tard
+     * @return acció que s'executa amb l'àmbit d'ara
+     */
+    public static Runnable capture(Runnable action) {
+        TaskScope scope = CURRENT.get();
+        return () -> runIn(scope, action);
+    }
+
+    /**
+     * Deixa el fil actual sense àmbit.
+     */
+    static void clearCurrent() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Executa una acció amb l'àmbit indicat com a actual i restaura l'anterior.
+     *
+     * @param scope àmbit (pot ser null)
+     * @param action acció a executar
+     */
+    static void runIn(TaskScope scope, Runnable action) {
+        TaskScope previous = CURRENT.get();
+        CURRENT.set(scope);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) CURRENT.remove(); else CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Nom de l'àmbit.
+     *
+     * @return nom donat en obrir-lo
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Indica si l'àmbit s'ha cancel·lat.
+     *
+     * @return true després de {@link #cancel()}
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Associa una tasca a l'àmbit. Si ja està cancel·lat, la cancel·la de seguida.
+     *
+     * @param task tasca (un {@code javafx.concurrent.Task} o un Future de l'executor)
+     * @return false si l'àmbit ja estava cancel·lat
+     */
+    public boolean track(Future<?> task) {
+        return add(tasks, task, CANCELLED_TASKS);
+    }
+
+    /**
+     * Deslliga una tasca acabada.
+     *
+     * @param task tasca
+     */
+    public void untrack(Future<?> task) {
+        tasks.remove(task);
+    }
+
+    /**
+     * Associa a l'àmbit actual un intercanvi HTTP asíncron en curs.
+     *
+     * @param exchange futur de HttpClient
+     */
+    static void trackExchange(Future<?> exchange) {
+        TaskScope scope = CURRENT.get();
+        if (scope == null || exchange.isDone()) return;
+        if (scope.add(scope.exchanges, exchange, ABORTED_REQUESTS) && exchange instanceof CompletableFuture<?> cf) {
+            cf.whenComplete((r, e) -> scope.exchanges.remove(exchange));
+        }
+    }
+
+    private boolean add(Set<Future<?>> set, Future<?> f, AtomicLong counter) {
+        set.add(f);
+        if (cancelled && set.remove(f)) {
+            if (f.cancel(true) && counted) counter.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Cancel·la tota la feina de l'àmbit i dels seus fills. Es pot cridar més d'una vegada.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (TaskScope child : children) {
+            if (children.remove(child)) child.cancel();
+        }
+        for (Future<?> f : tasks) {
+            if (tasks.remove(f) && f.cancel(true) && counted) CANCELLED_TASKS.incrementAndGet();
+        }
+        for (Future<?> f : exchanges) {
+            if (exchanges.remove(f) && f.cancel(true) && counted) ABORTED_REQUESTS.incrementAndGet();
+        }
+    }
+
+    /**
+     * Cancel·la la feina d'un àmbit fill sense comptar-la com a feina d'una vista tancada.
+     */
+    void abort() {
+        counted = false;
+        cancel();
+        close();
+    }
+
+    /**
+     * Deslliga un àmbit fill del seu pare quan ja no té feina en curs.
+     */
+    void close() {
+        if (parent != null) parent.children.remove(this);
+    }
+
+    /**
+     * Comprova, abans de descodificar una resposta, que la vista que l'ha demanada segueix
+     * oberta. Si l'àmbit actual està cancel·lat, tanca el cos i compta la petició com a malbaratada.
+     *
+     * @param scope àmbit de la crida (pot ser null)
+     * @param body cos de la resposta
+     * @throws ApiException si l'àmbit està cancel·lat
+     */
+    static void discardIfCancelled(TaskScope scope, Object body) throws ApiException {
+        if (scope == null || !scope.cancelled) return;
+        if (body instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+                // el cos es descarta igualment
+            }
+        }
+        WASTED_REQUESTS.incrementAndGet();
+        throw cancelledException(scope);
+    }
+
+    /**
+     * Registra una crida que ha fallat: si l'àmbit estava cancel·lat i la crida s'ha
+     * interromput, compta la petició com a avortada.
+     *
+     * @param scope àmbit de la crida (pot ser null)
+     * @param error error de la crida
+     */
+    static void recordFailure(TaskScope scope, Throwable error) {
+        if (scope == null || !scope.cancelled) return;
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof InterruptedException || t instanceof InterruptedIOException) {
+                ABORTED_REQUESTS.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Indica si un error és conseqüència d'una cancel·lació (àmbit tancat, fil interromput
+     * o futur cancel·lat) i no d'una fallada del servidor.
+     *
+     * @param error error a examinar
+     * @return true si la cadena de causes conté una cancel·lació o interrupció
+     */
+    static boolean isCancellation(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof CancellationException || t instanceof InterruptedException
+                    || t instanceof InterruptedIOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indica si l'àmbit és actiu (no n'hi ha o no està cancel·lat).
+     *
+     * @param scope àmbit (pot ser null)
+     * @return true si la crida encara té qui n'esperi el resultat
+     */
+    static boolean isActive(TaskScope scope) {
+        return scope == null || !scope.cancelled;
+    }
+
+    /**
+     * Compta un resultat descartat abans d'arribar al fil de JavaFX.
+     */
+    public static void recordWasted() {
+        WASTED_REQUESTS.incrementAndGet();
+    }
+
+    static ApiException cancelledException(TaskScope scope) {
+        return new ApiException("Crida cancel·lada: s'ha tancat la vista " + scope.name,
+                new CancellationException(scope.name));
+    }
+
+    /** @return tasques cancel·lades en tancar una vista */
+    public static long getCancelledTasks() {
+        return CANCELLED_TASKS.get();
+    }
+
+    /** @return peticions HTTP avortades a mig camí en tancar una vista */
+    public static long getAbortedRequests() {
+        return ABORTED_REQUESTS.get();
+    }
+
+    /** @return respostes rebudes després de tancar la vista i descartades */
+    public static long getWastedRequests() {
+        return WASTED_REQUESTS.get();
+    }
+
+    /**
+     * Posa els comptadors a zero.
+     */
+    public static void resetCounters() {
+        CANCELLED_TASKS.set(0);
+        ABORTED_REQUESTS.set(0);
+        WASTED_REQUESTS.set(0);
+    }
+
+    /**
+     * Línia d'informe amb els comptadors.
+     *
+     * @return text per a {@link ApiMetrics#report()}
+     */
+    static String report() {
+        return String.format(Locale.ROOT, "Vistes tancades: tasques cancel·lades=%d peticions avortades=%d malbaratades=%d",
+                getCancelledTasks(), getAbortedRequests(), getWastedRequests());
+    }
+
+    @Override
+    public String toString() {
+        return "TaskScope[" + name + (cancelled ? ", cancel·lat" : "") + "]";
+    }
+}
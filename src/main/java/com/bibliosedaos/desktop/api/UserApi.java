@@ -1,7 +1,9 @@
 package com.bibliosedaos.desktop.api;
 
 import com.bibliosedaos.desktop.model.User;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interficie per a les operacions d'usuari.
@@ -21,6 +23,38 @@ public interface UserApi {
      */
     User getUserById(Long userId) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #getUserById(Long)}.
+     *
+     * @param userId ID de l'usuari
+     * @return futur amb usuari amb totes les seves dades
+     */
+    default CompletableFuture<User> getUserByIdAsync(Long userId) {
+        return ApiClient.supplyAsync(() -> getUserById(userId));
+    }
+
+    /**
+     * Obte diversos usuaris pel seu ID amb consultes en paral·lel limitades
+     * (veure {@link MultiGet}). Els ID repetits es consulten una sola vegada.
+     *
+     * @param ids IDs dels usuaris
+     * @return usuaris trobats en l'ordre dels IDs i errors dels que han fallat
+     * @throws ApiException si el fil s'interromp mentre espera
+     */
+    default MultiGet.Result<User> getUsersByIds(Collection<Long> ids) throws ApiException {
+        return MultiGet.fetch(ids, this::getUserByIdAsync);
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getUsersByIds(Collection)}.
+     *
+     * @param ids IDs dels usuaris
+     * @return futur amb els usuaris trobats i els errors; no falla per l'error d'un sol ID
+     */
+    default CompletableFuture<MultiGet.Result<User>> getUsersByIdsAsync(Collection<Long> ids) {
+        return MultiGet.fetchAsync(ids, this::getUserByIdAsync);
+    }
+
     /**
      * Actualitza les dades d'un usuari.
      *
@@ -31,6 +65,17 @@ public interface UserApi {
      */
     User updateUser(Long userId, User user) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #updateUser(Long, User)}.
+     *
+     * @param userId ID de l'usuari a actualitzar
+     * @param user dades actualitzades de l'usuari
+     * @return futur amb usuari actualitzat
+     */
+    default CompletableFuture<User> updateUserAsync(Long userId, User user) {
+        return ApiClient.supplyAsync(() -> updateUser(userId, user));
+    }
+
     /**
      * Obte tots els usuaris del sistema.
      *
@@ -39,6 +84,15 @@ public interface UserApi {
      */
     List<User> getAllUsers() throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #getAllUsers()}.
+     *
+     * @return futur amb llista de tots els usuaris
+     */
+    default CompletableFuture<List<User>> getAllUsersAsync() {
+        return ApiClient.supplyAsync(() -> getAllUsers());
+    }
+
     /**
      * Crea un nou usuari al sistema.
      *
@@ -48,6 +102,16 @@ public interface UserApi {
      */
     User createUser(User user) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #createUser(User)}.
+     *
+     * @param user dades del nou usuari
+     * @return futur amb usuari creat amb el ID assignat
+     */
+    default CompletableFuture<User> createUserAsync(User user) {
+        return ApiClient.supplyAsync(() -> createUser(user));
+    }
+
     /**
      * Elimina un usuari del sistema.
      *
@@ -56,6 +120,19 @@ public interface UserApi {
      */
     void deleteUser(Long userId) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #deleteUser(Long)}.
+     *
+     * @param userId ID de l'usuari a eliminar
+     * @return futur completat quan acaba l'operacio
+     */
+    default CompletableFuture<Void> deleteUserAsync(Long userId) {
+        return ApiClient.supplyAsync(() -> {
+            deleteUser(userId);
+            return null;
+        });
+    }
+
     /**
      * Cerca un usuari pel seu nick.
      *
@@ -65,6 +142,16 @@ public interface UserApi {
      */
     User getUserByNick(String nick) throws ApiException;
 
+    /**
+     * Versio no bloquejant de {@link #getUserByNick(String)}.
+     *
+     * @param nick nick a buscar
+     * @return futur amb usuari trobat
+     */
+    default CompletableFuture<User> getUserByNickAsync(String nick) {
+        return ApiClient.supplyAsync(() -> getUserByNick(nick));
+    }
+
     /**
      * Cerca un usuari pel seu NIF.
      *
@@ -73,4 +160,14 @@ public interface UserApi {
      * @throws ApiException si hi ha errors de comunicacio
      */
     User getUserByNif(String nif) throws ApiException;
+
+    /**
+     * Versio no bloquejant de {@link #getUserByNif(String)}.
+     *
+     * @param nif NIF a buscar
+     * @return futur amb usuari trobat
+     */
+    default CompletableFuture<User> getUserByNifAsync(String nif) {
+        return ApiClient.supplyAsync(() -> getUserByNif(nif));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,299 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.model.Autor;
+import com.bibliosedaos.desktop.model.Exemplar;
+import com.bibliosedaos.desktop.model.Grup;
+import com.bibliosedaos.desktop.model.Horari;
+import com.bibliosedaos.desktop.model.Llibre;
+import com.bibliosedaos.desktop.model.Prestec;
+import com.bibliosedaos.desktop.model.User;
+import com.bibliosedaos.desktop.model.dto.LoginRequest;
+import com.bibliosedaos.desktop.model.dto.LoginResponse;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Escalfament del client mentre es mostra la pantalla d'inici de sessió.
+ *
+ * La primera petició real (el login) pagaria de cop la inicialització d'{@link ApiClient}
+ * (lectura del truststore, SSLContext, ObjectMapper), la connexió TCP, l'handshake TLS i
+ * la primera construcció dels serialitzadors de Jackson. {@link #start()} ho avança en
+ * un fil propi mentre l'usuari escriu les credencials:
+ * <ol>
+ *   <li>inicialitza {@link ApiClient};</li>
+ *   <li>prepara lectors i escriptors JSON dels models i dels DTO d'autenticació;</li>
+ *   <li>obre una connexió a api.base.url amb una petició HEAD i la manté oberta amb
+ *       una petició cada api.warmup.keepAliveMs fins que l'usuari entra ({@link #stop()}).</li>
+ * </ol>
+ * Les peticions d'escalfament van directes al client HTTP: no compten per a les mètriques
+ * ni per als interruptors de circuit, i un error només es registra.
+ *
+ * El temps de cada pas i el temps fins a mostrar el tauler després del login surten a
+ * {@link ApiMetrics#report()}.
+ *
+ * Propietats: -Dapi.warmup.enabled=false (per defecte true),
+ * -Dapi.warmup.keepAliveMs=15000 (0 = sense manteniment).
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class Warmup {
+
+    private static final Logger LOGGER = Logger.getLogger(Warmup.class.getName());
+
+    /** Temps màxim que es manté la connexió oberta si ningú no entra. */
+    static final long KEEP_ALIVE_MAX_MS = TimeUnit.MINUTES.toMillis(5);
+
+    /** Tipus que es llegeixen i s'escriuen en les primeres pantalles. */
+    private static final List<Class<?>> MODEL_TYPES = List.of(
+            LoginRequest.class, LoginResponse.class, User.class, Llibre.class, Autor.class,
+            Exemplar.class, Prestec.class, Grup.class, Horari.class);
+
+    private static volatile CompletableFuture<Report> current;
+    private static volatile boolean stopped;
+    private static volatile long timeToDashboardNanos = -1;
+    private static volatile boolean dashboardAfterWarmup;
+
+    private Warmup() {
+        // utilitat: no instanciar
+    }
+
+    /**
+     * Indica si l'escalfament està actiu (propietat api.warmup.enabled).
+     *
+     * @return true per defecte
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("api.warmup.enabled", "true"));
+    }
+
+    /**
+     * Interval entre peticions de manteniment (propietat api.warmup.keepAliveMs).
+     *
+     * @return mil·lisegons; 0 si no s'ha de mantenir la connexió
+     */
+    static long keepAliveMs() {
+        try {
+            return Math.max(0, Long.parseLong(System.getProperty("api.warmup.keepAliveMs", "15000").trim()));
+        } catch (NumberFormatException e) {
+            return 15000;
+        }
+    }
+
+    /**
+     * Comença l'escalfament en un fil de fons. No bloqueja i no falla mai.
+     * Si ja n'hi ha un en curs o està desactivat, no fa res.
+     *
+     * @return futur amb el resultat de l'escalfament (null si està desactivat)
+     */
+    public static synchronized CompletableFuture<Report> start() {
+        if (!isEnabled()) return CompletableFuture.completedFuture(null);
+        if (current != null && !current.isDone()) return current;
+        stopped = false;
+        CompletableFuture<Report> future = new CompletableFuture<>();
+        current = future;
+        Thread t = new Thread(() -> {
+            Report report = run();
+            future.complete(report);
+            keepAlive(report);
+        }, "biblio-warmup");
+        t.setDaemon(true);
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        t.start();
+        return future;
+    }
+
+    /**
+     * Atura el manteniment de la connexió (l'usuari ja ha entrat o l'aplicació es tanca).
+     */
+    public static void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Resultat de l'últim escalfament.
+     *
+     * @return informe, o null si no s'ha fet o encara no ha acabat
+     */
+    public static Report getLastReport() {
+        CompletableFuture<Report> f = current;
+        return f != null && f.isDone() ? f.getNow(null) : null;
+    }
+
+    /**
+     * Registra el temps des que l'usuari prem "Entrar" fins que es mostra el tauler.
+     *
+     * @param nanos temps transcorregut
+     */
+    public static void recordTimeToDashboard(long nanos) {
+        dashboardAfterWarmup = getLastReport() != null;
+        timeToDashboardNanos = nanos;
+        LOGGER.info(() -> String.format(Locale.ROOT, "Temps fins al tauler: %.1f ms (escalfament %s)",
+                nanos / 1e6, dashboardAfterWarmup ? "acabat" : "no acabat"));
+    }
+
+    /**
+     * Fa tots els passos en el fil actual.
+     *
+     * @return temps de cada pas
+     */
+    static Report run() {
+        long t0 = System.nanoTime();
+        HttpClient client = ApiClient.HTTP_CLIENT;
+        long t1 = System.nanoTime();
+
+        int primed = 0;
+        for (Class<?> type : MODEL_TYPES) {
+            if (primeJson(type)) primed++;
+        }
+        long t2 = System.nanoTime();
+
+        String error = null;
+        HttpClient.Version version = null;
+        try {
+            HttpResponse<Void> resp = client.send(ping(), HttpResponse.BodyHandlers.discarding());
+            version = resp.version();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "interromput";
+        } catch (Exception e) {
+            error = e.getClass().getSimpleName() + (e.getMessage() == null ? "" : ": " + e.getMessage());
+        }
+        long t3 = System.nanoTime();
+
+        Report report = new Report(t1 - t0, t2 - t1, primed, t3 - t2, version, error);
+        LOGGER.log(error == null ? Level.INFO : Level.WARNING, "{0}", report);
+        return report;
+    }
+
+    /**
+     * Llegeix i torna a escriure un objecte buit del tipus per construir-ne el deserialitzador i el serialitzador.
+     */
+    private static boolean primeJson(Class<?> type) {
+        try {
+            Object empty = ApiClient.readerFor(type).readValue("{}");
+            ApiClient.writerFor(type).writeValueAsBytes(empty);
+            return true;
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "No s'ha pogut preparar el JSON de " + type.getSimpleName(), e);
+            return false;
+        }
+    }
+
+    private static HttpRequest ping() {
+        // mateixa versió que les peticions reals, perquè la connexió oberta es pugui reutilitzar
+        return ApiClient.adaptVersion(HttpRequest.newBuilder(URI.create(ApiClient.getBaseUrl()))
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(10))
+                .build());
+    }
+
+    /**
+     * Repeteix la petició HEAD perquè el servidor no tanqui la connexió inactiva.
+     */
+    private static void keepAlive(Report report) {
+        long interval = keepAliveMs();
+        if (interval <= 0 || report.getError() != null) return;
+        long deadline = System.currentTimeMillis() + KEEP_ALIVE_MAX_MS;
+        while (!stopped && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(interval);
+                if (stopped) return;
+                ApiClient.HTTP_CLIENT.send(ping(), HttpResponse.BodyHandlers.discarding());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE, "Manteniment de connexio fallit", e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Línia d'informe per a {@link ApiMetrics#report()}.
+     *
+     * @return text, o null si no hi ha hagut escalfament
+     */
+    static String report() {
+        Report r = getLastReport();
+        long ttd = timeToDashboardNanos;
+        if (r == null && ttd < 0) return null;
+        StringBuilder sb = new StringBuilder(r == null ? "Escalfament: no fet" : r.toString());
+        if (ttd >= 0) {
+            sb.append(String.format(Locale.ROOT, " | login->tauler=%.1fms (%s)", ttd / 1e6,
+                    dashboardAfterWarmup ? "escalfat" : "en fred"));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Temps de cada pas de l'escalfament.
+     */
+    public static final class Report {
+        private final long clientInitNanos;
+        private final long jsonNanos;
+        private final int jsonTypes;
+        private final long connectNanos;
+        private final HttpClient.Version version;
+        private final String error;
+
+        Report(long clientInitNanos, long jsonNanos, int jsonTypes, long connectNanos,
+               HttpClient.Version version, String error) {
+            this.clientInitNanos = clientInitNanos;
+            this.jsonNanos = jsonNanos;
+            this.jsonTypes = jsonTypes;
+            this.connectNanos = connectNanos;
+            this.version = version;
+            this.error = error;
+        }
+
+        /** @return temps d'inicialització d'ApiClient (truststore, SSLContext, ObjectMapper) */
+        public long getClientInitNanos() {
+            return clientInitNanos;
+        }
+
+        /** @return temps de preparació dels lectors i escriptors JSON */
+        public long getJsonNanos() {
+            return jsonNanos;
+        }
+
+        /** @return tipus JSON preparats */
+        public int getJsonTypes() {
+            return jsonTypes;
+        }
+
+        /** @return temps de la primera petició (TCP + TLS + anada i tornada) */
+        public long getConnectNanos() {
+            return connectNanos;
+        }
+
+        /** @return protocol de la connexió oberta, o null si no s'ha pogut connectar */
+        public HttpClient.Version getVersion() {
+            return version;
+        }
+
+        /** @return error de connexió, o null si s'ha connectat */
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "Escalfament: client=%.1fms json=%.1fms (%d tipus) connexio=%.1fms %s",
+                    clientInitNanos / 1e6, jsonNanos / 1e6, jsonTypes, connectNanos / 1e6,
+                    error == null ? String.valueOf(version) : "error=" + error);
+        }
+    }
+}
@@ -4,15 +4,13 @@ import com.bibliosedaos.desktop.api.*;
 import com.bibliosedaos.desktop.model.dto.LoginRequest;
 import com.bibliosedaos.desktop.model.dto.LoginResponse;
 
-import java.net.URI;
-import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 /**
  * HttpAuthApi: implementació real que fa crides HTTP a /auth/login i /auth/logout.
- * Els mètodes són bloquejants.
+ * Els mètodes síncrons són bloquejants i tenen una variant *Async no bloquejant.
  * Login han d'executar-se en un fil de fons.
  * Logout pot exdcutar-se en el fil principal
  */
@@ -20,6 +18,10 @@ public class HttpAuthApi implements AuthApi {
 
     private static final Logger LOGGER = Logger.getLogger(HttpAuthApi.class.getName());
 
+    // Endpoints
+    private static final Endpoint LOGIN = Endpoint.post("/biblioteca/auth/login");
+    private static final Endpoint LOGOUT = Endpoint.post("/biblioteca/auth/logout");
+
     /**
      * Autentica un usuari amb el servidor.
      *
@@ -29,38 +31,43 @@ public class HttpAuthApi implements AuthApi {
      */
     @Override
     public LoginResponse login(LoginRequest req) throws ApiException {
-        try {
-            // Serialitzar DTO a JSON
-            String reqJson = ApiClient.MAPPER.writeValueAsString(req);
-
-            // Construir petició POST
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/auth/login"))
-                    .timeout(Duration.ofSeconds(10))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(reqJson))
-                    .build();
-
-            // Enviar i rebre resposta (bloquejant)
-            HttpResponse<String> response = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = response.statusCode();
-            String body = response.body();
-
-            if (code == 200) {
-                return ApiClient.MAPPER.readValue(body, LoginResponse.class);
-            } else {
-                return handleErrorResponse(code, body);
-            }
+        return loginCall(req).execute();
+    }
 
-        } catch (InterruptedException e) {
-            // Re-interrompre el fil si s'interromp
-            Thread.currentThread().interrupt();
-            throw new ApiException("El fil ha estat interromput durant la crida HTTP", e);
-        } catch (ApiException a) {
-            throw a;
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+    /**
+     * Versio no bloquejant de {@link #login(LoginRequest)}.
+     *
+     * @param req DTO amb nick/password
+     * @return futur amb amb el token i dades d'usuari si codi 200
+     */
+    @Override
+    public CompletableFuture<LoginResponse> loginAsync(LoginRequest req) {
+        return loginCall(req).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #login(LoginRequest)}.
+     *
+     * @param req DTO amb nick/password
+     * @return crida preparada
+     */
+    private ApiCall<String, LoginResponse> loginCall(LoginRequest req) {
+        return ApiCall.of(
+                () -> {
+                    // Serialitzar DTO a JSON i construir petició POST
+                    return LOGIN.json(req);
+                },
+                HttpResponse.BodyHandlers.ofString(),
+                response -> {
+                    int code = response.statusCode();
+                    String body = response.body();
+
+                    if (code == 200) {
+                        return ApiClient.readValue(body, LoginResponse.class);
+                    } else {
+                        return handleErrorResponse(code, body);
+                    }
+                });
     }
 
     /**
@@ -103,43 +110,54 @@ public class HttpAuthApi implements AuthApi {
      */
     @Override
     public void logout(String token) throws ApiException {
-        try {
-            if (token == null || token.isBlank()) {
-                LOGGER.fine("Logout: token vacío, no se llama al servidor");
-                return;
-            }
-
-            String url = ApiClient.getBaseUrl() + "/biblioteca/auth/logout";
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .timeout(Duration.ofSeconds(10))
-                    .header("Authorization", "Bearer " + token)
-                    .POST(HttpRequest.BodyPublishers.noBody())
-                    .build();
-
-            HttpResponse<String> response = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = response.statusCode();
-            String body = response.body();
-            String shortBody = (body == null) ? "" : body.trim();
-
-            if (code == 200) {
-                LOGGER.info(() -> "Logout exitós. status=" + code + ", body=\"" + shortBody + "\"");
-                return;
-            } else {
-                LOGGER.warning(() -> "Logout falló. status=" + code + ", body=\"" + shortBody + "\"");
-            }
+        if (token == null || token.isBlank()) {
+            LOGGER.fine("Logout: token vacío, no se llama al servidor");
+            return;
+        }
+        logoutCall(token).execute();
+    }
 
-            String fallback = (code == 400 || code == 401) ? "Token no trobat o invàlid." : "Error del servidor: " + code;
-            String msg = ApiClient.extractErrorMessage(body, fallback);
-            throw new ApiException("Codi " + code + ": " + msg, code);
-
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            LOGGER.warning("Logout interrumpido: " + e.getMessage());
-            throw new ApiException("Operació interrompuda", e);
-        } catch (Exception e) {
-            LOGGER.severe("Error de conexión en logout: " + e.getMessage());
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
+    /**
+     * Versió no bloquejant de {@link #logout(String)}.
+     *
+     * @param token token JWT previ (pot ser null/empty)
+     * @return futur completat quan el servidor ha confirmat el logout
+     */
+    @Override
+    public CompletableFuture<Void> logoutAsync(String token) {
+        if (token == null || token.isBlank()) {
+            LOGGER.fine("Logout: token vacío, no se llama al servidor");
+            return CompletableFuture.completedFuture(null);
         }
+        return logoutCall(token).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de logout per a un token no buit.
+     *
+     * @param token token JWT previ
+     * @return crida preparada
+     */
+    private ApiCall<String, Void> logoutCall(String token) {
+        return ApiCall.of(
+                () -> LOGOUT.builder()
+                        .header("Authorization", "Bearer " + token)
+                        .build(),
+                HttpResponse.BodyHandlers.ofString(),
+                response -> {
+                    int code = response.statusCode();
+                    String body = response.body();
+                    String shortBody = (body == null) ? "" : body.trim();
+
+                    if (code == 200) {
+                        LOGGER.info(() -> "Logout exitós. status=" + code + ", body=\"" + shortBody + "\"");
+                        return null;
+                    }
+                    LOGGER.warning(() -> "Logout falló. status=" + code + ", body=\"" + shortBody + "\"");
+
+                    String fallback = (code == 400 || code == 401) ? "Token no trobat o invàlid." : "Error del servidor: " + code;
+                    String msg = ApiClient.extractErrorMessage(body, fallback);
+                    throw new ApiException("Codi " + code + ": " + msg, code);
+                });
     }
 }
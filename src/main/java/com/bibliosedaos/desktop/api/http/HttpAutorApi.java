@@ -1,16 +1,16 @@
 package com.bibliosedaos.desktop.api.http;
 
+import com.bibliosedaos.desktop.api.ApiCall;
 import com.bibliosedaos.desktop.api.ApiClient;
 import com.bibliosedaos.desktop.api.ApiException;
 import com.bibliosedaos.desktop.api.AutorApi;
+import com.bibliosedaos.desktop.api.Endpoint;
 import com.bibliosedaos.desktop.model.Autor;
 
-import java.net.URI;
-import java.net.http.HttpRequest;
+import java.io.InputStream;
 import java.net.http.HttpResponse;
-import java.time.Duration;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implementacio HTTP real de AutorApi.
@@ -25,6 +25,12 @@ import java.util.List;
  */
 public class HttpAutorApi implements AutorApi {
 
+    // Endpoints
+    private static final Endpoint LLISTAR_AUTORS = Endpoint.get("/biblioteca/autors/llistarAutors");
+    private static final Endpoint AFEGIR_AUTOR = Endpoint.put("/biblioteca/autors/afegirAutor");
+    private static final Endpoint ELIMINAR_AUTOR = Endpoint.delete("/biblioteca/autors/eliminarAutor/{id}");
+    private static final Endpoint TROBAR_AUTOR_PER_ID = Endpoint.get("/biblioteca/autors/trobarAutorPerId/{id}");
+
     /**
      * Obte tots els autors del sistema.
      *
@@ -33,28 +39,37 @@ public class HttpAutorApi implements AutorApi {
      */
     @Override
     public List<Autor> getAllAutors() throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/autors/llistarAutors"))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            if (resp.statusCode() == 200) {
-                Autor[] arr = ApiClient.MAPPER.readValue(resp.body(), Autor[].class);
-                return Arrays.asList(arr);
-            } else {
-                throw new ApiException("Error obtenint autors: Codi " + resp.statusCode(), resp.statusCode());
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return getAllAutorsCall().execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getAllAutors()}.
+     *
+     * @return futur amb llista de tots els autors
+     */
+    @Override
+    public CompletableFuture<List<Autor>> getAllAutorsAsync() {
+        return getAllAutorsCall().executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #getAllAutors()}.
+     *
+     * @return crida preparada
+     */
+    private ApiCall<InputStream, List<Autor>> getAllAutorsCall() {
+        return ApiCall.of(
+                () -> LLISTAR_AUTORS.request(),
+                HttpResponse.BodyHandlers.ofInputStream(),
+                resp -> {
+                    try (InputStream body = resp.body()) {
+                        if (resp.statusCode() == 200) {
+                            return ApiClient.readList(body, Autor.class);
+                        } else {
+                            throw new ApiException("Error obtenint autors: Codi " + resp.statusCode(), resp.statusCode());
+                        }
+                    }
+                }).cached();
     }
 
     /**
@@ -66,30 +81,39 @@ public class HttpAutorApi implements AutorApi {
      */
     @Override
     public Autor createAutor(Autor autor) throws ApiException {
-        try {
-            String json = ApiClient.MAPPER.writeValueAsString(autor);
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/autors/afegirAutor"))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .PUT(HttpRequest.BodyPublishers.ofString(json))
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            String body = resp.body();
-            if (code == 200 || code == 201) {
-                return ApiClient.MAPPER.readValue(body, Autor.class);
-            } else {
-                throw new ApiException("Error creant autor: Codi " + code, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return createAutorCall(autor).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #createAutor(Autor)}.
+     *
+     * @param autor dades del nou autor
+     * @return futur amb autor creat amb el ID assignat
+     */
+    @Override
+    public CompletableFuture<Autor> createAutorAsync(Autor autor) {
+        return createAutorCall(autor).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #createAutor(Autor)}.
+     *
+     * @param autor dades del nou autor
+     * @return crida preparada
+     */
+    private ApiCall<String, Autor> createAutorCall(Autor autor) {
+        return ApiCall.of(
+                () -> AFEGIR_AUTOR.json(autor),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    int code = resp.statusCode();
+                    String body = resp.body();
+                    if (code == 200 || code == 201) {
+                        return ApiClient.readValue(body, Autor.class);
+                    } else {
+                        throw new ApiException("Error creant autor: Codi " + code, code);
+                    }
+                });
     }
 
     /**
@@ -100,25 +124,37 @@ public class HttpAutorApi implements AutorApi {
      */
     @Override
     public void deleteAutor(Long id) throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/autors/eliminarAutor/" + id))
-                            .timeout(Duration.ofSeconds(10))
-                            .DELETE()
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            if (resp.statusCode() != 200) {
-                String msg = ApiClient.extractErrorMessage(resp.body(), "Error eliminant autor");
-                throw new ApiException("Codi " + resp.statusCode() + ": " + msg, resp.statusCode());
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        deleteAutorCall(id).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #deleteAutor(Long)}.
+     *
+     * @param id ID de l'autor a eliminar
+     * @return futur completat quan acaba l'operacio
+     */
+    @Override
+    public CompletableFuture<Void> deleteAutorAsync(Long id) {
+        return deleteAutorCall(id).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #deleteAutor(Long)}.
+     *
+     * @param id ID de l'autor a eliminar
+     * @return crida preparada
+     */
+    private ApiCall<String, Void> deleteAutorCall(Long id) {
+        return ApiCall.of(
+                () -> ELIMINAR_AUTOR.request(id),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    if (resp.statusCode() != 200) {
+                        String msg = ApiClient.extractErrorMessage(resp.body(), "Error eliminant autor");
+                        throw new ApiException("Codi " + resp.statusCode() + ": " + msg, resp.statusCode());
+                    }
+                    return null;
+                });
     }
 
     /**
@@ -130,26 +166,36 @@ public class HttpAutorApi implements AutorApi {
      */
     @Override
     public Autor findAutorById(Long id) throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/autors/trobarAutorPerId/" + id))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            if (resp.statusCode() == 200) {
-                return ApiClient.MAPPER.readValue(resp.body(), Autor.class);
-            } else {
-                throw new ApiException("Autor no trobat: Codi " + resp.statusCode(), resp.statusCode());
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return findAutorByIdCall(id).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #findAutorById(Long)}.
+     *
+     * @param id ID de l'autor a obtenir
+     * @return futur amb autor amb totes les seves dades
+     */
+    @Override
+    public CompletableFuture<Autor> findAutorByIdAsync(Long id) {
+        return findAutorByIdCall(id).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #findAutorById(Long)}.
+     *
+     * @param id ID de l'autor a obtenir
+     * @return crida preparada
+     */
+    private ApiCall<String, Autor> findAutorByIdCall(Long id) {
+        return ApiCall.of(
+                () -> TROBAR_AUTOR_PER_ID.request(id),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    if (resp.statusCode() == 200) {
+                        return ApiClient.readValue(resp.body(), Autor.class);
+                    } else {
+                        throw new ApiException("Autor no trobat: Codi " + resp.statusCode(), resp.statusCode());
+                    }
+                });
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,16 @@
 package com.bibliosedaos.desktop.api.http;
 
+import com.bibliosedaos.desktop.api.ApiCall;
 import com.bibliosedaos.desktop.api.ApiClient;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.Endpoint;
 import com.bibliosedaos.desktop.api.ExemplarApi;
 import com.bibliosedaos.desktop.model.Exemplar;
 
-import java.net.URI;
-import java.net.URLEncoder;
-import java.net.http.HttpRequest;
+import java.io.InputStream;
 import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
-import java.time.Duration;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implementacio HTTP real de ExemplarApi.
@@ -27,6 +25,16 @@ import java.util.List;
  */
 public class HttpExemplarApi implements ExemplarApi {
 
+    // Endpoints
+    private static final Endpoint LLISTAR_EXEMPLARS = Endpoint.get("/biblioteca/exemplars/llistarExemplars");
+    private static final Endpoint LLISTAR_EXEMPLARS_LLIURES = Endpoint.get("/biblioteca/exemplars/llistarExemplarsLliures");
+    private static final Endpoint LLISTAR_EXEMPLARS_LLIURES_PER_TITOL = Endpoint.get("/biblioteca/exemplars/llistarExemplarsLliures?titol={titol}");
+    private static final Endpoint LLISTAR_EXEMPLARS_LLIURES_PER_AUTOR = Endpoint.get("/biblioteca/exemplars/llistarExemplarsLliures?autor={autor}");
+    private static final Endpoint AFEGIR_EXEMPLAR = Endpoint.put("/biblioteca/exemplars/afegirExemplar");
+    private static final Endpoint ACTUALITZAR_EXEMPLAR = Endpoint.put("/biblioteca/exemplars/actualitzarExemplar/{id}");
+    private static final Endpoint ELIMINAR_EXEMPLAR = Endpoint.delete("/biblioteca/exemplars/eliminarExemplar/{id}");
+    private static final Endpoint TROBAR_EXEMPLAR_PER_ID = Endpoint.get("/biblioteca/exemplars/trobarExemplarPerId/{id}");
+
     /**
      * Obte tots els exemplars del sistema.
      *
@@ -35,28 +43,37 @@ public class HttpExemplarApi implements ExemplarApi {
      */
     @Override
     public List<Exemplar> getAllExemplars() throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/exemplars/llistarExemplars"))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
+        return getAllExemplarsCall().execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getAllExemplars()}.
+     *
+     * @return futur amb llista de tots els exemplars
+     */
+    @Override
+    public CompletableFuture<List<Exemplar>> getAllExemplarsAsync() {
+        return getAllExemplarsCall().executeAsync();
+    }
 
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            if (resp.statusCode() == 200) {
-                Exemplar[] arr = ApiClient.MAPPER.readValue(resp.body(), Exemplar[].class);
-                return Arrays.asList(arr);
-            } else {
-                throw new ApiException("Error obtenint exemplars: Codi " + resp.statusCode(), resp.statusCode());
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+    /**
+     * Descriu la crida de {@link #getAllExemplars()}.
+     *
+     * @return crida preparada
+     */
+    private ApiCall<InputStream, List<Exemplar>> getAllExemplarsCall() {
+        return ApiCall.of(
+                () -> LLISTAR_EXEMPLARS.request(),
+                HttpResponse.BodyHandlers.ofInputStream(),
+                resp -> {
+                    try (InputStream body = resp.body()) {
+                        if (resp.statusCode() == 200) {
+                            return ApiClient.readList(body, Exemplar.class);
+                        } else {
+                            throw new ApiException("Error obtenint exemplars: Codi " + resp.statusCode(), resp.statusCode());
+                        }
+                    }
+                }).cached();
     }
 
     /**
@@ -67,28 +84,37 @@ public class HttpExemplarApi implements ExemplarApi {
      */
     @Override
     public List<Exemplar> getExemplarsLliures() throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/exemplars/llistarExemplarsLliures"))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
+        return getExemplarsLliuresCall().execute();
+    }
 
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            if (resp.statusCode() == 200) {
-                Exemplar[] arr = ApiClient.MAPPER.readValue(resp.body(), Exemplar[].class);
-                return Arrays.asList(arr);
-            } else {
-                throw new ApiException("Error obtenint exemplars lliures: Codi " + resp.statusCode(), resp.statusCode());
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+    /**
+     * Versio no bloquejant de {@link #getExemplarsLliures()}.
+     *
+     * @return futur amb llista d'exemplars disponibles
+     */
+    @Override
+    public CompletableFuture<List<Exemplar>> getExemplarsLliuresAsync() {
+        return getExemplarsLliuresCall().executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #getExemplarsLliures()}.
+     *
+     * @return crida preparada
+     */
+    private ApiCall<InputStream, List<Exemplar>> getExemplarsLliuresCall() {
+        return ApiCall.of(
+                () -> LLISTAR_EXEMPLARS_LLIURES.request(),
+                HttpResponse.BodyHandlers.ofInputStream(),
+                resp -> {
+                    try (InputStream body = resp.body()) {
+                        if (resp.statusCode() == 200) {
+                            return ApiClient.readList(body, Exemplar.class);
+                        } else {
+                            throw new ApiException("Error obtenint exemplars lliures: Codi " + resp.statusCode(), resp.statusCode());
+                        }
+                    }
+                });
     }
 
     /**
@@ -100,30 +126,39 @@ public class HttpExemplarApi implements ExemplarApi {
      */
     @Override
     public List<Exemplar> findExemplarsLliuresByTitol(String titol) throws ApiException {
-        try {
-            String q = URLEncoder.encode(titol == null ? "" : titol, StandardCharsets.UTF_8);
-            String uri = ApiClient.getBaseUrl() + "/biblioteca/exemplars/llistarExemplarsLliures?titol=" + q;
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(uri))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
+        return findExemplarsLliuresByTitolCall(titol).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #findExemplarsLliuresByTitol(String)}.
+     *
+     * @param titol titol del llibre a buscar
+     * @return futur amb llista d'exemplars lliures que coincideixen amb el titol
+     */
+    @Override
+    public CompletableFuture<List<Exemplar>> findExemplarsLliuresByTitolAsync(String titol) {
+        return findExemplarsLliuresByTitolCall(titol).executeAsync();
+    }
 
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            if (resp.statusCode() == 200) {
-                Exemplar[] arr = ApiClient.MAPPER.readValue(resp.body(), Exemplar[].class);
-                return Arrays.asList(arr);
-            } else {
-                throw new ApiException("Error buscant exemplars per titol: Codi " + resp.statusCode(), resp.statusCode());
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+    /**
+     * Descriu la crida de {@link #findExemplarsLliuresByTitol(String)}.
+     *
+     * @param titol titol del llibre a buscar
+     * @return crida preparada
+     */
+    private ApiCall<InputStream, List<Exemplar>> findExemplarsLliuresByTitolCall(String titol) {
+        return ApiCall.of(
+                () -> LLISTAR_EXEMPLARS_LLIURES_PER_TITOL.request(titol == null ? "" : titol),
+                HttpResponse.BodyHandlers.ofInputStream(),
+                resp -> {
+                    try (InputStream body = resp.body()) {
+                        if (resp.statusCode() == 200) {
+                            return ApiClient.readList(body, Exemplar.class);
+                        } else {
+                            throw new ApiException("Error buscant exemplars per titol: Codi " + resp.statusCode(), resp.statusCode());
+                        }
+                    }
+                });
     }
 
     /**
@@ -135,30 +170,39 @@ public class HttpExemplarApi implements ExemplarApi {
      */
     @Override
     public List<Exemplar> findExemplarsLliuresByAutorNom(String autorNom) throws ApiException {
-        try {
-            String q = URLEncoder.encode(autorNom == null ? "" : autorNom, StandardCharsets.UTF_8);
-            String uri = ApiClient.getBaseUrl() + "/biblioteca/exemplars/llistarExemplarsLliures?autor=" + q;
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(uri))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
+        return findExemplarsLliuresByAutorNomCall(autorNom).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #findExemplarsLliuresByAutorNom(String)}.
+     *
+     * @param autorNom nom de l'autor a buscar
+     * @return futur amb llista d'exemplars lliures que coincideixen amb l'autor
+     */
+    @Override
+    public CompletableFuture<List<Exemplar>> findExemplarsLliuresByAutorNomAsync(String autorNom) {
+        return findExemplarsLliuresByAutorNomCall(autorNom).executeAsync();
+    }
 
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            if (resp.statusCode() == 200) {
-                Exemplar[] arr = ApiClient.MAPPER.readValue(resp.body(), Exemplar[].class);
-                return Arrays.asList(arr);
-            } else {
-                throw new ApiException("Error buscant exemplars per autor: Codi " + resp.statusCode(), resp.statusCode());
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+    /**
+     * Descriu la crida de {@link #findExemplarsLliuresByAutorNom(String)}.
+     *
+     * @param autorNom nom de l'autor a buscar
+     * @return crida preparada
+     */
+    private ApiCall<InputStream, List<Exemplar>> findExemplarsLliuresByAutorNomCall(String autorNom) {
+        return ApiCall.of(
+                () -> LLISTAR_EXEMPLARS_LLIURES_PER_AUTOR.request(autorNom == null ? "" : autorNom),
+                HttpResponse.BodyHandlers.ofInputStream(),
+                resp -> {
+                    try (InputStream body = resp.body()) {
+                        if (resp.statusCode() == 200) {
+                            return ApiClient.readList(body, Exemplar.class);
+                        } else {
+                            throw new ApiException("Error buscant exemplars per autor: Codi " + resp.statusCode(), resp.statusCode());
+                        }
+                    }
+                });
     }
 
     /**
@@ -170,30 +214,39 @@ public class HttpExemplarApi implements ExemplarApi {
      */
     @Override
     public Exemplar createExemplar(Exemplar exemplar) throws ApiException {
-        try {
-            String json = ApiClient.MAPPER.writeValueAsString(exemplar);
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/exemplars/afegirExemplar"))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .PUT(HttpRequest.BodyPublishers.ofString(json))
-            ).build();
+        return createExemplarCall(exemplar).execute();
+    }
 
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            if (code == 200 || code == 201) {
-                return ApiClient.MAPPER.readValue(resp.body(), Exemplar.class);
-            } else {
-                String msg = ApiClient.extractErrorMessage(resp.body(), "Error creant exemplar");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+    /**
+     * Versio no bloquejant de {@link #createExemplar(Exemplar)}.
+     *
+     * @param exemplar dades del nou exemplar
+     * @return futur amb exemplar creat amb el ID assignat
+     */
+    @Override
+    public CompletableFuture<Exemplar> createExemplarAsync(Exemplar exemplar) {
+        return createExemplarCall(exemplar).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #createExemplar(Exemplar)}.
+     *
+     * @param exemplar dades del nou exemplar
+     * @return crida preparada
+     */
+    private ApiCall<String, Exemplar> createExemplarCall(Exemplar exemplar) {
+        return ApiCall.of(
+                () -> AFEGIR_EXEMPLAR.json(exemplar),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    int code = resp.statusCode();
+                    if (code == 200 || code == 201) {
+                        return ApiClient.readValue(resp.body(), Exemplar.class);
+                    } else {
+                        String msg = ApiClient.extractErrorMessage(resp.body(), "Error creant exemplar");
+                        throw new ApiException("Codi " + code + ": " + msg, code);
+                    }
+                });
     }
 
     /**
@@ -206,30 +259,41 @@ public class HttpExemplarApi implements ExemplarApi {
      */
     @Override
     public Exemplar updateExemplar(Long id, Exemplar exemplar) throws ApiException {
-        try {
-            String json = ApiClient.MAPPER.writeValueAsString(exemplar);
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/exemplars/actualitzarExemplar/" + id))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .PUT(HttpRequest.BodyPublishers.ofString(json))
-            ).build();
+        return updateExemplarCall(id, exemplar).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #updateExemplar(Long,Exemplar)}.
+     *
+     * @param id ID de l'exemplar a actualitzar
+     * @param exemplar dades actualitzades de l'exemplar
+     * @return futur amb exemplar actualitzat
+     */
+    @Override
+    public CompletableFuture<Exemplar> updateExemplarAsync(Long id, Exemplar exemplar) {
+        return updateExemplarCall(id, exemplar).executeAsync();
+    }
 
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            if (code == 200) {
-                return ApiClient.MAPPER.readValue(resp.body(), Exemplar.class);
-            } else {
-                String msg = ApiClient.extractErrorMessage(resp.body(), "Error actualitzant exemplar");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+    /**
+     * Descriu la crida de {@link #updateExemplar(Long,Exemplar)}.
+     *
+     * @param id ID de l'exemplar a actualitzar
+     * @param exemplar dades actualitzades de l'exemplar
+     * @return crida preparada
+     */
+    private ApiCall<String, Exemplar> updateExemplarCall(Long id, Exemplar exemplar) {
+        return ApiCall.of(
+                () -> ACTUALITZAR_EXEMPLAR.json(exemplar, id),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    int code = resp.statusCode();
+                    if (code == 200) {
+                        return ApiClient.readValue(resp.body(), Exemplar.class);
+                    } else {
+                        String msg = ApiClient.extractErrorMessage(resp.body(), "Error actualitzant exemplar");
+                        throw new ApiException("Codi " + code + ": " + msg, code);
+                    }
+                });
     }
 
     /**
@@ -240,26 +304,38 @@ public class HttpExemplarApi implements ExemplarApi {
      */
     @Override
     public void deleteExemplar(Long id) throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/exemplars/eliminarExemplar/" + id))
-                            .timeout(Duration.ofSeconds(10))
-                            .DELETE()
-            ).build();
+        deleteExemplarCall(id).execute();
+    }
 
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            if (code != 200) {
-                String msg = ApiClient.extractErrorMessage(resp.body(), "Error eliminant exemplar");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+    /**
+     * Versio no bloquejant de {@link #deleteExemplar(Long)}.
+     *
+     * @param id ID de l'exemplar a eliminar
+     * @return futur completat quan acaba l'operacio
+     */
+    @Override
+    public CompletableFuture<Void> deleteExemplarAsync(Long id) {
+        return deleteExemplarCall(id).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #deleteExemplar(Long)}.
+     *
+     * @param id ID de l'exemplar a eliminar
+     * @return crida preparada
+     */
+    private ApiCall<String, Void> deleteExemplarCall(Long id) {
+        return ApiCall.of(
+                () -> ELIMINAR_EXEMPLAR.request(id),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    int code = resp.statusCode();
+                    if (code != 200) {
+                        String msg = ApiClient.extractErrorMessage(resp.body(), "Error eliminant exemplar");
+                        throw new ApiException("Codi " + code + ": " + msg, code);
+                    }
+                    return null;
+                });
     }
 
     /**
@@ -271,26 +347,36 @@ public class HttpExemplarApi implements ExemplarApi {
      */
     @Override
     public Exemplar findExemplarById(Long id) throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/exemplars/trobarExemplarPerId/" + id))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
+        return findExemplarByIdCall(id).execute();
+    }
 
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            if (resp.statusCode() == 200) {
-                return ApiClient.MAPPER.readValue(resp.body(), Exemplar.class);
-            } else {
-                throw new ApiException("Exemplar no trobat: Codi " + resp.statusCode(), resp.statusCode());
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+    /**
+     * Versio no bloquejant de {@link #findExemplarById(Long)}.
+     *
+     * @param id ID de l'exemplar a obtenir
+     * @return futur amb exemplar amb totes les seves dades
+     */
+    @Override
+    public CompletableFuture<Exemplar> findExemplarByIdAsync(Long id) {
+        return findExemplarByIdCall(id).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #findExemplarById(Long)}.
+     *
+     * @param id ID de l'exemplar a obtenir
+     * @return crida preparada
+     */
+    private ApiCall<String, Exemplar> findExemplarByIdCall(Long id) {
+        return ApiCall.of(
+                () -> TROBAR_EXEMPLAR_PER_ID.request(id),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    if (resp.statusCode() == 200) {
+                        return ApiClient.readValue(resp.body(), Exemplar.class);
+                    } else {
+                        throw new ApiException("Exemplar no trobat: Codi " + resp.statusCode(), resp.statusCode());
+                    }
+                }).hedged();
     }
 }
\ No newline at end of file
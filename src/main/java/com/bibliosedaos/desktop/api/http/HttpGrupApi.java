@@ -1,17 +1,17 @@
 package com.bibliosedaos.desktop.api.http;
 
+import com.bibliosedaos.desktop.api.ApiCall;
 import com.bibliosedaos.desktop.api.ApiClient;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.Endpoint;
 import com.bibliosedaos.desktop.api.GrupApi;
 import com.bibliosedaos.desktop.model.Grup;
 import com.bibliosedaos.desktop.model.User;
 
-import java.net.URI;
-import java.net.http.HttpRequest;
+import java.io.InputStream;
 import java.net.http.HttpResponse;
-import java.time.Duration;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implementacio HTTP real de GrupApi.
@@ -26,7 +26,13 @@ import java.util.List;
  */
 public class HttpGrupApi implements GrupApi {
 
-    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    // Endpoints
+    private static final Endpoint LLISTAR_GRUPS = Endpoint.get("/biblioteca/grups/llistarGrups");
+    private static final Endpoint AFEGIR_GRUP = Endpoint.post("/biblioteca/grups/afegirGrup");
+    private static final Endpoint ELIMINAR_GRUP = Endpoint.delete("/biblioteca/grups/eliminarGrup/{grupId}");
+    private static final Endpoint AFEGIR_USUARI_GRUP = Endpoint.put("/biblioteca/grups/{grupId}/afegirUsuariGrup/{membreId}");
+    private static final Endpoint LLISTAR_USUARIS_GRUP = Endpoint.get("/biblioteca/grups/llistarUsuarisGrup/{grupId}");
+    private static final Endpoint SORTIR_USUARI = Endpoint.delete("/biblioteca/grups/{grupId}/sortirUsuari/{membreId}");
 
     /**
      * Obte tots els grups del sistema.
@@ -36,31 +42,38 @@ public class HttpGrupApi implements GrupApi {
      */
     @Override
     public List<Grup> getAllGrups() throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/grups/llistarGrups"))
-                            .timeout(TIMEOUT)
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            if (resp.statusCode() == 200) {
-                Grup[] arr = ApiClient.MAPPER.readValue(resp.body(), Grup[].class);
-                return Arrays.asList(arr);
-            } else {
-                String msg = ApiClient.extractErrorMessage(resp.body(), "Error obtenint llista de grups");
-                throw new ApiException("Codi " + resp.statusCode() + ": " + msg, resp.statusCode());
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (ApiException a) {
-            throw a;
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return getAllGrupsCall().execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getAllGrups()}.
+     *
+     * @return futur amb llista de tots els grups
+     */
+    @Override
+    public CompletableFuture<List<Grup>> getAllGrupsAsync() {
+        return getAllGrupsCall().executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #getAllGrups()}.
+     *
+     * @return crida preparada
+     */
+    private ApiCall<InputStream, List<Grup>> getAllGrupsCall() {
+        return ApiCall.of(
+                () -> LLISTAR_GRUPS.request(),
+                HttpResponse.BodyHandlers.ofInputStream(),
+                resp -> {
+                    try (InputStream body = resp.body()) {
+                        if (resp.statusCode() == 200) {
+                            return ApiClient.readList(body, Grup.class);
+                        } else {
+                            String msg = ApiClient.extractErrorMessage(ApiClient.readBody(body), "Error obtenint llista de grups");
+                            throw new ApiException("Codi " + resp.statusCode() + ": " + msg, resp.statusCode());
+                        }
+                    }
+                });
     }
 
     /**
@@ -72,32 +85,39 @@ public class HttpGrupApi implements GrupApi {
      */
     @Override
     public Grup createGrup(Grup grup) throws ApiException {
-        try {
-            String json = ApiClient.MAPPER.writeValueAsString(grup);
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/grups/afegirGrup"))
-                            .timeout(TIMEOUT)
-                            .header("Content-Type", "application/json")
-                            .POST(HttpRequest.BodyPublishers.ofString(json))
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            if (code == 201 || code == 200) {
-                return ApiClient.MAPPER.readValue(resp.body(), Grup.class);
-            } else {
-                String msg = ApiClient.extractErrorMessage(resp.body(), "Error creant grup");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (ApiException a) {
-            throw a;
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return createGrupCall(grup).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #createGrup(Grup)}.
+     *
+     * @param grup dades del nou grup
+     * @return futur amb grup creat amb el ID assignat
+     */
+    @Override
+    public CompletableFuture<Grup> createGrupAsync(Grup grup) {
+        return createGrupCall(grup).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #createGrup(Grup)}.
+     *
+     * @param grup dades del nou grup
+     * @return crida preparada
+     */
+    private ApiCall<String, Grup> createGrupCall(Grup grup) {
+        return ApiCall.of(
+                () -> AFEGIR_GRUP.json(grup),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    int code = resp.statusCode();
+                    if (code == 201 || code == 200) {
+                        return ApiClient.readValue(resp.body(), Grup.class);
+                    } else {
+                        String msg = ApiClient.extractErrorMessage(resp.body(), "Error creant grup");
+                        throw new ApiException("Codi " + code + ": " + msg, code);
+                    }
+                });
     }
 
     /**
@@ -108,26 +128,38 @@ public class HttpGrupApi implements GrupApi {
      */
     @Override
     public void deleteGrup(Long grupId) throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/grups/eliminarGrup/" + grupId))
-                            .timeout(TIMEOUT)
-                            .DELETE()
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            if (code != 200) {
-                String msg = ApiClient.extractErrorMessage(resp.body(), "Error eliminant grup");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        deleteGrupCall(grupId).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #deleteGrup(Long)}.
+     *
+     * @param grupId ID del grup a eliminar
+     * @return futur completat quan acaba l'operacio
+     */
+    @Override
+    public CompletableFuture<Void> deleteGrupAsync(Long grupId) {
+        return deleteGrupCall(grupId).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #deleteGrup(Long)}.
+     *
+     * @param grupId ID del grup a eliminar
+     * @return crida preparada
+     */
+    private ApiCall<String, Void> deleteGrupCall(Long grupId) {
+        return ApiCall.of(
+                () -> ELIMINAR_GRUP.request(grupId),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    int code = resp.statusCode();
+                    if (code != 200) {
+                        String msg = ApiClient.extractErrorMessage(resp.body(), "Error eliminant grup");
+                        throw new ApiException("Codi " + code + ": " + msg, code);
+                    }
+                    return null;
+                });
     }
 
     /**
@@ -140,30 +172,42 @@ public class HttpGrupApi implements GrupApi {
      */
     @Override
     public Grup afegirUsuariGrup(Long grupId, Long membreId) throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/grups/" + grupId + "/afegirUsuariGrup/" + membreId))
-                            .timeout(TIMEOUT)
-                            .header("Content-Type", "application/json")
-                            .PUT(HttpRequest.BodyPublishers.noBody())
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            if (code == 200) {
-                return ApiClient.MAPPER.readValue(resp.body(), Grup.class);
-            } else {
-                String msg = ApiClient.extractErrorMessage(resp.body(), "Error afegint membre al grup");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return afegirUsuariGrupCall(grupId, membreId).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #afegirUsuariGrup(Long,Long)}.
+     *
+     * @param grupId ID del grup al que s'afegira l'usuari
+     * @param membreId ID de l'usuari a afegir
+     * @return futur amb grup actualitzat amb el nou membre
+     */
+    @Override
+    public CompletableFuture<Grup> afegirUsuariGrupAsync(Long grupId, Long membreId) {
+        return afegirUsuariGrupCall(grupId, membreId).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #afegirUsuariGrup(Long,Long)}.
+     *
+     * @param grupId ID del grup al que s'afegira l'usuari
+     * @param membreId ID de l'usuari a afegir
+     * @return crida preparada
+     */
+    private ApiCall<String, Grup> afegirUsuariGrupCall(Long grupId, Long membreId) {
+        return ApiCall.of(
+                () -> AFEGIR_USUARI_GRUP.request(grupId, membreId),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    int code = resp.statusCode();
+                    if (code == 200) {
+                        return ApiClient.readValue(resp.body(), Grup.class);
+                    } else {
+                        String msg = ApiClient.extractErrorMessage(resp.body(), "Error afegint membre al grup");
+                        throw new ApiException("Codi " + code + ": " + msg, code);
+                    }
+
+                });
     }
 
     /**
@@ -175,30 +219,41 @@ public class HttpGrupApi implements GrupApi {
      */
     @Override
     public List<User> getMembresGrup(Long grupId) throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/grups/llistarUsuarisGrup/" + grupId))
-                            .timeout(TIMEOUT)
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            if (code == 200) {
-                User[] arr = ApiClient.MAPPER.readValue(resp.body(), User[].class);
-                return Arrays.asList(arr);
-            } else {
-                String msg = ApiClient.extractErrorMessage(resp.body(), "Error obtenint membres del grup");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return getMembresGrupCall(grupId).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getMembresGrup(Long)}.
+     *
+     * @param grupId ID del grup del que obtenir els membres
+     * @return futur amb llista de membres del grup
+     */
+    @Override
+    public CompletableFuture<List<User>> getMembresGrupAsync(Long grupId) {
+        return getMembresGrupCall(grupId).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #getMembresGrup(Long)}.
+     *
+     * @param grupId ID del grup del que obtenir els membres
+     * @return crida preparada
+     */
+    private ApiCall<InputStream, List<User>> getMembresGrupCall(Long grupId) {
+        return ApiCall.of(
+                () -> LLISTAR_USUARIS_GRUP.request(grupId),
+                HttpResponse.BodyHandlers.ofInputStream(),
+                resp -> {
+                    int code = resp.statusCode();
+                    try (InputStream body = resp.body()) {
+                        if (code == 200) {
+                            return ApiClient.readList(body, User.class);
+                        } else {
+                            String msg = ApiClient.extractErrorMessage(ApiClient.readBody(body), "Error obtenint membres del grup");
+                            throw new ApiException("Codi " + code + ": " + msg, code);
+                        }
+                    }
+                });
     }
 
     /**
@@ -210,25 +265,39 @@ public class HttpGrupApi implements GrupApi {
      */
     @Override
     public void sortirUsuari(Long grupId, Long membreId) throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/grups/" + grupId + "/sortirUsuari/" + membreId))
-                            .timeout(TIMEOUT)
-                            .DELETE()
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            if (code != 200) {
-                String msg = ApiClient.extractErrorMessage(resp.body(), "Error eliminant usuari del grup");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        sortirUsuariCall(grupId, membreId).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #sortirUsuari(Long,Long)}.
+     *
+     * @param grupId ID del grup del que sortir
+     * @param membreId ID de l'usuari a eliminar del grup
+     * @return futur completat quan acaba l'operacio
+     */
+    @Override
+    public CompletableFuture<Void> sortirUsuariAsync(Long grupId, Long membreId) {
+        return sortirUsuariCall(grupId, membreId).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #sortirUsuari(Long,Long)}.
+     *
+     * @param grupId ID del grup del que sortir
+     * @param membreId ID de l'usuari a eliminar del grup
+     * @return crida preparada
+     */
+    private ApiCall<String, Void> sortirUsuariCall(Long grupId, Long membreId) {
+        return ApiCall.of(
+                () -> SORTIR_USUARI.request(grupId, membreId),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    int code = resp.statusCode();
+                    if (code != 200) {
+                        String msg = ApiClient.extractErrorMessage(resp.body(), "Error eliminant usuari del grup");
+                        throw new ApiException("Codi " + code + ": " + msg, code);
+                    }
+                    return null;
+                });
     }
 }
\ No newline at end of file
@@ -1,16 +1,16 @@
 package com.bibliosedaos.desktop.api.http;
 
+import com.bibliosedaos.desktop.api.ApiCall;
 import com.bibliosedaos.desktop.api.ApiClient;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.Endpoint;
 import com.bibliosedaos.desktop.api.HorariApi;
 import com.bibliosedaos.desktop.model.Horari;
 
-import java.net.URI;
-import java.net.http.HttpRequest;
+import java.io.InputStream;
 import java.net.http.HttpResponse;
-import java.time.Duration;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implementacio HTTP real de HorariApi.
@@ -25,7 +25,9 @@ import java.util.List;
  */
 public class HttpHorariApi implements HorariApi {
 
-    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    // Endpoints
+    private static final Endpoint LLISTAR_HORARIS_SALES = Endpoint.get("/biblioteca/horaris/llistarHorarisSales");
+    private static final Endpoint AFEGIR_HORARI = Endpoint.post("/biblioteca/horaris/afegirHorari");
 
     /**
      * Obte tots els horaris del sistema.
@@ -35,29 +37,38 @@ public class HttpHorariApi implements HorariApi {
      */
     @Override
     public List<Horari> getAllHoraris() throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/horaris/llistarHorarisSales"))
-                            .timeout(TIMEOUT)
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
+        return getAllHorarisCall().execute();
+    }
 
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            if (resp.statusCode() == 200) {
-                Horari[] arr = ApiClient.MAPPER.readValue(resp.body(), Horari[].class);
-                return Arrays.asList(arr);
-            } else {
-                String msg = ApiClient.extractErrorMessage(resp.body(), "Error obtenint horaris");
-                throw new ApiException("Codi " + resp.statusCode() + ": " + msg, resp.statusCode());
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+    /**
+     * Versio no bloquejant de {@link #getAllHoraris()}.
+     *
+     * @return futur amb llista de tots els horaris
+     */
+    @Override
+    public CompletableFuture<List<Horari>> getAllHorarisAsync() {
+        return getAllHorarisCall().executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #getAllHoraris()}.
+     *
+     * @return crida preparada
+     */
+    private ApiCall<InputStream, List<Horari>> getAllHorarisCall() {
+        return ApiCall.of(
+                () -> LLISTAR_HORARIS_SALES.request(),
+                HttpResponse.BodyHandlers.ofInputStream(),
+                resp -> {
+                    try (InputStream body = resp.body()) {
+                        if (resp.statusCode() == 200) {
+                            return ApiClient.readList(body, Horari.class);
+                        } else {
+                            String msg = ApiClient.extractErrorMessage(ApiClient.readBody(body), "Error obtenint horaris");
+                            throw new ApiException("Codi " + resp.statusCode() + ": " + msg, resp.statusCode());
+                        }
+                    }
+                }).cached();
     }
 
     /**
@@ -69,29 +80,38 @@ public class HttpHorariApi implements HorariApi {
      */
     @Override
     public Horari createHorari(Horari horari) throws ApiException {
-        try {
-            String json = ApiClient.MAPPER.writeValueAsString(horari);
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/horaris/afegirHorari"))
-                            .timeout(TIMEOUT)
-                            .header("Content-Type", "application/json")
-                            .POST(HttpRequest.BodyPublishers.ofString(json))
-            ).build();
+        return createHorariCall(horari).execute();
+    }
 
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            if (code == 200 || code == 201) {
-                return ApiClient.MAPPER.readValue(resp.body(), Horari.class);
-            } else {
-                String msg = ApiClient.extractErrorMessage(resp.body(), "Error creant horari");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+    /**
+     * Versio no bloquejant de {@link #createHorari(Horari)}.
+     *
+     * @param horari dades del nou horari
+     * @return futur amb horari creat amb el ID assignat
+     */
+    @Override
+    public CompletableFuture<Horari> createHorariAsync(Horari horari) {
+        return createHorariCall(horari).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #createHorari(Horari)}.
+     *
+     * @param horari dades del nou horari
+     * @return crida preparada
+     */
+    private ApiCall<String, Horari> createHorariCall(Horari horari) {
+        return ApiCall.of(
+                () -> AFEGIR_HORARI.json(horari),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    int code = resp.statusCode();
+                    if (code == 200 || code == 201) {
+                        return ApiClient.readValue(resp.body(), Horari.class);
+                    } else {
+                        String msg = ApiClient.extractErrorMessage(resp.body(), "Error creant horari");
+                        throw new ApiException("Codi " + code + ": " + msg, code);
+                    }
+                });
     }
-}
\ No newline at end of file
+}
@@ -1,21 +1,24 @@
 package com.bibliosedaos.desktop.api.http;
 
+import com.bibliosedaos.desktop.api.ApiCall;
 import com.bibliosedaos.desktop.api.ApiClient;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.Endpoint;
 import com.bibliosedaos.desktop.api.LlibreApi;
 import com.bibliosedaos.desktop.model.Llibre;
 
-import java.net.URI;
-import java.net.http.HttpRequest;
+import java.io.InputStream;
 import java.net.http.HttpResponse;
-import java.time.Duration;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implementacio HTTP real de LlibreApi.
  * Gestiona les crides al servidor per a operacions de llibres.
  *
+ * Cada operacio es descriu una sola vegada com a {@link ApiCall} i s'executa
+ * de forma bloquejant o asincrona segons el metode cridat.
+ *
  * Assistencia d'IA: fragments de codi generat / proposat / refactoritzat per ChatGPT-5 i DeepSeek.
  * S'ha revisat i adaptat manualment per l'autor. Veure llegeixme.pdf per detalls.
  *
@@ -25,6 +28,13 @@ import java.util.List;
  */
 public class HttpLlibreApi implements LlibreApi {
 
+    // Endpoints
+    private static final Endpoint LLISTAR_LLIBRES = Endpoint.get("/biblioteca/llibres/llistarLlibres");
+    private static final Endpoint AFEGIR_LLIBRE = Endpoint.put("/biblioteca/llibres/afegirLlibre");
+    private static final Endpoint ACTUALITZAR_LLIBRE = Endpoint.put("/biblioteca/llibres/actualitzarLlibre/{id}");
+    private static final Endpoint ELIMINAR_LLIBRE = Endpoint.delete("/biblioteca/llibres/eliminarLlibre/{id}");
+    private static final Endpoint TROBAR_LLIBRE_PER_ID = Endpoint.get("/biblioteca/llibres/trobarLlibrePerId/{id}");
+
     /**
      * Obte tots els llibres del sistema.
      *
@@ -33,32 +43,38 @@ public class HttpLlibreApi implements LlibreApi {
      */
     @Override
     public List<Llibre> getAllLlibres() throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/llibres/llistarLlibres"))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            String body = resp.body();
-            if (code == 200) {
-                Llibre[] arr = ApiClient.MAPPER.readValue(body, Llibre[].class);
-                return Arrays.asList(arr);
-            } else {
-                throw new ApiException("Error obtenint llista de llibres: Codi " + code, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (ApiException a) {
-            throw a;
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return getAllLlibresCall().execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getAllLlibres()}.
+     *
+     * @return futur amb llista de tots els llibres
+     */
+    @Override
+    public CompletableFuture<List<Llibre>> getAllLlibresAsync() {
+        return getAllLlibresCall().executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #getAllLlibres()}.
+     *
+     * @return crida preparada
+     */
+    private ApiCall<InputStream, List<Llibre>> getAllLlibresCall() {
+        return ApiCall.of(
+                () -> LLISTAR_LLIBRES.request(),
+                HttpResponse.BodyHandlers.ofInputStream(),
+                resp -> {
+                    int code = resp.statusCode();
+                    try (InputStream body = resp.body()) {
+                        if (code == 200) {
+                            return ApiClient.readList(body, Llibre.class);
+                        } else {
+                            throw new ApiException("Error obtenint llista de llibres: Codi " + code, code);
+                        }
+                    }
+                }).cached();
     }
 
     /**
@@ -70,33 +86,40 @@ public class HttpLlibreApi implements LlibreApi {
      */
     @Override
     public Llibre createLlibre(Llibre llibre) throws ApiException {
-        try {
-            String json = ApiClient.MAPPER.writeValueAsString(llibre);
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/llibres/afegirLlibre"))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .PUT(HttpRequest.BodyPublishers.ofString(json))
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            String body = resp.body();
-            if (code == 200 || code == 201) {
-                return ApiClient.MAPPER.readValue(body, Llibre.class);
-            } else {
-                String msg = ApiClient.extractErrorMessage(body, "Error creant llibre");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (ApiException a) {
-            throw a;
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return createLlibreCall(llibre).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #createLlibre(Llibre)}.
+     *
+     * @param llibre dades del nou llibre
+     * @return futur amb llibre creat amb el ID assignat
+     */
+    @Override
+    public CompletableFuture<Llibre> createLlibreAsync(Llibre llibre) {
+        return createLlibreCall(llibre).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #createLlibre(Llibre)}.
+     *
+     * @param llibre dades del nou llibre
+     * @return crida preparada
+     */
+    private ApiCall<String, Llibre> createLlibreCall(Llibre llibre) {
+        return ApiCall.of(
+                () -> AFEGIR_LLIBRE.json(llibre),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    int code = resp.statusCode();
+                    String body = resp.body();
+                    if (code == 200 || code == 201) {
+                        return ApiClient.readValue(body, Llibre.class);
+                    } else {
+                        String msg = ApiClient.extractErrorMessage(body, "Error creant llibre");
+                        throw new ApiException("Codi " + code + ": " + msg, code);
+                    }
+                });
     }
 
     /**
@@ -109,33 +132,42 @@ public class HttpLlibreApi implements LlibreApi {
      */
     @Override
     public Llibre updateLlibre(Long id, Llibre llibre) throws ApiException {
-        try {
-            String json = ApiClient.MAPPER.writeValueAsString(llibre);
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/llibres/actualitzarLlibre/" + id))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .PUT(HttpRequest.BodyPublishers.ofString(json))
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            String body = resp.body();
-            if (code == 200) {
-                return ApiClient.MAPPER.readValue(body, Llibre.class);
-            } else {
-                String msg = ApiClient.extractErrorMessage(body, "Error actualitzant llibre");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (ApiException a) {
-            throw a;
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return updateLlibreCall(id, llibre).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #updateLlibre(Long,Llibre)}.
+     *
+     * @param id ID del llibre a actualitzar
+     * @param llibre dades actualitzades del llibre
+     * @return futur amb llibre actualitzat
+     */
+    @Override
+    public CompletableFuture<Llibre> updateLlibreAsync(Long id, Llibre llibre) {
+        return updateLlibreCall(id, llibre).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #updateLlibre(Long,Llibre)}.
+     *
+     * @param id ID del llibre a actualitzar
+     * @param llibre dades actualitzades del llibre
+     * @return crida preparada
+     */
+    private ApiCall<String, Llibre> updateLlibreCall(Long id, Llibre llibre) {
+        return ApiCall.of(
+                () -> ACTUALITZAR_LLIBRE.json(llibre, id),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    int code = resp.statusCode();
+                    String body = resp.body();
+                    if (code == 200) {
+                        return ApiClient.readValue(body, Llibre.class);
+                    } else {
+                        String msg = ApiClient.extractErrorMessage(body, "Error actualitzant llibre");
+                        throw new ApiException("Codi " + code + ": " + msg, code);
+                    }
+                });
     }
 
     /**
@@ -146,28 +178,38 @@ public class HttpLlibreApi implements LlibreApi {
      */
     @Override
     public void deleteLlibre(Long id) throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/llibres/eliminarLlibre/" + id))
-                            .timeout(Duration.ofSeconds(10))
-                            .DELETE()
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            if (code != 200) {
-                String msg = ApiClient.extractErrorMessage(resp.body(), "Error eliminant llibre");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (ApiException a) {
-            throw a;
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        deleteLlibreCall(id).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #deleteLlibre(Long)}.
+     *
+     * @param id ID del llibre a eliminar
+     * @return futur completat quan acaba l'operacio
+     */
+    @Override
+    public CompletableFuture<Void> deleteLlibreAsync(Long id) {
+        return deleteLlibreCall(id).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #deleteLlibre(Long)}.
+     *
+     * @param id ID del llibre a eliminar
+     * @return crida preparada
+     */
+    private ApiCall<String, Void> deleteLlibreCall(Long id) {
+        return ApiCall.of(
+                () -> ELIMINAR_LLIBRE.request(id),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    int code = resp.statusCode();
+                    if (code != 200) {
+                        String msg = ApiClient.extractErrorMessage(resp.body(), "Error eliminant llibre");
+                        throw new ApiException("Codi " + code + ": " + msg, code);
+                    }
+                    return null;
+                });
     }
 
     /**
@@ -179,31 +221,39 @@ public class HttpLlibreApi implements LlibreApi {
      */
     @Override
     public Llibre findLlibreById(Long id) throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/llibres/trobarLlibrePerId/" + id))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            String body = resp.body();
-            if (code == 200) {
-                return ApiClient.MAPPER.readValue(body, Llibre.class);
-            } else {
-                String msg = ApiClient.extractErrorMessage(body, "Llibre no trobat");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (ApiException a) {
-            throw a;
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return findLlibreByIdCall(id).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #findLlibreById(Long)}.
+     *
+     * @param id ID del llibre a obtenir
+     * @return futur amb llibre amb totes les seves dades
+     */
+    @Override
+    public CompletableFuture<Llibre> findLlibreByIdAsync(Long id) {
+        return findLlibreByIdCall(id).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #findLlibreById(Long)}.
+     *
+     * @param id ID del llibre a obtenir
+     * @return crida preparada
+     */
+    private ApiCall<String, Llibre> findLlibreByIdCall(Long id) {
+        return ApiCall.of(
+                () -> TROBAR_LLIBRE_PER_ID.request(id),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    int code = resp.statusCode();
+                    String body = resp.body();
+                    if (code == 200) {
+                        return ApiClient.readValue(body, Llibre.class);
+                    } else {
+                        String msg = ApiClient.extractErrorMessage(body, "Llibre no trobat");
+                        throw new ApiException("Codi " + code + ": " + msg, code);
+                    }
+                }).hedged();
     }
-}
\ No newline at end of file
+}
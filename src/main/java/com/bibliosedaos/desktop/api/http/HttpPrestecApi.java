@@ -1,20 +1,18 @@
 package com.bibliosedaos.desktop.api.http;
 
+import com.bibliosedaos.desktop.api.ApiCall;
 import com.bibliosedaos.desktop.api.ApiClient;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.Endpoint;
 import com.bibliosedaos.desktop.api.PrestecApi;
 import com.bibliosedaos.desktop.model.Prestec;
 
-import java.net.URI;
-import java.net.URLEncoder;
-import java.net.http.HttpRequest;
+import java.io.InputStream;
 import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
-import java.time.Duration;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implementacio HTTP real de PrestecApi.
@@ -29,6 +27,12 @@ import java.util.Map;
  */
 public class HttpPrestecApi implements PrestecApi {
 
+    // Endpoints
+    private static final Endpoint LLISTAR_PRESTECS = Endpoint.get("/biblioteca/prestecs/llistarPrestecs?usuariId={usuariId}");
+    private static final Endpoint LLISTAR_PRESTECS_ACTIUS = Endpoint.get("/biblioteca/prestecs/llistarPrestecsActius?usuariId={usuariId}");
+    private static final Endpoint AFEGIR_PRESTEC = Endpoint.post("/biblioteca/prestecs/afegirPrestec");
+    private static final Endpoint FER_DEVOLUCIO = Endpoint.put("/biblioteca/prestecs/ferDevolucio/{prestecId}");
+
     /**
      * Obte tots els prestecs del sistema.
      *
@@ -38,36 +42,41 @@ public class HttpPrestecApi implements PrestecApi {
      */
     @Override
     public List<Prestec> getAllPrestecs(Long usuariId) throws ApiException {
-        try {
-            String uri = ApiClient.getBaseUrl() + "/biblioteca/prestecs/llistarPrestecs";
-            if (usuariId != null) {
-                uri += "?usuariId=" + URLEncoder.encode(String.valueOf(usuariId), StandardCharsets.UTF_8);
-            }
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(uri))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            if (code == 200) {
-                Prestec[] arr = ApiClient.MAPPER.readValue(resp.body(), Prestec[].class);
-                return Arrays.asList(arr);
-            } else {
-                String msg = ApiClient.extractErrorMessage(resp.body(), "Error obtenint prestecs");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (ApiException a) {
-            throw a;
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return getAllPrestecsCall(usuariId).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getAllPrestecs(Long)}.
+     *
+     * @param usuariId ID de l'usuari per filtrar (opcional, pot ser null)
+     * @return futur amb llista de tots els prestecs
+     */
+    @Override
+    public CompletableFuture<List<Prestec>> getAllPrestecsAsync(Long usuariId) {
+        return getAllPrestecsCall(usuariId).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #getAllPrestecs(Long)}.
+     *
+     * @param usuariId ID de l'usuari per filtrar (opcional, pot ser null)
+     * @return crida preparada
+     */
+    private ApiCall<InputStream, List<Prestec>> getAllPrestecsCall(Long usuariId) {
+        return ApiCall.of(
+                () -> LLISTAR_PRESTECS.request(usuariId),
+                HttpResponse.BodyHandlers.ofInputStream(),
+                resp -> {
+                    int code = resp.statusCode();
+                    try (InputStream body = resp.body()) {
+                        if (code == 200) {
+                            return ApiClient.readList(body, Prestec.class);
+                        } else {
+                            String msg = ApiClient.extractErrorMessage(ApiClient.readBody(body), "Error obtenint prestecs");
+                            throw new ApiException("Codi " + code + ": " + msg, code);
+                        }
+                    }
+                });
     }
 
     /**
@@ -79,36 +88,41 @@ public class HttpPrestecApi implements PrestecApi {
      */
     @Override
     public List<Prestec> getPrestecsActius(Long usuariId) throws ApiException {
-        try {
-            String uri = ApiClient.getBaseUrl() + "/biblioteca/prestecs/llistarPrestecsActius";
-            if (usuariId != null) {
-                uri += "?usuariId=" + URLEncoder.encode(String.valueOf(usuariId), StandardCharsets.UTF_8);
-            }
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(uri))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            if (code == 200) {
-                Prestec[] arr = ApiClient.MAPPER.readValue(resp.body(), Prestec[].class);
-                return Arrays.asList(arr);
-            } else {
-                String msg = ApiClient.extractErrorMessage(resp.body(), "Error obtenint prestecs actius");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (ApiException a) {
-            throw a;
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return getPrestecsActiusCall(usuariId).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getPrestecsActius(Long)}.
+     *
+     * @param usuariId ID de l'usuari per filtrar (opcional, pot ser null)
+     * @return futur amb llista de prestecs actius
+     */
+    @Override
+    public CompletableFuture<List<Prestec>> getPrestecsActiusAsync(Long usuariId) {
+        return getPrestecsActiusCall(usuariId).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #getPrestecsActius(Long)}.
+     *
+     * @param usuariId ID de l'usuari per filtrar (opcional, pot ser null)
+     * @return crida preparada
+     */
+    private ApiCall<InputStream, List<Prestec>> getPrestecsActiusCall(Long usuariId) {
+        return ApiCall.of(
+                () -> LLISTAR_PRESTECS_ACTIUS.request(usuariId),
+                HttpResponse.BodyHandlers.ofInputStream(),
+                resp -> {
+                    int code = resp.statusCode();
+                    try (InputStream body = resp.body()) {
+                        if (code == 200) {
+                            return ApiClient.readList(body, Prestec.class);
+                        } else {
+                            String msg = ApiClient.extractErrorMessage(ApiClient.readBody(body), "Error obtenint prestecs actius");
+                            throw new ApiException("Codi " + code + ": " + msg, code);
+                        }
+                    }
+                });
     }
 
     /**
@@ -120,59 +134,67 @@ public class HttpPrestecApi implements PrestecApi {
      */
     @Override
     public Prestec createPrestec(Prestec prestec) throws ApiException {
-        try {
-            // Enviem un JSON lleuger amb els ids
-            Map<String,Object> payload = new HashMap<>();
-            if (prestec.getDataPrestec() != null) {
-                payload.put("dataPrestec", prestec.getDataPrestec().toString());
-            }
-            // enviar usuari mínim
-            Map<String,Object> usuariMap = new HashMap<>();
-            if (prestec.getUsuari() != null && prestec.getUsuari().getId() != null) {
-                usuariMap.put("id", prestec.getUsuari().getId());
-            } else {
-                throw new ApiException("Usuari o usuari.id no poden ser null per crear Prestec");
-            }
-            payload.put("usuari", usuariMap);
-
-            // enviar exemplar mínim
-            Map<String,Object> exemplarMap = new HashMap<>();
-            if (prestec.getExemplar() != null && prestec.getExemplar().getId() != null) {
-                exemplarMap.put("id", prestec.getExemplar().getId());
-            } else {
-                throw new ApiException("Exemplar o exemplar.id no poden ser null per crear Prestec");
-            }
-            payload.put("exemplar", exemplarMap);
-
-            String json = ApiClient.MAPPER.writeValueAsString(payload);
-
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/prestecs/afegirPrestec"))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .POST(HttpRequest.BodyPublishers.ofString(json))
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            String body = resp.body();
-
-            if (code == 200 || code == 201) {
-                return ApiClient.MAPPER.readValue(body, Prestec.class);
-            } else {
-                String msg = ApiClient.extractErrorMessage(body, "Error creant prestec");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (ApiException a) {
-            throw a;
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return createPrestecCall(prestec).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #createPrestec(Prestec)}.
+     *
+     * @param prestec dades del nou prestec (amb exemplar.id i usuari.id)
+     * @return futur amb prestec creat amb el ID assignat
+     */
+    @Override
+    public CompletableFuture<Prestec> createPrestecAsync(Prestec prestec) {
+        return createPrestecCall(prestec).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #createPrestec(Prestec)}.
+     *
+     * @param prestec dades del nou prestec (amb exemplar.id i usuari.id)
+     * @return crida preparada
+     */
+    private ApiCall<String, Prestec> createPrestecCall(Prestec prestec) {
+        return ApiCall.of(
+                () -> {
+                    // Enviem un JSON lleuger amb els ids
+                    Map<String,Object> payload = new HashMap<>();
+                    if (prestec.getDataPrestec() != null) {
+                        payload.put("dataPrestec", prestec.getDataPrestec().toString());
+                    }
+                    // enviar usuari mínim
+                    Map<String,Object> usuariMap = new HashMap<>();
+                    if (prestec.getUsuari() != null && prestec.getUsuari().getId() != null) {
+                        usuariMap.put("id", prestec.getUsuari().getId());
+                    } else {
+                        throw new ApiException("Usuari o usuari.id no poden ser null per crear Prestec");
+                    }
+                    payload.put("usuari", usuariMap);
+
+                    // enviar exemplar mínim
+                    Map<String,Object> exemplarMap = new HashMap<>();
+                    if (prestec.getExemplar() != null && prestec.getExemplar().getId() != null) {
+                        exemplarMap.put("id", prestec.getExemplar().getId());
+                    } else {
+                        throw new ApiException("Exemplar o exemplar.id no poden ser null per crear Prestec");
+                    }
+                    payload.put("exemplar", exemplarMap);
+
+                    return AFEGIR_PRESTEC.json(payload);
+                },
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    int code = resp.statusCode();
+                    String body = resp.body();
+
+                    if (code == 200 || code == 201) {
+                        return ApiClient.readValue(body, Prestec.class);
+                    } else {
+                        String msg = ApiClient.extractErrorMessage(body, "Error creant prestec");
+                        throw new ApiException("Codi " + code + ": " + msg, code);
+                    }
+
+                });
     }
 
     /**
@@ -183,29 +205,38 @@ public class HttpPrestecApi implements PrestecApi {
      */
     @Override
     public void retornarPrestec(Long prestecId) throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/prestecs/ferDevolucio/" + prestecId))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .PUT(HttpRequest.BodyPublishers.noBody())
-            ).build();
-
-            HttpResponse<String> resp = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = resp.statusCode();
-            if (code != 200) {
-                String msg = ApiClient.extractErrorMessage(resp.body(), "Error marcant devolucio");
-                throw new ApiException("Codi " + code + ": " + msg, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (ApiException a) {
-            throw a;
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        retornarPrestecCall(prestecId).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #retornarPrestec(Long)}.
+     *
+     * @param prestecId ID del prestec a retornar
+     * @return futur completat quan acaba l'operacio
+     */
+    @Override
+    public CompletableFuture<Void> retornarPrestecAsync(Long prestecId) {
+        return retornarPrestecCall(prestecId).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #retornarPrestec(Long)}.
+     *
+     * @param prestecId ID del prestec a retornar
+     * @return crida preparada
+     */
+    private ApiCall<String, Void> retornarPrestecCall(Long prestecId) {
+        return ApiCall.of(
+                () -> FER_DEVOLUCIO.request(prestecId),
+                HttpResponse.BodyHandlers.ofString(),
+                resp -> {
+                    int code = resp.statusCode();
+                    if (code != 200) {
+                        String msg = ApiClient.extractErrorMessage(resp.body(), "Error marcant devolucio");
+                        throw new ApiException("Codi " + code + ": " + msg, code);
+                    }
+                    return null;
+                });
     }
 
     /**
@@ -217,17 +248,32 @@ public class HttpPrestecApi implements PrestecApi {
      */
     @Override
     public Prestec getPrestecById(Long id) throws ApiException {
-        try {
-            // Reutilitzem un endpoint existent i filtrem al costat-client
-            List<Prestec> all = getAllPrestecs(null);
-            return all.stream()
-                    .filter(p -> p.getId() != null && p.getId().equals(id))
-                    .findFirst()
-                    .orElse(null);
-        } catch (ApiException a) {
-            throw a;
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        // Reutilitzem un endpoint existent i filtrem al costat-client
+        return findById(getAllPrestecs(null), id);
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getPrestecById(Long)}.
+     *
+     * @param id ID del prestec a obtenir
+     * @return futur amb prestec amb totes les seves dades
+     */
+    @Override
+    public CompletableFuture<Prestec> getPrestecByIdAsync(Long id) {
+        return getAllPrestecsAsync(null).thenApply(all -> findById(all, id));
+    }
+
+    /**
+     * Cerca un prestec per ID dins d'una llista.
+     *
+     * @param all llista de prestecs
+     * @param id ID cercat
+     * @return prestec trobat o null si no hi es
+     */
+    private static Prestec findById(List<Prestec> all, Long id) {
+        return all.stream()
+                .filter(p -> p.getId() != null && p.getId().equals(id))
+                .findFirst()
+                .orElse(null);
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,18 @@
 package com.bibliosedaos.desktop.api.http;
 
+import com.bibliosedaos.desktop.api.ApiCall;
 import com.bibliosedaos.desktop.api.ApiClient;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.Endpoint;
 import com.bibliosedaos.desktop.api.UserApi;
 import com.bibliosedaos.desktop.model.User;
 import com.bibliosedaos.desktop.model.dto.LoginResponse;
-import java.net.URI;
-import java.net.http.HttpRequest;
+import java.io.InputStream;
 import java.net.http.HttpResponse;
-import java.time.Duration;
-import java.util.Arrays;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implementacio HTTP real de UserApi.
@@ -27,6 +27,15 @@ import java.util.Map;
  */
 public class HttpUserApi implements UserApi {
 
+    // Endpoints
+    private static final Endpoint TROBAR_USUARI_PER_ID = Endpoint.get("/biblioteca/usuaris/trobarUsuariPerId/{userId}");
+    private static final Endpoint ACTUALITZAR_USUARI = Endpoint.put("/biblioteca/usuaris/actualitzarUsuari/{userId}");
+    private static final Endpoint LLISTAR_USUARIS = Endpoint.get("/biblioteca/usuaris/llistarUsuaris");
+    private static final Endpoint AFEGIR_USUARI = Endpoint.post("/biblioteca/auth/afegirUsuari");
+    private static final Endpoint ELIMINAR_USUARI = Endpoint.delete("/biblioteca/usuaris/eliminarUsuari/{userId}");
+    private static final Endpoint TROBAR_USUARI_PER_NICK = Endpoint.get("/biblioteca/usuaris/trobarUsuariPerNick/{nick}");
+    private static final Endpoint TROBAR_USUARI_PER_NIF = Endpoint.get("/biblioteca/usuaris/trobarUsuariPerNif/{nif}");
+
     /**
      * Obte les dades completes d'un usuari pel seu ID.
      *
@@ -36,30 +45,40 @@ public class HttpUserApi implements UserApi {
      */
     @Override
     public User getUserById(Long userId) throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/usuaris/trobarUsuariPerId/" + userId))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
-
-            HttpResponse<String> response = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = response.statusCode();
-            String body = response.body();
-
-            if (code == 200) {
-                return ApiClient.MAPPER.readValue(body, User.class);
-            } else {
-                throw new ApiException("Error obtenint dades: Codi " + code, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return getUserByIdCall(userId).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getUserById(Long)}.
+     *
+     * @param userId ID de l'usuari
+     * @return futur amb usuari amb totes les seves dades
+     */
+    @Override
+    public CompletableFuture<User> getUserByIdAsync(Long userId) {
+        return getUserByIdCall(userId).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #getUserById(Long)}.
+     *
+     * @param userId ID de l'usuari
+     * @return crida preparada
+     */
+    private ApiCall<String, User> getUserByIdCall(Long userId) {
+        return ApiCall.of(
+                () -> TROBAR_USUARI_PER_ID.request(userId),
+                HttpResponse.BodyHandlers.ofString(),
+                response -> {
+                    int code = response.statusCode();
+                    String body = response.body();
+
+                    if (code == 200) {
+                        return ApiClient.readValue(body, User.class);
+                    } else {
+                        throw new ApiException("Error obtenint dades: Codi " + code, code);
+                    }
+                }).hedged();
     }
 
     /**
@@ -72,32 +91,42 @@ public class HttpUserApi implements UserApi {
      */
     @Override
     public User updateUser(Long userId, User user) throws ApiException {
-        try {
-            String reqJson = ApiClient.MAPPER.writeValueAsString(user);
-
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/usuaris/actualitzarUsuari/" + userId))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .PUT(HttpRequest.BodyPublishers.ofString(reqJson))
-            ).build();
-
-            HttpResponse<String> response = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = response.statusCode();
-            String body = response.body();
-
-            if (code == 200) {
-                return ApiClient.MAPPER.readValue(body, User.class);
-            } else {
-                throw new ApiException("Error actualitzant: Codi " + code, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return updateUserCall(userId, user).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #updateUser(Long,User)}.
+     *
+     * @param userId ID de l'usuari a actualitzar
+     * @param user dades actualitzades de l'usuari
+     * @return futur amb usuari actualitzat
+     */
+    @Override
+    public CompletableFuture<User> updateUserAsync(Long userId, User user) {
+        return updateUserCall(userId, user).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #updateUser(Long,User)}.
+     *
+     * @param userId ID de l'usuari a actualitzar
+     * @param user dades actualitzades de l'usuari
+     * @return crida preparada
+     */
+    private ApiCall<String, User> updateUserCall(Long userId, User user) {
+        return ApiCall.of(
+                () -> ACTUALITZAR_USUARI.json(user, userId),
+                HttpResponse.BodyHandlers.ofString(),
+                response -> {
+                    int code = response.statusCode();
+                    String body = response.body();
+
+                    if (code == 200) {
+                        return ApiClient.readValue(body, User.class);
+                    } else {
+                        throw new ApiException("Error actualitzant: Codi " + code, code);
+                    }
+                });
     }
 
     /**
@@ -108,31 +137,39 @@ public class HttpUserApi implements UserApi {
      */
     @Override
     public List<User> getAllUsers() throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/usuaris/llistarUsuaris"))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
-
-            HttpResponse<String> response = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = response.statusCode();
-            String body = response.body();
-
-            if (code == 200) {
-                User[] usersArray = ApiClient.MAPPER.readValue(body, User[].class);
-                return Arrays.asList(usersArray);
-            } else {
-                throw new ApiException("Error obtenint llista d'usuaris: Codi " + code, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return getAllUsersCall().execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getAllUsers()}.
+     *
+     * @return futur amb llista de tots els usuaris
+     */
+    @Override
+    public CompletableFuture<List<User>> getAllUsersAsync() {
+        return getAllUsersCall().executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #getAllUsers()}.
+     *
+     * @return crida preparada
+     */
+    private ApiCall<InputStream, List<User>> getAllUsersCall() {
+        return ApiCall.of(
+                () -> LLISTAR_USUARIS.request(),
+                HttpResponse.BodyHandlers.ofInputStream(),
+                response -> {
+                    int code = response.statusCode();
+
+                    try (InputStream body = response.body()) {
+                        if (code == 200) {
+                            return ApiClient.readList(body, User.class);
+                        } else {
+                            throw new ApiException("Error obtenint llista d'usuaris: Codi " + code, code);
+                        }
+                    }
+                });
     }
 
     /**
@@ -144,52 +181,63 @@ public class HttpUserApi implements UserApi {
      */
     @Override
     public User createUser(User user) throws ApiException {
-        try {
-            // Creem un Map amb les dades que espera el servidor
-            Map<String, Object> registerData = new HashMap<>();
-            registerData.put("nick", user.getNick());
-            registerData.put("nif", user.getNif());
-            registerData.put("nom", user.getNom());
-            registerData.put("cognom1", user.getCognom1());
-            registerData.put("cognom2", user.getCognom2());
-            registerData.put("localitat", user.getLocalitat());
-            registerData.put("provincia", user.getProvincia());
-            registerData.put("carrer", user.getCarrer());
-            registerData.put("cp", user.getCp());
-            registerData.put("tlf", user.getTlf());
-            registerData.put("email", user.getEmail());
-            registerData.put("password", user.getPassword());
-            registerData.put("rol", user.getRol());
-
-            String reqJson = ApiClient.MAPPER.writeValueAsString(registerData);
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/auth/afegirUsuari"))
-                    .timeout(Duration.ofSeconds(10))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(reqJson))
-                    .build();
-
-            HttpResponse<String> response = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = response.statusCode();
-            String body = response.body();
-
-            if (code == 200) {
-                // El servidor retorna LoginResponse amb l'ID del nou usuari
-                LoginResponse loginResp = ApiClient.MAPPER.readValue(body, LoginResponse.class);
-
-                // SIMPLIFICADO: Ya es Long, asignación directa
-                user.setId(loginResp.getUserId());
-                return user;
-            } else {
-                throw new ApiException("Error creant usuari: Codi " + code, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return createUserCall(user).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #createUser(User)}.
+     *
+     * @param user dades del nou usuari
+     * @return futur amb usuari creat amb el ID assignat
+     */
+    @Override
+    public CompletableFuture<User> createUserAsync(User user) {
+        return createUserCall(user).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #createUser(User)}.
+     *
+     * @param user dades del nou usuari
+     * @return crida preparada
+     */
+    private ApiCall<String, User> createUserCall(User user) {
+        return ApiCall.of(
+                () -> {
+                    // Creem un Map amb les dades que espera el servidor
+                    Map<String, Object> registerData = new HashMap<>();
+                    registerData.put("nick", user.getNick());
+                    registerData.put("nif", user.getNif());
+                    registerData.put("nom", user.getNom());
+                    registerData.put("cognom1", user.getCognom1());
+                    registerData.put("cognom2", user.getCognom2());
+                    registerData.put("localitat", user.getLocalitat());
+                    registerData.put("provincia", user.getProvincia());
+                    registerData.put("carrer", user.getCarrer());
+                    registerData.put("cp", user.getCp());
+                    registerData.put("tlf", user.getTlf());
+                    registerData.put("email", user.getEmail());
+                    registerData.put("password", user.getPassword());
+                    registerData.put("rol", user.getRol());
+
+                    return AFEGIR_USUARI.json(registerData);
+                },
+                HttpResponse.BodyHandlers.ofString(),
+                response -> {
+                    int code = response.statusCode();
+                    String body = response.body();
+
+                    if (code == 200) {
+                        // El servidor retorna LoginResponse amb l'ID del nou usuari
+                        LoginResponse loginResp = ApiClient.readValue(body, LoginResponse.class);
+
+                        // SIMPLIFICADO: Ya es Long, asignación directa
+                        user.setId(loginResp.getUserId());
+                        return user;
+                    } else {
+                        throw new ApiException("Error creant usuari: Codi " + code, code);
+                    }
+                });
     }
 
     /**
@@ -200,26 +248,38 @@ public class HttpUserApi implements UserApi {
      */
     @Override
     public void deleteUser(Long userId) throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/usuaris/eliminarUsuari/" + userId))
-                            .timeout(Duration.ofSeconds(10))
-                            .DELETE()
-            ).build();
-
-            HttpResponse<String> response = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = response.statusCode();
-
-            if (code != 200) {
-                throw new ApiException("Error eliminant usuari: Codi " + code, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        deleteUserCall(userId).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #deleteUser(Long)}.
+     *
+     * @param userId ID de l'usuari a eliminar
+     * @return futur completat quan acaba l'operacio
+     */
+    @Override
+    public CompletableFuture<Void> deleteUserAsync(Long userId) {
+        return deleteUserCall(userId).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #deleteUser(Long)}.
+     *
+     * @param userId ID de l'usuari a eliminar
+     * @return crida preparada
+     */
+    private ApiCall<String, Void> deleteUserCall(Long userId) {
+        return ApiCall.of(
+                () -> ELIMINAR_USUARI.request(userId),
+                HttpResponse.BodyHandlers.ofString(),
+                response -> {
+                    int code = response.statusCode();
+
+                    if (code != 200) {
+                        throw new ApiException("Error eliminant usuari: Codi " + code, code);
+                    }
+                    return null;
+                });
     }
 
     /**
@@ -231,30 +291,40 @@ public class HttpUserApi implements UserApi {
      */
     @Override
     public User getUserByNick(String nick) throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/usuaris/trobarUsuariPerNick/" + nick))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
-
-            HttpResponse<String> response = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = response.statusCode();
-            String body = response.body();
-
-            if (code == 200) {
-                return ApiClient.MAPPER.readValue(body, User.class);
-            } else {
-                throw new ApiException("Error obtenint usuari per nick: Codi " + code, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return getUserByNickCall(nick).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getUserByNick(String)}.
+     *
+     * @param nick nick a buscar
+     * @return futur amb usuari trobat
+     */
+    @Override
+    public CompletableFuture<User> getUserByNickAsync(String nick) {
+        return getUserByNickCall(nick).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #getUserByNick(String)}.
+     *
+     * @param nick nick a buscar
+     * @return crida preparada
+     */
+    private ApiCall<String, User> getUserByNickCall(String nick) {
+        return ApiCall.of(
+                () -> TROBAR_USUARI_PER_NICK.request(nick),
+                HttpResponse.BodyHandlers.ofString(),
+                response -> {
+                    int code = response.statusCode();
+                    String body = response.body();
+
+                    if (code == 200) {
+                        return ApiClient.readValue(body, User.class);
+                    } else {
+                        throw new ApiException("Error obtenint usuari per nick: Codi " + code, code);
+                    }
+                }).hedged();
     }
 
     /**
@@ -266,29 +336,39 @@ public class HttpUserApi implements UserApi {
      */
     @Override
     public User getUserByNif(String nif) throws ApiException {
-        try {
-            HttpRequest request = ApiClient.withAuth(
-                    HttpRequest.newBuilder()
-                            .uri(URI.create(ApiClient.getBaseUrl() + "/biblioteca/usuaris/trobarUsuariPerNif/" + nif))
-                            .timeout(Duration.ofSeconds(10))
-                            .header("Content-Type", "application/json")
-                            .GET()
-            ).build();
-
-            HttpResponse<String> response = ApiClient.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            int code = response.statusCode();
-            String body = response.body();
-
-            if (code == 200) {
-                return ApiClient.MAPPER.readValue(body, User.class);
-            } else {
-                throw new ApiException("Error obtenint usuari per NIF: Codi " + code, code);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new ApiException("Operacio interrompuda", e);
-        } catch (Exception e) {
-            throw new ApiException("Error connectant amb el servidor: " + e.getMessage(), e);
-        }
+        return getUserByNifCall(nif).execute();
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getUserByNif(String)}.
+     *
+     * @param nif NIF a buscar
+     * @return futur amb usuari trobat
+     */
+    @Override
+    public CompletableFuture<User> getUserByNifAsync(String nif) {
+        return getUserByNifCall(nif).executeAsync();
+    }
+
+    /**
+     * Descriu la crida de {@link #getUserByNif(String)}.
+     *
+     * @param nif NIF a buscar
+     * @return crida preparada
+     */
+    private ApiCall<String, User> getUserByNifCall(String nif) {
+        return ApiCall.of(
+                () -> TROBAR_USUARI_PER_NIF.request(nif),
+                HttpResponse.BodyHandlers.ofString(),
+                response -> {
+                    int code = response.statusCode();
+                    String body = response.body();
+
+                    if (code == 200) {
+                        return ApiClient.readValue(body, User.class);
+                    } else {
+                        throw new ApiException("Error obtenint usuari per NIF: Codi " + code, code);
+                    }
+                });
     }
 }
\ No newline at end of file
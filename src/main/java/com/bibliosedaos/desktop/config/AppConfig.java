@@ -4,7 +4,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.Properties;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -80,7 +83,8 @@ public class AppConfig {
 
     /**
      * Carrega propietats de configuració i, opcionalment, les estableix com a system properties
-     * útils per a la inicialització de l'aplicació (trustStore, javax.net.debug, api.base.url).
+     * útils per a la inicialització de l'aplicació (trustStore, javax.net.debug, api.base.url
+     * i la resta de propietats amb prefix api.).
      */
     public static void loadSystemPropertiesFromFile() {
         Path external = Path.of(CONFIG_FILE);
@@ -115,7 +119,13 @@ public class AppConfig {
                 "javax.net.debug"
         };
 
-        for (String k : keys) {
+        Set<String> forwarded = new LinkedHashSet<>(Arrays.asList(keys));
+        // Qualsevol altra propietat api.* (versio HTTP, cache, timeouts...) tambe es propaga
+        for (String name : props.stringPropertyNames()) {
+            if (name.startsWith("api.")) forwarded.add(name);
+        }
+
+        for (String k : forwarded) {
             String v = props.getProperty(k);
             if (v != null && System.getProperty(k) == null) {
                 System.setProperty(k, v.trim());
@@ -2,6 +2,7 @@ package com.bibliosedaos.desktop.controller;
 
 import com.bibliosedaos.desktop.api.ApiClient;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.TaskPriority;
 import com.bibliosedaos.desktop.model.Autor;
 import com.bibliosedaos.desktop.model.Exemplar;
 import com.bibliosedaos.desktop.model.Llibre;
@@ -442,10 +443,7 @@ public class BookFormController {
 
         Task<List<Exemplar>> task = new Task<>() {
             @Override protected List<Exemplar> call() throws Exception {
-                List<Exemplar> all = exemplarService.getAllExemplars();
-                return all.stream()
-                        .filter(x -> x.getLlibre() != null && x.getLlibre().getId() != null && x.getLlibre().getId().equals(llibreId))
-                        .toList();
+                return exemplarService.getExemplarsForBook(llibreId);
             }
         };
 
@@ -582,7 +580,7 @@ public class BookFormController {
             }
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -620,7 +618,7 @@ public class BookFormController {
             LOGGER.log(Level.WARNING, "Error creant autor", ex);
             showError("Error creant autor: " + (ex != null ? ex.getMessage() : ERROR_UNKNOWN));
         });
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -661,7 +659,7 @@ public class BookFormController {
             showError("Error creant exemplar: " + (exx != null ? exx.getMessage() : ERROR_UNKNOWN));
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -690,7 +688,7 @@ public class BookFormController {
                 LOGGER.log(Level.WARNING, "Error creant llibre", ex);
                 showError("Error creant llibre: " + (ex != null ? ex.getMessage() : ERROR_UNKNOWN));
             });
-            ApiClient.BG_EXEC.submit(task);
+            ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
         } else if (MODE_EDIT.equals(mode)) {
             Task<Llibre> task = new Task<>() {
                 @Override protected Llibre call() throws Exception {
@@ -711,7 +709,7 @@ public class BookFormController {
                 showError("Error actualitzant llibre: " + (ex != null ? ex.getMessage() : ERROR_UNKNOWN));
             });
 
-            ApiClient.BG_EXEC.submit(task);
+            ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
         } else {
             showError("Operació no disponible.");
         }
@@ -7,10 +7,13 @@ import com.bibliosedaos.desktop.service.ExemplarService;
 import com.bibliosedaos.desktop.service.LlibreService;
 import com.bibliosedaos.desktop.ui.navigator.Navigator;
 import com.bibliosedaos.desktop.ui.util.AnimationUtils;
+import com.bibliosedaos.desktop.ui.util.ListFilter;
+import com.bibliosedaos.desktop.ui.util.TextIndex;
 import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
@@ -18,9 +21,11 @@ import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.shape.SVGPath;
 
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -87,6 +92,8 @@ public class BooksBrowseController {
 
     private final ObservableList<Llibre> llibresList = FXCollections.observableArrayList();
     private final ObservableList<Exemplar> exemplarsList = FXCollections.observableArrayList();
+    /** Cerca sobre llibresList, fora del fil de JavaFX; el resultat va a filteredList. */
+    private final ListFilter<Llibre> searchFilter = new ListFilter<>(searchFields(), this::onFilterResult);
     private final ObservableList<Object> filteredList = FXCollections.observableArrayList();
     private final ObservableList<Object> currentPageList = FXCollections.observableArrayList();
 
@@ -105,6 +112,7 @@ public class BooksBrowseController {
         this.llibreService = Objects.requireNonNull(llibreService, "LlibreService no pot ser null");
         this.exemplarService = Objects.requireNonNull(exemplarService, "ExemplarService no pot ser null");
         this.navigator = Objects.requireNonNull(navigator, "Navigator no pot ser null");
+        llibresList.addListener((ListChangeListener<Llibre>) c -> searchFilter.setItems(llibresList));
     }
 
     /**
@@ -291,7 +299,7 @@ public class BooksBrowseController {
                     onlyAvailableToggle.setSelected(false);
                     loadBooks();
                 } else {
-                    applyFilterAndPagination();
+                    searchFilter.search(selectedField(), newValue);
                 }
             } else {
                 applyFilterAndPagination();
@@ -465,33 +473,52 @@ public class BooksBrowseController {
      */
     private void applyFilterAndPagination() {
         if (!showingExemplars) {
-            final String query = searchField.getText() == null ? "" : searchField.getText().trim().toLowerCase();
-            final String field = searchFieldCombo.getValue() == null ? TOTS : searchFieldCombo.getValue();
-
-            if (query.isEmpty()) {
-                filteredList.setAll(llibresList);
-            } else {
-                var filtered = llibresList.filtered(book -> {
-                    if (book == null) return false;
-                    return switch (field) {
-                        case ISBN -> safeContains(book.getIsbn(), query);
-                        case TITOL -> safeContains(book.getTitol(), query);
-                        case EDITORIAL -> safeContains(book.getEditorial(), query);
-                        case AUTOR -> book.getAutor() != null && safeContains(book.getAutor().getNom(), query);
-                        default -> safeContains(book.getIsbn(), query) || safeContains(book.getTitol(), query)
-                                || safeContains(book.getEditorial(), query) || (book.getAutor() != null && safeContains(book.getAutor().getNom(), query));
-                    };
-                });
-                filteredList.setAll(filtered);
-            }
-        } else {
-            filteredList.setAll(exemplarsList);
+            searchFilter.searchNow(selectedField(), searchField.getText());
+            return;
         }
+        filteredList.setAll(exemplarsList);
 
         currentPage = 0;
         updatePagination();
     }
 
+    /**
+     * Mostra el resultat d'una cerca de llibres des de la primera pagina.
+     * Si mentrestant s'ha passat a la vista d'exemplars, es descarta.
+     *
+     * @param result llibres que coincideixen
+     */
+    private void onFilterResult(List<Llibre> result) {
+        if (showingExemplars) return;
+        filteredList.setAll(result);
+        currentPage = 0;
+        updatePagination();
+    }
+
+    /**
+     * Camp seleccionat al combo de cerca.
+     *
+     * @return nom del camp, o null per a "Tots"
+     */
+    private String selectedField() {
+        String field = searchFieldCombo.getValue();
+        return field == null || TOTS.equals(field) ? null : field;
+    }
+
+    /**
+     * Camps de cerca del combo.
+     *
+     * @return ISBN, titol, editorial i autor
+     */
+    private static Map<String, Function<? super Llibre, String>> searchFields() {
+        Map<String, Function<? super Llibre, String>> camps = new LinkedHashMap<>();
+        camps.put(ISBN, Llibre::getIsbn);
+        camps.put(TITOL, Llibre::getTitol);
+        camps.put(EDITORIAL, Llibre::getEditorial);
+        camps.put(AUTOR, book -> book.getAutor() != null ? book.getAutor().getNom() : null);
+        return camps;
+    }
+
     /**
      * Comprova si una cadena conte la cerca de manera segura.
      *
@@ -501,7 +528,7 @@ public class BooksBrowseController {
      */
     static boolean safeContains(String value, String query) {
         if (value == null || query == null) return false;
-        return value.toLowerCase(Locale.ROOT).contains(query.toLowerCase(Locale.ROOT));
+        return TextIndex.normalize(value).contains(TextIndex.normalize(query));
     }
 
     /**
@@ -2,6 +2,7 @@ package com.bibliosedaos.desktop.controller;
 
 import com.bibliosedaos.desktop.api.ApiClient;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.TaskPriority;
 import com.bibliosedaos.desktop.model.Autor;
 import com.bibliosedaos.desktop.model.Exemplar;
 import com.bibliosedaos.desktop.model.Llibre;
@@ -9,9 +10,12 @@ import com.bibliosedaos.desktop.service.ExemplarService;
 import com.bibliosedaos.desktop.service.LlibreService;
 import com.bibliosedaos.desktop.ui.navigator.Navigator;
 import com.bibliosedaos.desktop.ui.util.AnimationUtils;
+import com.bibliosedaos.desktop.ui.util.ListFilter;
+import com.bibliosedaos.desktop.ui.util.TextIndex;
 import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
@@ -19,9 +23,11 @@ import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.shape.SVGPath;
 
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -69,6 +75,8 @@ public class BooksListController {
     private final Navigator navigator;
 
     private final ObservableList<Llibre> masterList = FXCollections.observableArrayList();
+    /** Cerca sobre masterList, fora del fil de JavaFX; el resultat va a filteredList. */
+    private final ListFilter<Llibre> searchFilter = new ListFilter<>(searchFields(), this::onFilterResult);
     private final ObservableList<Llibre> filteredList = FXCollections.observableArrayList();
     private final ObservableList<Llibre> currentPageList = FXCollections.observableArrayList();
     private int currentPage = 0;
@@ -85,6 +93,7 @@ public class BooksListController {
         this.llibreService = Objects.requireNonNull(llibreService, "LlibreService no pot ser null");
         this.exemplarService = Objects.requireNonNull(exemplarService, "ExemplarService no pot ser null");
         this.navigator = Objects.requireNonNull(navigator, "Navigator no pot ser null");
+        masterList.addListener((ListChangeListener<Llibre>) c -> searchFilter.setItems(masterList));
     }
 
     /**
@@ -255,7 +264,7 @@ public class BooksListController {
      * Configura els listeners per als camps de cerca.
      */
     private void setupListeners() {
-        searchField.textProperty().addListener((obs, oldValue, newValue) -> applyFilterAndPagination());
+        searchField.textProperty().addListener((obs, oldValue, newValue) -> searchFilter.search(selectedField(), newValue));
         searchFieldCombo.valueProperty().addListener((obs, oldValue, newValue) -> applyFilterAndPagination());
         searchByIdField.setOnAction(e -> onSearchById());
         newExemplarButton.setOnAction(e -> onNewExemplar());
@@ -301,25 +310,44 @@ public class BooksListController {
      * Aplica els filtres i la paginacio a la llista de llibres.
      */
     private void applyFilterAndPagination() {
-        final String query = searchField.getText() == null ? "" : searchField.getText().trim().toLowerCase();
-        final String field = searchFieldCombo.getValue() == null ? "Tots" : searchFieldCombo.getValue();
-
-        filteredList.setAll(masterList.filtered(book -> {
-            if (query.isEmpty()) return true;
-
-            return switch (field) {
-                case "ISBN" -> safeContains(book.getIsbn(), query);
-                case "Títol" -> safeContains(book.getTitol(), query);
-                case "Editorial" -> safeContains(book.getEditorial(), query);
-                case "Autor" -> book.getAutor() != null && safeContains(book.getAutor().getNom(), query);
-                default -> safeContains(book.getIsbn(), query) || safeContains(book.getTitol(), query)
-                        || safeContains(book.getEditorial(), query) || (book.getAutor() != null && safeContains(book.getAutor().getNom(), query));
-            };
-        }));
+        searchFilter.searchNow(selectedField(), searchField.getText());
+    }
+
+    /**
+     * Mostra el resultat d'una cerca des de la primera pagina.
+     *
+     * @param result llibres que coincideixen
+     */
+    private void onFilterResult(List<Llibre> result) {
+        filteredList.setAll(result);
         currentPage = 0;
         updatePagination();
     }
 
+    /**
+     * Camp seleccionat al combo de cerca.
+     *
+     * @return nom del camp, o null per a "Tots"
+     */
+    private String selectedField() {
+        String field = searchFieldCombo.getValue();
+        return field == null || "Tots".equals(field) ? null : field;
+    }
+
+    /**
+     * Camps de cerca del combo.
+     *
+     * @return ISBN, titol, editorial i autor
+     */
+    private static Map<String, Function<? super Llibre, String>> searchFields() {
+        Map<String, Function<? super Llibre, String>> camps = new LinkedHashMap<>();
+        camps.put("ISBN", Llibre::getIsbn);
+        camps.put("Títol", Llibre::getTitol);
+        camps.put("Editorial", Llibre::getEditorial);
+        camps.put("Autor", book -> book.getAutor() != null ? book.getAutor().getNom() : null);
+        return camps;
+    }
+
     /**
      * Comprova si una cadena conte la cerca de manera segura.
      *
@@ -329,10 +357,9 @@ public class BooksListController {
      */
     static boolean safeContains(String value, String query) {
         if (value == null || query == null) return false;
-        return value.toLowerCase(Locale.ROOT).contains(query.toLowerCase(Locale.ROOT));
+        return TextIndex.normalize(value).contains(TextIndex.normalize(query));
     }
 
-
     /**
      * Actualitza la informacio de paginacio.
      */
@@ -420,7 +447,7 @@ public class BooksListController {
         task.setOnSucceeded(e -> onSearchByIdTaskSucceeded(task.getValue()));
 
         task.setOnFailed(e -> showSearchError(ERROR_TITLE, LLIBRE_NO_TROBAT));
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submit(TaskPriority.INTERACTIVE, task);
     }
 
     private void onSearchByIdTaskSucceeded(Llibre book) {
@@ -472,7 +499,7 @@ public class BooksListController {
         task.setOnSucceeded(e -> onNewExemplarTaskSucceeded(task.getValue()));
 
         task.setOnFailed(e -> showSearchError(ERROR_TITLE, LLIBRE_NO_TROBAT));
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submit(TaskPriority.INTERACTIVE, task);
     }
 
     private void onNewExemplarTaskSucceeded(Llibre book) {
@@ -529,7 +556,7 @@ public class BooksListController {
             showError("Error comprovant exemplars: " + (ex != null ? ex.getMessage() : ERROR_DESCONEGUT));
         });
 
-        ApiClient.BG_EXEC.submit(checkTask);
+        ApiClient.BG_EXEC.submit(TaskPriority.INTERACTIVE, checkTask);
     }
 
     private void onCheckExemplarsSucceeded(List<Exemplar> exemplarsLinked, Llibre book) {
@@ -562,10 +589,7 @@ public class BooksListController {
         return new Task<>() {
             @Override
             protected List<Exemplar> call() throws Exception {
-                List<Exemplar> all = exemplarService.getAllExemplars();
-                return all.stream()
-                        .filter(x -> x.getLlibre() != null && x.getLlibre().getId() != null && x.getLlibre().getId().equals(book.getId()))
-                        .toList();
+                return exemplarService.getExemplarsForBook(book.getId());
             }
         };
     }
@@ -594,7 +618,7 @@ public class BooksListController {
             showError("Error eliminant llibre: " + (ex != null ? ex.getMessage() : ERROR_DESCONEGUT));
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
     }
 
     private void onDeleteBookSucceeded(Llibre book) {
@@ -2,6 +2,7 @@ package com.bibliosedaos.desktop.controller;
 
 import com.bibliosedaos.desktop.api.ApiClient;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.TaskPriority;
 import com.bibliosedaos.desktop.model.Grup;
 import com.bibliosedaos.desktop.model.Horari;
 import com.bibliosedaos.desktop.model.User;
@@ -685,7 +686,7 @@ public class GroupFormController {
             Platform.runLater(() -> saveButton.setDisable(false));
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -713,7 +714,7 @@ public class GroupFormController {
             showError("Error apuntant-se al grup", ex != null ? ex.getMessage() : ERROR_DESCONEGUT);
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -742,7 +743,7 @@ public class GroupFormController {
             showError("Error desapuntant-se del grup", ex != null ? ex.getMessage() : ERROR_DESCONEGUT);
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -792,7 +793,7 @@ public class GroupFormController {
             showError("Error eliminant membre del grup: " + (ex != null ? ex.getMessage() : ERROR_DESCONEGUT));
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -817,7 +818,7 @@ public class GroupFormController {
             showError("Error eliminant grup: " + (ex != null ? ex.getMessage() : ERROR_DESCONEGUT));
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
     }
 
     /**
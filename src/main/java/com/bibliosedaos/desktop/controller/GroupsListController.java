@@ -1,6 +1,7 @@
 package com.bibliosedaos.desktop.controller;
 
 import com.bibliosedaos.desktop.api.ApiClient;
+import com.bibliosedaos.desktop.api.TaskPriority;
 import com.bibliosedaos.desktop.model.Grup;
 import com.bibliosedaos.desktop.model.Horari;
 import com.bibliosedaos.desktop.security.SessionStore;
@@ -331,7 +332,7 @@ public class GroupsListController {
             showError("Error carregant horaris", ex != null ? ex.getMessage() : ERROR_DESCONEGUT);
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submit(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -627,7 +628,7 @@ public class GroupsListController {
             showError("Error creant horari", ex != null ? ex.getMessage() : ERROR_DESCONEGUT);
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -670,7 +671,7 @@ public class GroupsListController {
             showError("Error apuntant-se al grup", ex != null ? ex.getMessage() : ERROR_DESCONEGUT);
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -704,7 +705,7 @@ public class GroupsListController {
             showError("Error desapuntant-se del grup", ex != null ? ex.getMessage() : ERROR_DESCONEGUT);
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
     }
 
     /**
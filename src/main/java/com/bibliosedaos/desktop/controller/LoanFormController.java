@@ -2,6 +2,7 @@ package com.bibliosedaos.desktop.controller;
 
 import com.bibliosedaos.desktop.api.ApiClient;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.TaskPriority;
 import com.bibliosedaos.desktop.model.Exemplar;
 import com.bibliosedaos.desktop.model.Prestec;
 import com.bibliosedaos.desktop.model.User;
@@ -10,6 +11,7 @@ import com.bibliosedaos.desktop.service.PrestecService;
 import com.bibliosedaos.desktop.service.UserService;
 import com.bibliosedaos.desktop.ui.navigator.Navigator;
 import com.bibliosedaos.desktop.ui.util.AnimationUtils;
+import com.bibliosedaos.desktop.ui.util.FxAsync;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -412,7 +414,7 @@ public class LoanFormController {
 
         setVisibleManaged(createButton, false);
         errorLabel.setVisible(false);
-        ApiClient.BG_EXEC.submit(createTask);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, createTask);
     }
 
     /**
@@ -480,7 +482,7 @@ public class LoanFormController {
             showError("Error retornant prestec: " + (ex != null ? ex.getMessage() : ERROR_DESCONEGUT));
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -527,25 +529,15 @@ public class LoanFormController {
      * @param id ID de l'exemplar a cercar
      */
     private void searchExemplarById(Long id) {
-        Task<Exemplar> task = new Task<>() {
-            @Override
-            protected Exemplar call() throws Exception {
-                return exemplarService.getExemplarById(id);
-            }
-        };
-
-        task.setOnSucceeded(e -> {
-            Exemplar exemplar = task.getValue();
-            if (exemplar != null) {
-                showSingleExemplarDialog(exemplar);
-            } else {
-                showError("No s'ha trobat cap exemplar amb ID: " + id);
-            }
-        });
-
-        task.setOnFailed(e -> showError("Error cercant exemplar: " + task.getException().getMessage()));
-
-        ApiClient.BG_EXEC.submit(task);
+        FxAsync.onFx(exemplarService.getExemplarByIdAsync(id),
+                exemplar -> {
+                    if (exemplar != null) {
+                        showSingleExemplarDialog(exemplar);
+                    } else {
+                        showError("No s'ha trobat cap exemplar amb ID: " + id);
+                    }
+                },
+                ex -> showError("Error cercant exemplar: " + ex.getMessage()));
     }
 
     /**
@@ -554,67 +546,33 @@ public class LoanFormController {
      * @param id ID de l'usuari a cercar
      */
     private void searchUserById(Long id) {
-        Task<User> task = new Task<>() {
-            @Override
-            protected User call() throws Exception {
-                return userService.getUserById(id);
-            }
-        };
-
-        task.setOnSucceeded(e -> {
-            User user = task.getValue();
-            if (user != null) {
-                showSingleUserDialog(user);
-            } else {
-                showError("No s'ha trobat cap usuari amb ID: " + id);
-            }
-        });
-
-        task.setOnFailed(e -> showError("Error cercant usuari: " + task.getException().getMessage()));
-
-        ApiClient.BG_EXEC.submit(task);
+        FxAsync.onFx(userService.getUserByIdAsync(id),
+                user -> {
+                    if (user != null) {
+                        showSingleUserDialog(user);
+                    } else {
+                        showError("No s'ha trobat cap usuari amb ID: " + id);
+                    }
+                },
+                ex -> showError("Error cercant usuari: " + ex.getMessage()));
     }
 
     /**
      * Mostra tots els exemplars disponibles.
      */
     private void showAllExemplars() {
-        Task<List<Exemplar>> task = new Task<>() {
-            @Override
-            protected List<Exemplar> call() throws Exception {
-                return exemplarService.getExemplarsLliures();
-            }
-        };
-
-        task.setOnSucceeded(e -> {
-            List<Exemplar> exemplars = task.getValue();
-            showExemplarsDialog(exemplars);
-        });
-
-        task.setOnFailed(e -> showError("Error carregant exemplars: " + task.getException().getMessage()));
-
-        ApiClient.BG_EXEC.submit(task);
+        FxAsync.onFx(exemplarService.getExemplarsLliuresAsync(),
+                this::showExemplarsDialog,
+                ex -> showError("Error carregant exemplars: " + ex.getMessage()));
     }
 
     /**
      * Mostra tots els usuaris.
      */
     private void showAllUsers() {
-        Task<List<User>> task = new Task<>() {
-            @Override
-            protected List<User> call() throws Exception {
-                return userService.getAllUsers();
-            }
-        };
-
-        task.setOnSucceeded(e -> {
-            List<User> users = task.getValue();
-            showUsersDialog(users);
-        });
-
-        task.setOnFailed(e -> showError("Error carregant usuaris: " + task.getException().getMessage()));
-
-        ApiClient.BG_EXEC.submit(task);
+        FxAsync.onFx(userService.getAllUsersAsync(),
+                this::showUsersDialog,
+                ex -> showError("Error carregant usuaris: " + ex.getMessage()));
     }
 
     /**
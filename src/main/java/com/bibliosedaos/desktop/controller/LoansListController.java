@@ -1,13 +1,17 @@
 package com.bibliosedaos.desktop.controller;
 
 import com.bibliosedaos.desktop.api.ApiClient;
+import com.bibliosedaos.desktop.api.TaskPriority;
 import com.bibliosedaos.desktop.model.Prestec;
 import com.bibliosedaos.desktop.service.PrestecService;
 import com.bibliosedaos.desktop.ui.navigator.Navigator;
 import com.bibliosedaos.desktop.ui.util.AnimationUtils;
+import com.bibliosedaos.desktop.ui.util.ListFilter;
+import com.bibliosedaos.desktop.ui.util.TextIndex;
 import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
@@ -17,9 +21,12 @@ import javafx.scene.layout.HBox;
 import javafx.scene.shape.SVGPath;
 
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -43,6 +50,8 @@ public class LoansListController {
     private static final String ERROR_TITLE = "Error";
     private static final String ERROR_DESCONEGUT = "Error desconegut";
     private static final String USUARI_SENSE_PRESTECS = "Aquest usuari no te prestecs";
+    /** Camps de cerca del combo, indexats per {@link ListFilter}. */
+    static final Map<String, Function<? super Prestec, String>> SEARCH_FIELDS = searchFields();
 
     @FXML private TableView<Prestec> prestecsTable;
     @FXML private TableColumn<Prestec, Long> idColumn;
@@ -70,6 +79,8 @@ public class LoansListController {
     private final ObservableList<Prestec> masterList = FXCollections.observableArrayList();
     private final ObservableList<Prestec> filteredList = FXCollections.observableArrayList();
     private final ObservableList<Prestec> currentPageList = FXCollections.observableArrayList();
+    /** Cerca sobre masterList, fora del fil de JavaFX; el resultat va a filteredList. */
+    private final ListFilter<Prestec> searchFilter = new ListFilter<>(SEARCH_FIELDS, this::onFilterResult);
     private int currentPage = 0;
     private int totalPages = 0;
 
@@ -83,6 +94,7 @@ public class LoansListController {
                                Navigator navigator) {
         this.prestecService = Objects.requireNonNull(prestecService, "PrestecService no pot ser null");
         this.navigator = Objects.requireNonNull(navigator, "Navigator no pot ser null");
+        masterList.addListener((ListChangeListener<Prestec>) c -> searchFilter.setItems(masterList));
     }
 
     /**
@@ -272,7 +284,7 @@ public class LoansListController {
      * Configura els listeners per als camps de cerca.
      */
     private void setupListeners() {
-        searchField.textProperty().addListener((observableValue, oldValue, newValue) -> applyFilterAndPagination());
+        searchField.textProperty().addListener((observableValue, oldValue, newValue) -> searchFilter.search(selectedField(), newValue));
         searchFieldCombo.valueProperty().addListener((observableValue, oldValue, newValue) -> applyFilterAndPagination());
         searchByIdButton.setOnAction(event -> onSearchByUserId());
         searchByIdField.setOnAction(event -> onSearchByUserId());
@@ -324,75 +336,67 @@ public class LoansListController {
      * Aplica els filtres i la paginacio a la llista de prestecs.
      */
     private void applyFilterAndPagination() {
-        final String query = searchField.getText() == null ? "" : searchField.getText().trim().toLowerCase();
-        final String field = searchFieldCombo.getValue() == null ? "Tots" : searchFieldCombo.getValue();
-
-        filteredList.setAll(masterList.filtered(prestec -> matchesSearchCriteria(prestec, query, field)));
+        searchFilter.searchNow(selectedField(), searchField.getText());
+    }
 
+    /**
+     * Mostra el resultat d'una cerca des de la primera pagina.
+     *
+     * @param result prestecs que coincideixen
+     */
+    private void onFilterResult(List<Prestec> result) {
+        filteredList.setAll(result);
         currentPage = 0;
         updatePagination();
     }
 
     /**
-     * Comprova si un prestec compleix amb els criteris de cerca.
+     * Camp seleccionat al combo de cerca.
      *
-     * @param prestec Prestec a verificar
-     * @param query Text de cerca
-     * @param field Camp on cercar
-     * @return true si el prestec compleix els criteris
-     */
-    private boolean matchesSearchCriteria(Prestec prestec, String query, String field) {
-        if (query.isEmpty()) return true;
-
-        return switch (field) {
-            case "ID Prestec" -> prestec.getId() != null && prestec.getId().toString().contains(query);
-            case "ID Exemplar" -> prestec.getExemplar() != null && prestec.getExemplar().getId() != null
-                    && prestec.getExemplar().getId().toString().contains(query);
-            case "ID Usuari" -> prestec.getUsuari() != null && prestec.getUsuari().getId() != null
-                    && prestec.getUsuari().getId().toString().contains(query);
-            case "Titol" -> prestec.getExemplar() != null && prestec.getExemplar().getLlibre() != null
-                    && safeContains(prestec.getExemplar().getLlibre().getTitol(), query);
-            case "Usuari" -> matchesUsuariCriteria(prestec, query);
-            default -> matchesDefaultCriteria(prestec, query);
-        };
+     * @return nom del camp ("Tots" si no n'hi ha cap)
+     */
+    private String selectedField() {
+        return searchFieldCombo.getValue() == null ? "Tots" : searchFieldCombo.getValue();
     }
 
     /**
-     * Comprova criteris de cerca per l'usuari.
+     * Camps de cerca del combo. "Usuari" cerca al nom, al primer cognom i al nom complet;
+     * "Tots" no inclou l'ID d'usuari.
+     *
+     * @return nom del camp i text on cercar
      */
-    private boolean matchesUsuariCriteria(Prestec prestec, String query) {
-        if (prestec.getUsuari() == null) return false;
-
-        boolean matchNom = safeContains(prestec.getUsuari().getNom(), query);
-        boolean matchCognom = safeContains(prestec.getUsuari().getCognom1(), query);
-
-        String nomComplet = (prestec.getUsuari().getNom() != null ? prestec.getUsuari().getNom() : "") + " " +
-                (prestec.getUsuari().getCognom1() != null ? prestec.getUsuari().getCognom1() : "");
-        boolean matchNomComplet = safeContains(nomComplet.trim(), query);
-
-        return matchNom || matchCognom || matchNomComplet;
+    private static Map<String, Function<? super Prestec, String>> searchFields() {
+        Map<String, Function<? super Prestec, String>> camps = new LinkedHashMap<>();
+        camps.put("ID Prestec", prestec -> idText(prestec.getId()));
+        camps.put("ID Exemplar", prestec -> prestec.getExemplar() != null ? idText(prestec.getExemplar().getId()) : null);
+        camps.put("ID Usuari", prestec -> prestec.getUsuari() != null ? idText(prestec.getUsuari().getId()) : null);
+        camps.put("Titol", LoansListController::titol);
+        camps.put("Usuari", LoansListController::usuari);
+        camps.put("Tots", prestec -> TextIndex.join(
+                idText(prestec.getId()),
+                prestec.getExemplar() != null ? idText(prestec.getExemplar().getId()) : null,
+                prestec.getUsuari() != null ? prestec.getUsuari().getNom() : null,
+                prestec.getUsuari() != null ? prestec.getUsuari().getCognom1() : null,
+                prestec.getUsuari() != null ? prestec.getUsuari().getNick() : null,
+                titol(prestec)));
+        return Collections.unmodifiableMap(camps);
     }
 
-    /**
-     * Comprova criteris per defecte (cerca en tots els camps).
-     */
-    private boolean matchesDefaultCriteria(Prestec prestec, String query) {
-        if ((prestec.getId() != null && prestec.getId().toString().contains(query)) ||
-                (prestec.getExemplar() != null && prestec.getExemplar().getId() != null &&
-                        prestec.getExemplar().getId().toString().contains(query))) {
-            return true;
-        }
+    private static String idText(Long id) {
+        return id != null ? id.toString() : null;
+    }
 
-        if (prestec.getUsuari() != null && (
-                safeContains(prestec.getUsuari().getNom(), query) ||
-                        safeContains(prestec.getUsuari().getCognom1(), query) ||
-                        safeContains(prestec.getUsuari().getNick(), query))) {
-            return true;
-        }
+    private static String titol(Prestec prestec) {
+        return prestec.getExemplar() != null && prestec.getExemplar().getLlibre() != null
+                ? prestec.getExemplar().getLlibre().getTitol() : null;
+    }
 
-        return prestec.getExemplar() != null &&
-                prestec.getExemplar().getLlibre() != null &&
-                safeContains(prestec.getExemplar().getLlibre().getTitol(), query);
+    private static String usuari(Prestec prestec) {
+        if (prestec.getUsuari() == null) return null;
+        String nom = prestec.getUsuari().getNom();
+        String cognom = prestec.getUsuari().getCognom1();
+        String nomComplet = ((nom != null ? nom : "") + " " + (cognom != null ? cognom : "")).trim();
+        return TextIndex.join(nom, cognom, nomComplet);
     }
 
     /**
@@ -404,7 +408,7 @@ public class LoansListController {
      */
     static boolean safeContains(String value, String query) {
         if (value == null || query == null) return false;
-        return value.toLowerCase(Locale.ROOT).contains(query.toLowerCase(Locale.ROOT));
+        return TextIndex.normalize(value).contains(TextIndex.normalize(query));
     }
 
     /**
@@ -513,7 +517,7 @@ public class LoansListController {
             searchByIdField.clear();
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submit(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -591,7 +595,7 @@ public class LoansListController {
             showError("Error retornant prestec", ex != null ? ex.getMessage() : ERROR_DESCONEGUT);
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -2,6 +2,8 @@ package com.bibliosedaos.desktop.controller;
 
 import com.bibliosedaos.desktop.api.ApiClient;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.TaskPriority;
+import com.bibliosedaos.desktop.api.Warmup;
 import com.bibliosedaos.desktop.model.dto.LoginResponse;
 import com.bibliosedaos.desktop.service.AuthService;
 import com.bibliosedaos.desktop.ui.navigator.Navigator;
@@ -87,6 +89,7 @@ public class LoginController {
             return;
         }
 
+        final long loginStart = System.nanoTime();
         Task<LoginResponse> task = new Task<>() {
             @Override
             protected LoginResponse call() throws Exception {
@@ -103,6 +106,8 @@ public class LoginController {
                 passwordField.clear();
                 navigator.goTo("/com/bibliosedaos/desktop/dashboard-view.fxml",
                         "BiblioSedaos - Dashboard", null, null, true, null);
+                Warmup.stop();
+                Warmup.recordTimeToDashboard(System.nanoTime() - loginStart);
                 LOGGER.log(Level.INFO, "Login ok: {0}", resp.getNom());
             } else {
                 showError("Resposta inesperada del servidor.");
@@ -129,7 +134,7 @@ public class LoginController {
         });
 
         disableUiDuringLogin();
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submit(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -2,6 +2,7 @@ package com.bibliosedaos.desktop.controller;
 
 import com.bibliosedaos.desktop.api.ApiClient;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.TaskPriority;
 import com.bibliosedaos.desktop.model.User;
 import com.bibliosedaos.desktop.security.SessionStore;
 import com.bibliosedaos.desktop.service.UserService;
@@ -326,7 +327,7 @@ public class ProfileEditController {
 
         saveButton.setDisable(true);
         errorLabel.setVisible(false);
-        ApiClient.BG_EXEC.submit(updateTask);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, updateTask);
     }
 
     /**
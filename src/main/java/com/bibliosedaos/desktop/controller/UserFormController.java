@@ -2,6 +2,7 @@ package com.bibliosedaos.desktop.controller;
 
 import com.bibliosedaos.desktop.api.ApiClient;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.TaskPriority;
 import com.bibliosedaos.desktop.model.User;
 import com.bibliosedaos.desktop.service.UserService;
 import com.bibliosedaos.desktop.ui.navigator.Navigator;
@@ -504,7 +505,7 @@ public class UserFormController {
 
         setVisibleManaged(saveButton, false);
         errorLabel.setVisible(false);
-        ApiClient.BG_EXEC.submit(createTask);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, createTask);
     }
 
     /**
@@ -537,7 +538,7 @@ public class UserFormController {
 
         setVisibleManaged(saveButton, false);
         errorLabel.setVisible(false);
-        ApiClient.BG_EXEC.submit(updateTask);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, updateTask);
     }
 
     /**
@@ -562,7 +563,7 @@ public class UserFormController {
             showError("Error eliminant usuari: " + (ex != null ? ex.getMessage() : "Error desconegut"));
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -1,12 +1,16 @@
 package com.bibliosedaos.desktop.controller;
 
 import com.bibliosedaos.desktop.api.ApiClient;
+import com.bibliosedaos.desktop.api.TaskPriority;
 import com.bibliosedaos.desktop.model.User;
 import com.bibliosedaos.desktop.service.UserService;
 import com.bibliosedaos.desktop.ui.navigator.Navigator;
 import com.bibliosedaos.desktop.ui.util.AnimationUtils;
+import com.bibliosedaos.desktop.ui.util.ListFilter;
+import com.bibliosedaos.desktop.ui.util.TextIndex;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
@@ -15,9 +19,11 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
 import javafx.scene.shape.SVGPath;
 
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -64,6 +70,8 @@ public class UsersListController {
     private final Navigator navigator;
 
     private final ObservableList<User> masterList = FXCollections.observableArrayList();
+    /** Cerca sobre masterList, fora del fil de JavaFX; el resultat va a filteredList. */
+    private final ListFilter<User> searchFilter = new ListFilter<>(searchFields(), this::onFilterResult);
     private final ObservableList<User> filteredList = FXCollections.observableArrayList();
     private final ObservableList<User> currentPageList = FXCollections.observableArrayList();
     private int currentPage = 0;
@@ -78,6 +86,7 @@ public class UsersListController {
     public UsersListController(UserService userService, Navigator navigator) {
         this.userService = Objects.requireNonNull(userService, "UserService no pot ser null");
         this.navigator = Objects.requireNonNull(navigator, "Navigator no pot ser null");
+        masterList.addListener((ListChangeListener<User>) c -> searchFilter.setItems(masterList));
     }
 
     /**
@@ -259,7 +268,7 @@ public class UsersListController {
      * Configura els listeners per als camps de cerca.
      */
     private void setupListeners() {
-        searchField.textProperty().addListener((obs, oldValue, newValue) -> applyFilterAndPagination());
+        searchField.textProperty().addListener((obs, oldValue, newValue) -> searchFilter.search(selectedField(), newValue));
         searchFieldCombo.valueProperty().addListener((obs, oldValue, newValue) -> applyFilterAndPagination());
         searchByIdButton.setOnAction(e -> onSearchById());
         searchByIdField.setOnAction(e -> onSearchById());
@@ -307,35 +316,54 @@ public class UsersListController {
      * Aplica els filtres i la paginacio a la llista d'usuaris.
      */
     private void applyFilterAndPagination() {
-        final String query = searchField.getText() == null ? "" : searchField.getText().trim().toLowerCase();
-        final String field = searchFieldCombo.getValue() == null ? "Tots" : searchFieldCombo.getValue();
-
-        filteredList.setAll(masterList.filtered(user -> matchesSearchCriteria(user, query, field)));
+        searchFilter.searchNow(selectedField(), searchField.getText());
+    }
 
+    /**
+     * Mostra el resultat d'una cerca des de la primera pagina.
+     *
+     * @param result usuaris que coincideixen
+     */
+    private void onFilterResult(List<User> result) {
+        filteredList.setAll(result);
         currentPage = 0;
         updatePagination();
     }
 
     /**
-     * Comprova si un usuari compleix amb els criteris de cerca.
+     * Camp seleccionat al combo de cerca.
+     *
+     * @return nom del camp, o null per a "Tots"
+     */
+    private String selectedField() {
+        String field = searchFieldCombo.getValue();
+        return field == null || "Tots".equals(field) ? null : field;
+    }
+
+    /**
+     * Camps de cerca del combo.
+     *
+     * @return nick, nom, cognoms i email
+     */
+    private static Map<String, Function<? super User, String>> searchFields() {
+        Map<String, Function<? super User, String>> camps = new LinkedHashMap<>();
+        camps.put("Nick", User::getNick);
+        camps.put("Nom", User::getNom);
+        camps.put("Cognom", user -> TextIndex.join(user.getCognom1(), user.getCognom2()));
+        camps.put("Email", User::getEmail);
+        return camps;
+    }
+
+    /**
+     * Comprova si un camp conte la cerca de manera segura.
      *
-     * @param user Usuari a verificar
-     * @param query Text de cerca
      * @param field Camp on cercar
-     * @return true si l'usuari compleix els criteris
-     */
-    private boolean matchesSearchCriteria(User user, String query, String field) {
-        if (query.isEmpty()) return true;
-
-        return switch (field) {
-            case "Nick" -> safeContains(user.getNick(), query);
-            case "Nom" -> safeContains(user.getNom(), query);
-            case "Cognom" -> safeContains(user.getCognom1(), query) || safeContains(user.getCognom2(), query);
-            case "Email" -> safeContains(user.getEmail(), query);
-            default -> safeContains(user.getNick(), query) || safeContains(user.getNom(), query)
-                    || safeContains(user.getCognom1(), query) || safeContains(user.getCognom2(), query)
-                    || safeContains(user.getEmail(), query);
-        };
+     * @param query Text a cercar
+     * @return true si el camp conte la cerca
+     */
+    static boolean safeContains(String field, String query) {
+        if (field == null || query == null) return false;
+        return TextIndex.normalize(field).contains(TextIndex.normalize(query));
     }
 
     /**
@@ -407,19 +435,6 @@ public class UsersListController {
         }
     }
 
-    /**
-     * Comprova si un camp conte la cadena de cerca.
-     *
-     * @param field Camp a verificar
-     * @param query Text a cercar
-     * @return true si el camp conte la cerca
-     */
-    static boolean safeContains(String field, String query) {
-        if (field == null || query == null) return false;
-        return field.toLowerCase(Locale.ROOT).contains(query.toLowerCase(Locale.ROOT));
-    }
-
-
     /**
      * Gestiona la cerca per ID o NIF.
      */
@@ -440,7 +455,7 @@ public class UsersListController {
 
         Task<User> task = createUserSearchTask(query, type);
         configureTaskHandlers(task, type, query);
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submit(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -582,7 +597,7 @@ public class UsersListController {
             showError("Error eliminant usuari", ex.getMessage());
         });
 
-        ApiClient.BG_EXEC.submit(task);
+        ApiClient.BG_EXEC.submitDetached(TaskPriority.INTERACTIVE, task);
     }
 
     /**
@@ -7,6 +7,7 @@ import com.bibliosedaos.desktop.model.dto.LoginResponse;
 import com.bibliosedaos.desktop.security.SessionStore;
 
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -50,8 +51,29 @@ public class AuthService {
      */
     public LoginResponse login(String nick, String password) throws ApiException {
         LoginRequest req = new LoginRequest(nick, password);
-        LoginResponse resp = authApi.login(req);
+        return storeSession(authApi.login(req));
+    }
 
+    /**
+     * Versió no bloquejant de {@link #login(String, String)}.
+     * La sessió s'emmagatzema abans de completar el futur.
+     *
+     * @param nick nom d'usuari
+     * @param password contrasenya
+     * @return futur amb la resposta (token i dades d'usuari)
+     */
+    public CompletableFuture<LoginResponse> loginAsync(String nick, String password) {
+        LoginRequest req = new LoginRequest(nick, password);
+        return authApi.loginAsync(req).thenApply(this::storeSession);
+    }
+
+    /**
+     * Desa el token i les dades d'usuari a la sessió si la resposta és vàlida.
+     *
+     * @param resp resposta del login
+     * @return la mateixa resposta
+     */
+    private LoginResponse storeSession(LoginResponse resp) {
         if (resp != null && resp.getAccessToken() != null && !resp.getAccessToken().isEmpty()) {
             SessionStore store = SessionStore.getInstance();
             store.setToken(resp.getAccessToken());
@@ -61,7 +83,6 @@ public class AuthService {
             store.setCognom1(resp.getCognom1());
             store.setCognom2(resp.getCognom2());
         }
-
         return resp;
     }
 
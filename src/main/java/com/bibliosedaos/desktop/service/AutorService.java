@@ -6,6 +6,7 @@ import com.bibliosedaos.desktop.model.Autor;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Servei per a les operacions d'autors.
@@ -36,6 +37,13 @@ public class AutorService {
      */
     public List<Autor> getAllAutors() throws ApiException { return autorApi.getAllAutors(); }
 
+    /**
+     * Versio no bloquejant de {@link #getAllAutors()}.
+     *
+     * @return futur amb llista de tots els autors
+     */
+    public CompletableFuture<List<Autor>> getAllAutorsAsync() { return autorApi.getAllAutorsAsync(); }
+
     /**
      * Crea un nou autor al sistema.
      *
@@ -45,6 +53,14 @@ public class AutorService {
      */
     public Autor createAutor(Autor autor) throws ApiException { return autorApi.createAutor(autor); }
 
+    /**
+     * Versio no bloquejant de {@link #createAutor(Autor)}.
+     *
+     * @param autor dades del nou autor
+     * @return futur amb autor creat amb el ID assignat
+     */
+    public CompletableFuture<Autor> createAutorAsync(Autor autor) { return autorApi.createAutorAsync(autor); }
+
     /**
      * Elimina un autor del sistema.
      *
@@ -53,6 +69,14 @@ public class AutorService {
      */
     public void deleteAutor(Long id) throws ApiException { autorApi.deleteAutor(id); }
 
+    /**
+     * Versio no bloquejant de {@link #deleteAutor(Long)}.
+     *
+     * @param id ID de l'autor a eliminar
+     * @return futur completat quan acaba l'operacio
+     */
+    public CompletableFuture<Void> deleteAutorAsync(Long id) { return autorApi.deleteAutorAsync(id); }
+
     /**
      * Obte un autor pel seu ID.
      *
@@ -61,4 +85,12 @@ public class AutorService {
      * @throws ApiException si falla la comunicacio o l'autor no es troba
      */
     public Autor getAutorById(Long id) throws ApiException { return autorApi.findAutorById(id); }
+
+    /**
+     * Versio no bloquejant de {@link #getAutorById(Long)}.
+     *
+     * @param id ID de l'autor a obtenir
+     * @return futur amb autor amb totes les seves dades
+     */
+    public CompletableFuture<Autor> getAutorByIdAsync(Long id) { return autorApi.findAutorByIdAsync(id); }
 }
\ No newline at end of file
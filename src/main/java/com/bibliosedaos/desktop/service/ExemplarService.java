@@ -2,22 +2,62 @@ package com.bibliosedaos.desktop.service;
 
 import com.bibliosedaos.desktop.api.ExemplarApi;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.MultiGet;
+import com.bibliosedaos.desktop.api.TaskPriority;
 import com.bibliosedaos.desktop.model.Exemplar;
+import com.bibliosedaos.desktop.model.Llibre;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Servei per a les operacions d'exemplars.
  * Capa intermèdia entre els controladors i l'API d'exemplars.
  *
+ * Manté un índex dels exemplars per ID i per llibre ({@link LongIndex}), de manera que
+ * {@link #getExemplarsForBook(Long)} no ha de descarregar tota la taula cada cop. El servidor
+ * no té consulta d'exemplars per llibre: la primera consulta carrega una instantania completa
+ * i, a partir d'aqui, les respostes de crear, actualitzar i eliminar (i les d'altres consultes
+ * que retornen exemplars) actualitzen l'índex. Quan la instantania te mes de
+ * {@link #SYNC_INTERVAL} es torna a sincronitzar en segon pla.
+ *
+ * L'índex nomes decideix quins exemplars te un llibre: l'estat (reservat, lloc) pot canviar al
+ * servidor sense passar per aquest servei (prestecs, altres terminals), de manera que cada
+ * consulta per llibre torna a demanar aquests exemplars per ID. La instantania completa es
+ * revalida amb ETag ({@link com.bibliosedaos.desktop.api.HttpCache}): si no ha canviat, el
+ * servidor respon 304 sense cos.
+ *
  * @author Sergio
  * @version 1.0-SNAPSHOT
  * @since 2025
  */
 public class ExemplarService {
+
+    /** Antiguitat maxima de la instantania abans de tornar-la a demanar en segon pla. */
+    public static final Duration SYNC_INTERVAL = Duration.ofMinutes(5);
+
     private final ExemplarApi exemplarApi;
 
+    /** Protegeix els índexs i l'estat de la sincronitzacio. */
+    private final Object lock = new Object();
+    private final LongIndex<Exemplar> perId = new LongIndex<>();
+    private final LongIndex<List<Exemplar>> perLlibre = new LongIndex<>();
+
+    /** Moment (System.nanoTime) de l'última instantania; 0 si no n'hi ha cap. */
+    private long syncedAt;
+
+    /** Instantanies demanades que encara no han arribat. */
+    private int syncsInFlight;
+
+    /** Canvis aplicats mentre hi ha instantanies en curs; es reapliquen quan arriben. */
+    private List<Runnable> pendingChanges;
+
     /**
      * Constructor principal amb injeccio de dependencies.
      *
@@ -34,7 +74,26 @@ public class ExemplarService {
      * @return llista de tots els exemplars
      * @throws ApiException si hi ha errors de comunicacio o permisos
      */
-    public List<Exemplar> getAllExemplars() throws ApiException { return exemplarApi.getAllExemplars(); }
+    public List<Exemplar> getAllExemplars() throws ApiException {
+        beginSync();
+        try {
+            return replaceAll(exemplarApi.getAllExemplars());
+        } finally {
+            endSync();
+        }
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getAllExemplars()}.
+     *
+     * @return futur amb llista de tots els exemplars
+     */
+    public CompletableFuture<List<Exemplar>> getAllExemplarsAsync() {
+        beginSync();
+        return exemplarApi.getAllExemplarsAsync()
+                .thenApply(this::replaceAll)
+                .whenComplete((r, e) -> endSync());
+    }
 
     /**
      * Obte tots els exemplars lliures (disponibles) del sistema.
@@ -42,7 +101,14 @@ public class ExemplarService {
      * @return llista d'exemplars disponibles
      * @throws ApiException si hi ha errors de comunicacio o permisos
      */
-    public List<Exemplar> getExemplarsLliures() throws ApiException { return exemplarApi.getExemplarsLliures(); }
+    public List<Exemplar> getExemplarsLliures() throws ApiException { return upsertAll(exemplarApi.getExemplarsLliures()); }
+
+    /**
+     * Versio no bloquejant de {@link #getExemplarsLliures()}.
+     *
+     * @return futur amb llista d'exemplars disponibles
+     */
+    public CompletableFuture<List<Exemplar>> getExemplarsLliuresAsync() { return exemplarApi.getExemplarsLliuresAsync().thenApply(this::upsertAll); }
 
     /**
      * Cerca exemplars lliures pel titol del llibre.
@@ -53,6 +119,14 @@ public class ExemplarService {
      */
     public List<Exemplar> findExemplarsByTitol(String titol) throws ApiException { return exemplarApi.findExemplarsLliuresByTitol(titol); }
 
+    /**
+     * Versio no bloquejant de {@link #findExemplarsByTitol(String)}.
+     *
+     * @param titol titol del llibre a buscar
+     * @return futur amb llista d'exemplars lliures que coincideixen amb el titol
+     */
+    public CompletableFuture<List<Exemplar>> findExemplarsByTitolAsync(String titol) { return exemplarApi.findExemplarsLliuresByTitolAsync(titol); }
+
     /**
      * Cerca exemplars lliures pel nom de l'autor.
      *
@@ -62,6 +136,14 @@ public class ExemplarService {
      */
     public List<Exemplar> findExemplarsByAutor(String autorNom) throws ApiException { return exemplarApi.findExemplarsLliuresByAutorNom(autorNom); }
 
+    /**
+     * Versio no bloquejant de {@link #findExemplarsByAutor(String)}.
+     *
+     * @param autorNom nom de l'autor a buscar
+     * @return futur amb llista d'exemplars lliures que coincideixen amb l'autor
+     */
+    public CompletableFuture<List<Exemplar>> findExemplarsByAutorAsync(String autorNom) { return exemplarApi.findExemplarsLliuresByAutorNomAsync(autorNom); }
+
     /**
      * Crea un nou exemplar al sistema.
      *
@@ -69,7 +151,15 @@ public class ExemplarService {
      * @return exemplar creat amb el ID assignat
      * @throws ApiException si falla la comunicacio o hi ha errors de validacio
      */
-    public Exemplar createExemplar(Exemplar ex) throws ApiException { return exemplarApi.createExemplar(ex); }
+    public Exemplar createExemplar(Exemplar ex) throws ApiException { return created(ex, exemplarApi.createExemplar(ex)); }
+
+    /**
+     * Versio no bloquejant de {@link #createExemplar(Exemplar)}.
+     *
+     * @param ex dades del nou exemplar
+     * @return futur amb exemplar creat amb el ID assignat
+     */
+    public CompletableFuture<Exemplar> createExemplarAsync(Exemplar ex) { return exemplarApi.createExemplarAsync(ex).thenApply(c -> created(ex, c)); }
 
     /**
      * Actualitza un exemplar al servidor.
@@ -79,7 +169,16 @@ public class ExemplarService {
      * @return exemplar actualitzat
      * @throws ApiException si falla la comunicacio o hi ha errors de validacio
      */
-    public Exemplar updateExemplar(Long id, Exemplar ex) throws ApiException { return exemplarApi.updateExemplar(id, ex); }
+    public Exemplar updateExemplar(Long id, Exemplar ex) throws ApiException { return created(ex, exemplarApi.updateExemplar(id, ex)); }
+
+    /**
+     * Versio no bloquejant de {@link #updateExemplar(Long,Exemplar)}.
+     *
+     * @param id ID de l'exemplar a actualitzar
+     * @param ex dades actualitzades de l'exemplar
+     * @return futur amb exemplar actualitzat
+     */
+    public CompletableFuture<Exemplar> updateExemplarAsync(Long id, Exemplar ex) { return exemplarApi.updateExemplarAsync(id, ex).thenApply(u -> created(ex, u)); }
 
     /**
      * Elimina un exemplar del sistema.
@@ -87,7 +186,23 @@ public class ExemplarService {
      * @param id ID de l'exemplar a eliminar
      * @throws ApiException si falla la comunicacio o l'exemplar no es troba
      */
-    public void deleteExemplar(Long id) throws ApiException { exemplarApi.deleteExemplar(id); }
+    public void deleteExemplar(Long id) throws ApiException {
+        exemplarApi.deleteExemplar(id);
+        removed(id);
+    }
+
+    /**
+     * Versio no bloquejant de {@link #deleteExemplar(Long)}.
+     *
+     * @param id ID de l'exemplar a eliminar
+     * @return futur completat quan acaba l'operacio
+     */
+    public CompletableFuture<Void> deleteExemplarAsync(Long id) {
+        return exemplarApi.deleteExemplarAsync(id).thenApply(v -> {
+            removed(id);
+            return v;
+        });
+    }
 
     /**
      * Obte un exemplar pel seu ID.
@@ -96,5 +211,240 @@ public class ExemplarService {
      * @return exemplar amb totes les seves dades
      * @throws ApiException si falla la comunicacio o l'exemplar no es troba
      */
-    public Exemplar getExemplarById(Long id) throws ApiException { return exemplarApi.findExemplarById(id); }
-}
\ No newline at end of file
+    public Exemplar getExemplarById(Long id) throws ApiException { return upsert(exemplarApi.findExemplarById(id)); }
+
+    /**
+     * Versio no bloquejant de {@link #getExemplarById(Long)}.
+     *
+     * @param id ID de l'exemplar a obtenir
+     * @return futur amb exemplar amb totes les seves dades
+     */
+    public CompletableFuture<Exemplar> getExemplarByIdAsync(Long id) { return exemplarApi.findExemplarByIdAsync(id).thenApply(this::upsert); }
+
+    /**
+     * Obte diversos exemplars pel seu ID.
+     *
+     * @param ids IDs dels exemplars a obtenir
+     * @return exemplars trobats en l'ordre dels IDs i errors dels que han fallat
+     * @throws ApiException si el fil s'interromp mentre espera
+     */
+    public MultiGet.Result<Exemplar> getExemplarsByIds(Collection<Long> ids) throws ApiException { return exemplarApi.findExemplarsByIds(ids); }
+
+    /**
+     * Versio no bloquejant de {@link #getExemplarsByIds(Collection)}.
+     *
+     * @param ids IDs dels exemplars a obtenir
+     * @return futur amb els exemplars trobats i els errors
+     */
+    public CompletableFuture<MultiGet.Result<Exemplar>> getExemplarsByIdsAsync(Collection<Long> ids) { return exemplarApi.findExemplarsByIdsAsync(ids); }
+
+    /**
+     * Obte els exemplars d'un llibre, amb l'estat actual del servidor.
+     * L'índex local diu quins exemplars te el llibre i aquests es demanen per ID; nomes la
+     * primera consulta (o una despres de {@link #clearCache()}) descarrega tots els exemplars.
+     * Els que el servidor ja no troba (404) es treuen de l'índex.
+     *
+     * @param llibreId ID del llibre
+     * @return exemplars del llibre (llista buida si no en te)
+     * @throws ApiException si falla la primera carrega o la consulta d'algun exemplar
+     */
+    public List<Exemplar> getExemplarsForBook(Long llibreId) throws ApiException {
+        if (llibreId == null) return List.of();
+        if (!isSynced()) {
+            getAllExemplars();
+            return forBook(llibreId);
+        }
+        refreshIfStale();
+        List<Long> ids = idsForBook(llibreId);
+        if (ids.isEmpty()) return List.of();
+        return refreshed(llibreId, exemplarApi.findExemplarsByIds(ids));
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getExemplarsForBook(Long)}.
+     *
+     * @param llibreId ID del llibre
+     * @return futur amb els exemplars del llibre
+     */
+    public CompletableFuture<List<Exemplar>> getExemplarsForBookAsync(Long llibreId) {
+        if (llibreId == null) return CompletableFuture.completedFuture(List.of());
+        if (!isSynced()) {
+            return getAllExemplarsAsync().thenApply(all -> forBook(llibreId));
+        }
+        refreshIfStale();
+        List<Long> ids = idsForBook(llibreId);
+        if (ids.isEmpty()) return CompletableFuture.completedFuture(List.of());
+        return exemplarApi.findExemplarsByIdsAsync(ids).thenApply(r -> {
+            try {
+                return refreshed(llibreId, r);
+            } catch (ApiException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Oblida l'índex; la propera consulta per llibre tornara a carregar la instantania.
+     */
+    public void clearCache() {
+        synchronized (lock) {
+            perId.clear();
+            perLlibre.clear();
+            syncedAt = 0;
+        }
+    }
+
+    private boolean isSynced() {
+        synchronized (lock) {
+            return syncedAt != 0;
+        }
+    }
+
+    private List<Long> idsForBook(long llibreId) {
+        synchronized (lock) {
+            List<Exemplar> llista = perLlibre.get(llibreId);
+            if (llista == null) return List.of();
+            List<Long> ids = new ArrayList<>(llista.size());
+            for (Exemplar ex : llista) ids.add(ex.getId());
+            return ids;
+        }
+    }
+
+    /**
+     * Aplica a l'índex l'estat actual dels exemplars d'un llibre.
+     *
+     * @param llibreId ID del llibre
+     * @param result exemplars demanats per ID
+     * @return exemplars trobats, en l'ordre de l'índex
+     * @throws ApiException si algun exemplar ha fallat per un motiu diferent de no existir
+     */
+    private List<Exemplar> refreshed(long llibreId, MultiGet.Result<Exemplar> result) throws ApiException {
+        List<Exemplar> llista = new ArrayList<>(result.getFound().size());
+        for (Exemplar ex : result) {
+            // la consulta per ID pot no portar el llibre: es conserva el de l'índex
+            if (ex.getLlibre() == null) {
+                Llibre llibre = new Llibre();
+                llibre.setId(llibreId);
+                ex.setLlibre(llibre);
+            }
+            llista.add(upsert(ex));
+        }
+        for (Map.Entry<Long, ApiException> e : result.getFailures().entrySet()) {
+            if (e.getValue().getStatusCode() == 404) removed(e.getKey());
+        }
+        if (result.getFailures().values().stream().anyMatch(e -> e.getStatusCode() != 404)) {
+            result.getValuesOrThrow();
+        }
+        return llista;
+    }
+
+    private List<Exemplar> forBook(long llibreId) {
+        synchronized (lock) {
+            List<Exemplar> llista = perLlibre.get(llibreId);
+            return llista == null ? List.of() : List.copyOf(llista);
+        }
+    }
+
+    /**
+     * Llança una sincronitzacio de fons si la instantania ha caducat i no n'hi ha cap en curs.
+     */
+    private void refreshIfStale() {
+        synchronized (lock) {
+            if (syncsInFlight > 0 || System.nanoTime() - syncedAt < SYNC_INTERVAL.toNanos()) return;
+        }
+        TaskPriority.runAs(TaskPriority.BACKGROUND, this::getAllExemplarsAsync);
+    }
+
+    private void beginSync() {
+        synchronized (lock) {
+            if (syncsInFlight++ == 0) pendingChanges = new ArrayList<>();
+        }
+    }
+
+    private void endSync() {
+        synchronized (lock) {
+            if (--syncsInFlight == 0) pendingChanges = null;
+        }
+    }
+
+    /**
+     * Substitueix l'índex per una instantania completa i hi torna a aplicar els canvis fets
+     * mentre la instantania era en curs, que el servidor potser encara no hi incloïa.
+     *
+     * @param all tots els exemplars
+     * @return la mateixa llista
+     */
+    private List<Exemplar> replaceAll(List<Exemplar> all) {
+        if (all == null) return null;
+        synchronized (lock) {
+            perId.clear();
+            perLlibre.clear();
+            for (Exemplar ex : all) put(ex);
+            if (pendingChanges != null) pendingChanges.forEach(Runnable::run);
+            syncedAt = Math.max(1, System.nanoTime());
+        }
+        return all;
+    }
+
+    private List<Exemplar> upsertAll(List<Exemplar> llista) {
+        if (llista != null) llista.forEach(this::upsert);
+        return llista;
+    }
+
+    private Exemplar upsert(Exemplar ex) {
+        if (ex == null || ex.getId() == null) return ex;
+        change(() -> put(ex));
+        return ex;
+    }
+
+    /**
+     * Desa la resposta de crear o actualitzar; si no porta el llibre, s'agafa el de la peticio.
+     *
+     * @param peticio exemplar enviat
+     * @param resposta exemplar retornat pel servidor
+     * @return la resposta
+     */
+    private Exemplar created(Exemplar peticio, Exemplar resposta) {
+        if (resposta != null && resposta.getLlibre() == null && peticio != null) {
+            resposta.setLlibre(peticio.getLlibre());
+        }
+        return upsert(resposta);
+    }
+
+    private void removed(Long id) {
+        if (id == null) return;
+        change(() -> remove(id));
+    }
+
+    private void change(Runnable canvi) {
+        synchronized (lock) {
+            canvi.run();
+            if (pendingChanges != null) pendingChanges.add(canvi);
+        }
+    }
+
+    private void put(Exemplar ex) {
+        if (ex == null || ex.getId() == null) return;
+        remove(ex.getId());
+        perId.put(ex.getId(), ex);
+        Llibre llibre = ex.getLlibre();
+        if (llibre != null && llibre.getId() != null) {
+            List<Exemplar> llista = perLlibre.get(llibre.getId());
+            if (llista == null) {
+                llista = new ArrayList<>(2);
+                perLlibre.put(llibre.getId(), llista);
+            }
+            llista.add(ex);
+        }
+    }
+
+    private void remove(long id) {
+        Exemplar old = perId.remove(id);
+        if (old == null || old.getLlibre() == null || old.getLlibre().getId() == null) return;
+        long llibreId = old.getLlibre().getId();
+        List<Exemplar> llista = perLlibre.get(llibreId);
+        if (llista == null) return;
+        llista.removeIf(x -> x.getId() != null && x.getId() == id);
+        if (llista.isEmpty()) perLlibre.remove(llibreId);
+    }
+}
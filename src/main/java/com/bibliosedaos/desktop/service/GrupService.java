@@ -2,16 +2,25 @@ package com.bibliosedaos.desktop.service;
 
 import com.bibliosedaos.desktop.api.ApiException;
 import com.bibliosedaos.desktop.api.GrupApi;
+import com.bibliosedaos.desktop.api.MultiGet;
+import com.bibliosedaos.desktop.api.UserApi;
 import com.bibliosedaos.desktop.model.Grup;
 import com.bibliosedaos.desktop.model.User;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Servei per a les operacions de grups.
  * Capa intermèdia entre els controladors i l'API de grups.
  *
+ * Si el servidor retorna membres sense dades (nomes l'ID), i el servei te l'API d'usuaris,
+ * es completen tots de cop amb {@link UserApi#getUsersByIds} (consultes en paral·lel
+ * acotat, veure {@link MultiGet}) en lloc d'un per un. Un membre que no es pot completar
+ * es deixa tal com ha arribat.
+ *
  * @author Sergio
  * @version 1.0-SNAPSHOT
  * @since 2025
@@ -19,6 +28,9 @@ import java.util.Objects;
 public class GrupService {
     private final GrupApi grupApi;
 
+    /** API d'usuaris per completar els membres; null si no se'n completa cap. */
+    private final UserApi userApi;
+
     /**
      * Constructor principal amb injeccio de dependencies.
      *
@@ -26,7 +38,19 @@ public class GrupService {
      * @throws NullPointerException si grupApi es null
      */
     public GrupService(GrupApi grupApi) {
+        this(grupApi, null);
+    }
+
+    /**
+     * Constructor amb l'API d'usuaris per completar els membres que arriben sense dades.
+     *
+     * @param grupApi implementacio de GrupApi (mock o real)
+     * @param userApi implementacio de UserApi (pot ser null)
+     * @throws NullPointerException si grupApi es null
+     */
+    public GrupService(GrupApi grupApi, UserApi userApi) {
         this.grupApi = Objects.requireNonNull(grupApi, "GrupApi no pot ser null");
+        this.userApi = userApi;
     }
 
     /**
@@ -39,6 +63,15 @@ public class GrupService {
         return grupApi.getAllGrups();
     }
 
+    /**
+     * Versio no bloquejant de {@link #getAllGrups()}.
+     *
+     * @return futur amb llista de tots els grups
+     */
+    public CompletableFuture<List<Grup>> getAllGrupsAsync() {
+        return grupApi.getAllGrupsAsync();
+    }
+
     /**
      * Crea un nou grup al sistema.
      *
@@ -50,6 +83,16 @@ public class GrupService {
         return grupApi.createGrup(grup);
     }
 
+    /**
+     * Versio no bloquejant de {@link #createGrup(Grup)}.
+     *
+     * @param grup dades del nou grup
+     * @return futur amb grup creat amb el ID assignat
+     */
+    public CompletableFuture<Grup> createGrupAsync(Grup grup) {
+        return grupApi.createGrupAsync(grup);
+    }
+
     /**
      * Elimina un grup del sistema.
      *
@@ -60,6 +103,16 @@ public class GrupService {
         grupApi.deleteGrup(grupId);
     }
 
+    /**
+     * Versio no bloquejant de {@link #deleteGrup(Long)}.
+     *
+     * @param grupId ID del grup a eliminar
+     * @return futur completat quan acaba l'operacio
+     */
+    public CompletableFuture<Void> deleteGrupAsync(Long grupId) {
+        return grupApi.deleteGrupAsync(grupId);
+    }
+
     /**
      * Afegeix un usuari a un grup.
      *
@@ -72,6 +125,17 @@ public class GrupService {
         return grupApi.afegirUsuariGrup(grupId, myUserId);
     }
 
+    /**
+     * Versio no bloquejant de {@link #joinGrup(Long,Long)}.
+     *
+     * @param grupId ID del grup al que s'afegira l'usuari
+     * @param myUserId ID de l'usuari a afegir
+     * @return futur amb grup actualitzat amb el nou membre
+     */
+    public CompletableFuture<Grup> joinGrupAsync(Long grupId, Long myUserId) {
+        return grupApi.afegirUsuariGrupAsync(grupId, myUserId);
+    }
+
     /**
      * Obte tots els membres d'un grup.
      *
@@ -80,7 +144,54 @@ public class GrupService {
      * @throws ApiException si falla la comunicacio o el grup no es troba
      */
     public List<User> getMembres(Long grupId) throws ApiException {
-        return grupApi.getMembresGrup(grupId);
+        List<User> membres = grupApi.getMembresGrup(grupId);
+        List<Long> incomplets = incomplets(membres);
+        return incomplets.isEmpty() ? membres : completar(membres, userApi.getUsersByIds(incomplets));
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getMembres(Long)}.
+     *
+     * @param grupId ID del grup del que obtenir els membres
+     * @return futur amb llista de membres del grup
+     */
+    public CompletableFuture<List<User>> getMembresAsync(Long grupId) {
+        return grupApi.getMembresGrupAsync(grupId).thenCompose(membres -> {
+            List<Long> incomplets = incomplets(membres);
+            return incomplets.isEmpty()
+                    ? CompletableFuture.completedFuture(membres)
+                    : userApi.getUsersByIdsAsync(incomplets).thenApply(trobats -> completar(membres, trobats));
+        });
+    }
+
+    /**
+     * IDs dels membres que han arribat sense dades (sense nom).
+     *
+     * @param membres membres retornats pel servidor
+     * @return IDs a completar; buit si no n'hi ha o no hi ha API d'usuaris
+     */
+    private List<Long> incomplets(List<User> membres) {
+        if (userApi == null || membres == null) return List.of();
+        return membres.stream()
+                .filter(u -> u != null && u.getId() != null && u.getNom() == null)
+                .map(User::getId)
+                .toList();
+    }
+
+    /**
+     * Substitueix els membres incomplets pels usuaris trobats, en el mateix ordre.
+     *
+     * @param membres membres retornats pel servidor
+     * @param trobats usuaris consultats per ID
+     * @return llista de membres
+     */
+    private static List<User> completar(List<User> membres, MultiGet.Result<User> trobats) {
+        List<User> result = new ArrayList<>(membres.size());
+        for (User membre : membres) {
+            User complet = membre != null && membre.getId() != null ? trobats.get(membre.getId()) : null;
+            result.add(complet != null ? complet : membre);
+        }
+        return result;
     }
 
     /**
@@ -93,4 +204,15 @@ public class GrupService {
     public void sortirDelGrup(Long grupId, Long membreId) throws ApiException {
         grupApi.sortirUsuari(grupId, membreId);
     }
+
+    /**
+     * Versio no bloquejant de {@link #sortirDelGrup(Long,Long)}.
+     *
+     * @param grupId ID del grup del que sortir
+     * @param membreId ID de l'usuari a eliminar del grup
+     * @return futur completat quan acaba l'operacio
+     */
+    public CompletableFuture<Void> sortirDelGrupAsync(Long grupId, Long membreId) {
+        return grupApi.sortirUsuariAsync(grupId, membreId);
+    }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.bibliosedaos.desktop.model.Horari;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Servei per a les operacions d'horaris.
@@ -38,6 +39,15 @@ public class HorariService {
         return horariApi.getAllHoraris();
     }
 
+    /**
+     * Versio no bloquejant de {@link #getAllHoraris()}.
+     *
+     * @return futur amb llista de tots els horaris
+     */
+    public CompletableFuture<List<Horari>> getAllHorarisAsync() {
+        return horariApi.getAllHorarisAsync();
+    }
+
     /**
      * Crea un nou horari al sistema.
      *
@@ -48,4 +58,14 @@ public class HorariService {
     public Horari createHorari(Horari horari) throws ApiException {
         return horariApi.createHorari(horari);
     }
+
+    /**
+     * Versio no bloquejant de {@link #createHorari(Horari)}.
+     *
+     * @param horari dades del nou horari
+     * @return futur amb horari creat amb el ID assignat
+     */
+    public CompletableFuture<Horari> createHorariAsync(Horari horari) {
+        return horariApi.createHorariAsync(horari);
+    }
 }
\ No newline at end of file
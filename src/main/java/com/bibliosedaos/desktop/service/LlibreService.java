@@ -2,10 +2,13 @@ package com.bibliosedaos.desktop.service;
 
 import com.bibliosedaos.desktop.api.LlibreApi;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.MultiGet;
 import com.bibliosedaos.desktop.model.Llibre;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Servei per a les operacions de llibres.
@@ -36,6 +39,13 @@ public class LlibreService {
      */
     public List<Llibre> getAllBooks() throws ApiException { return llibreApi.getAllLlibres(); }
 
+    /**
+     * Versio no bloquejant de {@link #getAllBooks()}.
+     *
+     * @return futur amb llista de tots els llibres
+     */
+    public CompletableFuture<List<Llibre>> getAllBooksAsync() { return llibreApi.getAllLlibresAsync(); }
+
     /**
      * Obte un llibre pel seu ID.
      *
@@ -45,6 +55,31 @@ public class LlibreService {
      */
     public Llibre getBookById(Long id) throws ApiException { return llibreApi.findLlibreById(id); }
 
+    /**
+     * Versio no bloquejant de {@link #getBookById(Long)}.
+     *
+     * @param id ID del llibre a obtenir
+     * @return futur amb llibre amb totes les seves dades
+     */
+    public CompletableFuture<Llibre> getBookByIdAsync(Long id) { return llibreApi.findLlibreByIdAsync(id); }
+
+    /**
+     * Obte diversos llibres pel seu ID.
+     *
+     * @param ids IDs dels llibres a obtenir
+     * @return llibres trobats en l'ordre dels IDs i errors dels que han fallat
+     * @throws ApiException si el fil s'interromp mentre espera
+     */
+    public MultiGet.Result<Llibre> getBooksByIds(Collection<Long> ids) throws ApiException { return llibreApi.findLlibresByIds(ids); }
+
+    /**
+     * Versio no bloquejant de {@link #getBooksByIds(Collection)}.
+     *
+     * @param ids IDs dels llibres a obtenir
+     * @return futur amb els llibres trobats i els errors
+     */
+    public CompletableFuture<MultiGet.Result<Llibre>> getBooksByIdsAsync(Collection<Long> ids) { return llibreApi.findLlibresByIdsAsync(ids); }
+
     /**
      * Crea un nou llibre al sistema.
      *
@@ -54,6 +89,14 @@ public class LlibreService {
      */
     public Llibre createBook(Llibre llibre) throws ApiException { return llibreApi.createLlibre(llibre); }
 
+    /**
+     * Versio no bloquejant de {@link #createBook(Llibre)}.
+     *
+     * @param llibre dades del nou llibre
+     * @return futur amb llibre creat amb el ID assignat
+     */
+    public CompletableFuture<Llibre> createBookAsync(Llibre llibre) { return llibreApi.createLlibreAsync(llibre); }
+
     /**
      * Actualitza un llibre al servidor.
      *
@@ -64,6 +107,15 @@ public class LlibreService {
      */
     public Llibre updateBook(Long id, Llibre llibre) throws ApiException { return llibreApi.updateLlibre(id, llibre); }
 
+    /**
+     * Versio no bloquejant de {@link #updateBook(Long,Llibre)}.
+     *
+     * @param id ID del llibre a actualitzar
+     * @param llibre dades actualitzades del llibre
+     * @return futur amb llibre actualitzat
+     */
+    public CompletableFuture<Llibre> updateBookAsync(Long id, Llibre llibre) { return llibreApi.updateLlibreAsync(id, llibre); }
+
     /**
      * Elimina un llibre del sistema.
      *
@@ -71,4 +123,12 @@ public class LlibreService {
      * @throws ApiException si falla la comunicacio o el llibre no es troba
      */
     public void deleteBook(Long id) throws ApiException { llibreApi.deleteLlibre(id); }
+
+    /**
+     * Versio no bloquejant de {@link #deleteBook(Long)}.
+     *
+     * @param id ID del llibre a eliminar
+     * @return futur completat quan acaba l'operacio
+     */
+    public CompletableFuture<Void> deleteBookAsync(Long id) { return llibreApi.deleteLlibreAsync(id); }
 }
\ No newline at end of file
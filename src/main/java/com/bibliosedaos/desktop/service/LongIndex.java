@@ -0,0 +1,149 @@
+package com.bibliosedaos.desktop.service;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Taula de dispersió amb claus long primitives (adreçament obert, sondeig lineal).
+ *
+ * Els serveis hi indexen per ID les entitats que ja han rebut del servidor. Les claus no
+ * s'encapsulen en Long ni hi ha un node per entrada: dos vectors paral·lels, amb el valor
+ * null com a marca de cel·la buida. Els esborrats desplacen cap enrere la resta del grup,
+ * de manera que no queden làpides i les cerques no s'allarguen amb el temps.
+ *
+ * No és segura entre fils: qui la fa servir ha de sincronitzar-ne l'accés.
+ *
+ * @param <V> tipus dels valors (mai null)
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+final class LongIndex<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    /**
+     * Crea un índex buit.
+     */
+    LongIndex() {
+        keys = new long[MIN_CAPACITY];
+        values = new Object[MIN_CAPACITY];
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (values[i] != null && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Valor associat a una clau.
+     *
+     * @param key clau
+     * @return valor o null si no hi és
+     */
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        return (V) values[slot(key)];
+    }
+
+    /**
+     * Associa un valor a una clau, substituint l'anterior.
+     *
+     * @param key clau
+     * @param value valor (no null)
+     * @return valor anterior o null
+     */
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        if (value == null) throw new IllegalArgumentException("LongIndex no admet valors null");
+        int i = slot(key);
+        V previous = (V) values[i];
+        keys[i] = key;
+        values[i] = value;
+        if (previous == null && ++size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        return previous;
+    }
+
+    /**
+     * Esborra una clau.
+     *
+     * @param key clau
+     * @return valor esborrat o null si no hi era
+     */
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        int mask = keys.length - 1;
+        int i = slot(key);
+        V previous = (V) values[i];
+        if (previous == null) return null;
+        values[i] = null;
+        size--;
+        // desplaça enrere les entrades del mateix grup que ja no es trobarien
+        for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int home = mix(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                values[j] = null;
+                i = j;
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * @return nombre d'entrades
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Buida l'índex.
+     */
+    void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Recorre totes les entrades, sense ordre definit.
+     *
+     * @param action acció per a cada clau i valor
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<Long, V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) action.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int j = slot(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+}
@@ -3,14 +3,28 @@ package com.bibliosedaos.desktop.service;
 import com.bibliosedaos.desktop.api.PrestecApi;
 import com.bibliosedaos.desktop.api.ApiException;
 import com.bibliosedaos.desktop.model.Prestec;
+import com.bibliosedaos.desktop.security.SessionStore;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Servei per a les operacions de prestecs.
  * Capa intermèdia entre els controladors i l'API de prestecs.
  *
+ * Manté un magatzem local dels prestecs indexat per ID ({@link LongIndex}), alimentat per
+ * les respostes de llistar, crear i retornar. El servidor no té consulta per ID, i
+ * {@link PrestecApi#getPrestecById(Long)} descarrega tot l'historial; per aixo
+ * {@link #getPrestecById(Long)} primer mira el magatzem i, si el prestec s'acaba de crear,
+ * demana nomes els prestecs actius del seu usuari. Nomes si no en sap res delega a l'API.
+ *
+ * El magatzem pertany a la sessio que l'ha omplert: si el token de {@link SessionStore} canvia
+ * (logout o un altre login) es buida abans de fer-lo servir. Els prestecs desats poden ser
+ * els mateixos objectes que tenen la cache HTTP o les crides compartides, per aixo no es
+ * modifiquen mai; un retorn substitueix l'entrada per una copia.
+ *
  * @author Sergio
  * @version 1.0-SNAPSHOT
  * @since 2025
@@ -18,6 +32,15 @@ import java.util.Objects;
 public class PrestecService {
     private final PrestecApi prestecApi;
 
+    /** Prestecs coneguts amb totes les dades, per ID. */
+    private final LongIndex<Prestec> prestecs = new LongIndex<>();
+
+    /** Usuari dels prestecs creats que encara no tenen dades completes, per ID de prestec. */
+    private final LongIndex<Long> usuarisCreats = new LongIndex<>();
+
+    /** Token de la sessio a la qual pertany el magatzem. */
+    private String sessio;
+
     /**
      * Constructor principal amb injeccio de dependencies.
      *
@@ -36,7 +59,17 @@ public class PrestecService {
      * @throws ApiException si hi ha errors de comunicacio o permisos
      */
     public List<Prestec> getAllPrestecs(Long usuariId) throws ApiException {
-        return prestecApi.getAllPrestecs(usuariId);
+        return index(prestecApi.getAllPrestecs(usuariId));
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getAllPrestecs(Long)}.
+     *
+     * @param usuariId ID de l'usuari per filtrar (opcional)
+     * @return futur amb llista de tots els prestecs
+     */
+    public CompletableFuture<List<Prestec>> getAllPrestecsAsync(Long usuariId) {
+        return prestecApi.getAllPrestecsAsync(usuariId).thenApply(this::index);
     }
 
     /**
@@ -47,7 +80,17 @@ public class PrestecService {
      * @throws ApiException si hi ha errors de comunicacio o permisos
      */
     public List<Prestec> getPrestecsActius(Long usuariId) throws ApiException {
-        return prestecApi.getPrestecsActius(usuariId);
+        return index(prestecApi.getPrestecsActius(usuariId));
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getPrestecsActius(Long)}.
+     *
+     * @param usuariId ID de l'usuari per filtrar (opcional)
+     * @return futur amb llista de prestecs actius
+     */
+    public CompletableFuture<List<Prestec>> getPrestecsActiusAsync(Long usuariId) {
+        return prestecApi.getPrestecsActiusAsync(usuariId).thenApply(this::index);
     }
 
     /**
@@ -58,7 +101,17 @@ public class PrestecService {
      * @throws ApiException si falla la comunicacio o hi ha errors de validacio
      */
     public Prestec createPrestec(Prestec prestec) throws ApiException {
-        return prestecApi.createPrestec(prestec);
+        return created(prestec, prestecApi.createPrestec(prestec));
+    }
+
+    /**
+     * Versio no bloquejant de {@link #createPrestec(Prestec)}.
+     *
+     * @param prestec dades del nou prestec
+     * @return futur amb prestec creat amb el ID assignat
+     */
+    public CompletableFuture<Prestec> createPrestecAsync(Prestec prestec) {
+        return prestecApi.createPrestecAsync(prestec).thenApply(creat -> created(prestec, creat));
     }
 
     /**
@@ -69,16 +122,191 @@ public class PrestecService {
      */
     public void retornarPrestec(Long prestecId) throws ApiException {
         prestecApi.retornarPrestec(prestecId);
+        returned(prestecId);
+    }
+
+    /**
+     * Versio no bloquejant de {@link #retornarPrestec(Long)}.
+     *
+     * @param prestecId ID del prestec a retornar
+     * @return futur completat quan acaba l'operacio
+     */
+    public CompletableFuture<Void> retornarPrestecAsync(Long prestecId) {
+        return prestecApi.retornarPrestecAsync(prestecId).thenApply(v -> {
+            returned(prestecId);
+            return v;
+        });
     }
 
     /**
      * Obte un prestec pel seu ID.
+     * Mira primer el magatzem local; un prestec acabat de crear es busca entre els
+     * prestecs actius del seu usuari i, si no, es delega a l'API.
      *
      * @param id ID del prestec a obtenir
      * @return prestec amb totes les seves dades
      * @throws ApiException si falla la comunicacio o el prestec no es troba
      */
     public Prestec getPrestecById(Long id) throws ApiException {
-        return prestecApi.getPrestecById(id);
+        if (id == null) return prestecApi.getPrestecById(null);
+        Prestec conegut = cached(id);
+        if (conegut != null) return conegut;
+        Long usuariId = creatorOf(id);
+        if (usuariId != null) {
+            index(prestecApi.getPrestecsActius(usuariId));
+            conegut = cached(id);
+            if (conegut != null) return conegut;
+        }
+        return store(prestecApi.getPrestecById(id));
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getPrestecById(Long)}.
+     *
+     * @param id ID del prestec a obtenir
+     * @return futur amb prestec amb totes les seves dades
+     */
+    public CompletableFuture<Prestec> getPrestecByIdAsync(Long id) {
+        if (id == null) return prestecApi.getPrestecByIdAsync(null);
+        Prestec conegut = cached(id);
+        if (conegut != null) return CompletableFuture.completedFuture(conegut);
+        Long usuariId = creatorOf(id);
+        CompletableFuture<Prestec> actius = usuariId == null
+                ? CompletableFuture.completedFuture(null)
+                : prestecApi.getPrestecsActiusAsync(usuariId).thenApply(llista -> {
+                    index(llista);
+                    return cached(id);
+                });
+        return actius.thenCompose(p -> p != null
+                ? CompletableFuture.completedFuture(p)
+                : prestecApi.getPrestecByIdAsync(id).thenApply(this::store));
+    }
+
+    /**
+     * Prestec del magatzem local, sense anar al servidor.
+     *
+     * @param id ID del prestec
+     * @return prestec o null si no es coneix
+     */
+    public Prestec getCachedPrestec(long id) {
+        return cached(id);
+    }
+
+    /**
+     * Oblida tots els prestecs del magatzem local.
+     */
+    public void clearCache() {
+        synchronized (prestecs) {
+            prestecs.clear();
+            usuarisCreats.clear();
+        }
+    }
+
+    /**
+     * Buida el magatzem si l'ha omplert una altra sessio. S'ha de cridar amb el bloqueig
+     * de {@code prestecs}.
+     */
+    private void checkSession() {
+        String actual = SessionStore.getInstance().getToken();
+        if (!Objects.equals(sessio, actual)) {
+            prestecs.clear();
+            usuarisCreats.clear();
+            sessio = actual;
+        }
+    }
+
+    private Prestec cached(long id) {
+        synchronized (prestecs) {
+            checkSession();
+            return prestecs.get(id);
+        }
+    }
+
+    private Long creatorOf(long id) {
+        synchronized (prestecs) {
+            checkSession();
+            return usuarisCreats.get(id);
+        }
+    }
+
+    /**
+     * Desa al magatzem els prestecs d'una resposta de llista.
+     *
+     * @param llista resposta del servidor
+     * @return la mateixa llista
+     */
+    private List<Prestec> index(List<Prestec> llista) {
+        if (llista == null) return null;
+        synchronized (prestecs) {
+            checkSession();
+            for (Prestec p : llista) {
+                if (p != null && p.getId() != null) {
+                    prestecs.put(p.getId(), p);
+                    usuarisCreats.remove(p.getId());
+                }
+            }
+        }
+        return llista;
+    }
+
+    private Prestec store(Prestec p) {
+        if (p != null && p.getId() != null) {
+            synchronized (prestecs) {
+                checkSession();
+                prestecs.put(p.getId(), p);
+                usuarisCreats.remove(p.getId());
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Registra un prestec acabat de crear. Si la resposta ja porta l'exemplar amb el llibre i
+     * l'usuari amb el nom es desa tal qual; si no, es recorda l'usuari per buscar-lo despres
+     * entre els seus prestecs actius.
+     *
+     * @param peticio prestec enviat
+     * @param creat resposta del servidor
+     * @return la resposta
+     */
+    private Prestec created(Prestec peticio, Prestec creat) {
+        if (creat == null || creat.getId() == null) return creat;
+        boolean complet = creat.getExemplar() != null && creat.getExemplar().getLlibre() != null
+                && creat.getUsuari() != null && creat.getUsuari().getNom() != null;
+        if (complet) return store(creat);
+        Long usuariId = creat.getUsuari() != null && creat.getUsuari().getId() != null
+                ? creat.getUsuari().getId()
+                : peticio != null && peticio.getUsuari() != null ? peticio.getUsuari().getId() : null;
+        if (usuariId != null) {
+            synchronized (prestecs) {
+                checkSession();
+                usuarisCreats.put(creat.getId(), usuariId);
+            }
+        }
+        return creat;
+    }
+
+    /**
+     * Marca com a retornat el prestec del magatzem, si hi es. L'entrada es substitueix per
+     * una copia amb la data de devolucio; l'objecte original no es toca.
+     *
+     * @param prestecId ID del prestec retornat
+     */
+    private void returned(Long prestecId) {
+        if (prestecId == null) return;
+        synchronized (prestecs) {
+            checkSession();
+            Prestec p = prestecs.get(prestecId);
+            if (p != null && p.getDataDevolucio() == null) {
+                Prestec retornat = new Prestec();
+                retornat.setId(p.getId());
+                retornat.setDataPrestec(p.getDataPrestec());
+                retornat.setDataDevolucio(LocalDate.now());
+                retornat.setUsuari(p.getUsuari());
+                retornat.setExemplar(p.getExemplar());
+                prestecs.put(prestecId, retornat);
+            }
+            usuarisCreats.remove(prestecId);
+        }
     }
-}
\ No newline at end of file
+}
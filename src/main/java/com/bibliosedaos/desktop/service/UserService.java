@@ -2,9 +2,12 @@ package com.bibliosedaos.desktop.service;
 
 import com.bibliosedaos.desktop.api.UserApi;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.MultiGet;
 import com.bibliosedaos.desktop.model.User;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Servei per a les operacions d'usuari.
@@ -39,6 +42,37 @@ public class UserService {
         return userApi.getUserById(userId);
     }
 
+    /**
+     * Versio no bloquejant de {@link #getUserById(Long)}.
+     *
+     * @param userId ID de l'usuari a obtenir
+     * @return futur amb usuari amb totes les seves dades
+     */
+    public CompletableFuture<User> getUserByIdAsync(Long userId) {
+        return userApi.getUserByIdAsync(userId);
+    }
+
+    /**
+     * Obte diversos usuaris pel seu ID (p. ex. els membres d'un grup).
+     *
+     * @param userIds IDs dels usuaris a obtenir
+     * @return usuaris trobats en l'ordre dels IDs i errors dels que han fallat
+     * @throws ApiException si el fil s'interromp mentre espera
+     */
+    public MultiGet.Result<User> getUsersByIds(Collection<Long> userIds) throws ApiException {
+        return userApi.getUsersByIds(userIds);
+    }
+
+    /**
+     * Versio no bloquejant de {@link #getUsersByIds(Collection)}.
+     *
+     * @param userIds IDs dels usuaris a obtenir
+     * @return futur amb els usuaris trobats i els errors
+     */
+    public CompletableFuture<MultiGet.Result<User>> getUsersByIdsAsync(Collection<Long> userIds) {
+        return userApi.getUsersByIdsAsync(userIds);
+    }
+
     /**
      * Actualitza un usuari al servidor.
      *
@@ -51,6 +85,17 @@ public class UserService {
         return userApi.updateUser(userId, user);
     }
 
+    /**
+     * Versio no bloquejant de {@link #updateUser(Long,User)}.
+     *
+     * @param userId ID de l'usuari a actualitzar
+     * @param user dades actualitzades de l'usuari
+     * @return futur amb usuari actualitzat
+     */
+    public CompletableFuture<User> updateUserAsync(Long userId, User user) {
+        return userApi.updateUserAsync(userId, user);
+    }
+
     /**
      * Obte tots els usuaris del sistema.
      *
@@ -61,6 +106,15 @@ public class UserService {
         return userApi.getAllUsers();
     }
 
+    /**
+     * Versio no bloquejant de {@link #getAllUsers()}.
+     *
+     * @return futur amb llista de tots els usuaris
+     */
+    public CompletableFuture<List<User>> getAllUsersAsync() {
+        return userApi.getAllUsersAsync();
+    }
+
     /**
      * Crea un nou usuari al sistema.
      *
@@ -72,6 +126,16 @@ public class UserService {
         return userApi.createUser(user);
     }
 
+    /**
+     * Versio no bloquejant de {@link #createUser(User)}.
+     *
+     * @param user dades del nou usuari
+     * @return futur amb usuari creat amb el ID assignat
+     */
+    public CompletableFuture<User> createUserAsync(User user) {
+        return userApi.createUserAsync(user);
+    }
+
     /**
      * Elimina un usuari del sistema.
      *
@@ -82,6 +146,16 @@ public class UserService {
         userApi.deleteUser(userId);
     }
 
+    /**
+     * Versio no bloquejant de {@link #deleteUser(Long)}.
+     *
+     * @param userId ID de l'usuari a eliminar
+     * @return futur completat quan acaba l'operacio
+     */
+    public CompletableFuture<Void> deleteUserAsync(Long userId) {
+        return userApi.deleteUserAsync(userId);
+    }
+
     /**
      * Cerca un usuari pel seu nick.
      *
@@ -93,6 +167,16 @@ public class UserService {
         return userApi.getUserByNick(nick);
     }
 
+    /**
+     * Versio no bloquejant de {@link #getUserByNick(String)}.
+     *
+     * @param nick nick a buscar
+     * @return futur amb usuari trobat
+     */
+    public CompletableFuture<User> getUserByNickAsync(String nick) {
+        return userApi.getUserByNickAsync(nick);
+    }
+
     /**
      * Cerca un usuari pel seu NIF.
      *
@@ -103,4 +187,14 @@ public class UserService {
     public User getUserByNif(String nif) throws ApiException {
         return userApi.getUserByNif(nif);
     }
+
+    /**
+     * Versio no bloquejant de {@link #getUserByNif(String)}.
+     *
+     * @param nif NIF a buscar
+     * @return futur amb usuari trobat
+     */
+    public CompletableFuture<User> getUserByNifAsync(String nif) {
+        return userApi.getUserByNifAsync(nif);
+    }
 }
\ No newline at end of file
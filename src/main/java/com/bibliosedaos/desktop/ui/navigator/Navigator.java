@@ -1,5 +1,6 @@
 package com.bibliosedaos.desktop.ui.navigator;
 
+import com.bibliosedaos.desktop.api.TaskScope;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -19,6 +20,9 @@ import java.util.logging.Logger;
  * Sistema centralitzat de navegacio per a aplicacions JavaFX.
  * Gestiona la carrega de vistes FXML, la injeccio de dependencies en controladors,
  * l'aplicacio d'estils CSS i la navegacio entre pantalles.
+ * Cada vista carregada te el seu {@link TaskScope}: en canviar de vista es cancel·len
+ * les carregues (GET) que l'anterior encara tenia en curs. Les escriptures no hi queden
+ * lligades i acaben igualment.
  * Assistencia d'IA: fragment(s) de codi generat / proposat / refactoritzat per ChatGPT-5 i DeepSeek.
  * S'ha revisat i adaptat manualment per l'autor. Veure llegeixme.pdf per detalls.
  *
@@ -35,6 +39,7 @@ public class Navigator {
     private final List<String> globalCss = new ArrayList<>();
     private final Set<String> appliedSceneCss = new LinkedHashSet<>();
     private Callback<Class<?>, Object> controllerFactory;
+    private TaskScope viewScope;
 
     /** Constructor public: crea una instancia a MainApp. */
     public Navigator() {
@@ -105,6 +110,7 @@ public class Navigator {
      */
     public void goTo(String fxmlPath, String title, Double width, Double height, boolean maximize, Consumer<Object> controllerSetup) {
         ensureInit();
+        enterViewScope(fxmlPath);
         Parent root = loadFxml(fxmlPath);
         applyControllerSetup(root, controllerSetup);
 
@@ -207,6 +213,7 @@ public class Navigator {
             throw new FxmlNotFoundException("FXML no trobat: " + fxmlPath);
         }
 
+        enterViewScope(fxmlPath);
         try {
             FXMLLoader loader = new FXMLLoader(url);
             loader.setControllerFactory(clazz -> {
@@ -248,6 +255,26 @@ public class Navigator {
         }
     }
 
+    /**
+     * Cancel·la l'ambit de la vista anterior i n'obre un de nou abans de carregar la vista,
+     * perque les tasques que llanci el controlador des d'initialize() ja hi quedin lligades.
+     *
+     * @param fxmlPath Ruta al fitxer FXML de la nova vista
+     */
+    private void enterViewScope(String fxmlPath) {
+        if (viewScope != null) viewScope.cancel();
+        viewScope = TaskScope.enter(fxmlPath);
+    }
+
+    /**
+     * Ambit de feina en segon pla de la vista actual.
+     *
+     * @return ambit actual, o null si encara no s'ha carregat cap vista
+     */
+    public TaskScope getViewScope() {
+        return viewScope;
+    }
+
     /**
      * Aplica una llista d'estils CSS a una escena.
      *
@@ -0,0 +1,83 @@
+package com.bibliosedaos.desktop.ui.util;
+
+import com.bibliosedaos.desktop.api.ApiClient;
+import com.bibliosedaos.desktop.api.TaskScope;
+import javafx.application.Platform;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Utilitats per consumir futurs de la capa de serveis des dels controladors.
+ *
+ * Els callbacks s'executen sempre al fil de JavaFX, de manera que poden tocar
+ * la UI directament, igual que els handlers setOnSucceeded/setOnFailed d'un Task.
+ * Si la vista que ha registrat els callbacks ja s'ha tancat ({@link TaskScope}),
+ * el resultat es descarta i no s'executa cap callback.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class FxAsync {
+
+    private FxAsync() {}
+
+    /**
+     * Registra els callbacks d'exit i d'error d'un futur al fil de JavaFX.
+     * L'error es lliura ja desembolcallat (sense CompletionException).
+     *
+     * @param future futur retornat per un servei
+     * @param onSuccess accio amb el resultat
+     * @param onError accio amb l'error original
+     * @param <T> tipus del resultat
+     * @return futur que es completa quan s'han planificat els callbacks
+     */
+    public static <T> CompletableFuture<Void> onFx(CompletableFuture<T> future,
+                                                   Consumer<? super T> onSuccess,
+                                                   Consumer<Throwable> onError) {
+        Objects.requireNonNull(future, "El futur no pot ser null");
+        TaskScope scope = TaskScope.current();
+        return future.handle((value, error) -> {
+            if (isClosed(scope, error)) return null;
+            if (error != null) {
+                Throwable cause = ApiClient.unwrap(error);
+                runOnFx(() -> {
+                    if (!isClosed(scope, error)) onError.accept(cause);
+                });
+            } else {
+                runOnFx(() -> {
+                    if (!isClosed(scope, null)) onSuccess.accept(value);
+                });
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Indica si la vista del callback s'ha tancat; un resultat correcte descartat es compta com a malbaratat.
+     *
+     * @param scope àmbit de la vista (pot ser null)
+     * @param error error del futur, o null
+     * @return true si s'ha de descartar el resultat
+     */
+    private static boolean isClosed(TaskScope scope, Throwable error) {
+        if (scope == null || !scope.isCancelled()) return false;
+        if (error == null) TaskScope.recordWasted();
+        return true;
+    }
+
+    /**
+     * Executa una accio al fil de JavaFX; si ja s'hi es, l'executa directament.
+     *
+     * @param action accio a executar
+     */
+    public static void runOnFx(Runnable action) {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+        } else {
+            Platform.runLater(action);
+        }
+    }
+}
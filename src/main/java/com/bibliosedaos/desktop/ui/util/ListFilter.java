@@ -0,0 +1,211 @@
+package com.bibliosedaos.desktop.ui.util;
+
+import com.bibliosedaos.desktop.api.ApiClient;
+import com.bibliosedaos.desktop.api.TaskPriority;
+import com.bibliosedaos.desktop.api.TaskScope;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Filtre de cerca d'una llista, fora del fil de JavaFX.
+ *
+ * Al fil de JavaFX cada tecla nomes programa la cerca. Quan l'usuari deixa d'escriure
+ * {@link #DEBOUNCE_MS} ms, un fil de {@link ApiClient#BG_EXEC} (prioritat interactiva) la
+ * resol amb el {@link TextIndex} de la llista i lliura el resultat al fil de JavaFX. Si la
+ * consulta nova conte l'anterior (p. ex. s'hi ha afegit una lletra), nomes es revisen les files
+ * del resultat anterior. El resultat d'una consulta que ja no es la darrera, o d'una llista
+ * que ja s'ha substituit, es descarta sense arribar a la UI.
+ *
+ * La cerca es lliga al {@link TaskScope} de la vista en el moment de programar-la, encara que
+ * l'envii el fil del temporitzador: si es tanca la vista abans de la pausa, no s'arriba a fer.
+ * Si la cua interactiva es plena, la cerca es fa al mateix fil en lloc de perdre-la.
+ *
+ * L'index d'una llista es comenca a construir en segon pla en el moment de carregar-la
+ * ({@link #setItems}); una consulta buida retorna la llista sense esperar-lo.
+ *
+ * @param <T> tipus dels elements de la llista
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class ListFilter<T> {
+
+    /** Pausa d'escriptura abans de cercar (ms). */
+    static final long DEBOUNCE_MS = 150;
+
+    private final Map<String, Function<? super T, String>> fields;
+    private final Consumer<List<T>> onResult;
+    private final Executor worker;
+    private final Executor ui;
+    private final long debounceMs;
+
+    /** S'incrementa a cada consulta o llista nova; un resultat amb un valor antic es descarta. */
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong narrowed = new AtomicLong();
+    private volatile Snapshot<T> snapshot;
+    private volatile Hits<T> last;
+
+    /**
+     * Crea el filtre.
+     *
+     * @param fields nom de cada camp de cerca i funcio que n'obte el text (veure {@link TextIndex})
+     * @param onResult accio amb el resultat, al fil de JavaFX
+     */
+    public ListFilter(Map<String, Function<? super T, String>> fields, Consumer<List<T>> onResult) {
+        this(fields, onResult, task -> ApiClient.BG_EXEC.submit(TaskPriority.INTERACTIVE, task),
+                FxAsync::runOnFx, DEBOUNCE_MS);
+    }
+
+    /**
+     * Crea el filtre amb executors propis (proves).
+     *
+     * @param fields camps de cerca
+     * @param onResult accio amb el resultat
+     * @param worker executor de les cerques
+     * @param ui executor on es lliuren els resultats
+     * @param debounceMs pausa d'escriptura abans de cercar
+     */
+    ListFilter(Map<String, Function<? super T, String>> fields, Consumer<List<T>> onResult,
+               Executor worker, Executor ui, long debounceMs) {
+        this.fields = Map.copyOf(Objects.requireNonNull(fields, "Els camps no poden ser null"));
+        this.onResult = Objects.requireNonNull(onResult, "El callback no pot ser null");
+        this.worker = worker;
+        this.ui = ui;
+        this.debounceMs = debounceMs;
+        this.snapshot = new Snapshot<>(List.of(), this.fields);
+    }
+
+    /**
+     * Substitueix la llista on es cerca. Es crida al fil de JavaFX quan es carrega o canvia la
+     * llista; en fa una copia i en comenca l'index en segon pla. No llanca cap cerca.
+     *
+     * @param items elements (els null s'ignoren)
+     */
+    public void setItems(List<T> items) {
+        Snapshot<T> s = new Snapshot<>(items.stream().filter(Objects::nonNull).toList(), fields);
+        snapshot = s;
+        last = null;
+        generation.incrementAndGet();
+        if (!s.items.isEmpty()) {
+            try {
+                worker.execute(s::index);
+            } catch (RejectedExecutionException e) {
+                // la primera cerca el construira
+            }
+        }
+    }
+
+    /**
+     * Programa una cerca mentre l'usuari escriu: nomes es fa si no arriba cap altra consulta
+     * abans de la pausa.
+     *
+     * @param field camp del combo; null cerca a tots els camps
+     * @param query text del camp de cerca
+     */
+    public void search(String field, String query) {
+        submit(field, query, debounceMs);
+    }
+
+    /**
+     * Fa una cerca sense esperar la pausa (canvi de camp, llista carregada...).
+     *
+     * @param field camp del combo; null cerca a tots els camps
+     * @param query text del camp de cerca
+     */
+    public void searchNow(String field, String query) {
+        submit(field, query, 0);
+    }
+
+    /**
+     * @return cerques resoltes a partir del resultat anterior
+     */
+    long getNarrowed() {
+        return narrowed.get();
+    }
+
+    private void submit(String field, String query, long delayMs) {
+        long seq = generation.incrementAndGet();
+        Snapshot<T> s = snapshot;
+        Runnable task = () -> run(seq, s, field, query == null ? "" : query);
+        if (delayMs <= 0) {
+            dispatch(task);
+        } else {
+            // el fil del temporitzador no te l'ambit de la vista: es captura ara
+            CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS)
+                    .execute(TaskScope.capture(() -> dispatch(task)));
+        }
+    }
+
+    /**
+     * Envia una cerca al worker; si el rebutja (cua plena), la fa al fil actual.
+     *
+     * @param task cerca
+     */
+    private void dispatch(Runnable task) {
+        try {
+            worker.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    private void run(long seq, Snapshot<T> s, String field, String query) {
+        if (seq != generation.get()) return;
+        String q = TextIndex.normalize(query.trim());
+        List<T> result;
+        if (q.isEmpty()) {
+            result = s.items;
+        } else {
+            TextIndex<T> index = s.index();
+            Hits<T> previous = last;
+            int[] rows;
+            if (previous != null && previous.snapshot == s && Objects.equals(previous.field, field)
+                    && q.contains(previous.query)) {
+                rows = index.rows(field, q, previous.rows);
+                narrowed.incrementAndGet();
+            } else {
+                rows = index.rows(field, q, null);
+            }
+            if (seq != generation.get()) return;
+            last = new Hits<>(s, field, q, rows);
+            result = index.items(rows);
+        }
+        ui.execute(() -> {
+            if (seq == generation.get()) onResult.accept(result);
+        });
+    }
+
+    /**
+     * Copia d'una llista i el seu index, construit un sol cop.
+     */
+    private static final class Snapshot<T> {
+        private final List<T> items;
+        private final Map<String, Function<? super T, String>> fields;
+        private TextIndex<T> index;
+
+        Snapshot(List<T> items, Map<String, Function<? super T, String>> fields) {
+            this.items = items;
+            this.fields = fields;
+        }
+
+        synchronized TextIndex<T> index() {
+            if (index == null) index = new TextIndex<>(items, fields);
+            return index;
+        }
+    }
+
+    /**
+     * Resultat d'una consulta, per resoldre les que l'allarguen.
+     */
+    private record Hits<T>(Snapshot<T> snapshot, String field, String query, int[] rows) {
+    }
+}
@@ -0,0 +1,251 @@
+package com.bibliosedaos.desktop.ui.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Index de text en memoria per a les cerques de les llistes (llibres, usuaris, prestecs...).
+ *
+ * Es construeix un cop per carrega a partir dels elements i d'uns camps amb nom. Per a cada
+ * camp desa la clau de cerca de cada fila (el valor passat per {@link #normalize}), que no es
+ * torna a calcular a cada tecla ni es guarda als models, i una llista de postings per trigrama
+ * (ids de fila ordenats). Una cerca "conte" de 3 o mes caracters interseca els postings dels
+ * trigrames de la consulta, comencant pel mes curt, i nomes comprova el text de les files
+ * candidates; les consultes mes curtes recorren les claus ja calculades. A mes dels camps, hi
+ * ha un camp virtual amb tots els valors units per un separador, que fa servir la cerca a
+ * "tots" els camps.
+ *
+ * L'index es immutable un cop construit i es pot consultar des de qualsevol fil.
+ *
+ * @param <T> tipus dels elements indexats
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class TextIndex<T> {
+
+    /** Separa els valors dels camps al camp virtual; cap consulta normalitzada no el conte. */
+    private static final char SEPARATOR = '\u0000';
+
+    private static final int[] EMPTY = new int[0];
+
+    private final List<T> items;
+    private final Map<String, Field> fields = new HashMap<>();
+    private final Field all;
+
+    /**
+     * Construeix l'index.
+     *
+     * @param items elements, en l'ordre en que s'han de retornar
+     * @param extractors nom de cada camp i funcio que n'obte el text (pot retornar null)
+     */
+    public TextIndex(List<T> items, Map<String, Function<? super T, String>> extractors) {
+        this.items = List.copyOf(Objects.requireNonNull(items, "Els elements no poden ser null"));
+        int n = this.items.size();
+        StringBuilder[] joined = new StringBuilder[n];
+        for (int i = 0; i < n; i++) joined[i] = new StringBuilder();
+
+        for (Map.Entry<String, Function<? super T, String>> e : new LinkedHashMap<>(extractors).entrySet()) {
+            String[] values = new String[n];
+            for (int i = 0; i < n; i++) {
+                String raw = e.getValue().apply(this.items.get(i));
+                values[i] = raw == null ? "" : normalize(raw);
+                joined[i].append(values[i]).append(SEPARATOR);
+            }
+            fields.put(e.getKey(), new Field(values));
+        }
+        String[] allValues = new String[n];
+        for (int i = 0; i < n; i++) allValues[i] = joined[i].toString();
+        all = new Field(allValues);
+    }
+
+    /**
+     * Normalitza un text tal com es desa a l'index i com s'han de tractar les consultes:
+     * minuscules i sense accents ni diacritics ("Martí" i "Lleó" es desen com "marti" i "lleo").
+     *
+     * Un text que ja esta en minuscules ASCII es retorna tal qual, sense crear cap cadena nova;
+     * es el cas de la majoria de consultes i de molts ISBN, nicks i correus.
+     *
+     * @param text text original
+     * @return text normalitzat
+     */
+    public static String normalize(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z')) return fold(text);
+        }
+        return text;
+    }
+
+    private static String fold(String text) {
+        // primer minuscules: algunes (p. ex. la I amb punt) generen marques combinants
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Uneix diversos valors en un sol camp (p. ex. els dos cognoms) de manera que una consulta
+     * no pugui coincidir a cavall de dos valors.
+     *
+     * @param values valors (els null s'ignoren)
+     * @return valors units pel separador intern
+     */
+    public static String join(String... values) {
+        StringBuilder sb = new StringBuilder();
+        for (String v : values) {
+            if (v != null) sb.append(v).append(SEPARATOR);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return nombre d'elements indexats
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Cerca els elements amb un camp que conte la consulta, sense distingir majuscules ni accents.
+     *
+     * @param field nom del camp; null o un nom desconegut cerca a tots els camps
+     * @param query text a cercar; buit o null retorna tots els elements
+     * @return elements que hi coincideixen, en l'ordre original
+     */
+    public List<T> search(String field, String query) {
+        String q = query == null ? "" : normalize(query.trim());
+        if (q.isEmpty()) return items;
+        return items(rows(field, q, null));
+    }
+
+    /**
+     * Files que coincideixen amb una consulta ja normalitzada i no buida.
+     *
+     * @param field nom del camp; null o un nom desconegut cerca a tots els camps
+     * @param q consulta normalitzada
+     * @param within files on cercar (el resultat d'una consulta continguda en aquesta), o null per a totes
+     * @return files en ordre creixent
+     */
+    int[] rows(String field, String q, int[] within) {
+        Field f = field == null ? all : fields.getOrDefault(field, all);
+        return f.find(q, within);
+    }
+
+    /**
+     * Elements d'unes files.
+     *
+     * @param rows files en ordre creixent
+     * @return llista immutable dels elements
+     */
+    List<T> items(int[] rows) {
+        List<T> result = new ArrayList<>(rows.length);
+        for (int row : rows) result.add(items.get(row));
+        return Collections.unmodifiableList(result);
+    }
+
+    private static long trigram(CharSequence s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /**
+     * Valors normalitzats i postings per trigrama d'un camp.
+     */
+    private static final class Field {
+        private final String[] values;
+        private final Map<Long, int[]> postings;
+
+        Field(String[] values) {
+            this.values = values;
+            Map<Long, Posting> building = new HashMap<>();
+            for (int row = 0; row < values.length; row++) {
+                String v = values[row];
+                for (int i = 0; i + 3 <= v.length(); i++) {
+                    building.computeIfAbsent(trigram(v, i), k -> new Posting()).add(row);
+                }
+            }
+            this.postings = new HashMap<>(building.size() * 4 / 3 + 1);
+            building.forEach((key, posting) -> postings.put(key, posting.toArray()));
+        }
+
+        int[] find(String q, int[] within) {
+            if (q.length() < 3) return scan(q, within);
+            int grams = q.length() - 2;
+            // les files previes, si n'hi ha, son una llista mes a intersecar
+            int[][] lists = new int[within == null ? grams : grams + 1][];
+            for (int i = 0; i < grams; i++) {
+                int[] list = postings.get(trigram(q, i));
+                if (list == null) return EMPTY;
+                lists[i] = list;
+            }
+            if (within != null) lists[grams] = within;
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+            int[] candidates = lists[0];
+            for (int i = 1; i < lists.length && candidates.length > 0; i++) {
+                candidates = intersect(candidates, lists[i]);
+            }
+            // els trigrames poden apareixer separats: es confirma amb el text
+            return grams == 1 ? candidates : scan(q, candidates);
+        }
+
+        private int[] scan(String q, int[] candidates) {
+            int n = candidates == null ? values.length : candidates.length;
+            int[] out = new int[n];
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                int row = candidates == null ? i : candidates[i];
+                if (values[row].contains(q)) out[count++] = row;
+            }
+            return Arrays.copyOf(out, count);
+        }
+
+        private static int[] intersect(int[] a, int[] b) {
+            int[] out = new int[Math.min(a.length, b.length)];
+            int i = 0, j = 0, count = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    out[count++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(out, count);
+        }
+    }
+
+    /**
+     * Llista de files d'un trigrama mentre es construeix l'index.
+     */
+    private static final class Posting {
+        private int[] rows = new int[4];
+        private int size;
+
+        void add(int row) {
+            // les files arriben en ordre: n'hi ha prou de mirar l'ultima per no repetir-la
+            if (size > 0 && rows[size - 1] == row) return;
+            if (size == rows.length) rows = Arrays.copyOf(rows, size * 2);
+            rows[size++] = row;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+}
@@ -9,6 +9,7 @@ module com.bibliosedaos.bibliodesktop {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.logging;
+    requires java.management;
     requires org.controlsfx.controls;
     requires net.synedra.validatorfx;
     requires java.net.http;
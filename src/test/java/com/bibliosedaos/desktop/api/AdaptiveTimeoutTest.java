@@ -0,0 +1,175 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.api.http.HttpLlibreApi;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves dels temps d'espera per endpoint calculats a partir de la latència.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class AdaptiveTimeoutTest {
+
+    private static final String BASE = "https://biblio.local:8443";
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AdaptiveTimeout.reset();
+        Resilience.reset();
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        AdaptiveTimeout.reset();
+        System.clearProperty("api.base.url");
+        System.clearProperty("api.retry.maxAttempts");
+        System.clearProperty("api.timeout./biblioteca/prestecs/llistarPrestecs");
+        System.clearProperty("api.timeout.adaptive");
+        server.shutdown();
+    }
+
+    private static HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(BASE + path)).timeout(Endpoint.TIMEOUT).GET().build();
+    }
+
+    private static void registrar(String path, long ms, int vegades) {
+        for (int i = 0; i < vegades; i++) {
+            AdaptiveTimeout.record(get(path), TimeUnit.MILLISECONDS.toNanos(ms));
+        }
+    }
+
+    /**
+     * Prova que sense prou mostres s'usa el temps per defecte.
+     */
+    @Test
+    void timeoutFor_SenseMostres_PerDefecte() {
+        registrar("/biblioteca/usuaris/trobarUsuariPerId/1", 5, 5);
+
+        assertEquals(Duration.ofSeconds(10), AdaptiveTimeout.timeoutFor(get("/biblioteca/usuaris/trobarUsuariPerId/2")));
+    }
+
+    /**
+     * Prova que cada endpoint rep un temps segons la seva latència, amb terra i sostre.
+     */
+    @Test
+    void timeoutFor_SegonsLatencia_AmbTerraISostre() {
+        registrar("/biblioteca/usuaris/trobarUsuariPerId/7", 5, 50);
+        registrar("/biblioteca/prestecs/llistarPrestecs", 400, 50);
+        registrar("/biblioteca/llibres/llistarLlibres", 20_000, 50);
+
+        long puntual = AdaptiveTimeout.timeoutFor(get("/biblioteca/usuaris/trobarUsuariPerId/9")).toMillis();
+        long llista = AdaptiveTimeout.timeoutFor(get("/biblioteca/prestecs/llistarPrestecs")).toMillis();
+        long enorme = AdaptiveTimeout.timeoutFor(get("/biblioteca/llibres/llistarLlibres")).toMillis();
+
+        assertEquals(1_000, puntual);
+        assertTrue(llista >= 1_600 && llista <= 1_850, "llista=" + llista);
+        assertEquals(30_000, enorme);
+        assertEquals(1_000L, AdaptiveTimeout.getTimeouts().get("GET /biblioteca/usuaris/trobarUsuariPerId/{id}"));
+    }
+
+    /**
+     * Prova que el valor fix d'una ruta a les propietats té prioritat.
+     */
+    @Test
+    void timeoutFor_ValorFixDeLaRuta() {
+        registrar("/biblioteca/prestecs/llistarPrestecs", 5, 50);
+        System.setProperty("api.timeout./biblioteca/prestecs/llistarPrestecs", "20000");
+
+        assertEquals(Duration.ofSeconds(20), AdaptiveTimeout.timeoutFor(get("/biblioteca/prestecs/llistarPrestecs")));
+    }
+
+    /**
+     * Prova que una escriptura manté el temps d'espera fix encara que l'endpoint sigui ràpid.
+     */
+    @Test
+    void timeoutFor_Escriptura_TempsFix() {
+        String path = "/biblioteca/prestecs/crearPrestec";
+        HttpRequest post = HttpRequest.newBuilder(URI.create(BASE + path)).timeout(Endpoint.TIMEOUT)
+                .POST(HttpRequest.BodyPublishers.ofString("{}")).build();
+        for (int i = 0; i < 50; i++) AdaptiveTimeout.record(post, TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertEquals(Duration.ofSeconds(10), AdaptiveTimeout.timeoutFor(post));
+        assertEquals(Duration.ofSeconds(10), AdaptiveTimeout.apply(post).timeout().orElseThrow());
+    }
+
+    /**
+     * Prova que una petició amb temps d'espera propi no es toca.
+     */
+    @Test
+    void apply_TempsPropi_EsRespecta() {
+        registrar("/biblioteca/usuaris/trobarUsuariPerId/1", 5, 50);
+        HttpRequest propi = HttpRequest.newBuilder(URI.create(BASE + "/biblioteca/usuaris/trobarUsuariPerId/1"))
+                .timeout(Duration.ofSeconds(42)).GET().build();
+
+        assertSame(propi, AdaptiveTimeout.apply(propi));
+        assertEquals(Duration.ofSeconds(1), AdaptiveTimeout.apply(get("/biblioteca/usuaris/trobarUsuariPerId/1"))
+                .timeout().orElseThrow());
+    }
+
+    /**
+     * Prova que un intent esgotat compta com a mostra i fa créixer el marge de l'endpoint.
+     */
+    @Test
+    void recordFailure_TempsEsgotat_AmpliaElMarge() {
+        registrar("/biblioteca/llibres/llistarLlibres", 100, 20);
+        HttpRequest req = AdaptiveTimeout.apply(get("/biblioteca/llibres/llistarLlibres"));
+        assertEquals(1_000, req.timeout().orElseThrow().toMillis());
+
+        for (int i = 0; i < 5; i++) {
+            AdaptiveTimeout.recordFailure(req, new HttpTimeoutException("request timed out"));
+        }
+
+        assertTrue(AdaptiveTimeout.timeoutFor(req).toMillis() >= 4_000);
+    }
+
+    /**
+     * Prova que, després de prou consultes ràpides, un servidor penjat es detecta en un segon.
+     */
+    @Test
+    void servidorPenjat_EsDetectaEnUnSegon() throws Exception {
+        System.setProperty("api.base.url", server.url("/").toString());
+        System.setProperty("api.retry.maxAttempts", "1");
+        HttpLlibreApi api = new HttpLlibreApi();
+        for (int i = 1; i <= 25; i++) {
+            server.enqueue(new MockResponse().setBody("{\"id\":" + i + ",\"titol\":\"Llibre\"}"));
+            api.findLlibreById((long) i);
+        }
+        server.enqueue(new MockResponse().setBody("{\"id\":99}").setHeadersDelay(5, TimeUnit.SECONDS));
+
+        long inici = System.nanoTime();
+        ApiException e = assertThrows(ApiException.class, () -> api.findLlibreById(99L));
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inici);
+
+        assertTrue(ms < 2_500, "ha trigat " + ms + " ms");
+        assertInstanceOf(HttpTimeoutException.class, ApiClient.unwrap(e.getCause()));
+    }
+
+    /**
+     * Prova que desactivat s'usa sempre el temps per defecte.
+     */
+    @Test
+    void desactivat_SempreElPerDefecte() {
+        registrar("/biblioteca/usuaris/trobarUsuariPerId/1", 5, 50);
+        System.setProperty("api.timeout.adaptive", "false");
+
+        assertEquals(Duration.ofSeconds(10), AdaptiveTimeout.timeoutFor(get("/biblioteca/usuaris/trobarUsuariPerId/1")));
+    }
+}
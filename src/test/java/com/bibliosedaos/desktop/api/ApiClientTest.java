@@ -1,12 +1,25 @@
 package com.bibliosedaos.desktop.api;
 
+import com.bibliosedaos.desktop.model.Llibre;
 import com.bibliosedaos.desktop.security.SessionStore;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -95,4 +108,142 @@ class ApiClientTest {
         boolean executat = latch.await(1, TimeUnit.SECONDS);
         assertTrue(executat, "BG_EXEC ha d'executar les tasques enviades");
     }
-}
\ No newline at end of file
+
+    /**
+     * Prova que endpointKey agrupa els ids numèrics i elimina la query.
+     */
+    @Test
+    void endpointKey_NormalitzaIdsIQuery() {
+        assertEquals("/biblioteca/llibres/trobarLlibrePerId/{id}",
+                ApiClient.endpointKey(URI.create("http://h/biblioteca/llibres/trobarLlibrePerId/42")));
+        assertEquals("/biblioteca/grups/{id}/afegirUsuariGrup/{id}",
+                ApiClient.endpointKey(URI.create("http://h//biblioteca/grups/3/afegirUsuariGrup/7")));
+        assertEquals("/biblioteca/prestecs/llistarPrestecs",
+                ApiClient.endpointKey(URI.create("http://h/biblioteca/prestecs/llistarPrestecs?usuariId=5")));
+    }
+
+    /**
+     * Prova que send registra el protocol negociat per a l'endpoint.
+     * Sobre http en clar el client sempre acaba usant HTTP/1.1.
+     */
+    @Test
+    void send_RegistraProtocolNegociatPerEndpoint() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
+            server.start();
+
+            HttpRequest req = HttpRequest.newBuilder()
+                    .uri(server.url("/biblioteca/autors/llistarAutors").uri())
+                    .GET()
+                    .build();
+            HttpResponse<String> resp = ApiClient.send(req, HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, resp.statusCode());
+            assertEquals(HttpClient.Version.HTTP_1_1,
+                    ApiClient.getNegotiatedVersions().get("GET /biblioteca/autors/llistarAutors"));
+        }
+    }
+
+    /**
+     * Prova que forEachElement lliura els elements un a un en ordre
+     * i que un cos "null" o buit es tracta com una llista buida.
+     */
+    @Test
+    void forEachElement_LliuraElementsEnOrdre() throws Exception {
+        List<String> titols = new ArrayList<>();
+        int n = ApiClient.forEachElement(json("[{\"id\":1,\"titol\":\"A\"},{\"id\":2,\"titol\":\"B\",\"extra\":true}]"),
+                Llibre.class, l -> titols.add(l.getTitol()));
+
+        assertEquals(2, n);
+        assertEquals(List.of("A", "B"), titols);
+        assertTrue(ApiClient.readList(json("null"), Llibre.class).isEmpty());
+        assertTrue(ApiClient.readList(json(""), Llibre.class).isEmpty());
+    }
+
+    /**
+     * Prova que readList rebutja cossos que no són arrays o estan truncats.
+     */
+    @Test
+    void readList_JsonInvalid_LlancaIOException() {
+        assertThrows(IOException.class, () -> ApiClient.readList(json("{\"id\":1}"), Llibre.class));
+        assertThrows(IOException.class, () -> ApiClient.readList(json("[{\"id\":1},"), Llibre.class));
+    }
+
+    /**
+     * Prova que supplyAsync executa en segon pla i propaga l'ApiException original.
+     */
+    @Test
+    void supplyAsync_PropagaApiExceptionSenseEmbolcallar() {
+        assertEquals("ok", ApiClient.supplyAsync(() -> "ok").join());
+
+        CompletableFuture<String> failed = ApiClient.supplyAsync(() -> {
+            throw new ApiException("Codi 401: No autoritzat", 401);
+        });
+        CompletionException ex = assertThrows(CompletionException.class, failed::join);
+        assertSame(ApiException.class, ApiClient.unwrap(ex).getClass());
+        assertEquals(401, ((ApiException) ApiClient.unwrap(ex)).getStatusCode());
+    }
+
+    /**
+     * Prova que l'interceptor d'autenticació afegeix el token excepte a les rutes /biblioteca/auth/
+     * i que els interceptors propis reben la petició interceptada i el resultat.
+     */
+    @Test
+    void interceptors_AfegeixenTokenINotifiquenElResultat() throws Exception {
+        SessionStore.getInstance().setToken("tok");
+        List<String> vist = new ArrayList<>();
+        ApiInterceptor propi = new ApiInterceptor() {
+            @Override
+            public HttpRequest onRequest(HttpRequest request) {
+                vist.add(request.headers().firstValue("Authorization").orElse("-"));
+                return request;
+            }
+
+            @Override
+            public void onComplete(HttpRequest request, Object result, Throwable error, long nanos) {
+                vist.add(result + "/" + (error == null ? "ok" : error.getClass().getSimpleName()));
+            }
+        };
+        MockWebServer server = new MockWebServer();
+        server.start();
+        ApiClient.addInterceptor(propi);
+        try {
+            System.setProperty("api.base.url", server.url("/").toString());
+            server.enqueue(new MockResponse().setBody("7"));
+            server.enqueue(new MockResponse().setBody("{}"));
+
+            ApiCall<String, String> privada = ApiCall.of(() -> Endpoint.get("/biblioteca/llibres/trobarLlibrePerId/{id}").request(7),
+                    HttpResponse.BodyHandlers.ofString(), HttpResponse::body);
+            ApiCall<String, String> publica = ApiCall.of(() -> Endpoint.post("/biblioteca/auth/login").json(new Llibre()),
+                    HttpResponse.BodyHandlers.ofString(), HttpResponse::body);
+            assertEquals("7", privada.execute());
+            publica.executeAsync().join();
+
+            assertEquals("Bearer tok", server.takeRequest().getHeader("Authorization"));
+            assertNull(server.takeRequest().getHeader("Authorization"));
+            assertEquals(List.of("Bearer tok", "7/ok", "-", "{}/ok"), vist);
+        } finally {
+            ApiClient.removeInterceptor(propi);
+            System.clearProperty("api.base.url");
+            server.shutdown();
+        }
+    }
+
+    /**
+     * Prova que els lectors i escriptors JSON es resolen una sola vegada per tipus.
+     */
+    @Test
+    void readerIWriter_EsReutilitzenPerTipus() throws Exception {
+        assertSame(ApiClient.readerFor(Llibre.class), ApiClient.readerFor(Llibre.class));
+        assertSame(ApiClient.writerFor(Llibre.class), ApiClient.writerFor(Llibre.class));
+
+        Llibre llibre = new Llibre();
+        llibre.setTitol("Mirall trencat");
+        Llibre llegit = ApiClient.readValue(new String(ApiClient.writeJson(llibre), StandardCharsets.UTF_8), Llibre.class);
+        assertEquals("Mirall trencat", llegit.getTitol());
+    }
+
+    private static InputStream json(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
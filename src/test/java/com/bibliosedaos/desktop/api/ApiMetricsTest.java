@@ -0,0 +1,149 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.api.http.HttpExemplarApi;
+import com.bibliosedaos.desktop.model.Exemplar;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves de les mètriques per endpoint de l'API.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class ApiMetricsTest {
+
+    private static final String LLISTAR = "GET /biblioteca/exemplars/llistarExemplars";
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        System.setProperty("api.base.url", server.url("/").toString());
+        ApiMetrics.reset();
+        Resilience.reset();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        System.clearProperty("api.base.url");
+        System.clearProperty("api.metrics.enabled");
+        System.clearProperty("api.metrics.file");
+        server.shutdown();
+    }
+
+    /**
+     * Prova que els percentils de l'histograma s'aproximen als reals dins de l'error de les cubetes.
+     */
+    @Test
+    void histogram_Percentils_DinsDelMargeDError() {
+        ApiMetrics.Histogram h = new ApiMetrics.Histogram();
+        for (int ms = 1; ms <= 100; ms++) {
+            h.record(TimeUnit.MILLISECONDS.toNanos(ms));
+        }
+
+        assertEquals(100, h.getCount());
+        assertEquals(50, h.getP50(), 50 * 0.125);
+        assertEquals(95, h.getP95(), 95 * 0.125);
+        assertEquals(99, h.getP99(), 99 * 0.125);
+        assertEquals(100, h.getMaxMillis(), 0.001);
+        assertEquals(50.5, h.getMeanMillis(), 0.001);
+    }
+
+    /**
+     * Prova que cada cubeta conté els valors que li corresponen.
+     */
+    @Test
+    void histogram_IndexIUpperBound_SonCoherents() {
+        for (long v : new long[]{0, 15, 16, 17, 1000, 123_456, 60_000_000L}) {
+            int i = ApiMetrics.Histogram.index(v);
+            assertTrue(ApiMetrics.Histogram.upperBound(i) >= v);
+            if (i > 0) assertTrue(ApiMetrics.Histogram.upperBound(i - 1) < v);
+        }
+    }
+
+    /**
+     * Prova que es registren latència, xarxa, descodificació, bytes i codis d'estat per endpoint.
+     */
+    @Test
+    void crides_RegistrenMetriquesPerEndpoint() throws Exception {
+        String cos = "[{\"id\":1},{\"id\":2}]";
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(cos));
+        server.enqueue(new MockResponse().setResponseCode(404));
+        server.enqueue(new MockResponse().setResponseCode(201).setBody("{\"id\":3}"));
+        HttpExemplarApi api = new HttpExemplarApi();
+
+        assertEquals(2, api.getAllExemplars().size());
+        assertThrows(CompletionException.class, () -> api.getAllExemplarsAsync().join());
+        Exemplar nou = new Exemplar();
+        api.createExemplar(nou);
+
+        ApiMetrics.EndpointStats llistar = ApiMetrics.getEndpoints().get(LLISTAR);
+        assertEquals(2, llistar.getLatency().getCount());
+        assertEquals(2, llistar.getNetworkTime().getCount());
+        assertEquals(2, llistar.getDecodeTime().getCount());
+        assertEquals(1, llistar.getErrors());
+        assertEquals(1L, llistar.getStatusCounts().get(200));
+        assertEquals(1L, llistar.getStatusCounts().get(404));
+        assertEquals(cos.length(), llistar.getBytesIn());
+        assertEquals(0, llistar.getBytesOut());
+
+        ApiMetrics.EndpointStats crear = ApiMetrics.getEndpoints().get("PUT /biblioteca/exemplars/afegirExemplar");
+        assertEquals(ApiClient.MAPPER.writeValueAsBytes(nou).length, crear.getBytesOut());
+        assertEquals(1L, crear.getStatusCounts().get(201));
+    }
+
+    /**
+     * Prova que un error de xarxa es compta sense codi d'estat.
+     */
+    @Test
+    void errorDeXarxa_EsCompta() throws Exception {
+        System.setProperty("api.retry.maxAttempts", "1");
+        try {
+            server.shutdown();
+            assertThrows(ApiException.class, () -> new HttpExemplarApi().getAllExemplars());
+        } finally {
+            System.clearProperty("api.retry.maxAttempts");
+        }
+
+        ApiMetrics.EndpointStats llistar = ApiMetrics.getEndpoints().get(LLISTAR);
+        assertEquals(1, llistar.getNetworkErrors());
+        assertEquals(1, llistar.getErrors());
+        assertTrue(llistar.getStatusCounts().isEmpty());
+    }
+
+    /**
+     * Prova el bolcat a fitxer i la desactivació per propietat.
+     */
+    @Test
+    void dump_EscriuInformeIDesactivatNoRegistra(@TempDir Path dir) throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
+        new HttpExemplarApi().getAllExemplars();
+
+        Path fitxer = dir.resolve("metriques/api.txt");
+        System.setProperty("api.metrics.file", fitxer.toString());
+        ApiMetrics.dumpIfConfigured();
+        String informe = Files.readString(fitxer);
+        assertTrue(informe.contains(LLISTAR));
+        assertTrue(informe.contains("p95="));
+
+        System.setProperty("api.metrics.enabled", "false");
+        new HttpExemplarApi().getAllExemplars();
+        assertEquals(1, ApiMetrics.getEndpoints().get(LLISTAR).getLatency().getCount());
+    }
+}
@@ -0,0 +1,200 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.api.http.HttpLlibreApi;
+import com.bibliosedaos.desktop.model.Llibre;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves del límit adaptatiu de peticions simultànies.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class ConcurrencyLimiterTest {
+
+    private static final String ENDPOINT = "GET /biblioteca/llibres/trobarLlibrePerId/{id}";
+
+    @BeforeEach
+    void setUp() {
+        ConcurrencyLimiter.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ConcurrencyLimiter.reset();
+        System.clearProperty("api.base.url");
+        System.clearProperty("api.limit.initial");
+        System.clearProperty("api.limit.min");
+        System.clearProperty("api.limit.max");
+        System.clearProperty("api.limit.maxWaitMs");
+    }
+
+    private static long ms(long ms) {
+        return TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    /** Dona a l'endpoint una latència de referència de 10 ms. */
+    private static void referencia(ConcurrencyLimiter limiter) {
+        for (int i = 0; i < ConcurrencyLimiter.BASELINE_MIN_SAMPLES; i++) {
+            limiter.acquireAsync(ENDPOINT).join().success(ms(10), 200);
+        }
+    }
+
+    /**
+     * Prova que una resposta molt més lenta que la referència redueix el límit, un cop per ronda.
+     */
+    @Test
+    void success_LatenciaAlta_RedueixUnCopPerRonda() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("https://biblio.local:8443");
+        referencia(limiter);
+        assertEquals(20, limiter.getLimit());
+
+        ConcurrencyLimiter.Permit a = limiter.acquireAsync(ENDPOINT).join();
+        ConcurrencyLimiter.Permit b = limiter.acquireAsync(ENDPOINT).join();
+        a.success(ms(500), 200);
+        b.success(ms(500), 200);
+        assertEquals(18, limiter.getLimit());
+        assertEquals(1, limiter.getDrops());
+
+        limiter.acquireAsync(ENDPOINT).join().success(ms(500), 200);
+        assertEquals(16, limiter.getLimit());
+    }
+
+    /**
+     * Prova que un 503 o un temps esgotat redueixen el límit i un error de connexió no.
+     */
+    @Test
+    void saturacio_503ITempsEsgotat_RedueixenElLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("https://biblio.local:8443");
+
+        limiter.acquireAsync(ENDPOINT).join().success(ms(5), 503);
+        limiter.acquireAsync(ENDPOINT).join().failure(new HttpTimeoutException("request timed out"));
+        limiter.acquireAsync(ENDPOINT).join().failure(new java.net.ConnectException("refused"));
+
+        assertEquals(2, limiter.getDrops());
+        assertEquals(16, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    /**
+     * Prova que les respostes normals amb el limitador ple fan pujar el límit.
+     */
+    @Test
+    void success_AmbCarrega_AugmentaElLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("https://biblio.local:8443");
+        referencia(limiter);
+
+        for (int ronda = 0; ronda < 10; ronda++) {
+            List<ConcurrencyLimiter.Permit> permisos = new ArrayList<>();
+            for (int i = 0; i < limiter.getLimit(); i++) {
+                permisos.add(limiter.acquireAsync(ENDPOINT).join());
+            }
+            permisos.forEach(p -> p.success(ms(10), 200));
+        }
+
+        assertTrue(limiter.getLimit() >= 23, "limit=" + limiter.getLimit());
+    }
+
+    /**
+     * Prova que l'excés espera en ordre d'arribada i que una espera cancel·lada cedeix el lloc.
+     */
+    @Test
+    void cua_OrdreArribada_ICancelacio() {
+        System.setProperty("api.limit.initial", "1");
+        System.setProperty("api.limit.min", "1");
+        System.setProperty("api.limit.max", "1");
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("https://biblio.local:8443");
+
+        ConcurrencyLimiter.Permit primer = limiter.acquireAsync(ENDPOINT).join();
+        CompletableFuture<ConcurrencyLimiter.Permit> segon = limiter.acquireAsync(ENDPOINT);
+        CompletableFuture<ConcurrencyLimiter.Permit> tercer = limiter.acquireAsync(ENDPOINT);
+        CompletableFuture<ConcurrencyLimiter.Permit> quart = limiter.acquireAsync(ENDPOINT);
+        assertEquals(3, limiter.getQueued());
+
+        segon.cancel(true);
+        primer.release();
+        assertTrue(tercer.isDone());
+        assertFalse(quart.isDone());
+
+        tercer.join().release();
+        assertTrue(quart.isDone());
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    /**
+     * Prova que una espera massa llarga a la cua falla sense arribar al servidor.
+     */
+    @Test
+    void cua_EsperaMassaLlarga_Rebutja() {
+        System.setProperty("api.limit.initial", "1");
+        System.setProperty("api.limit.min", "1");
+        System.setProperty("api.limit.max", "1");
+        System.setProperty("api.limit.maxWaitMs", "50");
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("https://biblio.local:8443");
+        limiter.acquireAsync(ENDPOINT).join();
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> limiter.acquireAsync(ENDPOINT).get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(ConcurrencyLimiter.QueueTimeoutException.class, e.getCause());
+        assertEquals(1, limiter.getRejected());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    /**
+     * Prova que, amb moltes crides alhora, el servidor no en veu mai més que el límit.
+     */
+    @Test
+    void crides_Simultanies_NoPassenDelLimit() throws Exception {
+        System.setProperty("api.limit.initial", "3");
+        System.setProperty("api.limit.max", "3");
+        AtomicInteger enCurs = new AtomicInteger();
+        AtomicInteger maxim = new AtomicInteger();
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                maxim.accumulateAndGet(enCurs.incrementAndGet(), Math::max);
+                Thread.sleep(50);
+                enCurs.decrementAndGet();
+                String path = request.getPath();
+                return new MockResponse().setBody("{\"id\":" + path.substring(path.lastIndexOf('/') + 1) + "}");
+            }
+        });
+        server.start();
+        try {
+            System.setProperty("api.base.url", server.url("/").toString());
+            HttpLlibreApi api = new HttpLlibreApi();
+            List<CompletableFuture<Llibre>> futurs = new ArrayList<>();
+            for (int i = 1; i <= 12; i++) {
+                futurs.add(api.findLlibreByIdAsync((long) i));
+            }
+            CompletableFuture.allOf(futurs.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+            assertTrue(maxim.get() <= 3, "maxim=" + maxim.get());
+            ConcurrencyLimiter limiter = ConcurrencyLimiter.getLimiters().values().iterator().next();
+            assertTrue(limiter.getPeakQueued() > 0);
+            assertEquals(0, limiter.getInFlight());
+        } finally {
+            server.shutdown();
+        }
+    }
+}
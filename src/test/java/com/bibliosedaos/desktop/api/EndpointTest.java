@@ -0,0 +1,84 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.model.Llibre;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves de les plantilles d'endpoint.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class EndpointTest {
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("api.base.url", "https://biblio.local:8443/");
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("api.base.url");
+    }
+
+    /**
+     * Prova la substitució de marcadors de ruta en ordre, sense barra doble.
+     */
+    @Test
+    void uri_MarcadorsDeRuta_EsSubstitueixenEnOrdre() {
+        Endpoint e = Endpoint.put("/biblioteca/grups/{grupId}/afegirUsuariGrup/{membreId}");
+
+        assertEquals("https://biblio.local:8443/biblioteca/grups/3/afegirUsuariGrup/42", e.uri(3L, 42L).toString());
+    }
+
+    /**
+     * Prova que els valors es codifiquen i que un paràmetre de query null s'omet.
+     */
+    @Test
+    void uri_CodificaValorsIOmetQueryNull() {
+        Endpoint nick = Endpoint.get("/biblioteca/usuaris/trobarUsuariPerNick/{nick}");
+        Endpoint titol = Endpoint.get("/biblioteca/exemplars/llistarExemplarsLliures?titol={titol}");
+        Endpoint prestecs = Endpoint.get("/biblioteca/prestecs/llistarPrestecs?usuariId={usuariId}");
+
+        assertEquals("/biblioteca/usuaris/trobarUsuariPerNick/joan%20pi", nick.uri("joan pi").getRawPath());
+        assertEquals("titol=El+nom+de+la+rosa%26co", titol.uri("El nom de la rosa&co").getRawQuery());
+        assertEquals("usuariId=5", prestecs.uri(5L).getRawQuery());
+        assertNull(prestecs.uri((Object) null).getRawQuery());
+    }
+
+    /**
+     * Prova les capçaleres, el mètode i el cos JSON de les peticions.
+     */
+    @Test
+    void request_MetodeCapcaleresICos() throws Exception {
+        HttpRequest delete = Endpoint.delete("/biblioteca/llibres/eliminarLlibre/{id}").request(1L);
+        Llibre llibre = new Llibre();
+        HttpRequest put = Endpoint.put("/biblioteca/llibres/afegirLlibre").json(llibre);
+
+        assertEquals("DELETE", delete.method());
+        assertTrue(delete.headers().firstValue("Content-Type").isEmpty());
+        assertEquals(Endpoint.TIMEOUT, delete.timeout().orElseThrow());
+        assertEquals("PUT", put.method());
+        assertEquals("application/json", put.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals(ApiClient.writeJson(llibre).length, put.bodyPublisher().orElseThrow().contentLength());
+    }
+
+    /**
+     * Prova que un nombre incorrecte de valors o una query sense marcador es rebutgen.
+     */
+    @Test
+    void plantillaIncorrecta_LlancaIllegalArgumentException() {
+        Endpoint e = Endpoint.get("/biblioteca/llibres/trobarLlibrePerId/{id}");
+
+        assertThrows(IllegalArgumentException.class, e::uri);
+        assertThrows(IllegalArgumentException.class, () -> e.uri(1, 2));
+        assertThrows(IllegalArgumentException.class, () -> Endpoint.get("/x?fix=1"));
+    }
+}
@@ -0,0 +1,110 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.api.http.HttpLlibreApi;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de les estratègies de {@link ExecutorStrategy} amb centenars de crides
+ * bloquejants simultànies contra un servidor local amb latència fixa.
+ *
+ * No s'executa amb els tests (no acaba en Test). S'executa a mà sobre el classpath de test:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.bibliosedaos.desktop.api.ExecutorStrategyBenchmark -Dexec.args="400 100"
+ * </pre>
+ * Arguments: crides simultànies (per defecte 400) i latència del servidor en ms (per defecte 100).
+ * Cada crida és un {@code findLlibreById} amb un id diferent, perquè no s'agrupin.
+ * Per a cada mode mostra el temps total, les crides completades, les rebutjades per
+ * l'executor i el màxim de fils vius. A JDK 17 el mode virtual torna al pool, de manera que
+ * només una execució a JDK 21 o superior compara de debò les dues estratègies.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class ExecutorStrategyBenchmark {
+
+    private ExecutorStrategyBenchmark() {
+    }
+
+    /**
+     * Punt d'entrada.
+     *
+     * @param args crides simultànies i latència del servidor
+     * @throws Exception si falla el servidor local
+     */
+    public static void main(String[] args) throws Exception {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        long latencyMs = args.length > 1 ? Long.parseLong(args[1]) : 100;
+
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                String id = path.substring(path.lastIndexOf('/') + 1);
+                return new MockResponse().setBody("{\"id\":" + id + ",\"titol\":\"Llibre " + id + "\"}")
+                        .setHeadersDelay(latencyMs, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+        System.setProperty("api.base.url", server.url("/").toString());
+        System.setProperty("api.retry.maxAttempts", "1");
+        System.out.printf(Locale.ROOT, "%d crides, %d ms de latència, JDK %d (fils virtuals: %s)%n",
+                calls, latencyMs, Runtime.version().feature(), ExecutorStrategy.isVirtualSupported());
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        HttpLlibreApi api = new HttpLlibreApi();
+        try {
+            for (int round = 0; round < 2; round++) {
+                for (ExecutorStrategy strategy : ExecutorStrategy.values()) {
+                    Resilience.reset();
+                    threads.resetPeakThreadCount();
+                    ExecutorService exec = strategy.create();
+                    List<Future<?>> futures = new ArrayList<>(calls);
+                    int rejected = 0;
+                    long start = System.nanoTime();
+                    for (int i = 1; i <= calls; i++) {
+                        long id = i;
+                        try {
+                            futures.add(exec.submit(() -> api.findLlibreById(id)));
+                        } catch (RejectedExecutionException e) {
+                            rejected++;
+                        }
+                    }
+                    int ok = 0;
+                    for (Future<?> f : futures) {
+                        try {
+                            f.get();
+                            ok++;
+                        } catch (Exception e) {
+                            // comptada com a no completada
+                        }
+                    }
+                    long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    exec.shutdown();
+                    exec.awaitTermination(10, TimeUnit.SECONDS);
+                    if (round == 0) continue; // escalfament
+                    System.out.printf(Locale.ROOT, "%-8s %6d ms  completades=%d  rebutjades=%d  fils(pic)=%d%n",
+                            strategy, ms, ok, rejected, threads.getPeakThreadCount());
+                }
+            }
+        } finally {
+            System.clearProperty("api.retry.maxAttempts");
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bibliosedaos.desktop.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves de l'estratègia configurable de l'executor en segon pla.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class ExecutorStrategyTest {
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("api.executor");
+    }
+
+    /**
+     * Prova la lectura de la propietat, amb POOL per defecte i per a valors desconeguts.
+     */
+    @Test
+    void fromSystemProperties_LlegeixLaPropietat() {
+        assertEquals(ExecutorStrategy.POOL, ExecutorStrategy.fromSystemProperties());
+        System.setProperty("api.executor", " Virtual ");
+        assertEquals(ExecutorStrategy.VIRTUAL, ExecutorStrategy.fromSystemProperties());
+        System.setProperty("api.executor", "fibres");
+        assertEquals(ExecutorStrategy.POOL, ExecutorStrategy.fromSystemProperties());
+    }
+
+    /**
+     * Prova que el pool usa fils de plataforma dimoni i cues acotades per prioritat.
+     */
+    @Test
+    void pool_AcotatAmbFilsDimoni() throws Exception {
+        PriorityExecutor exec = ExecutorStrategy.POOL.create();
+        try {
+            assertEquals(200, exec.remainingCapacity(TaskPriority.NORMAL));
+            assertEquals(64, exec.remainingCapacity(TaskPriority.INTERACTIVE));
+            assertTrue(exec.submit(() -> Thread.currentThread().isDaemon()).get(1, TimeUnit.SECONDS));
+            assertTrue(exec.submit(() -> Thread.currentThread().getName()).get(1, TimeUnit.SECONDS).startsWith("biblio-bg-"));
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
+    /**
+     * Prova que el mode virtual funciona a qualsevol JDK: amb fils virtuals a partir de
+     * JDK 21 i amb el pool com a alternativa abans.
+     */
+    @Test
+    void virtual_DetectatEnTempsDExecucio() throws Exception {
+        assertEquals(Runtime.version().feature() >= 21, ExecutorStrategy.isVirtualSupported());
+
+        ExecutorService exec = ExecutorStrategy.VIRTUAL.create();
+        try {
+            Thread fil = exec.submit(Thread::currentThread).get(1, TimeUnit.SECONDS);
+            if (ExecutorStrategy.isVirtualSupported()) {
+                assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(fil));
+                assertTrue(fil.getName().startsWith("biblio-vt-"));
+            } else {
+                assertTrue(fil.getName().startsWith("biblio-bg-"));
+            }
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.api.http.HttpLlibreApi;
+import com.bibliosedaos.desktop.model.Llibre;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves de la duplicació de consultes puntuals lentes.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class HedgingTest {
+
+    private static final String KEY = "GET /biblioteca/llibres/trobarLlibrePerId/{id}";
+
+    private MockWebServer server;
+    private HttpLlibreApi api;
+
+    /** Peticions rebudes per al llibre 99. */
+    private final AtomicInteger lentes = new AtomicInteger();
+
+    /** Retard de totes les respostes (ms), a part de la primera del llibre 99. */
+    private volatile long retard;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AdaptiveTimeout.reset();
+        Resilience.reset();
+        Hedging.reset();
+        ConcurrencyLimiter.reset();
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getPath();
+                String id = path.substring(path.lastIndexOf('/') + 1);
+                MockResponse resp = new MockResponse().setBody("{\"id\":" + id + ",\"titol\":\"Llibre\"}");
+                if ("99".equals(id) && lentes.incrementAndGet() == 1) {
+                    return resp.setHeadersDelay(3, TimeUnit.SECONDS);
+                }
+                return retard > 0 ? resp.setHeadersDelay(retard, TimeUnit.MILLISECONDS) : resp;
+            }
+        });
+        server.start();
+        System.setProperty("api.base.url", server.url("/").toString());
+        System.setProperty("api.retry.maxAttempts", "1");
+        System.setProperty("api.timeout.floorMs", "5000");
+        api = new HttpLlibreApi();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        AdaptiveTimeout.reset();
+        Hedging.reset();
+        System.clearProperty("api.base.url");
+        System.clearProperty("api.retry.maxAttempts");
+        System.clearProperty("api.timeout.floorMs");
+        System.clearProperty("api.hedge.enabled");
+        System.clearProperty("api.hedge.budgetPercent");
+        System.clearProperty("api.hedge.minDelayMs");
+        server.shutdown();
+    }
+
+    /**
+     * Fa prou consultes ràpides perquè l'endpoint tingui percentils, sense duplicar.
+     */
+    private void escalfar() throws Exception {
+        System.setProperty("api.hedge.enabled", "false");
+        for (int i = 1; i <= 25; i++) {
+            api.findLlibreById((long) i);
+        }
+        System.setProperty("api.hedge.enabled", "true");
+    }
+
+    /**
+     * Prova que una consulta que es queda enrere es resol amb el duplicat.
+     */
+    @Test
+    void findLlibreById_OriginalLent_GuanyaElDuplicat() throws Exception {
+        escalfar();
+        // prou marge perquè l'original arribi al servidor abans que el duplicat
+        System.setProperty("api.hedge.minDelayMs", "200");
+
+        long inici = System.nanoTime();
+        Llibre llibre = api.findLlibreById(99L);
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inici);
+
+        assertEquals(99L, llibre.getId());
+        assertTrue(ms < 1_500, "ha trigat " + ms + " ms");
+        Hedging.Stats stats = Hedging.getStats().get(KEY);
+        assertEquals(1, stats.getRequests());
+        assertEquals(1, stats.getHedges());
+        assertEquals(1, stats.getWins());
+        assertEquals(2, lentes.get());
+    }
+
+    /**
+     * Prova que, quan guanya el duplicat, l'original s'avorta i torna el permís del limitador
+     * sense esperar la seva resposta.
+     */
+    @Test
+    void findLlibreById_GuanyaElDuplicat_OriginalAllibera() throws Exception {
+        escalfar();
+        System.setProperty("api.hedge.minDelayMs", "200");
+        TaskScope.resetCounters();
+
+        assertEquals(99L, api.findLlibreById(99L).getId());
+
+        long limit = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (enCurs() > 0 && System.nanoTime() < limit) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, enCurs());
+        assertEquals(0, TaskScope.getAbortedRequests());
+    }
+
+    /**
+     * Peticions en curs segons el limitador de concurrència.
+     */
+    private static int enCurs() {
+        return ConcurrencyLimiter.getLimiters().values().stream().mapToInt(ConcurrencyLimiter::getInFlight).sum();
+    }
+
+    /**
+     * Prova que, amb el servidor lent per a tothom, el pressupost limita els duplicats.
+     */
+    @Test
+    void pressupost_ServidorLent_LimitaDuplicats() throws Exception {
+        escalfar();
+        System.setProperty("api.hedge.budgetPercent", "0");
+        retard = 300;
+
+        // totes alhora: cap mostra lenta no arriba a moure el p95 abans que surtin els duplicats
+        List<CompletableFuture<Llibre>> futurs = new ArrayList<>();
+        for (int i = 1; i <= 25; i++) {
+            futurs.add(api.findLlibreByIdAsync((long) i));
+        }
+        CompletableFuture.allOf(futurs.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        Hedging.Stats stats = Hedging.getStats().get(KEY);
+        assertEquals(25, stats.getRequests());
+        assertEquals(Hedging.MAX_TOKENS, stats.getHedges());
+        assertEquals(25 - Hedging.MAX_TOKENS, stats.getDenied());
+    }
+
+    /**
+     * Prova que desactivat no s'envia cap duplicat.
+     */
+    @Test
+    void desactivat_SenseDuplicats() throws Exception {
+        escalfar();
+        System.setProperty("api.hedge.enabled", "false");
+
+        long inici = System.nanoTime();
+        api.findLlibreById(99L);
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inici);
+
+        assertTrue(ms >= 2_500, "ha trigat " + ms + " ms");
+        assertEquals(1, lentes.get());
+        assertTrue(Hedging.getStats().isEmpty());
+    }
+}
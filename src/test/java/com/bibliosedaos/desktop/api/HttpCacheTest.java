@@ -0,0 +1,247 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.model.Llibre;
+import com.bibliosedaos.desktop.security.SessionStore;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves de la memòria cau de revalidació HTTP amb MockWebServer.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class HttpCacheTest {
+
+    private static final String LLIBRES = "[{\"id\":1,\"titol\":\"A\"},{\"id\":2,\"titol\":\"B\"}]";
+
+    private MockWebServer server;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        SessionStore.getInstance().clear();
+        server.shutdown();
+    }
+
+    /**
+     * Crida de llistat de llibres equivalent a la de HttpLlibreApi, amb la memòria cau indicada.
+     */
+    private ApiCall<InputStream, List<Llibre>> llistarLlibres(HttpCache cache) {
+        return ApiCall.of(
+                () -> HttpRequest.newBuilder()
+                        .uri(URI.create(server.url("/biblioteca/llibres/llistarLlibres").toString()))
+                        .GET()
+                        .build(),
+                HttpResponse.BodyHandlers.ofInputStream(),
+                resp -> {
+                    try (InputStream body = resp.body()) {
+                        if (resp.statusCode() != 200) {
+                            throw new ApiException("Codi " + resp.statusCode(), resp.statusCode());
+                        }
+                        return ApiClient.readList(body, Llibre.class);
+                    }
+                }).cached(cache);
+    }
+
+    /**
+     * Prova que la segona crida envia If-None-Match i un 304 retorna el resultat desat.
+     */
+    @Test
+    void execute_Resposta304_RetornaResultatDesat() throws Exception {
+        HttpCache cache = new HttpCache(null);
+        server.enqueue(new MockResponse().setResponseCode(200).setHeader("ETag", "\"v1\"").setBody(LLIBRES));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        List<Llibre> primer = llistarLlibres(cache).execute();
+        List<Llibre> segon = llistarLlibres(cache).execute();
+
+        assertEquals(2, segon.size());
+        assertEquals("B", segon.get(1).getTitol());
+        assertNotSame(primer, segon, "Les llistes desades es retornen com a còpia");
+
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(LLIBRES.getBytes(StandardCharsets.UTF_8).length, cache.getBytesSaved());
+    }
+
+    /**
+     * Prova que una resposta nova (200) substitueix l'entrada desada.
+     */
+    @Test
+    void execute_RespostaModificada_ActualitzaEntrada() throws Exception {
+        HttpCache cache = new HttpCache(null);
+        server.enqueue(new MockResponse().setResponseCode(200).setHeader("ETag", "\"v1\"").setBody(LLIBRES));
+        server.enqueue(new MockResponse().setResponseCode(200).setHeader("ETag", "\"v2\"").setBody("[{\"id\":3,\"titol\":\"C\"}]"));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        llistarLlibres(cache).execute();
+        llistarLlibres(cache).execute();
+        List<Llibre> tercer = llistarLlibres(cache).execute();
+
+        assertEquals(1, tercer.size());
+        assertEquals("C", tercer.get(0).getTitol());
+        server.takeRequest();
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+        assertEquals("\"v2\"", server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    /**
+     * Prova que sense validadors no es desa res i no s'envien peticions condicionals.
+     */
+    @Test
+    void execute_SenseValidadors_NoEnviaPeticioCondicional() throws Exception {
+        HttpCache cache = new HttpCache(null);
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(LLIBRES));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody(LLIBRES));
+
+        llistarLlibres(cache).execute();
+        llistarLlibres(cache).execute();
+
+        server.takeRequest();
+        RecordedRequest segona = server.takeRequest();
+        assertNull(segona.getHeader("If-None-Match"));
+        assertNull(segona.getHeader("If-Modified-Since"));
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    /**
+     * Prova que una resposta d'error no compta com a errada de la memòria cau.
+     */
+    @Test
+    void execute_RespostaError_NoCompta() throws Exception {
+        HttpCache cache = new HttpCache(null);
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        assertThrows(ApiException.class, () -> llistarLlibres(cache).execute());
+
+        assertEquals(0, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    /**
+     * Prova que el resultat desat d'un usuari no es lliura a un altre: la petició del segon
+     * usuari no porta els validadors del primer.
+     */
+    @Test
+    void execute_AltreUsuari_NoRevalidaLEntradaDelPrimer() throws Exception {
+        HttpCache cache = new HttpCache(null);
+        server.enqueue(new MockResponse().setResponseCode(200).setHeader("ETag", "\"v1\"").setBody(LLIBRES));
+        server.enqueue(new MockResponse().setResponseCode(200).setHeader("ETag", "\"v1\"").setBody("[]"));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        SessionStore.getInstance().setUserId(1L);
+        llistarLlibres(cache).execute();
+        SessionStore.getInstance().clear();
+        SessionStore.getInstance().setUserId(2L);
+        List<Llibre> segon = llistarLlibres(cache).execute();
+        SessionStore.getInstance().setUserId(1L);
+        List<Llibre> tercer = llistarLlibres(cache).execute();
+
+        assertTrue(segon.isEmpty());
+        assertEquals(2, tercer.size());
+        server.takeRequest();
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+        assertEquals(1, cache.getHits());
+    }
+
+    /**
+     * Prova que la capa a disc permet revalidar després de "reiniciar" (nova instància).
+     */
+    @Test
+    void execute_CapaDisc_RevalidaAmbNovaInstancia() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(200)
+                .setHeader("ETag", "\"v1\"")
+                .setHeader("Last-Modified", "Wed, 01 Jan 2025 10:00:00 GMT")
+                .setBody(LLIBRES));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        llistarLlibres(new HttpCache(tempDir)).execute();
+
+        HttpCache reiniciada = new HttpCache(tempDir);
+        List<Llibre> llibres = llistarLlibres(reiniciada).execute();
+
+        assertEquals(2, llibres.size());
+        assertEquals("A", llibres.get(0).getTitol());
+        server.takeRequest();
+        RecordedRequest condicional = server.takeRequest();
+        assertEquals("\"v1\"", condicional.getHeader("If-None-Match"));
+        assertEquals("Wed, 01 Jan 2025 10:00:00 GMT", condicional.getHeader("If-Modified-Since"));
+        assertEquals(1, reiniciada.getHits());
+    }
+
+    /**
+     * Prova que, si la crida es reintenta després d'un 503, només es desa el cos del 200:
+     * ni a disc ni als comptadors hi entren els bytes de l'intent descartat.
+     */
+    @Test
+    void execute_ReintentDespresDe503_DesaNomesElCosDel200() throws Exception {
+        Resilience.reset();
+        System.setProperty("api.retry.baseDelayMs", "1");
+        try {
+            server.enqueue(new MockResponse().setResponseCode(503).setBody("{\"error\":\"Servei no disponible\"}"));
+            server.enqueue(new MockResponse().setResponseCode(200).setHeader("ETag", "\"v1\"").setBody(LLIBRES));
+            server.enqueue(new MockResponse().setResponseCode(304));
+            server.enqueue(new MockResponse().setResponseCode(304));
+
+            HttpCache cache = new HttpCache(tempDir);
+            assertEquals(2, llistarLlibres(cache).execute().size());
+            llistarLlibres(cache).execute();
+            assertEquals(LLIBRES.getBytes(StandardCharsets.UTF_8).length, cache.getBytesSaved());
+
+            HttpCache reiniciada = new HttpCache(tempDir);
+            List<Llibre> llibres = llistarLlibres(reiniciada).execute();
+            assertEquals(2, llibres.size());
+            assertEquals("B", llibres.get(1).getTitol());
+            assertEquals(LLIBRES.getBytes(StandardCharsets.UTF_8).length, reiniciada.getBytesSaved());
+        } finally {
+            System.clearProperty("api.retry.baseDelayMs");
+            Resilience.reset();
+        }
+    }
+
+    /**
+     * Prova que la versió asíncrona també resol els 304 amb el resultat desat.
+     */
+    @Test
+    void executeAsync_Resposta304_RetornaResultatDesat() throws Exception {
+        HttpCache cache = new HttpCache(null);
+        server.enqueue(new MockResponse().setResponseCode(200).setHeader("ETag", "\"v1\"").setBody(LLIBRES));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        llistarLlibres(cache).executeAsync().get(5, TimeUnit.SECONDS);
+        List<Llibre> llibres = llistarLlibres(cache).executeAsync().get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, llibres.size());
+        assertEquals(1, cache.getHits());
+    }
+}
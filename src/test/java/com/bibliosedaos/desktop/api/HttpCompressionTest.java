@@ -0,0 +1,154 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.model.Llibre;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves de la compressió negociada de respostes amb MockWebServer.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class HttpCompressionTest {
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        HttpCompression.resetByteCounts();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        System.clearProperty("api.http.compression");
+        server.shutdown();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(server.url(path).toString())).GET().build();
+    }
+
+    /** JSON gran i repetitiu, com els llistats de préstecs. */
+    private static String llistatLlibres(int n) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 1; i <= n; i++) {
+            if (i > 1) sb.append(',');
+            sb.append("{\"id\":").append(i).append(",\"titol\":\"Llibre ").append(i)
+                    .append("\",\"isbn\":\"978-84-000-0000-0\",\"editorial\":\"Editorial Sedaos\"}");
+        }
+        return sb.append(']').toString();
+    }
+
+    private static Buffer gzip(String s) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(bos)) {
+            gz.write(s.getBytes(StandardCharsets.UTF_8));
+        }
+        return new Buffer().write(bos.toByteArray());
+    }
+
+    private static Buffer zlib(String s) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (DeflaterOutputStream df = new DeflaterOutputStream(bos)) {
+            df.write(s.getBytes(StandardCharsets.UTF_8));
+        }
+        return new Buffer().write(bos.toByteArray());
+    }
+
+    /**
+     * Prova que amb la compressió activada s'envia Accept-Encoding i el cos gzip es
+     * descomprimeix en streaming cap a l'InputStream.
+     */
+    @Test
+    void send_RespostaGzip_EsDescomprimeixIComptaBytes() throws Exception {
+        System.setProperty("api.http.compression", "true");
+        String json = llistatLlibres(500);
+        server.enqueue(new MockResponse().setHeader("Content-Encoding", "gzip").setBody(gzip(json)));
+
+        HttpResponse<InputStream> resp = ApiClient.send(get("/biblioteca/llibres/llistarLlibres"),
+                HttpResponse.BodyHandlers.ofInputStream());
+        List<Llibre> llibres;
+        try (InputStream body = resp.body()) {
+            llibres = ApiClient.readList(body, Llibre.class);
+        }
+
+        assertEquals(500, llibres.size());
+        assertEquals("Llibre 500", llibres.get(499).getTitol());
+        RecordedRequest req = server.takeRequest();
+        assertEquals(HttpCompression.ACCEPT_ENCODING, req.getHeader("Accept-Encoding"));
+
+        HttpCompression.ByteCount count = HttpCompression.getByteCounts().get("GET /biblioteca/llibres/llistarLlibres");
+        assertNotNull(count);
+        assertEquals(json.getBytes(StandardCharsets.UTF_8).length, count.getDecodedBytes());
+        assertTrue(count.getWireBytes() * 5 < count.getDecodedBytes(), "El cos comprimit ha de ser molt més petit");
+    }
+
+    /**
+     * Prova que Content-Encoding: deflate (zlib) es descomprimeix també amb BodyHandlers.ofString().
+     */
+    @Test
+    void send_RespostaDeflate_EsDescomprimeixAString() throws Exception {
+        System.setProperty("api.http.compression", "true");
+        String json = llistatLlibres(3);
+        server.enqueue(new MockResponse().setHeader("Content-Encoding", "deflate").setBody(zlib(json)));
+
+        HttpResponse<String> resp = ApiClient.send(get("/biblioteca/autors/llistarAutors"),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(json, resp.body());
+    }
+
+    /**
+     * Prova que per defecte no es negocia compressió i els bytes es compten igualment.
+     */
+    @Test
+    void send_CompressioDesactivada_NoEnviaAcceptEncoding() throws Exception {
+        server.enqueue(new MockResponse().setBody("[]"));
+
+        HttpResponse<String> resp = ApiClient.send(get("/biblioteca/horaris/llistarHorarisSales"),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals("[]", resp.body());
+        assertNull(server.takeRequest().getHeader("Accept-Encoding"));
+        HttpCompression.ByteCount count = HttpCompression.getByteCounts().get("GET /biblioteca/horaris/llistarHorarisSales");
+        assertEquals(2, count.getWireBytes());
+        assertEquals(2, count.getDecodedBytes());
+    }
+
+    /**
+     * Prova que un cos gzip truncat falla en lloc de retornar dades parcials.
+     */
+    @Test
+    void send_GzipTruncat_LlancaIOException() throws Exception {
+        System.setProperty("api.http.compression", "true");
+        byte[] complet = gzip(llistatLlibres(50)).readByteArray();
+        byte[] truncat = Arrays.copyOf(complet, complet.length - 12);
+        server.enqueue(new MockResponse().setHeader("Content-Encoding", "gzip").setBody(new Buffer().write(truncat)));
+
+        assertThrows(IOException.class, () -> ApiClient.send(get("/biblioteca/prestecs/llistarPrestecs"),
+                HttpResponse.BodyHandlers.ofString()));
+    }
+}
@@ -0,0 +1,84 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.model.Prestec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Microbenchmark de la descodificació i codificació de préstecs: binding reflectiu
+ * contra {@link ModelCodecs}.
+ *
+ * No s'executa amb els tests (no acaba en Test). S'executa a mà sobre el classpath de test:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.bibliosedaos.desktop.api.ModelCodecsBenchmark -Dexec.args="200 10"
+ * </pre>
+ * Arguments: préstecs per llista (per defecte 200) i iteracions mesurades de 1 s (per defecte 10).
+ * Cada mode fa primer el mateix nombre d'iteracions d'escalfament perquè el JIT compili els dos camins.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class ModelCodecsBenchmark {
+
+    private static volatile Object sink;
+
+    private ModelCodecsBenchmark() {
+    }
+
+    /**
+     * Punt d'entrada.
+     *
+     * @param args préstecs per llista i iteracions
+     * @throws Exception si falla la serialització
+     */
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        byte[] json = ModelCodecsTest.prestecsJson(rows).getBytes(StandardCharsets.UTF_8);
+        System.out.printf(Locale.ROOT, "%d préstecs, %d bytes per llista%n", rows, json.length);
+
+        for (boolean codecs : new boolean[]{false, true}) {
+            ObjectMapper m = ModelCodecsTest.mapper(codecs);
+            ObjectReader reader = m.readerFor(Prestec[].class);
+            ObjectWriter writer = m.writerFor(Prestec[].class);
+            Prestec[] prestecs = reader.readValue(json);
+            String mode = codecs ? "codecs    " : "reflectiu ";
+
+            run(iterations, () -> sink = reader.readValue(json));
+            double decode = run(iterations, () -> sink = reader.readValue(json));
+            run(iterations, () -> sink = writer.writeValueAsBytes(prestecs));
+            double encode = run(iterations, () -> sink = writer.writeValueAsBytes(prestecs));
+
+            System.out.printf(Locale.ROOT, "%s decode %10.1f us/llista   encode %10.1f us/llista%n",
+                    mode, decode, encode);
+        }
+    }
+
+    /** Mitjana en microsegons per operació de la millor de les iteracions d'1 s. */
+    private static double run(int iterations, Op op) throws Exception {
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long ops = 0;
+            long start = System.nanoTime();
+            long end = start + 1_000_000_000L;
+            long now;
+            do {
+                op.run();
+                ops++;
+            } while ((now = System.nanoTime()) < end);
+            best = Math.min(best, (now - start) / 1000.0 / ops);
+        }
+        return best;
+    }
+
+    @FunctionalInterface
+    private interface Op {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,143 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.model.Autor;
+import com.bibliosedaos.desktop.model.Exemplar;
+import com.bibliosedaos.desktop.model.Grup;
+import com.bibliosedaos.desktop.model.Horari;
+import com.bibliosedaos.desktop.model.Llibre;
+import com.bibliosedaos.desktop.model.Prestec;
+import com.bibliosedaos.desktop.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves dels codificadors JSON escrits a mà, comparats amb el binding reflectiu.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class ModelCodecsTest {
+
+    private static final ObjectMapper REFLECTIU = mapper(false);
+    private static final ObjectMapper CODECS = mapper(true);
+
+    static ObjectMapper mapper(boolean codecs) {
+        ObjectMapper m = new ObjectMapper();
+        m.registerModule(new JavaTimeModule());
+        m.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (codecs) m.registerModule(ModelCodecs.module());
+        return m;
+    }
+
+    /** Llista de préstecs com la de l'API, amb camps desconeguts, nulls i objectes niats. */
+    static String prestecsJson(int n) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 1; i <= n; i++) {
+            if (i > 1) sb.append(',');
+            sb.append("{\"id\":").append(i)
+              .append(",\"dataPrestec\":\"2025-01-").append(String.format("%02d", i % 28 + 1)).append('"')
+              .append(",\"dataDevolucio\":").append(i % 2 == 0 ? "null" : "\"2025-02-15\"")
+              .append(",\"usuari\":{\"id\":").append(100 + i)
+              .append(",\"nick\":\"usuari").append(i).append("\",\"nif\":\"1234567").append(i % 10).append("Z\"")
+              .append(",\"nom\":\"Nom\",\"cognom1\":\"Cognom\",\"cognom2\":null,\"localitat\":\"Girona\"")
+              .append(",\"provincia\":\"Girona\",\"carrer\":\"Carrer Major 1\",\"cp\":\"17001\",\"tlf\":\"600000000\"")
+              .append(",\"email\":\"u").append(i).append("@biblio.cat\",\"rol\":").append(i % 3 == 0 ? 2 : 1)
+              .append(",\"password\":null,\"rolLabel\":\"Usuari\",\"extra\":{\"a\":[1,2,{\"b\":3}]}}")
+              .append(",\"exemplar\":{\"id\":").append(200 + i)
+              .append(",\"lloc\":\"Prestatge ").append(i).append("\",\"reservat\":\"prestat\"")
+              .append(",\"llibre\":{\"id\":").append(300 + i)
+              .append(",\"isbn\":\"978-84-").append(i).append("\",\"titol\":\"Títol \\\"").append(i).append("\\\"\"")
+              .append(",\"pagines\":").append(100 + i).append(",\"editorial\":\"Edicions\"")
+              .append(",\"autor\":{\"id\":").append(400 + i).append(",\"nom\":\"Autor\",\"llibres\":[]}}}")
+              .append(",\"desconegut\":true}");
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Prova que la lectura d'una llista de préstecs dona el mateix que el camí reflectiu.
+     */
+    @Test
+    void lectura_Prestecs_IgualQueReflectiu() throws Exception {
+        String json = prestecsJson(30);
+
+        Prestec[] esperat = REFLECTIU.readValue(json, Prestec[].class);
+        Prestec[] obtingut = CODECS.readValue(json, Prestec[].class);
+
+        assertEquals(REFLECTIU.writeValueAsString(esperat), REFLECTIU.writeValueAsString(obtingut));
+        assertEquals(LocalDate.of(2025, 1, 3), obtingut[1].getDataPrestec());
+        assertNull(obtingut[1].getDataDevolucio());
+        assertEquals("Títol \"2\"", obtingut[1].getExemplar().getLlibre().getTitol());
+        assertEquals("Autor", obtingut[1].getExemplar().getLlibre().getAutor().getNom());
+    }
+
+    /**
+     * Prova que l'escriptura emet els mateixos camps i valors que el camí reflectiu.
+     */
+    @Test
+    void escriptura_TotsElsTipus_IgualQueReflectiu() throws Exception {
+        Prestec prestec = REFLECTIU.readValue(prestecsJson(1), Prestec[].class)[0];
+        Horari horari = new Horari();
+        horari.setId(5L);
+        horari.setSala("Sala 1");
+        horari.setDia("Dilluns");
+        horari.setHora("18:00");
+        horari.setEstat("LLIURE");
+        Grup grup = new Grup();
+        grup.setId(9L);
+        grup.setNom("Club de lectura");
+        grup.setAdministrador(prestec.getUsuari());
+        grup.setHorari(horari);
+        grup.setMembres(new ArrayList<>(Arrays.asList(prestec.getUsuari(), null, new User())));
+
+        List<Object> valors = List.of(prestec, prestec.getExemplar(), prestec.getExemplar().getLlibre(),
+                prestec.getExemplar().getLlibre().getAutor(), prestec.getUsuari(), horari, grup,
+                new Prestec(), new Exemplar(), new Llibre(), new Autor(), new User(), new Horari(), new Grup());
+        for (Object valor : valors) {
+            assertEquals(REFLECTIU.readTree(REFLECTIU.writeValueAsBytes(valor)),
+                    REFLECTIU.readTree(CODECS.writeValueAsBytes(valor)), valor.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Prova que els tokens no habituals es deleguen amb les mateixes coercions.
+     */
+    @Test
+    void lectura_TokensNoHabituals_EsDeleguen() throws Exception {
+        String json = "{\"id\":\"7\",\"dataPrestec\":[2025,1,31],\"dataDevolucio\":\"\","
+                + "\"exemplar\":{\"id\":8,\"llibre\":{\"id\":9,\"pagines\":\"120\",\"titol\":42}}}";
+        String grup = "{\"id\":1,\"membres\":[{\"id\":2,\"rol\":2},null],\"horari\":null}";
+
+        Prestec p = CODECS.readValue(json, Prestec.class);
+        assertEquals(REFLECTIU.writeValueAsString(REFLECTIU.readValue(json, Prestec.class)),
+                REFLECTIU.writeValueAsString(p));
+        assertEquals(LocalDate.of(2025, 1, 31), p.getDataPrestec());
+        assertEquals(120, p.getExemplar().getLlibre().getPagines());
+        assertEquals("42", p.getExemplar().getLlibre().getTitol());
+        assertEquals(REFLECTIU.writeValueAsString(REFLECTIU.readValue(grup, Grup.class)),
+                REFLECTIU.writeValueAsString(CODECS.readValue(grup, Grup.class)));
+
+        assertThrows(MismatchedInputException.class, () -> CODECS.readValue("[1]", User.class));
+        assertThrows(Exception.class, () -> CODECS.readValue("{\"dataPrestec\":\"2025-02-30\"}", Prestec.class));
+    }
+
+    /**
+     * Prova que l'ObjectMapper compartit porta els codificadors registrats per defecte.
+     */
+    @Test
+    void mapperCompartit_PortaElsCodificadors() {
+        assertTrue(ModelCodecs.isEnabled());
+        assertTrue(ApiClient.MAPPER.getRegisteredModuleIds().contains("BiblioModelCodecs"));
+    }
+}
@@ -0,0 +1,134 @@
+package com.bibliosedaos.desktop.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves de l'obtenció múltiple per ID amb paral·lelisme limitat.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class MultiGetTest {
+
+    private final ScheduledExecutorService timer = Executors.newScheduledThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdownNow();
+        System.clearProperty("api.multiget.concurrency");
+    }
+
+    /**
+     * Consulta falsa que respon "llibre-ID" al cap d'uns mil·lisegons i compta les crides en curs.
+     */
+    private Function<Long, CompletableFuture<String>> lenta(AtomicInteger enCurs, AtomicInteger maxim,
+                                                           List<Long> demanats) {
+        return id -> {
+            demanats.add(id);
+            maxim.accumulateAndGet(enCurs.incrementAndGet(), Math::max);
+            CompletableFuture<String> f = new CompletableFuture<>();
+            timer.schedule(() -> {
+                enCurs.decrementAndGet();
+                if (id < 0) f.completeExceptionally(new ApiException("Codi 404: no trobat", 404));
+                else f.complete("llibre-" + id);
+            }, 20, TimeUnit.MILLISECONDS);
+            return f;
+        };
+    }
+
+    /**
+     * Prova que mai hi ha més consultes en curs que el límit i que totes s'acaben fent.
+     */
+    @Test
+    void fetch_RespectaElLimitDeParallelisme() throws Exception {
+        System.setProperty("api.multiget.concurrency", "4");
+        AtomicInteger enCurs = new AtomicInteger();
+        AtomicInteger maxim = new AtomicInteger();
+        List<Long> demanats = new CopyOnWriteArrayList<>();
+        List<Long> ids = LongStream.rangeClosed(1, 40).boxed().collect(Collectors.toList());
+
+        MultiGet.Result<String> r = MultiGet.fetch(ids, lenta(enCurs, maxim, demanats));
+
+        assertEquals(40, r.getFound().size());
+        assertEquals(40, demanats.size());
+        assertEquals(4, maxim.get());
+        assertTrue(r.isComplete());
+    }
+
+    /**
+     * Prova que els ID repetits i null es consulten una vegada i l'ordre es conserva.
+     */
+    @Test
+    void fetch_DeduplicaIConservaOrdre() throws Exception {
+        List<Long> demanats = new CopyOnWriteArrayList<>();
+        List<Long> ids = Arrays.asList(5L, 3L, null, 5L, 9L, 3L, 1L);
+
+        MultiGet.Result<String> r = MultiGet.fetchAsync(ids,
+                lenta(new AtomicInteger(), new AtomicInteger(), demanats), 2).get(2, TimeUnit.SECONDS);
+
+        assertEquals(List.of(5L, 3L, 9L, 1L), r.getIds());
+        assertEquals(List.of("llibre-5", "llibre-3", "llibre-9", "llibre-1"), r.getValues());
+        assertEquals(4, demanats.size());
+        assertEquals("llibre-9", r.get(9L));
+    }
+
+    /**
+     * Prova que un ID que falla no atura els altres i queda informat.
+     */
+    @Test
+    void fetch_FallidaParcial_SInforma() throws Exception {
+        MultiGet.Result<String> r = MultiGet.fetch(List.of(1L, -2L, 3L, -4L),
+                lenta(new AtomicInteger(), new AtomicInteger(), new ArrayList<>()));
+
+        assertEquals(List.of("llibre-1", "llibre-3"), r.getValues());
+        assertFalse(r.isComplete());
+        assertEquals(List.of(-2L, -4L), new ArrayList<>(r.getFailures().keySet()));
+        assertEquals(404, r.getFailures().get(-2L).getStatusCode());
+
+        ApiException e = assertThrows(ApiException.class, r::getValuesOrThrow);
+        assertEquals(404, e.getStatusCode());
+        assertEquals(1, e.getSuppressed().length);
+    }
+
+    /**
+     * Prova que les consultes que fallen de seguida no encadenen crides recursives.
+     */
+    @Test
+    void fetch_ErrorsImmediats_NoDesbordenLaPila() throws Exception {
+        List<Long> ids = LongStream.rangeClosed(1, 20_000).boxed().collect(Collectors.toList());
+
+        MultiGet.Result<Object> r = MultiGet.fetch(ids,
+                id -> CompletableFuture.failedFuture(new ApiException("Codi 500", 500)));
+
+        assertEquals(20_000, r.getFailures().size());
+        assertTrue(r.getValues().isEmpty());
+    }
+
+    /**
+     * Prova que una llista buida o null retorna un resultat buit sense consultar res.
+     */
+    @Test
+    void fetch_SenseIds_ResultatBuit() throws Exception {
+        MultiGet.Result<String> r = MultiGet.fetch(null, id -> fail("no s'ha de consultar"));
+
+        assertTrue(r.getIds().isEmpty());
+        assertTrue(r.isComplete());
+    }
+}
@@ -0,0 +1,196 @@
+package com.bibliosedaos.desktop.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves de l'executor amb classes de prioritat.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class PriorityExecutorTest {
+
+    private PriorityExecutor exec;
+    private final CountDownLatch allibera = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        allibera.countDown();
+        if (exec != null) exec.shutdownNow();
+        System.clearProperty("api.executor.queue.background");
+    }
+
+    private PriorityExecutor crear(int max) {
+        exec = new PriorityExecutor(Executors.defaultThreadFactory(), 0, max, 1, TimeUnit.SECONDS);
+        return exec;
+    }
+
+    private Runnable bloquejant(CountDownLatch iniciada) {
+        return () -> {
+            iniciada.countDown();
+            try {
+                allibera.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    /**
+     * Prova que un fil lliure agafa les tasques normals abans que les de fons.
+     */
+    @Test
+    void ordre_NormalAbansQueFons() throws Exception {
+        crear(1);
+        CountDownLatch iniciada = new CountDownLatch(1);
+        exec.execute(bloquejant(iniciada));
+        assertTrue(iniciada.await(1, TimeUnit.SECONDS));
+
+        List<String> ordre = new CopyOnWriteArrayList<>();
+        CountDownLatch fetes = new CountDownLatch(3);
+        exec.execute(TaskPriority.BACKGROUND, () -> { ordre.add("fons"); fetes.countDown(); });
+        exec.execute(TaskPriority.NORMAL, () -> { ordre.add("normal1"); fetes.countDown(); });
+        exec.execute(TaskPriority.NORMAL, () -> { ordre.add("normal2"); fetes.countDown(); });
+        allibera.countDown();
+
+        assertTrue(fetes.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("normal1", "normal2", "fons"), ordre);
+    }
+
+    /**
+     * Prova que una tasca interactiva comença encara que tots els fils estiguin ocupats.
+     */
+    @Test
+    void interactiva_ComencaAmbTotsElsFilsOcupats() throws Exception {
+        crear(2);
+        CountDownLatch iniciades = new CountDownLatch(2);
+        exec.execute(bloquejant(iniciades));
+        exec.execute(bloquejant(iniciades));
+        assertTrue(iniciades.await(1, TimeUnit.SECONDS));
+        exec.execute(() -> { });
+
+        CountDownLatch interactiva = new CountDownLatch(1);
+        AtomicInteger fils = new AtomicInteger();
+        exec.submit(TaskPriority.INTERACTIVE, () -> {
+            fils.set(exec.getPoolSize());
+            interactiva.countDown();
+        });
+
+        assertTrue(interactiva.await(1, TimeUnit.SECONDS));
+        assertEquals(3, fils.get());
+    }
+
+    /**
+     * Prova que el fil de la reserva interactiva no agafa feina normal i acaba quan no
+     * queden tasques interactives.
+     */
+    @Test
+    void reserva_NoFaFeinaNormal() throws Exception {
+        crear(2);
+        CountDownLatch iniciades = new CountDownLatch(2);
+        exec.execute(bloquejant(iniciades));
+        exec.execute(bloquejant(iniciades));
+        assertTrue(iniciades.await(1, TimeUnit.SECONDS));
+        CountDownLatch normal = new CountDownLatch(1);
+        exec.execute(normal::countDown);
+
+        CountDownLatch interactiva = new CountDownLatch(1);
+        exec.submit(TaskPriority.INTERACTIVE, interactiva::countDown);
+        assertTrue(interactiva.await(1, TimeUnit.SECONDS));
+
+        assertFalse(normal.await(300, TimeUnit.MILLISECONDS), "la reserva no ha de fer la tasca normal");
+        assertEquals(2, exec.getPoolSize());
+
+        allibera.countDown();
+        assertTrue(normal.await(1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Prova el senyal de contrapressió d'una cua plena sense afectar les altres classes.
+     */
+    @Test
+    void cuaPlena_SenyalDeContrapressio() throws Exception {
+        System.setProperty("api.executor.queue.background", "2");
+        crear(1);
+        CountDownLatch iniciada = new CountDownLatch(1);
+        exec.execute(bloquejant(iniciada));
+        assertTrue(iniciada.await(1, TimeUnit.SECONDS));
+
+        assertTrue(exec.offer(TaskPriority.BACKGROUND, () -> { }));
+        assertTrue(exec.offer(TaskPriority.BACKGROUND, () -> { }));
+        assertFalse(exec.offer(TaskPriority.BACKGROUND, () -> { }));
+        assertFalse(exec.offer(TaskPriority.BACKGROUND, () -> { }, 50, TimeUnit.MILLISECONDS));
+        PriorityExecutor.SaturatedException e = assertThrows(PriorityExecutor.SaturatedException.class,
+                () -> exec.execute(TaskPriority.BACKGROUND, () -> { }));
+        assertEquals(TaskPriority.BACKGROUND, e.getPriority());
+        assertEquals(0, exec.remainingCapacity(TaskPriority.BACKGROUND));
+        assertTrue(exec.offer(TaskPriority.NORMAL, () -> { }));
+
+        PriorityExecutor.LaneStats fons = exec.getStats(TaskPriority.BACKGROUND);
+        assertEquals(3, fons.getRejected());
+        assertEquals(2, fons.getPeakDepth());
+
+        allibera.countDown();
+        exec.shutdown();
+        assertTrue(exec.awaitTermination(2, TimeUnit.SECONDS));
+        assertEquals(2, fons.getCompleted());
+        assertEquals(2, fons.getWait().getCount());
+        assertTrue(exec.report().contains("BACKGROUND"));
+    }
+
+    /**
+     * Prova que la feina de fons no ocupa més de la meitat dels fils.
+     */
+    @Test
+    void fons_LimitatALaMeitatDelsFils() throws Exception {
+        crear(4);
+        AtomicInteger alhora = new AtomicInteger();
+        AtomicInteger maxim = new AtomicInteger();
+        CountDownLatch fetes = new CountDownLatch(6);
+        for (int i = 0; i < 6; i++) {
+            exec.execute(TaskPriority.BACKGROUND, () -> {
+                maxim.accumulateAndGet(alhora.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                alhora.decrementAndGet();
+                fetes.countDown();
+            });
+        }
+
+        assertTrue(fetes.await(3, TimeUnit.SECONDS));
+        assertEquals(2, maxim.get());
+    }
+
+    /**
+     * Prova que shutdownNow retorna les tasques pendents i rebutja les noves.
+     */
+    @Test
+    void shutdownNow_RetornaPendentsIRebutja() throws Exception {
+        crear(1);
+        CountDownLatch iniciada = new CountDownLatch(1);
+        exec.execute(bloquejant(iniciada));
+        assertTrue(iniciada.await(1, TimeUnit.SECONDS));
+        exec.execute(() -> { });
+        exec.execute(TaskPriority.BACKGROUND, () -> { });
+
+        assertEquals(2, exec.shutdownNow().size());
+        assertTrue(exec.awaitTermination(2, TimeUnit.SECONDS));
+        assertTrue(exec.isTerminated());
+        assertThrows(RejectedExecutionException.class, () -> exec.execute(() -> { }));
+    }
+}
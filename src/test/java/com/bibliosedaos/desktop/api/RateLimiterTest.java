@@ -0,0 +1,232 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.api.http.HttpLlibreApi;
+import com.bibliosedaos.desktop.model.Llibre;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves del limitador de ritme per classe de trànsit.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class RateLimiterTest {
+
+    private static final Endpoint LLIBRE = Endpoint.get("/biblioteca/llibres/trobarLlibrePerId/{id}");
+    private static final String CUBELL = "background /biblioteca/llibres";
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        RateLimiter.reset();
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setBody("{}");
+            }
+        });
+        server.start();
+        System.setProperty("api.base.url", server.url("/").toString());
+        System.setProperty("api.ratelimit.background.rate", "10");
+        System.setProperty("api.ratelimit.background.burst", "2");
+        // la primera connexió és lenta i deixaria temps al cubell per omplir-se
+        envia(0);
+        RateLimiter.reset();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        RateLimiter.reset();
+        System.clearProperty("api.base.url");
+        System.clearProperty("api.ratelimit.background.rate");
+        System.clearProperty("api.ratelimit.background.burst");
+        System.clearProperty("api.ratelimit.maxWaitMs");
+        System.clearProperty("api.ratelimit.normal.rate");
+        System.clearProperty("api.ratelimit.normal.burst");
+        server.shutdown();
+    }
+
+    private static void fons(Runnable r) {
+        TaskPriority.runAs(TaskPriority.BACKGROUND, r);
+    }
+
+    private static HttpResponse<String> envia(long id) {
+        try {
+            return ApiClient.send(LLIBRE.request(id), HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Prova que la feina de fons no passa del ritme configurat i que l'espera queda registrada.
+     */
+    @Test
+    void fons_PassaDelRafec_EsperaAlRitme() {
+        long start = System.nanoTime();
+        fons(() -> {
+            for (long id = 1; id <= 6; id++) envia(id);
+        });
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 2 fitxes del ràfec i 4 més a 10/s: com a mínim ~400 ms
+        assertTrue(ms >= 350, "ms=" + ms);
+        RateLimiter.Bucket bucket = RateLimiter.getBuckets().get(CUBELL);
+        assertEquals(6, bucket.getRequests());
+        assertTrue(bucket.getDelayed() >= 3, "esperes=" + bucket.getDelayed());
+        assertTrue(bucket.getMaxWaitMillis() > 0);
+        assertTrue(ApiMetrics.report().contains("Ritme " + CUBELL));
+    }
+
+    /**
+     * Prova que les crides asíncrones de fons també esperen, sense bloquejar qui les llança.
+     */
+    @Test
+    void fons_Asincron_NoBloquejaIEspera() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> futurs = new ArrayList<>();
+        long start = System.nanoTime();
+        fons(() -> {
+            for (long id = 1; id <= 6; id++) {
+                futurs.add(ApiClient.sendAsync(LLIBRE.request(id), HttpResponse.BodyHandlers.ofString()));
+            }
+        });
+        long llancat = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        CompletableFuture.allOf(futurs.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(ms >= 350 && llancat < ms - 200, "llancat=" + llancat + " ms=" + ms);
+        assertEquals(7, server.getRequestCount());
+        assertEquals(4, RateLimiter.getBuckets().get(CUBELL).getDelayed());
+    }
+
+    /**
+     * Prova que les crides interactives no esperen però fan esperar la feina de fons de la mateixa família.
+     */
+    @Test
+    void interactiva_NoEspera_IDesplacaElFons() {
+        System.setProperty("api.ratelimit.background.rate", "5");
+        long start = System.nanoTime();
+        TaskPriority.runAs(TaskPriority.INTERACTIVE, () -> {
+            for (long id = 1; id <= 5; id++) envia(id);
+        });
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 400);
+
+        fons(() -> envia(6));
+
+        RateLimiter.Bucket bucket = RateLimiter.getBuckets().get(CUBELL);
+        assertEquals(5, bucket.getPreempted());
+        assertEquals(1, bucket.getDelayed());
+        assertTrue(bucket.getMaxWaitMillis() >= 200, "espera=" + bucket.getMaxWaitMillis());
+    }
+
+    /**
+     * Prova que una espera més llarga que el màxim falla sense arribar al servidor.
+     */
+    @Test
+    void fons_EsperaMassaLlarga_Rebutja() {
+        System.setProperty("api.ratelimit.background.rate", "1");
+        System.setProperty("api.ratelimit.maxWaitMs", "100");
+        fons(() -> {
+            envia(1);
+            envia(2);
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> envia(3));
+            assertInstanceOf(RateLimiter.RateLimitedException.class, e.getCause());
+        });
+
+        assertEquals(3, server.getRequestCount());
+        assertEquals(1, RateLimiter.getBuckets().get(CUBELL).getRejected());
+    }
+
+    /**
+     * Prova que la classe normal té límit per defecte: el ràfec cobreix una vista, però la
+     * feina sostinguda espera.
+     */
+    @Test
+    void normal_PerDefecte_EsperaPassatElRafec() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> futurs = new ArrayList<>();
+        for (long id = 1; id <= 45; id++) {
+            futurs.add(ApiClient.sendAsync(LLIBRE.request(id), HttpResponse.BodyHandlers.ofString()));
+        }
+        CompletableFuture.allOf(futurs.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+
+        RateLimiter.Bucket bucket = RateLimiter.getBuckets().get("normal /biblioteca/llibres");
+        assertNotNull(bucket);
+        assertEquals(45, bucket.getRequests());
+        assertTrue(bucket.getDelayed() > 0, "esperes=" + bucket.getDelayed());
+    }
+
+    /**
+     * Prova que una càrrega massiva real (multi-get de llibres per ID, de classe normal)
+     * passa pel cubell i es reparteix al ritme configurat.
+     */
+    @Test
+    void multiGet_CarregaMassiva_EsperaAlRitme() throws Exception {
+        System.setProperty("api.ratelimit.normal.rate", "20");
+        System.setProperty("api.ratelimit.normal.burst", "5");
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 15; id++) ids.add(id);
+
+        long start = System.nanoTime();
+        MultiGet.Result<Llibre> result = new HttpLlibreApi().findLlibresByIds(ids);
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(result.isComplete());
+        // 5 fitxes del ràfec i 10 més a 20/s: com a mínim ~500 ms
+        assertTrue(ms >= 400, "ms=" + ms);
+        RateLimiter.Bucket bucket = RateLimiter.getBuckets().get("normal /biblioteca/llibres");
+        assertEquals(15, bucket.getRequests());
+        assertTrue(bucket.getDelayed() >= 9, "esperes=" + bucket.getDelayed());
+    }
+
+    /**
+     * Prova que una espera interrompuda torna la fitxa: la petició següent no paga el torn
+     * de la que no ha sortit.
+     */
+    @Test
+    void fons_EsperaInterrompuda_TornaLaFitxa() throws Exception {
+        System.setProperty("api.ratelimit.background.rate", "1");
+        System.setProperty("api.ratelimit.background.burst", "1");
+        fons(() -> envia(1));
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread esperant = new Thread(() -> fons(() -> {
+            try {
+                envia(2);
+            } catch (IllegalStateException e) {
+                error.set(e.getCause());
+            }
+        }));
+        esperant.start();
+        Thread.sleep(100);
+        esperant.interrupt();
+        esperant.join(2_000);
+        assertInstanceOf(InterruptedException.class, error.get());
+
+        long start = System.nanoTime();
+        fons(() -> envia(3));
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // sense retornar la fitxa caldria esperar ~1,9 s
+        assertTrue(ms < 1_300, "ms=" + ms);
+        assertEquals(2, server.getRequestCount() - 1);
+    }
+}
@@ -0,0 +1,211 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.api.http.HttpAuthApi;
+import com.bibliosedaos.desktop.api.http.HttpLlibreApi;
+import com.bibliosedaos.desktop.security.SessionStore;
+import com.bibliosedaos.desktop.service.AuthService;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves de l'encaminament i el canvi de rèplica amb dos servidors locals.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class ReplicasTest {
+
+    private MockWebServer a;
+    private MockWebServer b;
+
+    /** Retard de les respostes de la rèplica A (ms). */
+    private volatile long retardA;
+
+    /** Codi de la rèplica A; 200 si respon bé. */
+    private volatile int codiA = 200;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Replicas.reset();
+        Resilience.reset();
+        ConcurrencyLimiter.reset();
+        a = new MockWebServer();
+        a.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (codiA != 200) return new MockResponse().setResponseCode(codiA);
+                return resposta(request).setHeadersDelay(retardA, TimeUnit.MILLISECONDS);
+            }
+        });
+        b = new MockWebServer();
+        b.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return resposta(request);
+            }
+        });
+        a.start();
+        b.start();
+        System.setProperty("api.retry.maxAttempts", "1");
+        System.setProperty("api.base.probeMs", "0");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Replicas.reset();
+        SessionStore.getInstance().clear();
+        System.clearProperty("api.base.url");
+        System.clearProperty("api.base.probeMs");
+        System.clearProperty("api.base.sticky");
+        System.clearProperty("api.retry.maxAttempts");
+        a.shutdown();
+        b.shutdown();
+    }
+
+    private static MockResponse resposta(RecordedRequest request) {
+        String path = request.getPath();
+        if (path.endsWith("/auth/login")) {
+            return new MockResponse().setBody("{\"token\":\"tok\",\"id\":7,\"rol\":2,\"nom\":\"Anna\"}");
+        }
+        return new MockResponse().setBody("{\"id\":" + path.substring(path.lastIndexOf('/') + 1) + ",\"titol\":\"Llibre\"}");
+    }
+
+    private void repliques() {
+        System.setProperty("api.base.url", a.url("/") + "," + b.url("/"));
+    }
+
+    private static Replicas.Replica replica(int i) {
+        return Replicas.getReplicas().get(i);
+    }
+
+    /**
+     * Prova que, amb la primera rèplica aturada, les consultes continuen per la segona.
+     */
+    @Test
+    void failover_ReplicaAturada_LesGetPassenALaSeguent() throws Exception {
+        repliques();
+        a.shutdown();
+        HttpLlibreApi api = new HttpLlibreApi();
+
+        for (long id = 1; id <= 3; id++) {
+            assertEquals(id, api.findLlibreById(id).getId());
+        }
+
+        assertFalse(replica(0).isUp());
+        assertEquals(1, replica(0).getFailovers());
+        assertEquals(3, b.getRequestCount());
+    }
+
+    /**
+     * Prova que una GET que rep 503 es repeteix a l'altra rèplica i una POST no.
+     */
+    @Test
+    void failover_503_NomesPerGet() throws Exception {
+        repliques();
+        codiA = 503;
+        HttpRequest post = Endpoint.post("/biblioteca/llibres/afegirLlibre").json(new HashMap<>());
+
+        HttpResponse<String> resp = ApiClient.send(post, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(503, resp.statusCode());
+        assertEquals(0, b.getRequestCount());
+
+        Replicas.reset();
+        repliques();
+        assertEquals(5L, new HttpLlibreApi().findLlibreById(5L).getId());
+        assertEquals(1, b.getRequestCount());
+    }
+
+    /**
+     * Prova que la majoria de peticions van a la rèplica que respon més de pressa.
+     */
+    @Test
+    void seleccio_PrefereixLaReplicaRapida() throws Exception {
+        repliques();
+        retardA = 80;
+        HttpLlibreApi api = new HttpLlibreApi();
+
+        for (long id = 1; id <= 20; id++) {
+            api.findLlibreById(id);
+        }
+
+        assertTrue(b.getRequestCount() >= 17, "B=" + b.getRequestCount() + " A=" + a.getRequestCount());
+        assertTrue(replica(0).getLatencyMillis() > replica(1).getLatencyMillis());
+    }
+
+    /**
+     * Prova que la comprovació de fons torna a activar una rèplica recuperada.
+     */
+    @Test
+    void comprovacio_ReplicaRecuperada_TornaAEstarActiva() throws Exception {
+        repliques();
+        codiA = 503;
+        new HttpLlibreApi().findLlibreById(1L);
+        assertFalse(replica(0).isUp());
+
+        codiA = 200;
+        Replicas.probeNow();
+
+        assertTrue(replica(0).isUp());
+        assertTrue(replica(1).isUp());
+    }
+
+    /**
+     * Prova que amb sessions fixes les peticions van a la rèplica del login, encara que sigui més lenta.
+     */
+    @Test
+    void sticky_PeticionsALaReplicaDelLogin() throws Exception {
+        repliques();
+        System.setProperty("api.base.sticky", "true");
+        retardA = 40;
+
+        new AuthService(new HttpAuthApi()).login("anna", "secret");
+        HttpLlibreApi api = new HttpLlibreApi();
+        for (long id = 1; id <= 5; id++) {
+            api.findLlibreById(id);
+        }
+
+        assertSame(replica(0), Replicas.getSessionReplica());
+        assertEquals(6, a.getRequestCount());
+        assertEquals(0, b.getRequestCount());
+        assertNull(a.takeRequest().getHeader("Authorization"));
+        assertEquals("Bearer tok", a.takeRequest().getHeader("Authorization"));
+    }
+
+    /**
+     * Prova que reset() atura el fil de comprovació de les rèpliques.
+     */
+    @Test
+    void reset_AturaElComprovador() throws Exception {
+        System.setProperty("api.base.probeMs", "60000");
+        repliques();
+        assertEquals(2, Replicas.getReplicas().size());
+        assertTrue(comprovadorViu());
+
+        Replicas.reset();
+
+        long limit = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (comprovadorViu() && System.nanoTime() < limit) {
+            Thread.sleep(10);
+        }
+        assertFalse(comprovadorViu());
+    }
+
+    private static boolean comprovadorViu() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(t -> t.isAlive() && "biblio-replicas".equals(t.getName()));
+    }
+}
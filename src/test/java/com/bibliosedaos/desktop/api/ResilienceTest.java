@@ -0,0 +1,166 @@
+package com.bibliosedaos.desktop.api;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves dels reintents i dels interruptors de circuit de l'enviament HTTP.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class ResilienceTest {
+
+    private static final String RUTA = "/biblioteca/prestecs/llistarPrestecs";
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        Resilience.reset();
+        System.setProperty("api.retry.baseDelayMs", "1");
+        System.setProperty("api.retry.maxDelayMs", "5");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        System.clearProperty("api.retry.baseDelayMs");
+        System.clearProperty("api.retry.maxDelayMs");
+        System.clearProperty("api.retry.maxAttempts");
+        System.clearProperty("api.breaker.failureThreshold");
+        System.clearProperty("api.breaker.openMs");
+        server.shutdown();
+    }
+
+    private HttpRequest get() {
+        return HttpRequest.newBuilder(URI.create(server.url(RUTA).toString())).GET().build();
+    }
+
+    private CircuitBreaker breaker() {
+        return Resilience.getBreakers().values().iterator().next();
+    }
+
+    /**
+     * Prova que un GET es reintenta davant de 503 fins que el servidor respon.
+     */
+    @Test
+    void send_Get503Transitori_EsReintentaIRetorna200() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
+
+        HttpResponse<String> resp = ApiClient.send(get(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, resp.statusCode());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(2L, Resilience.getRetryCounts().get("GET " + RUTA));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker().getState());
+    }
+
+    /**
+     * Prova que les peticions no idempotents no es reintenten.
+     */
+    @Test
+    void send_Post503_NoEsReintenta() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        HttpRequest post = HttpRequest.newBuilder(URI.create(server.url("/biblioteca/prestecs/afegirPrestec").toString()))
+                .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                .build();
+
+        HttpResponse<String> resp = ApiClient.send(post, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(503, resp.statusCode());
+        assertEquals(1, server.getRequestCount());
+        assertTrue(Resilience.getRetryCounts().isEmpty());
+    }
+
+    /**
+     * Prova que després del llindar de fallades el circuit s'obre i falla sense contactar el servidor;
+     * passat el temps d'obertura, una prova correcta el torna a tancar.
+     */
+    @Test
+    void send_FalladesConsecutives_ObreCircuitIProvaHalfOpen() throws Exception {
+        System.setProperty("api.retry.maxAttempts", "1");
+        System.setProperty("api.breaker.failureThreshold", "2");
+        System.setProperty("api.breaker.openMs", "150");
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("[]"));
+
+        ApiClient.send(get(), HttpResponse.BodyHandlers.ofString());
+        ApiClient.send(get(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(CircuitBreaker.State.OPEN, breaker().getState());
+
+        assertThrows(CircuitBreaker.OpenException.class,
+                () -> ApiClient.send(get(), HttpResponse.BodyHandlers.ofString()));
+        assertEquals(2, server.getRequestCount(), "Amb el circuit obert no s'ha de contactar el servidor");
+        assertEquals(1, breaker().getRejectedCount());
+
+        Thread.sleep(200);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker().getState());
+        HttpResponse<String> prova = ApiClient.send(get(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, prova.statusCode());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker().getState());
+        assertEquals(1, breaker().getOpenedCount());
+    }
+
+    /**
+     * Prova que una prova half-open fallida torna a obrir el circuit.
+     */
+    @Test
+    void send_ProvaHalfOpenFallida_TornaAObrir() throws Exception {
+        System.setProperty("api.retry.maxAttempts", "1");
+        System.setProperty("api.breaker.failureThreshold", "1");
+        System.setProperty("api.breaker.openMs", "100");
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(new MockResponse().setResponseCode(504));
+
+        ApiClient.send(get(), HttpResponse.BodyHandlers.ofString());
+        Thread.sleep(150);
+        ApiClient.send(get(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker().getState());
+        assertEquals(2, breaker().getOpenedCount());
+    }
+
+    /**
+     * Prova que la versió asíncrona reintenta sense bloquejar i que un error de xarxa persistent
+     * acaba com a ApiException a través d'ApiCall.
+     */
+    @Test
+    void sendAsync_ReintentaIErrorDeXarxaEsPropaga() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(200).setBody("ok"));
+
+        HttpResponse<String> resp = ApiClient.sendAsync(get(), HttpResponse.BodyHandlers.ofString())
+                .get(5, TimeUnit.SECONDS);
+        assertEquals("ok", resp.body());
+        assertEquals(2, server.getRequestCount());
+
+        URI tancat = URI.create(server.url(RUTA).toString());
+        server.shutdown();
+        ApiCall<String, String> crida = ApiCall.of(
+                () -> HttpRequest.newBuilder(tancat).GET().build(),
+                HttpResponse.BodyHandlers.ofString(),
+                HttpResponse::body);
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> crida.executeAsync().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ApiException.class, ex.getCause());
+        assertEquals(3L, Resilience.getRetryCounts().get("GET " + RUTA), "1 reintent abans + 2 amb el servidor tancat");
+    }
+}
@@ -0,0 +1,134 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.api.http.HttpExemplarApi;
+import com.bibliosedaos.desktop.model.Exemplar;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves de l'agrupació de peticions GET idèntiques en curs.
+ *
+ * El servidor simulat reté les respostes fins que totes les crides s'han iniciat,
+ * de manera que es garanteix que són concurrents.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class SingleFlightTest {
+
+    private MockWebServer server;
+    private final AtomicInteger peticions = new AtomicInteger();
+    private final CountDownLatch allibera = new CountDownLatch(1);
+    private volatile int codi = 200;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                peticions.incrementAndGet();
+                allibera.await(5, TimeUnit.SECONDS);
+                return new MockResponse().setResponseCode(codi)
+                        .setBody(codi == 200 ? "[{\"id\":1},{\"id\":2}]" : "");
+            }
+        });
+        server.start();
+        System.setProperty("api.base.url", server.url("/").toString());
+        SingleFlight.resetCounters();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        allibera.countDown();
+        System.clearProperty("api.base.url");
+        System.clearProperty("api.singleflight.enabled");
+        server.shutdown();
+    }
+
+    /**
+     * Prova que tres crides asíncrones idèntiques fan una sola petició i cadascuna rep la seva llista.
+     */
+    @Test
+    void executeAsync_CridesIdentiques_ComparteixenUnaPeticio() throws Exception {
+        HttpExemplarApi api = new HttpExemplarApi();
+
+        CompletableFuture<List<Exemplar>> a = api.getAllExemplarsAsync();
+        CompletableFuture<List<Exemplar>> b = api.getAllExemplarsAsync();
+        CompletableFuture<List<Exemplar>> c = api.getAllExemplarsAsync();
+        allibera.countDown();
+
+        List<Exemplar> la = a.get(5, TimeUnit.SECONDS);
+        List<Exemplar> lb = b.get(5, TimeUnit.SECONDS);
+        List<Exemplar> lc = c.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, peticions.get());
+        assertEquals(2, la.size());
+        assertEquals(2, lb.size());
+        assertNotSame(la, lb);
+        assertNotSame(lb, lc);
+        assertEquals(2, SingleFlight.getDeduplicatedCount());
+        assertEquals(2L, SingleFlight.getDeduplicatedByEndpoint().get("GET /biblioteca/exemplars/llistarExemplars"));
+    }
+
+    /**
+     * Prova que una crida bloquejant s'afegeix a una asíncrona en curs i comparteix l'error.
+     */
+    @Test
+    void execute_ErrorCompartit_EsPropagaATotesLesCrides() throws Exception {
+        codi = 500;
+        HttpExemplarApi api = new HttpExemplarApi();
+
+        CompletableFuture<List<Exemplar>> lider = api.getAllExemplarsAsync();
+        CompletableFuture<List<Exemplar>> seguidor = CompletableFuture.supplyAsync(() -> {
+            try {
+                return api.getAllExemplars();
+            } catch (ApiException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        while (SingleFlight.getDeduplicatedCount() == 0 && !seguidor.isDone()) {
+            Thread.sleep(5);
+        }
+        allibera.countDown();
+
+        ExecutionException e1 = assertThrows(ExecutionException.class, () -> lider.get(5, TimeUnit.SECONDS));
+        ExecutionException e2 = assertThrows(ExecutionException.class, () -> seguidor.get(5, TimeUnit.SECONDS));
+        assertEquals(500, ((ApiException) e1.getCause()).getStatusCode());
+        assertEquals(500, ((ApiException) e2.getCause().getCause()).getStatusCode());
+        assertEquals(1, peticions.get());
+    }
+
+    /**
+     * Prova que amb l'agrupació desactivada cada crida fa la seva petició.
+     */
+    @Test
+    void executeAsync_Desactivat_NoAgrupa() throws Exception {
+        System.setProperty("api.singleflight.enabled", "false");
+        HttpExemplarApi api = new HttpExemplarApi();
+
+        CompletableFuture<List<Exemplar>> a = api.getAllExemplarsAsync();
+        CompletableFuture<List<Exemplar>> b = api.getAllExemplarsAsync();
+        allibera.countDown();
+        a.get(5, TimeUnit.SECONDS);
+        b.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, peticions.get());
+        assertEquals(0, SingleFlight.getDeduplicatedCount());
+    }
+}
@@ -0,0 +1,288 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.api.http.HttpLlibreApi;
+import com.bibliosedaos.desktop.model.Llibre;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves de la cancel·lació de la feina en segon pla en tancar una vista.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class TaskScopeTest {
+
+    private static final String LLIBRES = "[{\"id\":1,\"titol\":\"Tirant lo Blanc\"}]";
+    private static final String LLIBRE = "{\"id\":1,\"titol\":\"Tirant lo Blanc\"}";
+
+    private MockWebServer server;
+    private PriorityExecutor exec;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        System.setProperty("api.base.url", server.url("/").toString());
+        System.setProperty("api.cache.enabled", "false");
+        System.setProperty("api.retry.maxAttempts", "1");
+        exec = new PriorityExecutor(Executors.defaultThreadFactory(), 0, 2, 1, TimeUnit.SECONDS);
+        TaskScope.resetCounters();
+        Resilience.reset();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TaskScope.clearCurrent();
+        exec.shutdownNow();
+        System.clearProperty("api.base.url");
+        System.clearProperty("api.cache.enabled");
+        System.clearProperty("api.retry.maxAttempts");
+        server.shutdown();
+    }
+
+    private static MockResponse lenta(long ms) {
+        return new MockResponse().setBody(LLIBRES).setHeadersDelay(ms, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Prova que les tasques a la cua es cancel·len i no s'executen.
+     */
+    @Test
+    void cancel_TasquesALaCua_NoSExecuten() throws Exception {
+        PriorityExecutor unFil = new PriorityExecutor(Executors.defaultThreadFactory(), 0, 1, 1, TimeUnit.SECONDS);
+        CountDownLatch allibera = new CountDownLatch(1);
+        try {
+            unFil.execute(() -> {
+                try {
+                    allibera.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            TaskScope vista = TaskScope.enter("/llibres.fxml");
+            FutureTask<String> tasca = new FutureTask<>(() -> "executada");
+            unFil.submit(tasca);
+
+            vista.cancel();
+            allibera.countDown();
+
+            assertTrue(tasca.isCancelled());
+            assertEquals(1, TaskScope.getCancelledTasks());
+
+            FutureTask<String> tardana = new FutureTask<>(() -> "tard");
+            unFil.submit(tardana);
+            assertTrue(tardana.isCancelled());
+            assertEquals(2, TaskScope.getCancelledTasks());
+        } finally {
+            unFil.shutdownNow();
+        }
+    }
+
+    /**
+     * Prova que una ordre enviada amb execute() (sense Future) també es cancel·la a la cua.
+     */
+    @Test
+    void cancel_OrdreExecuteALaCua_EsCancella() throws Exception {
+        PriorityExecutor unFil = new PriorityExecutor(Executors.defaultThreadFactory(), 0, 1, 1, TimeUnit.SECONDS);
+        CountDownLatch allibera = new CountDownLatch(1);
+        AtomicBoolean executada = new AtomicBoolean();
+        try {
+            unFil.execute(() -> {
+                try {
+                    allibera.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            TaskScope vista = TaskScope.enter("/llibres.fxml");
+            unFil.execute(() -> executada.set(true));
+
+            vista.cancel();
+            allibera.countDown();
+            unFil.shutdown();
+            assertTrue(unFil.awaitTermination(2, TimeUnit.SECONDS));
+
+            assertFalse(executada.get());
+            assertEquals(1, TaskScope.getCancelledTasks());
+        } finally {
+            unFil.shutdownNow();
+        }
+    }
+
+    /**
+     * Prova que el futur de supplyAsync falla (i no queda pendent) si es tanca la vista.
+     */
+    @Test
+    void cancel_SupplyAsync_FallaElFutur() throws Exception {
+        CountDownLatch comencada = new CountDownLatch(1);
+        TaskScope vista = TaskScope.enter("/prestecs.fxml");
+        CompletableFuture<String> futur = ApiClient.supplyAsync(() -> {
+            comencada.countDown();
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                throw ApiClient.toApiException(e);
+            }
+            return "acabada";
+        });
+        assertTrue(comencada.await(2, TimeUnit.SECONDS));
+
+        vista.cancel();
+
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> futur.orTimeout(2, TimeUnit.SECONDS).join());
+        assertTrue(TaskScope.isCancellation(error));
+    }
+
+    /**
+     * Prova que una crida bloquejant en curs s'avorta en cancel·lar l'àmbit.
+     */
+    @Test
+    void cancel_CridaBloquejantEnCurs_SAvorta() throws Exception {
+        server.enqueue(lenta(3_000));
+        TaskScope vista = TaskScope.enter("/llibres.fxml");
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch acabada = new CountDownLatch(1);
+        FutureTask<List<Llibre>> tasca = new FutureTask<>(() -> {
+            try {
+                return new HttpLlibreApi().getAllLlibres();
+            } catch (ApiException e) {
+                error.set(e);
+                throw e;
+            } finally {
+                acabada.countDown();
+            }
+        });
+        Future<?> f = exec.submit(tasca);
+        assertNotNull(server.takeRequest(2, TimeUnit.SECONDS));
+
+        long inici = System.nanoTime();
+        vista.cancel();
+        assertThrows(CancellationException.class, () -> f.get(2, TimeUnit.SECONDS));
+        assertTrue(acabada.await(2, TimeUnit.SECONDS));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inici) < 2_000);
+        assertTrue(tasca.isCancelled());
+        assertEquals(1, TaskScope.getCancelledTasks());
+        assertEquals(1, TaskScope.getAbortedRequests());
+        assertInstanceOf(ApiException.class, error.get());
+    }
+
+    /**
+     * Prova que una resposta que arriba amb la vista ja tancada es descarta sense descodificar.
+     */
+    @Test
+    void respostaTardana_EsDescartaIEsCompta() throws Exception {
+        server.enqueue(lenta(300));
+        TaskScope vista = TaskScope.enter("/prestecs.fxml");
+        TaskScope.clearCurrent();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread fil = new Thread(() -> TaskScope.runIn(vista, () -> {
+            try {
+                new HttpLlibreApi().getAllLlibres();
+            } catch (ApiException e) {
+                error.set(e);
+            }
+        }));
+        fil.start();
+        assertNotNull(server.takeRequest(2, TimeUnit.SECONDS));
+        vista.cancel();
+        fil.join(2_000);
+
+        assertEquals(1, TaskScope.getWastedRequests());
+        assertInstanceOf(ApiException.class, error.get());
+        assertTrue(TaskScope.isCancellation(error.get()));
+    }
+
+    /**
+     * Prova que un intercanvi asíncron en curs es cancel·la amb l'àmbit.
+     */
+    @Test
+    void cancel_CridaAsincrona_SAvorta() throws Exception {
+        server.enqueue(lenta(3_000));
+        TaskScope vista = TaskScope.enter("/usuaris.fxml");
+        CompletableFuture<List<Llibre>> futur = new HttpLlibreApi().getAllLlibresAsync();
+        assertNotNull(server.takeRequest(2, TimeUnit.SECONDS));
+
+        vista.cancel();
+
+        assertThrows(CompletionException.class, () -> futur.orTimeout(2, TimeUnit.SECONDS).join());
+        assertEquals(1, TaskScope.getAbortedRequests());
+    }
+
+    /**
+     * Prova que una escriptura enviada amb submitDetached acaba encara que es tanqui la vista.
+     */
+    @Test
+    void cancel_EscripturaDesacoblada_Acaba() throws Exception {
+        server.enqueue(new MockResponse().setBody(LLIBRE).setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        TaskScope vista = TaskScope.enter("/formLlibre.fxml");
+        Future<?> f = exec.submitDetached(TaskPriority.INTERACTIVE,
+                new FutureTask<>(() -> new HttpLlibreApi().createLlibre(new Llibre())));
+        assertNotNull(server.takeRequest(2, TimeUnit.SECONDS));
+
+        vista.cancel();
+
+        assertEquals(1L, ((Llibre) f.get(2, TimeUnit.SECONDS)).getId());
+        assertEquals(0, TaskScope.getCancelledTasks());
+        assertEquals(0, TaskScope.getAbortedRequests());
+        assertEquals(0, TaskScope.getWastedRequests());
+    }
+
+    /**
+     * Prova que una escriptura asíncrona feta dins d'un àmbit no s'avorta en tancar-lo.
+     */
+    @Test
+    void cancel_EscripturaAsincrona_NoSAvorta() throws Exception {
+        server.enqueue(new MockResponse().setBody(LLIBRE).setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        TaskScope vista = TaskScope.enter("/formLlibre.fxml");
+        CompletableFuture<Llibre> futur = new HttpLlibreApi().createLlibreAsync(new Llibre());
+        assertNotNull(server.takeRequest(2, TimeUnit.SECONDS));
+
+        vista.cancel();
+
+        assertEquals(1L, futur.orTimeout(2, TimeUnit.SECONDS).join().getId());
+        assertEquals(0, TaskScope.getAbortedRequests());
+        assertEquals(0, TaskScope.getWastedRequests());
+    }
+
+    /**
+     * Prova que una crida agrupada amb una d'una vista tancada es repeteix i acaba bé.
+     */
+    @Test
+    void singleFlight_LiderCancellat_SeguidorRepeteix() throws Exception {
+        server.enqueue(lenta(3_000));
+        server.enqueue(new MockResponse().setBody(LLIBRES));
+        TaskScope vella = TaskScope.enter("/llibres.fxml");
+        Future<?> lider = exec.submit(new FutureTask<>(() -> new HttpLlibreApi().getAllLlibres()));
+        assertNotNull(server.takeRequest(2, TimeUnit.SECONDS));
+
+        TaskScope nova = TaskScope.enter("/llibres.fxml");
+        Future<List<Llibre>> seguidor = exec.submit(() -> new HttpLlibreApi().getAllLlibres());
+        Thread.sleep(100);
+        vella.cancel();
+
+        assertEquals(1, seguidor.get(3, TimeUnit.SECONDS).size());
+        assertFalse(nova.isCancelled());
+        assertThrows(CancellationException.class, () -> lider.get(2, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,172 @@
+package com.bibliosedaos.desktop.api;
+
+import com.bibliosedaos.desktop.api.http.HttpAuthApi;
+import com.bibliosedaos.desktop.service.AuthService;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del temps fins al tauler (el login, la primera petició real) amb i sense
+ * {@link Warmup}, sobre HTTPS contra un servidor local.
+ *
+ * Cada mesura es fa en una JVM nova, perquè el cost que es vol mesurar (inicialització
+ * d'ApiClient, truststore, handshake TLS, primer ús de Jackson) només es paga una vegada.
+ * La JVM filla espera un temps fix (l'usuari escrivint les credencials) i després
+ * cronometra {@code AuthService.login}; en mode "warm" abans ha cridat {@link Warmup#start()}.
+ *
+ * No s'executa amb els tests (no acaba en Test). S'executa a mà sobre el classpath de test:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.bibliosedaos.desktop.api.WarmupBenchmark -Dexec.args="7 1500 20"
+ * </pre>
+ * Arguments: JVMs per mode (per defecte 7), espera a la pantalla de login en ms (1500) i
+ * latència del servidor en ms (20). Cal {@code keytool} al PATH de la JVM.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class WarmupBenchmark {
+
+    private static final String PASS = "changeit";
+
+    private WarmupBenchmark() {
+    }
+
+    /**
+     * Punt d'entrada.
+     *
+     * @param args JVMs per mode, espera al login i latència; o "child" i els paràmetres d'una mesura
+     * @throws Exception si falla el servidor local o una JVM filla
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "child".equals(args[0])) {
+            child(args[1], Long.parseLong(args[2]));
+            return;
+        }
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        long waitMs = args.length > 1 ? Long.parseLong(args[1]) : 1500;
+        long latencyMs = args.length > 2 ? Long.parseLong(args[2]) : 20;
+
+        Path dir = Files.createTempDirectory("biblio-warmup");
+        Path keyStore = dir.resolve("server.p12");
+        Path cert = dir.resolve("server.cer");
+        Path trustStore = dir.resolve("truststore.jks");
+        keytool("-genkeypair", "-alias", "server", "-keyalg", "EC", "-groupname", "secp256r1",
+                "-dname", "CN=localhost", "-ext", "SAN=dns:localhost,ip:127.0.0.1", "-validity", "2",
+                "-storetype", "PKCS12", "-keystore", keyStore.toString(), "-storepass", PASS);
+        keytool("-exportcert", "-alias", "server", "-keystore", keyStore.toString(), "-storepass", PASS,
+                "-file", cert.toString());
+        keytool("-importcert", "-noprompt", "-alias", "server", "-file", cert.toString(),
+                "-storetype", "JKS", "-keystore", trustStore.toString(), "-storepass", PASS);
+
+        MockWebServer server = new MockWebServer();
+        server.useHttps(serverContext(keyStore).getSocketFactory(), false);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                MockResponse resp = new MockResponse().setHeadersDelay(latencyMs, TimeUnit.MILLISECONDS);
+                if (request.getPath().endsWith("/auth/login")) {
+                    return resp.setBody("{\"token\":\"tok\",\"id\":7,\"rol\":2,\"nom\":\"Anna\","
+                            + "\"cognom1\":\"Puig\",\"cognom2\":\"Vila\"}").addHeader("Content-Type", "application/json");
+                }
+                return resp.setResponseCode(404);
+            }
+        });
+        server.start();
+        String url = "https://localhost:" + server.getPort();
+        System.out.printf(Locale.ROOT, "%d JVMs per mode, %d ms al login, %d ms de latència (HTTPS)%n",
+                runs, waitMs, latencyMs);
+
+        try {
+            List<Double> cold = new ArrayList<>();
+            List<Double> warm = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                cold.add(spawn("cold", waitMs, url, trustStore));
+                warm.add(spawn("warm", waitMs, url, trustStore));
+            }
+            print("sense escalfament", cold);
+            print("amb escalfament", warm);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static void child(String mode, long waitMs) throws Exception {
+        if ("warm".equals(mode)) {
+            Warmup.start();
+        }
+        Thread.sleep(waitMs);
+        AuthService auth = new AuthService(new HttpAuthApi());
+        long start = System.nanoTime();
+        auth.login("anna", "secret");
+        System.out.println("RESULT " + (System.nanoTime() - start) / 1e6);
+        Warmup.stop();
+    }
+
+    private static double spawn(String mode, long waitMs, String url, Path trustStore) throws Exception {
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+        Process p = new ProcessBuilder(java.toString(), "-cp", System.getProperty("java.class.path"),
+                "-Dapi.base.url=" + url,
+                "-Dapi.ssl.trustStore=" + trustStore,
+                "-Dapi.ssl.trustStorePassword=" + PASS,
+                "-Dapi.http.version=HTTP_2",
+                "-Djava.util.logging.config.file=/dev/null",
+                WarmupBenchmark.class.getName(), "child", mode, String.valueOf(waitMs))
+                .redirectErrorStream(true).start();
+        String out;
+        try (InputStream in = p.getInputStream()) {
+            out = new String(in.readAllBytes());
+        }
+        if (p.waitFor() != 0 || !out.contains("RESULT ")) {
+            throw new IllegalStateException("La JVM filla ha fallat:\n" + out);
+        }
+        String line = out.substring(out.lastIndexOf("RESULT ") + 7).trim().split("\\s")[0];
+        return Double.parseDouble(line);
+    }
+
+    private static SSLContext serverContext(Path keyStore) throws Exception {
+        KeyStore ks = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(keyStore)) {
+            ks.load(in, PASS.toCharArray());
+        }
+        KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        kmf.init(ks, PASS.toCharArray());
+        SSLContext ctx = SSLContext.getInstance("TLS");
+        ctx.init(kmf.getKeyManagers(), null, null);
+        return ctx;
+    }
+
+    private static void keytool(String... args) throws Exception {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(Paths.get(System.getProperty("java.home"), "bin", "keytool").toString());
+        Collections.addAll(cmd, args);
+        Process p = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+        String out = new String(p.getInputStream().readAllBytes());
+        if (p.waitFor() != 0) {
+            throw new IllegalStateException("keytool ha fallat: " + out);
+        }
+    }
+
+    private static void print(String label, List<Double> times) {
+        List<Double> sorted = new ArrayList<>(times);
+        Collections.sort(sorted);
+        System.out.printf(Locale.ROOT, "%-18s mediana=%7.1f ms  min=%7.1f ms  max=%7.1f ms%n",
+                label, sorted.get(sorted.size() / 2), sorted.get(0), sorted.get(sorted.size() - 1));
+    }
+}
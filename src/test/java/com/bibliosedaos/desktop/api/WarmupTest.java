@@ -0,0 +1,114 @@
+package com.bibliosedaos.desktop.api;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves de l'escalfament del client a la pantalla de login.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class WarmupTest {
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        System.setProperty("api.base.url", server.url("/").toString());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Warmup.stop();
+        System.clearProperty("api.base.url");
+        System.clearProperty("api.warmup.enabled");
+        System.clearProperty("api.warmup.keepAliveMs");
+        server.shutdown();
+    }
+
+    /**
+     * Prova que l'escalfament obre una connexió amb una petició HEAD i prepara el JSON dels models.
+     */
+    @Test
+    void run_ObreConnexioIPreparaJson() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        Warmup.Report r = Warmup.run();
+
+        RecordedRequest req = server.takeRequest(1, TimeUnit.SECONDS);
+        assertNotNull(req);
+        assertEquals("HEAD", req.getMethod());
+        assertNull(r.getError());
+        assertEquals(HttpClient.Version.HTTP_1_1, r.getVersion());
+        assertEquals(9, r.getJsonTypes());
+        assertEquals(0, ApiMetrics.getEndpoints().keySet().stream().filter(k -> k.startsWith("HEAD")).count());
+    }
+
+    /**
+     * Prova que un servidor no disponible només queda registrat a l'informe.
+     */
+    @Test
+    void run_ServidorNoDisponible_NoFalla() throws Exception {
+        server.shutdown();
+
+        Warmup.Report r = Warmup.run();
+
+        assertNotNull(r.getError());
+        assertNull(r.getVersion());
+        assertTrue(r.toString().contains("error="));
+    }
+
+    /**
+     * Prova que la connexió es manté amb peticions periòdiques fins que l'usuari entra.
+     */
+    @Test
+    void start_MantConnexioFinsAStop() throws Exception {
+        System.setProperty("api.warmup.keepAliveMs", "50");
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse();
+            }
+        });
+
+        Warmup.Report r = Warmup.start().get(5, TimeUnit.SECONDS);
+        assertNull(r.getError());
+        assertNotNull(server.takeRequest(1, TimeUnit.SECONDS));
+        assertNotNull(server.takeRequest(1, TimeUnit.SECONDS));
+        assertNotNull(server.takeRequest(1, TimeUnit.SECONDS));
+
+        Warmup.stop();
+        Thread.sleep(150);
+        int count = server.getRequestCount();
+        Thread.sleep(200);
+        assertEquals(count, server.getRequestCount());
+
+        Warmup.recordTimeToDashboard(TimeUnit.MILLISECONDS.toNanos(120));
+        assertTrue(ApiMetrics.report().contains("login->tauler=120.0ms (escalfat)"));
+    }
+
+    /**
+     * Prova que desactivat no fa cap petició.
+     */
+    @Test
+    void start_Desactivat_NoFaRes() throws Exception {
+        System.setProperty("api.warmup.enabled", "false");
+
+        assertNull(Warmup.start().get(1, TimeUnit.SECONDS));
+        assertEquals(0, server.getRequestCount());
+    }
+}
@@ -4,34 +4,21 @@ import com.bibliosedaos.desktop.model.Exemplar;
 import com.bibliosedaos.desktop.model.Llibre;
 import com.bibliosedaos.desktop.model.Prestec;
 import com.bibliosedaos.desktop.model.User;
-import com.bibliosedaos.desktop.service.PrestecService;
-import com.bibliosedaos.desktop.ui.navigator.Navigator;
+import com.bibliosedaos.desktop.ui.util.TextIndex;
 import org.junit.jupiter.api.BeforeAll;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.lang.reflect.Method;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Proves unitaries per a LoansListController.
- * Comprova el comportament de cerca (safeContains) i criteris de cerca per diferents camps.
+ * Comprova el comportament de cerca (safeContains) i la cerca per camps amb el
+ * {@link TextIndex} que fa servir la vista.
  */
-@ExtendWith(MockitoExtension.class)
 class LoansListControllerTest {
 
-    @Mock
-    private PrestecService prestecService;
-
-    @Mock
-    private Navigator navigator;
-
-    private LoansListController controller;
-
     /**
      * Configuracio global per a tests: evitem que els dialegs bloquegin.
      */
@@ -40,14 +27,6 @@ class LoansListControllerTest {
         System.setProperty("tests.noDialog", "true");
     }
 
-    /**
-     * Instancia el controlador amb mocks abans de cada prova.
-     */
-    @BeforeEach
-    void setUp() {
-        controller = new LoansListController(prestecService, navigator);
-    }
-
     /**
      * Prova les condicions essencials de safeContains.
      */
@@ -88,22 +67,18 @@ class LoansListControllerTest {
      * Prova els criteris de cerca per ID Prestec.
      */
     @Test
-    void matchesSearchCriteria_IDPrestec_CercaPerID() throws Exception {
+    void cerca_IDPrestec_CercaPerID() {
         Prestec prestec = new Prestec();
         prestec.setId(123L);
 
-        Method metode = LoansListController.class.getDeclaredMethod("matchesSearchCriteria",
-                Prestec.class, String.class, String.class);
-        metode.setAccessible(true);
-
         assertAll("Proves de cerca per ID Prestec",
-                () -> assertTrue((boolean) metode.invoke(controller, prestec, "123", "ID Prestec"),
+                () -> assertTrue(matches(prestec, "123", "ID Prestec"),
                         "Ha de trobar per ID coincident"),
-                () -> assertFalse((boolean) metode.invoke(controller, prestec, "999", "ID Prestec"),
+                () -> assertFalse(matches(prestec, "999", "ID Prestec"),
                         "No ha de trobar per ID no coincident"),
-                () -> assertTrue((boolean) metode.invoke(controller, prestec, "12", "ID Prestec"),
+                () -> assertTrue(matches(prestec, "12", "ID Prestec"),
                         "Ha de trobar per ID parcial (comportament actual)"),
-                () -> assertTrue((boolean) metode.invoke(controller, prestec, "23", "ID Prestec"),
+                () -> assertTrue(matches(prestec, "23", "ID Prestec"),
                         "Ha de trobar per ID parcial en mig")
         );
     }
@@ -112,22 +87,18 @@ class LoansListControllerTest {
      * Prova els criteris de cerca per ID Exemplar.
      */
     @Test
-    void matchesSearchCriteria_IDExemplar_CercaPerID() throws Exception {
+    void cerca_IDExemplar_CercaPerID() {
         Prestec prestec = new Prestec();
         Exemplar exemplar = new Exemplar();
         exemplar.setId(456L);
         prestec.setExemplar(exemplar);
 
-        Method metode = LoansListController.class.getDeclaredMethod("matchesSearchCriteria",
-                Prestec.class, String.class, String.class);
-        metode.setAccessible(true);
-
         assertAll("Proves de cerca per ID Exemplar",
-                () -> assertTrue((boolean) metode.invoke(controller, prestec, "456", "ID Exemplar"),
+                () -> assertTrue(matches(prestec, "456", "ID Exemplar"),
                         "Ha de trobar per ID coincident"),
-                () -> assertFalse((boolean) metode.invoke(controller, prestec, "999", "ID Exemplar"),
+                () -> assertFalse(matches(prestec, "999", "ID Exemplar"),
                         "No ha de trobar per ID no coincident"),
-                () -> assertTrue((boolean) metode.invoke(controller, prestec, "45", "ID Exemplar"),
+                () -> assertTrue(matches(prestec, "45", "ID Exemplar"),
                         "Ha de trobar per ID parcial")
         );
     }
@@ -136,22 +107,18 @@ class LoansListControllerTest {
      * Prova els criteris de cerca per ID Usuari.
      */
     @Test
-    void matchesSearchCriteria_IDUsuari_CercaPerID() throws Exception {
+    void cerca_IDUsuari_CercaPerID() {
         Prestec prestec = new Prestec();
         User usuari = new User();
         usuari.setId(789L);
         prestec.setUsuari(usuari);
 
-        Method metode = LoansListController.class.getDeclaredMethod("matchesSearchCriteria",
-                Prestec.class, String.class, String.class);
-        metode.setAccessible(true);
-
         assertAll("Proves de cerca per ID Usuari",
-                () -> assertTrue((boolean) metode.invoke(controller, prestec, "789", "ID Usuari"),
+                () -> assertTrue(matches(prestec, "789", "ID Usuari"),
                         "Ha de trobar per ID coincident"),
-                () -> assertFalse((boolean) metode.invoke(controller, prestec, "999", "ID Usuari"),
+                () -> assertFalse(matches(prestec, "999", "ID Usuari"),
                         "No ha de trobar per ID no coincident"),
-                () -> assertTrue((boolean) metode.invoke(controller, prestec, "78", "ID Usuari"),
+                () -> assertTrue(matches(prestec, "78", "ID Usuari"),
                         "Ha de trobar per ID parcial")
         );
     }
@@ -160,7 +127,7 @@ class LoansListControllerTest {
      * Prova els criteris de cerca per Titol.
      */
     @Test
-    void matchesSearchCriteria_Titol_CercaPerTitol() throws Exception {
+    void cerca_Titol_CercaPerTitol() {
         Prestec prestec = new Prestec();
         Exemplar exemplar = new Exemplar();
         Llibre llibre = new Llibre();
@@ -168,18 +135,14 @@ class LoansListControllerTest {
         exemplar.setLlibre(llibre);
         prestec.setExemplar(exemplar);
 
-        Method metode = LoansListController.class.getDeclaredMethod("matchesSearchCriteria",
-                Prestec.class, String.class, String.class);
-        metode.setAccessible(true);
-
         assertAll("Proves de cerca per Titol",
-                () -> assertTrue((boolean) metode.invoke(controller, prestec, "quijote", "Titol"),
+                () -> assertTrue(matches(prestec, "quijote", "Titol"),
                         "Ha de trobar per titol"),
-                () -> assertTrue((boolean) metode.invoke(controller, prestec, "mancha", "Titol"),
+                () -> assertTrue(matches(prestec, "mancha", "Titol"),
                         "Ha de trobar per paraula del titol"),
-                () -> assertFalse((boolean) metode.invoke(controller, prestec, "hamlet", "Titol"),
+                () -> assertFalse(matches(prestec, "hamlet", "Titol"),
                         "No ha de trobar quan no coincideix"),
-                () -> assertFalse((boolean) metode.invoke(controller, prestec, "quijote", "ID Prestec"),
+                () -> assertFalse(matches(prestec, "quijote", "ID Prestec"),
                         "No ha de trobar per titol en camp incorrecte")
         );
     }
@@ -188,7 +151,7 @@ class LoansListControllerTest {
      * Prova els criteris de cerca per Usuari.
      */
     @Test
-    void matchesSearchCriteria_Usuari_CercaPerNomCognom() throws Exception {
+    void cerca_Usuari_CercaPerNomCognom() {
         Prestec prestec = new Prestec();
         User usuari = new User();
         usuari.setNom("Miguel");
@@ -196,18 +159,14 @@ class LoansListControllerTest {
         usuari.setNick("cervantes");
         prestec.setUsuari(usuari);
 
-        Method metode = LoansListController.class.getDeclaredMethod("matchesSearchCriteria",
-                Prestec.class, String.class, String.class);
-        metode.setAccessible(true);
-
         assertAll("Proves de cerca per Usuari",
-                () -> assertTrue((boolean) metode.invoke(controller, prestec, "miguel", "Usuari"),
+                () -> assertTrue(matches(prestec, "miguel", "Usuari"),
                         "Ha de trobar per nom"),
-                () -> assertTrue((boolean) metode.invoke(controller, prestec, "cervantes", "Usuari"),
+                () -> assertTrue(matches(prestec, "cervantes", "Usuari"),
                         "Ha de trobar per cognom"),
-                () -> assertTrue((boolean) metode.invoke(controller, prestec, "Miguel Cervantes", "Usuari"),
+                () -> assertTrue(matches(prestec, "Miguel Cervantes", "Usuari"),
                         "Ha de trobar per nom complet"),
-                () -> assertFalse((boolean) metode.invoke(controller, prestec, "shakespeare", "Usuari"),
+                () -> assertFalse(matches(prestec, "shakespeare", "Usuari"),
                         "No ha de trobar quan no coincideix")
         );
     }
@@ -216,7 +175,7 @@ class LoansListControllerTest {
      * Prova els criteris per defecte (cerca en tots els camps).
      */
     @Test
-    void matchesSearchCriteria_Tots_CercaGlobal() throws Exception {
+    void cerca_Tots_CercaGlobal() {
         Prestec prestec = new Prestec();
         prestec.setId(1L);
 
@@ -234,48 +193,75 @@ class LoansListControllerTest {
         usuari.setNick("gabriel");
         prestec.setUsuari(usuari);
 
-        Method metode = LoansListController.class.getDeclaredMethod("matchesSearchCriteria",
-                Prestec.class, String.class, String.class);
-        metode.setAccessible(true);
-
         assertAll("Proves de cerca global",
-                () -> assertTrue((boolean) metode.invoke(controller, prestec, "1", "Tots"),
+                () -> assertTrue(matches(prestec, "1", "Tots"),
                         "Ha de trobar per ID Prestec"),
-                () -> assertTrue((boolean) metode.invoke(controller, prestec, "100", "Tots"),
+                () -> assertTrue(matches(prestec, "100", "Tots"),
                         "Ha de trobar per ID Exemplar"),
-                () -> assertTrue((boolean) metode.invoke(controller, prestec, "gabriel", "Tots"),
+                () -> assertTrue(matches(prestec, "gabriel", "Tots"),
                         "Ha de trobar per nom usuari"),
-                () -> assertTrue((boolean) metode.invoke(controller, prestec, "soledad", "Tots"),
+                () -> assertTrue(matches(prestec, "soledad", "Tots"),
                         "Ha de trobar per titol"),
-                () -> assertFalse((boolean) metode.invoke(controller, prestec, "hamlet", "Tots"),
+                () -> assertFalse(matches(prestec, "hamlet", "Tots"),
                         "No ha de trobar quan no hi ha coincidencia")
         );
     }
 
+    /**
+     * Prova que la cerca no distingeix accents ni majuscules.
+     */
+    @Test
+    void cerca_Accents_CercaSenseAccents() {
+        Prestec prestec = new Prestec();
+        User usuari = new User();
+        usuari.setNom("Martí");
+        usuari.setCognom1("Lleó");
+        prestec.setUsuari(usuari);
+
+        assertAll("Proves de cerca sense accents",
+                () -> assertTrue(matches(prestec, "marti", "Usuari"),
+                        "Ha de trobar sense escriure l'accent"),
+                () -> assertTrue(matches(prestec, "MARTI LLEO", "Usuari"),
+                        "Ha de trobar el nom complet en majuscules"),
+                () -> assertTrue(matches(prestec, "lleó", "Tots"),
+                        "Ha de trobar amb l'accent"),
+                () -> assertTrue(LoansListController.safeContains("Gabriel García Márquez", "marquez"),
+                        "safeContains tambe ignora els accents")
+        );
+    }
+
     /**
      * Prova el comportament quan el prestec te camps null.
      */
     @Test
-    void matchesSearchCriteria_CampsNull_ComportamentCorrecte() throws Exception {
+    void cerca_CampsNull_ComportamentCorrecte() {
         Prestec prestec = new Prestec();
         // Sense exemplar ni usuari
 
-        Method metode = LoansListController.class.getDeclaredMethod("matchesSearchCriteria",
-                Prestec.class, String.class, String.class);
-        metode.setAccessible(true);
-
         assertAll("Proves amb camps null",
-                () -> assertFalse((boolean) metode.invoke(controller, prestec, "1", "ID Exemplar"),
+                () -> assertFalse(matches(prestec, "1", "ID Exemplar"),
                         "No ha de trobar quan exemplar es null"),
-                () -> assertFalse((boolean) metode.invoke(controller, prestec, "1", "ID Usuari"),
+                () -> assertFalse(matches(prestec, "1", "ID Usuari"),
                         "No ha de trobar quan usuari es null"),
-                () -> assertFalse((boolean) metode.invoke(controller, prestec, "titol", "Titol"),
+                () -> assertFalse(matches(prestec, "titol", "Titol"),
                         "No ha de trobar quan exemplar es null"),
-                () -> assertFalse((boolean) metode.invoke(controller, prestec, "nom", "Usuari"),
+                () -> assertFalse(matches(prestec, "nom", "Usuari"),
                         "No ha de trobar quan usuari es null")
         );
     }
 
+    /**
+     * Cerca un prestec amb l'index i els camps de la vista.
+     *
+     * @param prestec prestec
+     * @param query text de cerca
+     * @param field camp del combo
+     * @return true si la cerca el troba
+     */
+    private static boolean matches(Prestec prestec, String query, String field) {
+        return !new TextIndex<>(List.of(prestec), LoansListController.SEARCH_FIELDS).search(field, query).isEmpty();
+    }
+
     /**
      * Prova la validacio d'ID numerica utilitzada en la cerca.
      */
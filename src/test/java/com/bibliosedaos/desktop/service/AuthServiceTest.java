@@ -8,6 +8,8 @@ import com.bibliosedaos.desktop.security.SessionStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -91,4 +93,23 @@ class AuthServiceTest {
         assertNull(SessionStore.getInstance().getUserId());
         assertNull(SessionStore.getInstance().getNom());
     }
-}
\ No newline at end of file
+
+    /**
+     * Prova que loginAsync emmagatzema la sessió quan el futur es completa.
+     */
+    @Test
+    void loginAsync_AmbCredencialsValides_EmmagatzemaSessio() {
+        LoginResponse respostaMock = new LoginResponse();
+        respostaMock.setAccessToken("tokenAsync");
+        respostaMock.setUserId(7L);
+
+        when(authApiMock.loginAsync(any(LoginRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(respostaMock));
+
+        LoginResponse resultat = authService.loginAsync("usuari", "pass").join();
+
+        assertSame(respostaMock, resultat);
+        assertEquals("tokenAsync", SessionStore.getInstance().getToken());
+        assertEquals(7L, SessionStore.getInstance().getUserId());
+    }
+}
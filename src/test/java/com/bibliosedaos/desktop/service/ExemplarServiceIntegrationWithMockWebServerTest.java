@@ -301,4 +301,26 @@ class ExemplarServiceIntegrationWithMockWebServerTest {
             // ignore si la implementació no exposa el codi
         }
     }
+
+    /**
+     * Prova que la instantania d'exemplars es revalida amb ETag: un 304 torna la llista desada.
+     */
+    @Test
+    void getAllExemplars_SegonaCrida_RevalidaAmbETag() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody("[{ \"id\": 1, \"lloc\": \"A1\" }]")
+                .addHeader("Content-Type", "application/json")
+                .addHeader("ETag", "\"exemplars-v1\""));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(304));
+
+        exemplarService.getAllExemplars();
+        List<Exemplar> segona = exemplarService.getAllExemplars();
+
+        assertEquals(1, segona.size());
+        assertEquals("A1", segona.get(0).getLloc());
+        mockWebServer.takeRequest();
+        RecordedRequest revalidacio = mockWebServer.takeRequest();
+        assertEquals("\"exemplars-v1\"", revalidacio.getHeader("If-None-Match"));
+    }
 }
@@ -2,14 +2,22 @@ package com.bibliosedaos.desktop.service;
 
 import com.bibliosedaos.desktop.api.ExemplarApi;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.MultiGet;
+import com.bibliosedaos.desktop.api.PrestecApi;
 import com.bibliosedaos.desktop.model.Exemplar;
+import com.bibliosedaos.desktop.model.Llibre;
+import com.bibliosedaos.desktop.model.Prestec;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,8 +34,14 @@ class ExemplarServiceTest {
     @Mock
     private ExemplarApi exemplarApi;
 
+    @Mock
+    private PrestecApi prestecApi;
+
     private ExemplarService exemplarService;
 
+    /** Estat dels exemplars al servidor, per a les consultes per ID. */
+    private final Map<Long, Exemplar> servidor = new HashMap<>();
+
     /**
      * Setup: crea el servei amb el mock.
      */
@@ -170,4 +184,150 @@ class ExemplarServiceTest {
         assertSame(expectedExemplar, actualExemplar);
         verify(exemplarApi).findExemplarById(exemplarId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Crea un exemplar d'un llibre.
+     */
+    private static Exemplar exemplar(long id, long llibreId) {
+        Llibre llibre = new Llibre();
+        llibre.setId(llibreId);
+        Exemplar ex = new Exemplar();
+        ex.setId(id);
+        ex.setLlibre(llibre);
+        return ex;
+    }
+
+    /**
+     * Respon les consultes d'exemplars per ID amb l'estat de {@link #servidor}.
+     */
+    @SuppressWarnings("unchecked")
+    private void stubFindByIds() throws ApiException {
+        when(exemplarApi.findExemplarsByIds(any())).thenAnswer(inv -> MultiGet.fetch(
+                (Collection<Long>) inv.getArgument(0),
+                id -> servidor.containsKey(id)
+                        ? CompletableFuture.completedFuture(servidor.get(id))
+                        : CompletableFuture.failedFuture(new ApiException("No trobat", 404))));
+    }
+
+    /**
+     * Test: getExemplarsForBook nomes descarrega tots els exemplars la primera vegada.
+     */
+    @Test
+    void getExemplarsForBook_SecondCall_ServedFromIndex() throws ApiException {
+        when(exemplarApi.getAllExemplars()).thenReturn(List.of(exemplar(1, 10), exemplar(2, 20), exemplar(3, 10)));
+        servidor.put(2L, exemplar(2, 20));
+        stubFindByIds();
+
+        List<Exemplar> primer = exemplarService.getExemplarsForBook(10L);
+        List<Exemplar> segon = exemplarService.getExemplarsForBook(20L);
+
+        assertEquals(List.of(1L, 3L), primer.stream().map(Exemplar::getId).toList());
+        assertEquals(2L, segon.get(0).getId());
+        assertTrue(exemplarService.getExemplarsForBook(99L).isEmpty());
+        verify(exemplarApi, times(1)).getAllExemplars();
+    }
+
+    /**
+     * Test: crear, moure i eliminar exemplars actualitza l'índex sense tornar a descarregar.
+     */
+    @Test
+    void getExemplarsForBook_AfterCreateUpdateDelete_IndexUpToDate() throws ApiException {
+        when(exemplarApi.getAllExemplars()).thenReturn(List.of(exemplar(1, 10)));
+        exemplarService.getExemplarsForBook(10L);
+
+        Exemplar nou = exemplar(0, 10);
+        Exemplar creat = new Exemplar();
+        creat.setId(2L);
+        when(exemplarApi.createExemplar(nou)).thenReturn(creat);
+        exemplarService.createExemplar(nou);
+
+        Exemplar mogut = exemplar(1, 20);
+        when(exemplarApi.updateExemplar(1L, mogut)).thenReturn(mogut);
+        exemplarService.updateExemplar(1L, mogut);
+
+        servidor.put(1L, exemplar(1, 20));
+        servidor.put(2L, creat);
+        stubFindByIds();
+
+        assertEquals(List.of(2L), exemplarService.getExemplarsForBook(10L).stream().map(Exemplar::getId).toList());
+        assertEquals(List.of(1L), exemplarService.getExemplarsForBook(20L).stream().map(Exemplar::getId).toList());
+
+        exemplarService.deleteExemplar(2L);
+
+        assertTrue(exemplarService.getExemplarsForBook(10L).isEmpty());
+        verify(exemplarApi, times(1)).getAllExemplars();
+    }
+
+    /**
+     * Test: clearCache fa que la propera consulta torni a carregar la instantania.
+     */
+    @Test
+    void getExemplarsForBook_AfterClearCache_ReloadsSnapshot() throws ApiException {
+        when(exemplarApi.getAllExemplars()).thenReturn(List.of(exemplar(1, 10)));
+        exemplarService.getExemplarsForBook(10L);
+
+        exemplarService.clearCache();
+        exemplarService.getExemplarsForBook(10L);
+
+        verify(exemplarApi, times(2)).getAllExemplars();
+    }
+
+    /**
+     * Test: un prestec creat pel servei canvia l'estat que es mostra per al llibre,
+     * encara que l'índex ja estigues carregat.
+     */
+    @Test
+    void getExemplarsForBook_AfterLoanCreated_ShowsCurrentStatus() throws ApiException {
+        Exemplar lliure = exemplar(1, 10);
+        lliure.setReservat("lliure");
+        when(exemplarApi.getAllExemplars()).thenReturn(List.of(lliure));
+        assertEquals("lliure", exemplarService.getExemplarsForBook(10L).get(0).getReservat());
+
+        Prestec prestec = new Prestec();
+        prestec.setExemplar(exemplar(1, 10));
+        when(prestecApi.createPrestec(prestec)).thenReturn(prestec);
+        new PrestecService(prestecApi).createPrestec(prestec);
+
+        Exemplar prestat = new Exemplar();
+        prestat.setId(1L);
+        prestat.setReservat("prestat");
+        servidor.put(1L, prestat);
+        stubFindByIds();
+
+        List<Exemplar> exemplars = exemplarService.getExemplarsForBook(10L);
+
+        assertEquals("prestat", exemplars.get(0).getReservat());
+        assertEquals(10L, exemplars.get(0).getLlibre().getId());
+        verify(exemplarApi, times(1)).getAllExemplars();
+    }
+
+    /**
+     * Test: un exemplar que el servidor ja no troba desapareix del llibre.
+     */
+    @Test
+    void getExemplarsForBook_WhenExemplarGone_RemovedFromIndex() throws ApiException {
+        when(exemplarApi.getAllExemplars()).thenReturn(List.of(exemplar(1, 10), exemplar(2, 10)));
+        exemplarService.getExemplarsForBook(10L);
+        servidor.put(2L, exemplar(2, 10));
+        stubFindByIds();
+
+        assertEquals(List.of(2L), exemplarService.getExemplarsForBook(10L).stream().map(Exemplar::getId).toList());
+        assertEquals(List.of(2L), exemplarService.getExemplarsForBook(10L).stream().map(Exemplar::getId).toList());
+    }
+
+    /**
+     * Test: la comprovacio abans d'eliminar un llibre no torna a descarregar tots els
+     * exemplars; nomes demana els del llibre per veure'n l'estat actual.
+     */
+    @Test
+    void getExemplarsForBook_DeleteCheck_NoFullDownload() throws ApiException {
+        when(exemplarApi.getAllExemplars()).thenReturn(List.of(exemplar(7, 10), exemplar(8, 20)));
+        exemplarService.getExemplarsForBook(20L);
+        servidor.put(7L, exemplar(7, 10));
+        stubFindByIds();
+
+        assertEquals(List.of(7L), exemplarService.getExemplarsForBook(10L).stream().map(Exemplar::getId).toList());
+        verify(exemplarApi, times(1)).getAllExemplars();
+        verify(exemplarApi).findExemplarsByIds(List.of(7L));
+    }
+}
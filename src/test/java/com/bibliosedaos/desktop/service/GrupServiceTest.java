@@ -2,6 +2,8 @@ package com.bibliosedaos.desktop.service;
 
 import com.bibliosedaos.desktop.api.ApiException;
 import com.bibliosedaos.desktop.api.GrupApi;
+import com.bibliosedaos.desktop.api.MultiGet;
+import com.bibliosedaos.desktop.api.UserApi;
 import com.bibliosedaos.desktop.model.Grup;
 import com.bibliosedaos.desktop.model.User;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +13,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -244,4 +247,64 @@ class GrupServiceTest {
         assertSame(expectedGrup, result);
         verify(grupApi).afegirUsuariGrup(grupId, userId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Crea un usuari amb ID i, opcionalment, nom.
+     */
+    private static User usuari(Long id, String nom) {
+        User u = new User();
+        u.setId(id);
+        u.setNom(nom);
+        return u;
+    }
+
+    /**
+     * Test: els membres que arriben nomes amb l'ID es completen d'un cop amb getUsersByIds,
+     * en el mateix ordre; el que no es troba es deixa tal com ha arribat.
+     */
+    @Test
+    void getMembres_MembresSenseDades_EsCompletenDUnCop(@Mock UserApi userApi) throws ApiException {
+        GrupService ambUsuaris = new GrupService(grupApi, userApi);
+        User anna = usuari(1L, "Anna");
+        User parcial2 = usuari(2L, null);
+        User parcial3 = usuari(3L, null);
+        when(grupApi.getMembresGrup(5L)).thenReturn(List.of(anna, parcial2, parcial3));
+        User complet2 = usuari(2L, "Pere");
+        when(userApi.getUsersByIds(List.of(2L, 3L))).thenReturn(MultiGet.fetch(List.of(2L, 3L), id -> id == 2L
+                ? CompletableFuture.completedFuture(complet2)
+                : CompletableFuture.failedFuture(new ApiException("No trobat", 404))));
+
+        List<User> membres = ambUsuaris.getMembres(5L);
+
+        assertEquals(List.of(anna, complet2, parcial3), membres);
+        verify(userApi).getUsersByIds(List.of(2L, 3L));
+        verify(userApi, never()).getUserById(any());
+    }
+
+    /**
+     * Test: la versio no bloquejant tambe completa els membres amb una sola consulta multiple.
+     */
+    @Test
+    void getMembresAsync_MembresSenseDades_EsCompleten(@Mock UserApi userApi) {
+        GrupService ambUsuaris = new GrupService(grupApi, userApi);
+        when(grupApi.getMembresGrupAsync(5L)).thenReturn(CompletableFuture.completedFuture(List.of(usuari(2L, null))));
+        User complet = usuari(2L, "Pere");
+        when(userApi.getUsersByIdsAsync(List.of(2L))).thenReturn(
+                MultiGet.fetchAsync(List.of(2L), id -> CompletableFuture.completedFuture(complet)));
+
+        assertEquals(List.of(complet), ambUsuaris.getMembresAsync(5L).join());
+    }
+
+    /**
+     * Test: si tots els membres ja porten dades, no es consulta cap usuari.
+     */
+    @Test
+    void getMembres_MembresComplets_NoConsultaUsuaris(@Mock UserApi userApi) throws ApiException {
+        GrupService ambUsuaris = new GrupService(grupApi, userApi);
+        List<User> complets = List.of(usuari(1L, "Anna"));
+        when(grupApi.getMembresGrup(5L)).thenReturn(complets);
+
+        assertSame(complets, ambUsuaris.getMembres(5L));
+        verifyNoInteractions(userApi);
+    }
+}
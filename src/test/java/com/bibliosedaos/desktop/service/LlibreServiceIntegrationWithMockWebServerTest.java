@@ -1,8 +1,10 @@
 package com.bibliosedaos.desktop.service;
 
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.api.MultiGet;
 import com.bibliosedaos.desktop.api.http.HttpLlibreApi;
 import com.bibliosedaos.desktop.model.Llibre;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -10,7 +12,11 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -234,4 +240,71 @@ class LlibreServiceIntegrationWithMockWebServerTest {
             // ignore si la implementació no exposa el codi
         }
     }
+
+    /**
+     * Prova que la versio asincrona de getAllBooks fa la mateixa crida i retorna la llista.
+     */
+    @Test
+    void getAllBooksAsync_Resposta200_CompletaAmbLlista() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody("[{ \"id\": 1, \"titol\": \"Un llibre\" }]")
+                .addHeader("Content-Type", "application/json"));
+
+        List<Llibre> list = llibreService.getAllBooksAsync().get(5, TimeUnit.SECONDS);
+        assertEquals(1, list.size());
+        assertEquals("Un llibre", list.get(0).getTitol());
+
+        RecordedRequest req = mockWebServer.takeRequest();
+        assertEquals("/biblioteca/llibres/llistarLlibres", normalizePath(req.getPath()));
+        assertEquals("GET", req.getMethod());
+    }
+
+    /**
+     * Prova que un error del servidor completa el futur amb una ApiException que conserva el codi.
+     */
+    @Test
+    void getBookByIdAsync_Resposta404_CompletaAmbApiException() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+
+        CompletableFuture<Llibre> future = llibreService.getBookByIdAsync(999L);
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        ApiException cause = assertInstanceOf(ApiException.class, ex.getCause());
+        assertEquals(404, cause.getStatusCode());
+    }
+
+    /**
+     * Prova que getBooksByIds fa les consultes en paral·lel, en conserva l'ordre i
+     * informa dels ID que no es troben.
+     */
+    @Test
+    void getBooksByIds_ConsultesEnParallel_RetornaEnOrdreIErrors() throws Exception {
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String id = normalizePath(request.getPath()).replaceFirst(".*/", "");
+                if ("7".equals(id)) return new MockResponse().setResponseCode(404);
+                return new MockResponse()
+                        .setBody("{ \"id\": " + id + ", \"titol\": \"Llibre " + id + "\" }")
+                        .addHeader("Content-Type", "application/json")
+                        .setHeadersDelay(100, TimeUnit.MILLISECONDS);
+            }
+        });
+        List<Long> ids = new ArrayList<>();
+        for (long i = 40; i >= 1; i--) ids.add(i);
+        ids.add(40L);
+
+        long inici = System.nanoTime();
+        MultiGet.Result<Llibre> r = llibreService.getBooksByIds(ids);
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inici);
+
+        assertEquals(39, r.getValues().size());
+        assertEquals(40L, r.getValues().get(0).getId());
+        assertEquals("Llibre 1", r.getValues().get(38).getTitol());
+        assertEquals(404, r.getFailures().get(7L).getStatusCode());
+        assertEquals(40, mockWebServer.getRequestCount());
+        // 40 consultes de 100 ms una rere l'altra serien 4 s
+        assertTrue(ms < 2_500, "ha trigat " + ms + " ms");
+    }
 }
@@ -0,0 +1,75 @@
+package com.bibliosedaos.desktop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves de la taula de dispersió amb claus long.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class LongIndexTest {
+
+    /**
+     * Prova que desar, substituir i llegir funcionen també amb claus 0 i negatives.
+     */
+    @Test
+    void put_ClausEspecials_EsLlegeixen() {
+        LongIndex<String> index = new LongIndex<>();
+
+        assertNull(index.put(0L, "zero"));
+        assertNull(index.put(-1L, "menys u"));
+        assertEquals("zero", index.put(0L, "zero bis"));
+
+        assertEquals("zero bis", index.get(0L));
+        assertEquals("menys u", index.get(-1L));
+        assertNull(index.get(1L));
+        assertEquals(2, index.size());
+    }
+
+    /**
+     * Prova que, amb moltes insercions i esborrats, l'índex es comporta com un HashMap.
+     */
+    @Test
+    void operacions_Aleatories_IgualQueHashMap() {
+        LongIndex<Long> index = new LongIndex<>();
+        Map<Long, Long> referencia = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(2_000) * 16L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(referencia.remove(key), index.remove(key));
+            } else {
+                assertEquals(referencia.put(key, (long) i), index.put(key, (long) i));
+            }
+        }
+
+        assertEquals(referencia.size(), index.size());
+        referencia.forEach((k, v) -> assertEquals(v, index.get(k)));
+        Map<Long, Long> recorregut = new HashMap<>();
+        index.forEach(recorregut::put);
+        assertEquals(referencia, recorregut);
+    }
+
+    /**
+     * Prova que clear buida l'índex.
+     */
+    @Test
+    void clear_BuidaLIndex() {
+        LongIndex<String> index = new LongIndex<>();
+        for (long i = 0; i < 100; i++) index.put(i, "v" + i);
+
+        index.clear();
+
+        assertEquals(0, index.size());
+        assertNull(index.get(5L));
+    }
+}
@@ -2,7 +2,12 @@ package com.bibliosedaos.desktop.service;
 
 import com.bibliosedaos.desktop.api.PrestecApi;
 import com.bibliosedaos.desktop.api.ApiException;
+import com.bibliosedaos.desktop.model.Exemplar;
+import com.bibliosedaos.desktop.model.Llibre;
 import com.bibliosedaos.desktop.model.Prestec;
+import com.bibliosedaos.desktop.model.User;
+import com.bibliosedaos.desktop.security.SessionStore;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -36,6 +41,14 @@ class PrestecServiceTest {
         prestecService = new PrestecService(prestecApi);
     }
 
+    /**
+     * Neteja la sessio que hagin deixat els tests.
+     */
+    @AfterEach
+    void tearDown() {
+        SessionStore.getInstance().clear();
+    }
+
     /**
      * Test: constructor ha de llençar NullPointerException si prestecApi es null.
      */
@@ -217,4 +230,125 @@ class PrestecServiceTest {
         assertSame(expectedPrestec, actualPrestec);
         verify(prestecApi).getPrestecById(prestecId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Crea un prestec amb usuari i exemplar.
+     */
+    private static Prestec prestec(Long id, Long usuariId, boolean complet) {
+        Prestec p = new Prestec();
+        p.setId(id);
+        User usuari = new User();
+        usuari.setId(usuariId);
+        Exemplar exemplar = new Exemplar();
+        exemplar.setId(10L);
+        if (complet) {
+            usuari.setNom("Anna");
+            exemplar.setLlibre(new Llibre());
+        }
+        p.setUsuari(usuari);
+        p.setExemplar(exemplar);
+        return p;
+    }
+
+    /**
+     * Test: despres de llistar, getPrestecById es resol des del magatzem sense anar al servidor.
+     */
+    @Test
+    void getPrestecById_AfterListing_ServedFromStore() throws ApiException {
+        Prestec p = prestec(5L, 1L, true);
+        when(prestecApi.getAllPrestecs(null)).thenReturn(List.of(prestec(4L, 1L, true), p));
+
+        prestecService.getAllPrestecs(null);
+
+        assertSame(p, prestecService.getPrestecById(5L));
+        assertSame(p, prestecService.getPrestecByIdAsync(5L).join());
+        verify(prestecApi, never()).getPrestecById(anyLong());
+        verify(prestecApi, never()).getPrestecByIdAsync(anyLong());
+    }
+
+    /**
+     * Test: un prestec acabat de crear es busca nomes entre els prestecs actius del seu usuari.
+     */
+    @Test
+    void getPrestecById_AfterCreate_LooksUpActiveLoansOfUser() throws ApiException {
+        Prestec peticio = prestec(null, 7L, false);
+        when(prestecApi.createPrestec(peticio)).thenReturn(prestec(42L, 7L, false));
+        Prestec complet = prestec(42L, 7L, true);
+        when(prestecApi.getPrestecsActius(7L)).thenReturn(List.of(complet));
+
+        Prestec creat = prestecService.createPrestec(peticio);
+
+        assertSame(complet, prestecService.getPrestecById(creat.getId()));
+        verify(prestecApi, never()).getPrestecById(anyLong());
+        verify(prestecApi, never()).getAllPrestecs(any());
+    }
+
+    /**
+     * Test: si la resposta de crear ja porta totes les dades, no cal cap crida mes.
+     */
+    @Test
+    void getPrestecById_CompleteCreateResponse_NoFurtherCalls() throws ApiException {
+        Prestec peticio = prestec(null, 7L, false);
+        Prestec creat = prestec(43L, 7L, true);
+        when(prestecApi.createPrestec(peticio)).thenReturn(creat);
+
+        prestecService.createPrestec(peticio);
+
+        assertSame(creat, prestecService.getPrestecById(43L));
+        verify(prestecApi).createPrestec(peticio);
+        verifyNoMoreInteractions(prestecApi);
+    }
+
+    /**
+     * Test: retornarPrestec marca com a retornat el prestec del magatzem.
+     */
+    @Test
+    void retornarPrestec_WhenCached_SetsReturnDate() throws ApiException {
+        Prestec p = prestec(8L, 1L, true);
+        when(prestecApi.getPrestecsActius(1L)).thenReturn(List.of(p));
+        prestecService.getPrestecsActius(1L);
+
+        prestecService.retornarPrestec(8L);
+
+        assertNotNull(prestecService.getCachedPrestec(8L).getDataDevolucio());
+    }
+
+    /**
+     * Test: retornar un prestec no modifica l'objecte que va retornar el servidor,
+     * que pot ser compartit amb la cache HTTP.
+     */
+    @Test
+    void retornarPrestec_NoModificaLObjecteCompartit() throws ApiException {
+        Prestec p = prestec(9L, 1L, true);
+        when(prestecApi.getPrestecsActius(1L)).thenReturn(List.of(p));
+        prestecService.getPrestecsActius(1L);
+
+        prestecService.retornarPrestec(9L);
+
+        assertNull(p.getDataDevolucio());
+        Prestec desat = prestecService.getCachedPrestec(9L);
+        assertNotSame(p, desat);
+        assertNotNull(desat.getDataDevolucio());
+        assertSame(p.getExemplar(), desat.getExemplar());
+    }
+
+    /**
+     * Test: el magatzem no sobreviu al logout; la sessio seguent torna a preguntar al servidor.
+     */
+    @Test
+    void getPrestecById_DespresDelLogout_NoUsaElMagatzem() throws ApiException {
+        SessionStore.getInstance().setToken("token-a");
+        Prestec p = prestec(5L, 1L, true);
+        when(prestecApi.getAllPrestecs(null)).thenReturn(List.of(p));
+        prestecService.getAllPrestecs(null);
+        assertSame(p, prestecService.getCachedPrestec(5L));
+
+        SessionStore.getInstance().clear();
+        SessionStore.getInstance().setToken("token-b");
+
+        assertNull(prestecService.getCachedPrestec(5L));
+        Prestec nou = prestec(5L, 1L, true);
+        when(prestecApi.getPrestecById(5L)).thenReturn(nou);
+        assertSame(nou, prestecService.getPrestecById(5L));
+    }
+}
@@ -0,0 +1,185 @@
+package com.bibliosedaos.desktop.ui.util;
+
+import com.bibliosedaos.desktop.api.ApiClient;
+import com.bibliosedaos.desktop.api.TaskPriority;
+import com.bibliosedaos.desktop.api.TaskScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves del filtre de cerca en segon pla de les llistes.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class ListFilterTest {
+
+    private static final List<TextIndexTest.Fila> FILES = List.of(
+            new TextIndexTest.Fila("El Quixot", "Cervantes"),
+            new TextIndexTest.Fila("Tirant lo Blanc", "Joanot Martorell"),
+            new TextIndexTest.Fila("Mirall trencat", "Mercè Rodoreda"),
+            new TextIndexTest.Fila("Solitud", "Víctor Català"));
+
+    private ExecutorService worker;
+    private final List<List<TextIndexTest.Fila>> resultats = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch lliurat = new CountDownLatch(1);
+    private ListFilter<TextIndexTest.Fila> filtre;
+
+    @BeforeEach
+    void setUp() {
+        worker = Executors.newSingleThreadExecutor();
+        filtre = new ListFilter<>(TextIndexTest.camps(), r -> {
+            resultats.add(r);
+            lliurat.countDown();
+        }, worker, Runnable::run, 50);
+        filtre.setItems(FILES);
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdownNow();
+    }
+
+    private List<TextIndexTest.Fila> espera() throws InterruptedException {
+        assertTrue(lliurat.await(2, TimeUnit.SECONDS), "no s'ha lliurat cap resultat");
+        lliurat = new CountDownLatch(1);
+        return resultats.get(resultats.size() - 1);
+    }
+
+    /**
+     * Prova que, escrivint de pressa, nomes es lliura el resultat de la darrera consulta.
+     */
+    @Test
+    void search_EscripturaRapida_NomesLaDarrera() throws Exception {
+        for (String q : List.of("m", "ma", "mar", "mart")) filtre.search(null, q);
+
+        assertEquals(List.of(FILES.get(1)), espera());
+        Thread.sleep(150);
+        assertEquals(1, resultats.size());
+    }
+
+    /**
+     * Prova que una consulta que allarga l'anterior es resol a partir del seu resultat.
+     */
+    @Test
+    void search_ConsultaAllargada_RefinaElResultatAnterior() throws Exception {
+        filtre.searchNow(null, "r");
+        assertEquals(4, espera().size());
+
+        filtre.searchNow(null, "ro");
+        assertEquals(List.of(FILES.get(2)), espera());
+        filtre.searchNow(null, "rod");
+        assertEquals(List.of(FILES.get(2)), espera());
+        assertEquals(2, filtre.getNarrowed());
+
+        filtre.searchNow("Autor", "rod");
+        assertEquals(List.of(FILES.get(2)), espera());
+        filtre.searchNow(null, "solit");
+        assertEquals(List.of(FILES.get(3)), espera());
+        assertEquals(2, filtre.getNarrowed());
+    }
+
+    /**
+     * Prova que el resultat d'una llista substituida abans d'acabar la cerca es descarta.
+     */
+    @Test
+    void setItems_LlistaNova_DescartaElResultatAntic() throws Exception {
+        filtre.search(null, "quixot");
+        List<TextIndexTest.Fila> noves = new ArrayList<>(FILES);
+        noves.add(null);
+        noves.add(new TextIndexTest.Fila("Quixot II", null));
+        filtre.setItems(noves);
+
+        Thread.sleep(150);
+        assertTrue(resultats.isEmpty());
+
+        filtre.searchNow(null, "QUIXOT");
+        assertEquals(List.of(FILES.get(0), noves.get(5)), espera());
+        filtre.searchNow(null, " ");
+        assertEquals(5, espera().size());
+    }
+
+    /**
+     * Prova que la cerca programada s'envia amb l'ambit de la vista que l'ha programada,
+     * encara que la llanci el fil del temporitzador.
+     */
+    @Test
+    void search_Programada_PortaLAmbitDeLaVista() throws Exception {
+        AtomicReference<TaskScope> enviada = new AtomicReference<>();
+        ListFilter<TextIndexTest.Fila> ambAmbit = new ListFilter<>(TextIndexTest.camps(), r -> {
+            resultats.add(r);
+            lliurat.countDown();
+        }, task -> {
+            enviada.set(TaskScope.current());
+            worker.execute(task);
+        }, Runnable::run, 50);
+        ambAmbit.setItems(FILES);
+        AtomicReference<TaskScope> vista = new AtomicReference<>();
+        Thread fx = new Thread(() -> {
+            vista.set(TaskScope.enter("vista"));
+            ambAmbit.search(null, "rodo");
+        });
+        fx.start();
+        fx.join();
+
+        assertEquals(List.of(FILES.get(2)), espera());
+        assertSame(vista.get(), enviada.get());
+    }
+
+    /**
+     * Prova que, si es tanca la vista durant la pausa, la cerca no s'arriba a fer.
+     */
+    @Test
+    void search_VistaTancadaDurantLaPausa_NoEsFa() throws Exception {
+        ListFilter<TextIndexTest.Fila> real = new ListFilter<>(TextIndexTest.camps(), r -> {
+            resultats.add(r);
+            lliurat.countDown();
+        }, task -> ApiClient.BG_EXEC.submit(TaskPriority.INTERACTIVE, task), Runnable::run, 100);
+        real.setItems(FILES);
+        AtomicReference<TaskScope> vista = new AtomicReference<>();
+        Thread fx = new Thread(() -> {
+            vista.set(TaskScope.enter("vista"));
+            real.search(null, "rodo");
+        });
+        fx.start();
+        fx.join();
+
+        vista.get().cancel();
+
+        assertFalse(lliurat.await(400, TimeUnit.MILLISECONDS), "la cerca d'una vista tancada no s'ha de lliurar");
+    }
+
+    /**
+     * Prova que una cerca rebutjada per la cua plena es fa igualment.
+     */
+    @Test
+    void search_CuaPlena_EsFaAlMateixFil() throws Exception {
+        ListFilter<TextIndexTest.Fila> ple = new ListFilter<>(TextIndexTest.camps(), r -> {
+            resultats.add(r);
+            lliurat.countDown();
+        }, task -> {
+            throw new RejectedExecutionException("cua plena");
+        }, Runnable::run, 50);
+        ple.setItems(FILES);
+
+        ple.search(null, "tirant");
+        assertEquals(List.of(FILES.get(1)), espera());
+
+        ple.searchNow(null, "solitud");
+        assertEquals(List.of(FILES.get(3)), espera());
+    }
+}
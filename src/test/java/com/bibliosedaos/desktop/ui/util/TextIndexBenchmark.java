@@ -0,0 +1,147 @@
+package com.bibliosedaos.desktop.ui.util;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Microbenchmark de la cerca de les llistes: recorregut amb toLowerCase per fila (com feien
+ * els controladors) contra {@link TextIndex}, que desa les claus de cerca (minuscules i sense
+ * accents) un cop per carrega. Per a cada cas mostra el temps i els bytes assignats per consulta.
+ * Despres simula l'escriptura d'una consulta lletra a lletra: el temps que cada tecla ocupa el
+ * fil que la rep (el de JavaFX) amb {@link ListFilter}, i el cost de resoldre cada prefix al
+ * fil de treball, de zero o refinant el resultat anterior.
+ *
+ * No s'executa amb els tests (no acaba en Test). S'executa a ma sobre el classpath de test:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.bibliosedaos.desktop.ui.util.TextIndexBenchmark -Dexec.args="50000"
+ * </pre>
+ * Argument: files de la llista (per defecte 50000).
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+public final class TextIndexBenchmark {
+
+    private static final String LLETRES = "abcdeABCDE àéíòúçÀÉ";
+
+    private static final MBeanServer MBEANS = ManagementFactory.getPlatformMBeanServer();
+
+    private static volatile Object sink;
+
+    private TextIndexBenchmark() {
+    }
+
+    /**
+     * Punt d'entrada.
+     *
+     * @param args files de la llista
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        Random random = new Random(1);
+        List<TextIndexTest.Fila> files = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            files.add(new TextIndexTest.Fila(paraula(random, 40), paraula(random, 20)));
+        }
+        String[] consultes = {"abc", "Dea", "ab cd", "eeabd", "à", "cé"};
+
+        long start = System.nanoTime();
+        TextIndex<TextIndexTest.Fila> index = new TextIndex<>(files, TextIndexTest.camps());
+        System.out.printf(Locale.ROOT, "%d files, index construit en %.1f ms%n", rows, (System.nanoTime() - start) / 1e6);
+
+        for (int round = 0; round < 2; round++) {
+            measure("recorregut", consultes.length, () -> {
+                for (String q : consultes) {
+                    String lq = q.toLowerCase(Locale.ROOT);
+                    sink = files.stream().filter(f -> conte(f.titol(), lq) || conte(f.autor(), lq)).toList();
+                }
+            });
+            measure("index", consultes.length, () -> {
+                for (String q : consultes) sink = index.search(null, q);
+            });
+        }
+        // lletres frequents (resultats grans) i poc frequents (el resultat es redueix de pressa)
+        typing(files, "abcdea");
+        typing(files, "çàéça");
+    }
+
+    private static void typing(List<TextIndexTest.Fila> files, String text) {
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        try {
+            ListFilter<TextIndexTest.Fila> filter = new ListFilter<>(TextIndexTest.camps(), r -> sink = r,
+                    worker, Runnable::run, ListFilter.DEBOUNCE_MS);
+            filter.setItems(files);
+            worker.submit(() -> { }).get();
+            TextIndex<TextIndexTest.Fila> index = new TextIndex<>(files, TextIndexTest.camps());
+
+            for (int round = 0; round < 2; round++) {
+                long fx = 0;
+                for (int i = 1; i <= text.length(); i++) {
+                    long t = System.nanoTime();
+                    filter.search(null, text.substring(0, i));
+                    fx = Math.max(fx, System.nanoTime() - t);
+                }
+
+                long start = System.nanoTime();
+                for (int i = 1; i <= text.length(); i++) sink = index.rows(null, text.substring(0, i), null);
+                double fresh = (System.nanoTime() - start) / 1e6 / text.length();
+
+                start = System.nanoTime();
+                int[] rows = null;
+                for (int i = 1; i <= text.length(); i++) rows = index.rows(null, text.substring(0, i), rows);
+                double narrowed = (System.nanoTime() - start) / 1e6 / text.length();
+
+                System.out.printf(Locale.ROOT, "tecles \"%s\": fil de la UI max %.3f ms; per prefix %.3f ms de zero, %.3f ms refinant%n",
+                        text, fx / 1e6, fresh, narrowed);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            worker.shutdownNow();
+        }
+    }
+
+    private static boolean conte(String valor, String q) {
+        return valor != null && valor.toLowerCase(Locale.ROOT).contains(q);
+    }
+
+    private static String paraula(Random random, int max) {
+        StringBuilder sb = new StringBuilder();
+        int n = 1 + random.nextInt(max);
+        for (int i = 0; i < n; i++) sb.append(LLETRES.charAt(random.nextInt(LLETRES.length())));
+        return sb.toString();
+    }
+
+    /** Bytes assignats pel fil actual (atribut de la JVM, sense dependre de com.sun.management). */
+    private static long allocatedBytes() {
+        try {
+            return (Long) MBEANS.getAttribute(new ObjectName(ManagementFactory.THREAD_MXBEAN_NAME),
+                    "CurrentThreadAllocatedBytes");
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Mitjana de 20 execucions: ms i KB assignats per consulta. */
+    private static void measure(String name, int queries, Runnable op) {
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) op.run();
+        double ms = (System.nanoTime() - start) / 1e6 / 20 / queries;
+        double kb = (allocatedBytes() - bytes) / 1024.0 / 20 / queries;
+        System.out.printf(Locale.ROOT, "%-10s %8.3f ms/consulta %10.1f KB/consulta%n", name, ms, kb);
+    }
+}
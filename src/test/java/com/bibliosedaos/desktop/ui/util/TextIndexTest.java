@@ -0,0 +1,154 @@
+package com.bibliosedaos.desktop.ui.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves de l'index de text de les llistes.
+ *
+ * @author Sergio
+ * @version 1.0-SNAPSHOT
+ * @since 2025
+ */
+class TextIndexTest {
+
+    /** Fila de prova amb dos camps. */
+    record Fila(String titol, String autor) {
+    }
+
+    static Map<String, Function<? super Fila, String>> camps() {
+        Map<String, Function<? super Fila, String>> camps = new LinkedHashMap<>();
+        camps.put("Títol", Fila::titol);
+        camps.put("Autor", Fila::autor);
+        return camps;
+    }
+
+    private static final List<Fila> FILES = List.of(
+            new Fila("El Quixot", "Cervantes"),
+            new Fila("Tirant lo Blanc", "Joanot Martorell"),
+            new Fila("Mirall trencat", "Mercè Rodoreda"),
+            new Fila(null, "Anònim"));
+
+    /**
+     * Prova que la cerca per camp no distingeix majuscules i respecta l'ordre original.
+     */
+    @Test
+    void search_PerCamp_SenseMajuscules() {
+        TextIndex<Fila> index = new TextIndex<>(FILES, camps());
+
+        assertEquals(List.of(FILES.get(0)), index.search("Títol", "QUIX"));
+        assertEquals(List.of(FILES.get(1), FILES.get(2)), index.search("Autor", "or"));
+        assertEquals(List.of(FILES.get(1)), index.search("Títol", "t lo b"));
+        assertTrue(index.search("Títol", "cervantes").isEmpty());
+    }
+
+    /**
+     * Prova que la cerca a tots els camps troba qualsevol camp pero no a cavall de dos.
+     */
+    @Test
+    void search_Tots_NoCoincideixEntreCamps() {
+        TextIndex<Fila> index = new TextIndex<>(FILES, camps());
+
+        assertEquals(List.of(FILES.get(0)), index.search(null, "cervantes"));
+        assertEquals(List.of(FILES.get(2)), index.search("Desconegut", "rodo"));
+        assertTrue(index.search(null, "quixotcer").isEmpty());
+        assertTrue(index.search(null, "xotcer").isEmpty());
+    }
+
+    /**
+     * Prova que la normalitzacio treu accents i majuscules, i que no copia el text que ja esta net.
+     */
+    @Test
+    void normalize_TreuAccentsIMajuscules() {
+        assertEquals("marti lleo titol", TextIndex.normalize("Martí LLEÓ Títol"));
+        assertEquals("garcia nunez ca", TextIndex.normalize("García Núñez Ça"));
+        assertEquals("istanbul", TextIndex.normalize("İstanbul"));
+        String net = "978-84-376-0494-7";
+        assertSame(net, TextIndex.normalize(net));
+    }
+
+    /**
+     * Prova que la cerca troba els valors amb accents amb i sense escriure'ls.
+     */
+    @Test
+    void search_Accents_CoincideixenAmbISenseAccents() {
+        List<Fila> files = List.of(new Fila("Cançó", "Martí Lleó"), new Fila("Canco", "Marta"));
+        TextIndex<Fila> index = new TextIndex<>(files, camps());
+
+        assertEquals(List.of(files.get(0)), index.search("Autor", "marti"));
+        assertEquals(List.of(files.get(0)), index.search(null, "LLEO"));
+        assertEquals(files, index.search("Títol", "canço"));
+        assertEquals(List.of(files.get(0)), index.search(null, "rtí"));
+    }
+
+    /**
+     * Prova que una consulta buida retorna tots els elements.
+     */
+    @Test
+    void search_ConsultaBuida_TornaTot() {
+        TextIndex<Fila> index = new TextIndex<>(FILES, camps());
+
+        assertEquals(FILES, index.search(null, "  "));
+        assertEquals(FILES, index.search("Autor", null));
+        assertEquals(4, index.size());
+    }
+
+    /**
+     * Prova que els valors units amb join es cerquen per separat.
+     */
+    @Test
+    void join_ValorsSeparats() {
+        List<Fila> files = List.of(new Fila(TextIndex.join("Puig", "Ferrer"), null));
+        TextIndex<Fila> index = new TextIndex<>(files, camps());
+
+        assertEquals(1, index.search("Títol", "ferrer").size());
+        assertTrue(index.search("Títol", "puigferrer").isEmpty());
+    }
+
+    /**
+     * Prova que, amb dades i consultes aleatories, el resultat es el mateix que recorrent la llista.
+     */
+    @Test
+    void search_Aleatori_IgualQueRecorregut() {
+        Random random = new Random(7);
+        List<Fila> files = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) files.add(new Fila(paraula(random, 12), paraula(random, 8)));
+        TextIndex<Fila> index = new TextIndex<>(files, camps());
+
+        for (int i = 0; i < 500; i++) {
+            Fila font = files.get(random.nextInt(files.size()));
+            String text = random.nextBoolean() ? font.titol() : font.autor();
+            int from = random.nextInt(text.length());
+            // les consultes es retallen, com fa el camp de cerca
+            String q = text.substring(from, Math.min(text.length(), from + 1 + random.nextInt(5))).trim();
+            if (q.isEmpty()) continue;
+            String camp = random.nextBoolean() ? "Títol" : null;
+
+            List<Fila> esperat = files.stream()
+                    .filter(f -> conte(f.titol(), q) || (camp == null && conte(f.autor(), q)))
+                    .toList();
+            assertEquals(esperat, index.search(camp, q), "consulta " + q);
+        }
+    }
+
+    private static boolean conte(String valor, String q) {
+        return valor != null && valor.toLowerCase(Locale.ROOT).contains(q.toLowerCase(Locale.ROOT));
+    }
+
+    static String paraula(Random random, int max) {
+        String lletres = "abcdeABCDE ";
+        StringBuilder sb = new StringBuilder();
+        int n = 1 + random.nextInt(max);
+        for (int i = 0; i < n; i++) sb.append(lletres.charAt(random.nextInt(lletres.length())));
+        return sb.toString();
+    }
+}